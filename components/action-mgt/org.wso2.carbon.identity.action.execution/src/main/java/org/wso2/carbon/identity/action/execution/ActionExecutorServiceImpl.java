@@ -21,9 +21,11 @@ package org.wso2.carbon.identity.action.execution;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.HttpPost;
 import org.wso2.carbon.identity.action.execution.exception.ActionExecutionException;
 import org.wso2.carbon.identity.action.execution.exception.ActionExecutionRequestBuilderException;
 import org.wso2.carbon.identity.action.execution.exception.ActionExecutionResponseProcessorException;
@@ -38,6 +40,7 @@ import org.wso2.carbon.identity.action.execution.model.ActionType;
 import org.wso2.carbon.identity.action.execution.model.AllowedOperation;
 import org.wso2.carbon.identity.action.execution.model.PerformableOperation;
 import org.wso2.carbon.identity.action.execution.util.APIClient;
+import org.wso2.carbon.identity.action.execution.util.ActionExecutorConfig;
 import org.wso2.carbon.identity.action.execution.util.AuthMethods;
 import org.wso2.carbon.identity.action.execution.util.OperationComparator;
 import org.wso2.carbon.identity.action.management.exception.ActionMgtException;
@@ -47,11 +50,19 @@ import org.wso2.carbon.identity.action.management.model.AuthType;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -63,12 +74,24 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
 
     private static final Log LOG = LogFactory.getLog(ActionExecutorServiceImpl.class);
 
+    private static final ObjectWriter REQUEST_WRITER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_EMPTY).writer();
+    private static final ObjectWriter RESPONSE_WRITER = new ObjectMapper().writer();
+
     private static final ActionExecutorServiceImpl INSTANCE = new ActionExecutorServiceImpl();
     private final APIClient apiClient;
+    private final Map<ActionType, ExecutorService> executors = new EnumMap<>(ActionType.class);
+    private final Map<ActionType, Long> executionTimeouts = new EnumMap<>(ActionType.class);
 
     private ActionExecutorServiceImpl() {
 
-        apiClient = new APIClient();
+        ActionExecutorConfig config = ActionExecutorConfig.getInstance();
+        apiClient = new APIClient(config);
+        for (ActionType actionType : ActionType.values()) {
+            executors.put(actionType, createExecutor(actionType, config.getExecutionPoolSize(actionType),
+                    config.getExecutionQueueSize(actionType)));
+            executionTimeouts.put(actionType, config.getExecutionTimeout(actionType));
+        }
     }
 
     public static ActionExecutorServiceImpl getInstance() {
@@ -99,7 +122,7 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
             Action action = actions.get(0); // As of now only one action is allowed.
             return Optional.ofNullable(action)
                     .filter(activeAction -> activeAction.getStatus() == Action.Status.ACTIVE)
-                    .map(activeAction -> executeAction(activeAction, actionRequest, eventContext,
+                    .map(activeAction -> executeAction(actionType, activeAction, actionRequest, eventContext,
                             actionExecutionResponseProcessor))
                     .orElse(new ActionExecutionStatus(ActionExecutionStatus.Status.FAILED, eventContext));
         } catch (ActionExecutionRuntimeException e) {
@@ -110,6 +133,17 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
         }
     }
 
+    /**
+     * Shut down the action executors and release the connections of the http client.
+     */
+    public void shutdown() {
+
+        for (ExecutorService executor : executors.values()) {
+            executor.shutdownNow();
+        }
+        apiClient.close();
+    }
+
     private List<Action> getActionsByActionType(ActionType actionType, String tenantDomain) throws
             ActionExecutionRuntimeException {
 
@@ -161,7 +195,8 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
         return responseProcessor;
     }
 
-    private ActionExecutionStatus executeAction(Action action,
+    private ActionExecutionStatus executeAction(ActionType actionType,
+                                                Action action,
                                                 ActionExecutionRequest actionRequest,
                                                 Map<String, Object> eventContext,
                                                 ActionExecutionResponseProcessor actionExecutionResponseProcessor)
@@ -177,7 +212,7 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
             logActionRequest(action, payload);
 
             ActionInvocationResponse actionInvocationResponse =
-                    executeActionAsynchronously(action, authenticationMethod, payload);
+                    executeActionAsynchronously(actionType, action, authenticationMethod, payload);
             return processActionResponse(action, actionInvocationResponse, eventContext, actionRequest,
                     actionExecutionResponseProcessor);
         } catch (ActionMgtException | JsonProcessingException | ActionExecutionResponseProcessorException e) {
@@ -185,21 +220,51 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
         }
     }
 
-    private ActionInvocationResponse executeActionAsynchronously(Action action,
+    private ActionInvocationResponse executeActionAsynchronously(ActionType actionType, Action action,
                                                                  AuthMethods.AuthMethod authenticationMethod,
                                                                  String payload) {
 
-        String apiEndpoint = action.getEndpoint().getUri();
-        CompletableFuture<ActionInvocationResponse> actionExecutor = CompletableFuture.supplyAsync(
-                () -> apiClient.callAPI(apiEndpoint, authenticationMethod, payload));
+        HttpPost request = apiClient.buildRequest(action.getEndpoint().getUri(), authenticationMethod, payload);
+        Future<ActionInvocationResponse> actionExecutor;
         try {
-            return actionExecutor.get();
-        } catch (InterruptedException | ExecutionException e) {
+            actionExecutor = executors.get(actionType).submit(() -> apiClient.callAPI(request));
+        } catch (RejectedExecutionException e) {
+            throw new ActionExecutionRuntimeException("Too many concurrent executions for action type: " +
+                    actionType + ". Skipped executing action: " + action.getId(), e);
+        }
+        try {
+            return actionExecutor.get(executionTimeouts.get(actionType), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Interrupting the worker does not unblock a socket read, so the request is aborted as well to free the
+            // worker and its connection.
+            actionExecutor.cancel(true);
+            request.abort();
+            throw new ActionExecutionRuntimeException("Timed out while executing action: " + action.getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ActionExecutionRuntimeException("Error occurred while executing action: " + action.getId(),
+                    e);
+        } catch (ExecutionException e) {
             throw new ActionExecutionRuntimeException("Error occurred while executing action: " + action.getId(),
                     e);
         }
     }
 
+    private static ExecutorService createExecutor(ActionType actionType, int poolSize, int queueSize) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ActionExecutor-" + actionType.name() + "-" +
+                            threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     private void logActionRequest(Action action, String payload) {
 
         //todo: Add to diagnostics
@@ -325,22 +390,17 @@ public class ActionExecutorServiceImpl implements ActionExecutorService {
 
     private String serializeRequest(ActionExecutionRequest request) throws JsonProcessingException {
 
-        ObjectMapper requestObjectmapper = new ObjectMapper();
-        requestObjectmapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        requestObjectmapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
-        return requestObjectmapper.writeValueAsString(request);
+        return REQUEST_WRITER.writeValueAsString(request);
     }
 
     private String serializeSuccessResponse(ActionInvocationSuccessResponse response) throws JsonProcessingException {
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        return objectMapper.writeValueAsString(response);
+        return RESPONSE_WRITER.writeValueAsString(response);
     }
 
     private String serializeErrorResponse(ActionInvocationErrorResponse response) throws JsonProcessingException {
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        return objectMapper.writeValueAsString(response);
+        return RESPONSE_WRITER.writeValueAsString(response);
     }
 
     private List<PerformableOperation> validatePerformableOperations(ActionExecutionRequest request,
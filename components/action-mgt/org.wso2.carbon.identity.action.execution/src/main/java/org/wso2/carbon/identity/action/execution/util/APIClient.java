@@ -19,6 +19,7 @@
 package org.wso2.carbon.identity.action.execution.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpEntity;
@@ -32,16 +33,18 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
-import org.apache.http.util.EntityUtils;
 import org.wso2.carbon.identity.action.execution.exception.ActionInvocationException;
 import org.wso2.carbon.identity.action.execution.model.ActionInvocationErrorResponse;
 import org.wso2.carbon.identity.action.execution.model.ActionInvocationResponse;
 import org.wso2.carbon.identity.action.execution.model.ActionInvocationSuccessResponse;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class is responsible for making API calls to the external services.
@@ -49,40 +52,90 @@ import java.util.Optional;
 public class APIClient {
 
     private static final Log LOG = LogFactory.getLog(APIClient.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader SUCCESS_RESPONSE_READER =
+            OBJECT_MAPPER.readerFor(ActionInvocationSuccessResponse.class);
+    private static final ObjectReader ERROR_RESPONSE_READER =
+            OBJECT_MAPPER.readerFor(ActionInvocationErrorResponse.class);
+
     private final CloseableHttpClient httpClient;
+    private final int retryCount;
+    private final long retryBackoff;
+    private final boolean circuitBreakerEnabled;
+    private final int circuitBreakerFailureThreshold;
+    private final long circuitBreakerOpenDuration;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
 
     public APIClient() {
 
-        // todo: read connection configurations related to the http client of actions from the server configuration.
-        // Initialize the http client. Set connection time out to 2s and read time out to 5s.
-        int readTimeout = 5000;
-        int connectionRequestTimeout = 2000;
-        int connectionTimeout = 2000;
+        this(ActionExecutorConfig.getInstance());
+    }
+
+    public APIClient(ActionExecutorConfig config) {
 
-        RequestConfig config = RequestConfig.custom()
-                .setConnectTimeout(connectionTimeout)
-                .setConnectionRequestTimeout(connectionRequestTimeout)
-                .setSocketTimeout(readTimeout)
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getConnectionTimeout())
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeout())
+                .setSocketTimeout(config.getReadTimeout())
                 .setRedirectsEnabled(false)
                 .setRelativeRedirectsAllowed(false)
                 .build();
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(20);
-        httpClient = HttpClientBuilder.create().setDefaultRequestConfig(config).setConnectionManager(connectionManager)
-                .build();
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        // The default per route limit of 2 would serialize the calls to a single action endpoint.
+        connectionManager.setDefaultMaxPerRoute(Math.min(config.getMaxConnectionsPerRoute(),
+                config.getMaxConnections()));
+        httpClient = HttpClientBuilder.create().setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(connectionManager).build();
+
+        retryCount = config.getRetryCount();
+        retryBackoff = config.getRetryBackoff();
+        circuitBreakerEnabled = config.isCircuitBreakerEnabled();
+        circuitBreakerFailureThreshold = config.getCircuitBreakerFailureThreshold();
+        circuitBreakerOpenDuration = config.getCircuitBreakerOpenDuration();
     }
 
     public ActionInvocationResponse callAPI(String url, AuthMethods.AuthMethod authMethod,
                                             String payload) {
 
+        return callAPI(buildRequest(url, authMethod, payload));
+    }
+
+    /**
+     * Build the request of an action invocation. The caller keeps the request to be able to abort an invocation
+     * which takes too long, through {@link HttpPost#abort()}.
+     *
+     * @param url        Action endpoint.
+     * @param authMethod Authentication applied to the request.
+     * @param payload    JSON payload of the request.
+     * @return Request to be executed with {@link #callAPI(HttpPost)}.
+     */
+    public HttpPost buildRequest(String url, AuthMethods.AuthMethod authMethod, String payload) {
+
         HttpPost httpPost = new HttpPost(url);
         setRequestEntity(httpPost, payload, authMethod);
+        return httpPost;
+    }
+
+    public ActionInvocationResponse callAPI(HttpPost httpPost) {
 
-        return executeRequest(httpPost).orElse(new ActionInvocationResponse.Builder()
+        return executeRequest(httpPost.getURI().toString(), httpPost).orElse(new ActionInvocationResponse.Builder()
                 .errorLog("Failed to execute the action request or maximum retry attempts reached.")
                 .build());
     }
 
+    /**
+     * Release the connections held by the client.
+     */
+    public void close() {
+
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            LOG.error("Error while closing the http client of actions.", e);
+        }
+    }
+
     private void setRequestEntity(HttpPost httpPost, String jsonRequest, AuthMethods.AuthMethod authMethod) {
 
         StringEntity entity = new StringEntity(jsonRequest, StandardCharsets.UTF_8);
@@ -94,14 +147,23 @@ public class APIClient {
         httpPost.setHeader("Content-type", "application/json");
     }
 
-    private Optional<ActionInvocationResponse> executeRequest(HttpPost request) {
+    private Optional<ActionInvocationResponse> executeRequest(String url, HttpPost request) {
 
+        CircuitBreaker circuitBreaker = getCircuitBreaker(url);
         int attempts = 0;
-        int retryCount = 2; // todo: read from server configurations
 
         while (attempts < retryCount) {
+            if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+                //todo: add to diagnostic logs
+                LOG.warn("Circuit is open for API: " + request.getURI() + ". Skipping the request.");
+                return Optional.of(new ActionInvocationResponse.Builder()
+                        .errorLog("The action endpoint is unavailable. Requests are paused until it recovers.")
+                        .build());
+            }
+            boolean endpointAvailable = false;
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 ActionInvocationResponse actionInvocationResponse = handleResponse(response);
+                endpointAvailable = !actionInvocationResponse.isRetry();
                 if (!actionInvocationResponse.isError() || !actionInvocationResponse.isRetry()) {
                     return Optional.of(actionInvocationResponse);
                 }
@@ -113,19 +175,70 @@ public class APIClient {
                 LOG.warn("Request for API: " + request.getURI() + " timed out. Retrying the request. Attempt " +
                         (attempts + 1) + " of " + retryCount);
             } catch (Exception e) {
+                if (request.isAborted()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Request for API: " + request.getURI() + " was aborted.");
+                    }
+                    return Optional.empty();
+                }
                 //todo: add to diagnostic logs
                 LOG.error("Request for API: " + request.getURI() + " failed due to an error.", e);
                 break;
             } finally {
                 request.releaseConnection();
+                recordOutcome(circuitBreaker, endpointAvailable);
             }
             attempts++;
+            if (attempts < retryCount && !backoff(attempts)) {
+                break;
+            }
         }
 
         LOG.warn("Maximum retry attempts reached for API: " + request.getURI());
         return Optional.empty();
     }
 
+    private CircuitBreaker getCircuitBreaker(String url) {
+
+        if (!circuitBreakerEnabled) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(url,
+                endpoint -> new CircuitBreaker(circuitBreakerFailureThreshold, circuitBreakerOpenDuration));
+    }
+
+    private void recordOutcome(CircuitBreaker circuitBreaker, boolean endpointAvailable) {
+
+        if (circuitBreaker == null) {
+            return;
+        }
+        if (endpointAvailable) {
+            circuitBreaker.recordSuccess();
+        } else {
+            circuitBreaker.recordFailure();
+        }
+    }
+
+    /**
+     * Wait before the next attempt. The delay doubles with each attempt.
+     *
+     * @param attempts Number of attempts made so far.
+     * @return False if the thread was interrupted while waiting.
+     */
+    private boolean backoff(int attempts) {
+
+        if (retryBackoff <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(retryBackoff << Math.min(attempts - 1, 10));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     private ActionInvocationResponse handleResponse(HttpResponse response) {
 
         int statusCode = response.getStatusLine().getStatusCode();
@@ -165,7 +278,7 @@ public class APIClient {
     private ActionInvocationSuccessResponse handleSuccessResponse(HttpEntity responseEntity)
             throws ActionInvocationException {
 
-        return deserialize(responseEntity, ActionInvocationSuccessResponse.class);
+        return deserialize(responseEntity, SUCCESS_RESPONSE_READER);
     }
 
     private ActionInvocationErrorResponse handleErrorResponse(HttpEntity responseEntity)
@@ -173,21 +286,19 @@ public class APIClient {
 
         // If an error response is received, return the error response in order to communicate back to the client.
         if (isAcceptablePayload(responseEntity)) {
-            return deserialize(responseEntity, ActionInvocationErrorResponse.class);
+            return deserialize(responseEntity, ERROR_RESPONSE_READER);
         }
         return null;
     }
 
-    private <T> T deserialize(HttpEntity responseEntity, Class<T> returnType) throws ActionInvocationException {
+    private <T> T deserialize(HttpEntity responseEntity, ObjectReader reader) throws ActionInvocationException {
 
         if (!isAcceptablePayload(responseEntity)) {
             throw new ActionInvocationException("The response content type is not application/json.");
         }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            String jsonResponse = EntityUtils.toString(responseEntity);
-            return objectMapper.readValue(jsonResponse, returnType);
+        try (InputStream content = responseEntity.getContent()) {
+            return reader.readValue(content);
         } catch (IOException e) {
             throw new ActionInvocationException("Error parsing the JSON response.", e);
         }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.action.execution.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.action.execution.model.ActionType;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+/**
+ * This class holds the server level configurations of the action execution, read from the Actions section of
+ * identity.xml.
+ */
+public class ActionExecutorConfig {
+
+    private static final Log LOG = LogFactory.getLog(ActionExecutorConfig.class);
+
+    private static final String HTTP_CLIENT_PREFIX = "Actions.HTTPClient.";
+    private static final String CIRCUIT_BREAKER_PREFIX = "Actions.CircuitBreaker.";
+    private static final String ACTION_TYPES_PREFIX = "Actions.Types.";
+
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 2000;
+    private static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 2000;
+    private static final int DEFAULT_READ_TIMEOUT = 5000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int DEFAULT_RETRY_COUNT = 2;
+    private static final long DEFAULT_RETRY_BACKOFF = 100;
+    private static final long MAX_RETRY_BACKOFF = 5000;
+    private static final boolean DEFAULT_CIRCUIT_BREAKER_ENABLED = true;
+    private static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 30000;
+    private static final int DEFAULT_EXECUTION_POOL_SIZE = 20;
+    private static final int DEFAULT_EXECUTION_QUEUE_SIZE = 100;
+
+    private static final ActionExecutorConfig INSTANCE = new ActionExecutorConfig();
+
+    private ActionExecutorConfig() {
+
+    }
+
+    public static ActionExecutorConfig getInstance() {
+
+        return INSTANCE;
+    }
+
+    public int getConnectionTimeout() {
+
+        return getIntProperty(HTTP_CLIENT_PREFIX + "ConnectionTimeout", DEFAULT_CONNECTION_TIMEOUT);
+    }
+
+    public int getConnectionRequestTimeout() {
+
+        return getIntProperty(HTTP_CLIENT_PREFIX + "ConnectionRequestTimeout", DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    public int getReadTimeout() {
+
+        return getIntProperty(HTTP_CLIENT_PREFIX + "ReadTimeout", DEFAULT_READ_TIMEOUT);
+    }
+
+    public int getMaxConnections() {
+
+        return getIntProperty(HTTP_CLIENT_PREFIX + "MaxConnections", DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public int getMaxConnectionsPerRoute() {
+
+        return getIntProperty(HTTP_CLIENT_PREFIX + "MaxConnectionsPerRoute", DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    /**
+     * @return Maximum number of attempts made for a request when the endpoint is unavailable or times out.
+     */
+    public int getRetryCount() {
+
+        return getIntProperty(HTTP_CLIENT_PREFIX + "RetryCount", DEFAULT_RETRY_COUNT);
+    }
+
+    /**
+     * @return Delay in milliseconds before the first retry. The delay doubles for each subsequent retry.
+     */
+    public long getRetryBackoff() {
+
+        return Math.min(getLongProperty(HTTP_CLIENT_PREFIX + "RetryBackoff", DEFAULT_RETRY_BACKOFF, 0),
+                MAX_RETRY_BACKOFF);
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+
+        String value = IdentityUtil.getProperty(CIRCUIT_BREAKER_PREFIX + "Enable");
+        if (StringUtils.isBlank(value)) {
+            return DEFAULT_CIRCUIT_BREAKER_ENABLED;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * @return Number of consecutive failed calls which opens the circuit of an endpoint.
+     */
+    public int getCircuitBreakerFailureThreshold() {
+
+        return getIntProperty(CIRCUIT_BREAKER_PREFIX + "FailureThreshold",
+                DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+    }
+
+    /**
+     * @return Time in milliseconds an open circuit rejects calls before a trial call is allowed.
+     */
+    public long getCircuitBreakerOpenDuration() {
+
+        return getLongProperty(CIRCUIT_BREAKER_PREFIX + "OpenDuration", DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION, 1);
+    }
+
+    /**
+     * @param actionType Action type.
+     * @return Number of threads executing the actions of the given type.
+     */
+    public int getExecutionPoolSize(ActionType actionType) {
+
+        return getIntProperty(getActionTypePrefix(actionType) + "ExecutionPoolSize", DEFAULT_EXECUTION_POOL_SIZE);
+    }
+
+    /**
+     * @param actionType Action type.
+     * @return Number of executions of the given type allowed to wait for a thread before new executions are rejected.
+     */
+    public int getExecutionQueueSize(ActionType actionType) {
+
+        return getIntProperty(getActionTypePrefix(actionType) + "ExecutionQueueSize", DEFAULT_EXECUTION_QUEUE_SIZE);
+    }
+
+    /**
+     * @param actionType Action type.
+     * @return Maximum time in milliseconds the caller waits for an action of the given type, including retries.
+     */
+    public long getExecutionTimeout(ActionType actionType) {
+
+        long defaultTimeout = (long) getRetryCount() *
+                (getConnectionRequestTimeout() + getConnectionTimeout() + getReadTimeout()) +
+                getRetryBackoff() * (1L << Math.max(0, getRetryCount() - 1));
+        return getLongProperty(getActionTypePrefix(actionType) + "ExecutionTimeout", defaultTimeout, 1);
+    }
+
+    private String getActionTypePrefix(ActionType actionType) {
+
+        switch (actionType) {
+            case PRE_ISSUE_ACCESS_TOKEN:
+                return ACTION_TYPES_PREFIX + "PreIssueAccessToken.";
+            default:
+                return ACTION_TYPES_PREFIX + actionType.name() + ".";
+        }
+    }
+
+    private int getIntProperty(String propertyName, int defaultValue) {
+
+        return (int) getLongProperty(propertyName, defaultValue, 1);
+    }
+
+    private long getLongProperty(String propertyName, long defaultValue, long minValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            long parsedValue = Long.parseLong(value.trim());
+            if (parsedValue >= minValue) {
+                return parsedValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to use the default value.
+        }
+        LOG.warn("Invalid value: " + value + " configured for " + propertyName + ". Using the default value: " +
+                defaultValue);
+        return defaultValue;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.action.execution.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.HttpPost;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.action.execution.model.ActionInvocationResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the circuit breaker integration of {@link APIClient} against a local HTTP endpoint.
+ */
+public class APIClientTest {
+
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long OPEN_DURATION = 200;
+    private static final String SUCCESS_RESPONSE = "{\"actionStatus\":\"SUCCESS\",\"operations\":[]}";
+
+    private HttpServer server;
+    private String url;
+    private APIClient apiClient;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile int responseStatus;
+    private volatile CountDownLatch slowResponseLatch;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+
+        requestCount.set(0);
+        responseStatus = 503;
+        slowResponseLatch = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/action", exchange -> {
+            requestCount.incrementAndGet();
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                while (requestBody.read() != -1) {
+                    // Consume the request before responding.
+                }
+            }
+            int status = responseStatus;
+            if (status == 200) {
+                byte[] body = SUCCESS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, body.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            } else {
+                exchange.sendResponseHeaders(status, -1);
+            }
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                slowResponseLatch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/action";
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        slowResponseLatch.countDown();
+        if (apiClient != null) {
+            apiClient.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testCircuitOpensAfterConsecutiveFailures() {
+
+        apiClient = new APIClient(mockConfig(true));
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertTrue(apiClient.callAPI(url, null, "{}").isError());
+        }
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD);
+
+        ActionInvocationResponse response = apiClient.callAPI(url, null, "{}");
+
+        assertTrue(response.isError());
+        assertTrue(response.getErrorLog().contains("unavailable"));
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD, "The open circuit should not call the endpoint.");
+    }
+
+    @Test
+    public void testCircuitClosesAfterEndpointRecovers() throws Exception {
+
+        apiClient = new APIClient(mockConfig(true));
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            apiClient.callAPI(url, null, "{}");
+        }
+        responseStatus = 200;
+        assertTrue(apiClient.callAPI(url, null, "{}").isError());
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD);
+
+        Thread.sleep(OPEN_DURATION * 2);
+
+        assertTrue(apiClient.callAPI(url, null, "{}").isSuccess());
+        assertTrue(apiClient.callAPI(url, null, "{}").isSuccess());
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD + 2);
+    }
+
+    @Test
+    public void testFailedTrialRequestKeepsCircuitOpen() throws Exception {
+
+        apiClient = new APIClient(mockConfig(true));
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            apiClient.callAPI(url, null, "{}");
+        }
+
+        Thread.sleep(OPEN_DURATION * 2);
+
+        assertTrue(apiClient.callAPI(url, null, "{}").isError());
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD + 1);
+        assertTrue(apiClient.callAPI(url, null, "{}").isError());
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD + 1, "A failed trial call should reopen the circuit.");
+    }
+
+    @Test
+    public void testEndpointIsAlwaysCalledWhenCircuitBreakerIsDisabled() {
+
+        apiClient = new APIClient(mockConfig(false));
+
+        for (int i = 0; i < FAILURE_THRESHOLD * 2; i++) {
+            assertFalse(apiClient.callAPI(url, null, "{}").isSuccess());
+        }
+
+        assertEquals(requestCount.get(), FAILURE_THRESHOLD * 2);
+    }
+
+    @Test
+    public void testAbortFreesThreadWaitingForResponse() throws Exception {
+
+        apiClient = new APIClient(mockConfig(false));
+        String slowUrl = "http://localhost:" + server.getAddress().getPort() + "/slow";
+        HttpPost request = apiClient.buildRequest(slowUrl, null, "{}");
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<ActionInvocationResponse> response = executorService.submit(() -> apiClient.callAPI(request));
+            Thread.sleep(200);
+
+            request.abort();
+
+            // The read timeout is 2 seconds, so the call only returns this early because it was aborted.
+            assertTrue(response.get(1, TimeUnit.SECONDS).isError());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private ActionExecutorConfig mockConfig(boolean circuitBreakerEnabled) {
+
+        ActionExecutorConfig config = mock(ActionExecutorConfig.class);
+        when(config.getConnectionTimeout()).thenReturn(2000);
+        when(config.getConnectionRequestTimeout()).thenReturn(2000);
+        when(config.getReadTimeout()).thenReturn(2000);
+        when(config.getMaxConnections()).thenReturn(5);
+        when(config.getMaxConnectionsPerRoute()).thenReturn(5);
+        when(config.getRetryCount()).thenReturn(1);
+        when(config.getRetryBackoff()).thenReturn(0L);
+        when(config.isCircuitBreakerEnabled()).thenReturn(circuitBreakerEnabled);
+        when(config.getCircuitBreakerFailureThreshold()).thenReturn(FAILURE_THRESHOLD);
+        when(config.getCircuitBreakerOpenDuration()).thenReturn(OPEN_DURATION);
+        return config;
+    }
+}
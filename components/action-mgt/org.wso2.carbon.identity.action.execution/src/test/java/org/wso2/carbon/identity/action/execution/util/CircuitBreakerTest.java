@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.action.execution.util;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CircuitBreaker}.
+ */
+public class CircuitBreakerTest {
+
+    private static final long OPEN_DURATION = 100;
+
+    @Test
+    public void testClosedCircuitAllowsRequests() {
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, OPEN_DURATION);
+
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.CLOSED);
+        assertTrue(circuitBreaker.allowRequest());
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.CLOSED);
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void testSuccessResetsConsecutiveFailures() {
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, OPEN_DURATION);
+
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testCircuitOpensAtFailureThreshold() {
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, OPEN_DURATION);
+
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordFailure();
+        }
+
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.OPEN);
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void testOpenCircuitAllowsSingleTrialRequestAfterOpenDuration() throws Exception {
+
+        CircuitBreaker circuitBreaker = openCircuit();
+
+        Thread.sleep(OPEN_DURATION * 2);
+
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        // Other callers are rejected while the trial request is in progress.
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void testSuccessfulTrialRequestClosesCircuit() throws Exception {
+
+        CircuitBreaker circuitBreaker = openCircuit();
+        Thread.sleep(OPEN_DURATION * 2);
+        assertTrue(circuitBreaker.allowRequest());
+
+        circuitBreaker.recordSuccess();
+
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.CLOSED);
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    public void testFailedTrialRequestReopensCircuit() throws Exception {
+
+        CircuitBreaker circuitBreaker = openCircuit();
+        Thread.sleep(OPEN_DURATION * 2);
+        assertTrue(circuitBreaker.allowRequest());
+
+        circuitBreaker.recordFailure();
+
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.OPEN);
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    private CircuitBreaker openCircuit() {
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, OPEN_DURATION);
+        circuitBreaker.recordFailure();
+        assertEquals(circuitBreaker.getState(), CircuitBreaker.State.OPEN);
+        return circuitBreaker;
+    }
+}
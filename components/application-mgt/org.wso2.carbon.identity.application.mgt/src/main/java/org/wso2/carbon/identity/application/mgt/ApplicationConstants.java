@@ -108,6 +108,8 @@ public class ApplicationConstants {
     public static final String TRUSTED_APP_CONSENT_REQUIRED_PROPERTY = "ApplicationMgt.TrustedAppConsentRequired";
     public static final String TRUSTED_APP_MAX_THUMBPRINT_COUNT_PROPERTY =
             "ApplicationMgt.TrustedAppMaxThumbprintCount";
+    public static final String PARALLEL_APPLICATION_LOADING_POOL_SIZE =
+            "ApplicationMgt.ParallelApplicationLoading.PoolSize";
 
     public static final String NON_EXISTING_USER_CODE = "30007 - ";
 
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.mgt.dao.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.wso2.carbon.identity.application.mgt.ApplicationConstants.PARALLEL_APPLICATION_LOADING_POOL_SIZE;
+
+/**
+ * Loads the independent parts of an application configuration. When parallel application loading is enabled, the
+ * parts are offered to a shared thread pool. A pool thread takes a part only after it has obtained its own database
+ * connection, and any part that is not taken by the time it is needed is loaded by the calling thread on its
+ * connection. Hence the calling thread never waits on a pool thread which is itself waiting for a connection.
+ */
+class ApplicationConfigLoader {
+
+    private static final Log log = LogFactory.getLog(ApplicationConfigLoader.class);
+    private static volatile ExecutorService sharedExecutor;
+    private static volatile boolean initialized;
+
+    private final Connection connection;
+    private final Executor loadExecutor;
+    private final ConnectionProvider connectionProvider;
+
+    /**
+     * @param connection Database connection of the calling thread.
+     */
+    ApplicationConfigLoader(Connection connection) {
+
+        this(connection, getExecutor(), () -> IdentityDatabaseUtil.getDBConnection(false));
+    }
+
+    /**
+     * @param connection         Database connection of the calling thread.
+     * @param loadExecutor       Executor to load the parts in parallel, or null to load them in the calling thread.
+     * @param connectionProvider Provider of the database connections for the parts loaded by the executor.
+     */
+    ApplicationConfigLoader(Connection connection, Executor loadExecutor, ConnectionProvider connectionProvider) {
+
+        this.connection = connection;
+        this.loadExecutor = loadExecutor;
+        this.connectionProvider = connectionProvider;
+    }
+
+    /**
+     * Start loading a part of the application configuration.
+     *
+     * @param loader Loader of the configuration part.
+     * @param <T>    Type of the configuration part.
+     * @return Handle to get the loaded configuration part.
+     */
+    <T> LoadTask<T> load(ConfigLoader<T> loader) {
+
+        LoadTask<T> task = new LoadTask<>(loader, connection, connectionProvider);
+        if (loadExecutor != null) {
+            loadExecutor.execute(task::loadInPool);
+        }
+        return task;
+    }
+
+    private static ExecutorService getExecutor() {
+
+        if (!initialized) {
+            synchronized (ApplicationConfigLoader.class) {
+                if (!initialized) {
+                    int poolSize = getPoolSize();
+                    if (poolSize > 0) {
+                        sharedExecutor = Executors.newFixedThreadPool(poolSize, new ApplicationLoaderThreadFactory());
+                    }
+                    initialized = true;
+                }
+            }
+        }
+        return sharedExecutor;
+    }
+
+    private static int getPoolSize() {
+
+        String poolSize = IdentityUtil.getProperty(PARALLEL_APPLICATION_LOADING_POOL_SIZE);
+        if (StringUtils.isBlank(poolSize)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(poolSize.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + poolSize + " configured for " + PARALLEL_APPLICATION_LOADING_POOL_SIZE +
+                    ". Parallel application loading is disabled.");
+            return 0;
+        }
+    }
+
+    /**
+     * Loads a part of the application configuration using the given connection.
+     *
+     * @param <T> Type of the configuration part.
+     */
+    @FunctionalInterface
+    interface ConfigLoader<T> {
+
+        T load(Connection connection) throws SQLException, IdentityApplicationManagementException;
+    }
+
+    /**
+     * Provides the database connections used by the pool threads.
+     */
+    @FunctionalInterface
+    interface ConnectionProvider {
+
+        Connection getConnection();
+    }
+
+    /**
+     * Handle to a configuration part which is being loaded. The part is loaded by whichever of the pool thread or
+     * the calling thread takes it first.
+     *
+     * @param <T> Type of the configuration part.
+     */
+    static class LoadTask<T> {
+
+        private final ConfigLoader<T> loader;
+        private final Connection callerConnection;
+        private final ConnectionProvider connectionProvider;
+        private final AtomicBoolean taken = new AtomicBoolean();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private LoadTask(ConfigLoader<T> loader, Connection callerConnection, ConnectionProvider connectionProvider) {
+
+            this.loader = loader;
+            this.callerConnection = callerConnection;
+            this.connectionProvider = connectionProvider;
+        }
+
+        /**
+         * Get the loaded configuration part. If the load is not yet taken by the pool, it is done by the calling
+         * thread, so that a busy pool or an exhausted connection pool does not hold up the application load.
+         *
+         * @return Loaded configuration part.
+         * @throws SQLException                           If a database error occurs.
+         * @throws IdentityApplicationManagementException If the configuration part could not be loaded.
+         */
+        T get() throws SQLException, IdentityApplicationManagementException {
+
+            if (taken.compareAndSet(false, true)) {
+                loadWith(callerConnection);
+            }
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdentityApplicationManagementException("Interrupted while loading the application.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    throw (SQLException) cause;
+                }
+                if (cause instanceof IdentityApplicationManagementException) {
+                    throw (IdentityApplicationManagementException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IdentityApplicationManagementException("Error while loading the application.", cause);
+            }
+        }
+
+        private void loadInPool() {
+
+            if (taken.get()) {
+                return;
+            }
+            Connection workerConnection;
+            try {
+                workerConnection = connectionProvider.getConnection();
+            } catch (RuntimeException e) {
+                // The part is left for the calling thread.
+                if (log.isDebugEnabled()) {
+                    log.debug("Unable to get a database connection to load the application configuration.", e);
+                }
+                return;
+            }
+            try (Connection dbConnection = workerConnection) {
+                if (taken.compareAndSet(false, true)) {
+                    loadWith(dbConnection);
+                }
+            } catch (SQLException e) {
+                log.error("Error while closing the database connection used to load the application.", e);
+            }
+        }
+
+        private void loadWith(Connection dbConnection) {
+
+            try {
+                result.complete(loader.load(dbConnection));
+            } catch (SQLException | IdentityApplicationManagementException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Thread factory of the application loading pool.
+     */
+    private static class ApplicationLoaderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "ApplicationConfigLoader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.CarbonConstants;
@@ -2211,33 +2212,45 @@ public class ApplicationDAOImpl extends AbstractApplicationDAOImpl implements Pa
                         (getAndroidAttestationServiceCredentials(serviceProvider));
             }
             serviceProvider.setClientAttestationMetaData(clientAttestationMetaData);
+
+            // Start loading the configurations which only depend on the database, so that they can be loaded in
+            // parallel with the rest of the application when parallel application loading is enabled.
+            ApplicationConfigLoader configLoader = new ApplicationConfigLoader(connection);
+            ApplicationConfigLoader.LoadTask<InboundAuthenticationConfig> inboundAuthConfig = configLoader.load(
+                    dbConnection -> getInboundAuthenticationConfig(applicationId, dbConnection, tenantID));
+            ApplicationConfigLoader.LoadTask<InboundProvisioningConfig> inboundProvisioningConfig = configLoader.load(
+                    dbConnection -> getInboundProvisioningConfiguration(applicationId, dbConnection, tenantID));
+            ApplicationConfigLoader.LoadTask<OutboundProvisioningConfig> outboundProvisioningConfig =
+                    configLoader.load(dbConnection -> getOutboundProvisioningConfiguration(applicationId,
+                            dbConnection, tenantID));
+            ApplicationConfigLoader.LoadTask<ClaimConfig> claimConfig = configLoader.load(
+                    dbConnection -> getClaimConfiguration(applicationId, dbConnection, tenantID));
+            ApplicationConfigLoader.LoadTask<List<RoleMapping>> roleMappingConfig = configLoader.load(
+                    dbConnection -> getRoleMappingOfApplication(applicationId, dbConnection, tenantID));
+            ApplicationConfigLoader.LoadTask<RequestPathAuthenticatorConfig[]> requestPathAuthenticatorConfig =
+                    configLoader.load(dbConnection -> getRequestPathAuthenticators(applicationId, dbConnection,
+                            tenantID));
+
             serviceProvider.setTrustedAppMetadata(
                     getSpTrustedAppMetadata(applicationId, connection, tenantID, propertyList));
-            serviceProvider.setInboundAuthenticationConfig(getInboundAuthenticationConfig(
-                    applicationId, connection, tenantID));
             serviceProvider
                     .setLocalAndOutBoundAuthenticationConfig(getLocalAndOutboundAuthenticationConfig(
                             applicationId, connection, tenantID, propertyList));
 
-            serviceProvider.setInboundProvisioningConfig(getInboundProvisioningConfiguration(
-                    applicationId, connection, tenantID));
-
-            serviceProvider.setOutboundProvisioningConfig(getOutboundProvisioningConfiguration(
-                    applicationId, connection, tenantID));
+            serviceProvider.setInboundAuthenticationConfig(inboundAuthConfig.get());
+            serviceProvider.setInboundProvisioningConfig(inboundProvisioningConfig.get());
+            serviceProvider.setOutboundProvisioningConfig(outboundProvisioningConfig.get());
 
             // Load Claim Mapping
-            serviceProvider.setClaimConfig(getClaimConfiguration(applicationId, connection,
-                    tenantID));
+            serviceProvider.setClaimConfig(claimConfig.get());
 
             // Load Role Mappings
-            List<RoleMapping> roleMappings = getRoleMappingOfApplication(applicationId, connection,
-                    tenantID);
+            List<RoleMapping> roleMappings = roleMappingConfig.get();
             PermissionsAndRoleConfig permissionAndRoleConfig = new PermissionsAndRoleConfig();
             permissionAndRoleConfig.setRoleMappings(roleMappings.toArray(new RoleMapping[0]));
             serviceProvider.setPermissionAndRoleConfig(permissionAndRoleConfig);
 
-            RequestPathAuthenticatorConfig[] requestPathAuthenticators = getRequestPathAuthenticators(
-                    applicationId, connection, tenantID);
+            RequestPathAuthenticatorConfig[] requestPathAuthenticators = requestPathAuthenticatorConfig.get();
             serviceProvider.setRequestPathAuthenticatorConfigs(requestPathAuthenticators);
 
             serviceProvider.setSpProperties(propertyList.toArray(new ServiceProviderProperty[0]));
@@ -2999,15 +3012,17 @@ public class ApplicationDAOImpl extends AbstractApplicationDAOImpl implements Pa
                 for (Property source : sources) {
                     Property property = destinationMap.get(source.getName());
                     if (property == null) {
+                        // The source properties are shared by all the applications, hence a copy is used.
+                        property = SerializationUtils.clone(source);
                         if (isCustomInboundAuthType(inboundAuthenticationRequestConfig.getInboundAuthType())) {
                             if (inboundAuthenticatorConfig.isRelyingPartyKeyConfigured()) {
                                 if (StringUtils.equals(inboundAuthenticatorConfig.getRelyingPartyKey(), source
                                         .getName())) {
-                                    source.setValue(inboundAuthenticationRequestConfig.getInboundAuthKey());
+                                    property.setValue(inboundAuthenticationRequestConfig.getInboundAuthKey());
                                 }
                             }
                         }
-                        destinationMap.put(source.getName(), source);
+                        destinationMap.put(source.getName(), property);
                     } else {
                         property.setConfidential(source.isConfidential());
                         property.setDefaultValue(source.getDefaultValue());
@@ -63,6 +63,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import static org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants.PlatformType;
 
@@ -85,6 +88,10 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
     private static ApplicationBasicInfoByNameCache appBasicInfoCacheByName = null;
     private static TrustedAppByPlatformTypeCache trustedAppByPlatformTypeCache = null;
 
+    // Loads of applications which are in progress, so that concurrent cache misses of an application share one load.
+    private static final Map<String, CompletableFuture<ServiceProvider>> IN_PROGRESS_APP_LOADS =
+            new ConcurrentHashMap<>();
+
     public CacheBackedApplicationDAO(ApplicationDAO appDAO) {
 
         this.appDAO = appDAO;
@@ -103,31 +110,37 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
 
         ServiceProvider serviceProvider = getApplicationFromCache(applicationName, tenantDomain);
         if (serviceProvider == null) {
-            try {
-                serviceProvider = appDAO.getApplication(applicationName, tenantDomain);
-                if (serviceProvider != null) {
-                    addToCache(serviceProvider, tenantDomain);
+            serviceProvider = loadApplication(getNameLoadKey(applicationName, tenantDomain), () -> {
+                try {
+                    ServiceProvider application = appDAO.getApplication(applicationName, tenantDomain);
+                    if (application != null) {
+                        addToCache(application, tenantDomain);
+                    }
+                    return application;
+                } catch (Exception e) {
+                    String error = "Error occurred while retrieving the application, " + applicationName;
+                    log.error(error, e);
+                    throw new IdentityApplicationManagementException(error, e);
                 }
-            } catch (Exception e) {
-                String error = "Error occurred while retrieving the application, " + applicationName;
-                log.error(error, e);
-                throw new IdentityApplicationManagementException(error, e);
-            }
+            });
         }
         return serviceProvider;
     }
 
     public ServiceProvider getApplication(int appId) throws IdentityApplicationManagementException {
 
-        ServiceProvider serviceProvider = getApplicationFromCache(appId,
-                CarbonContext.getThreadLocalCarbonContext().getTenantDomain());
+        String tenantDomain = CarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        ServiceProvider serviceProvider = getApplicationFromCache(appId, tenantDomain);
         if (serviceProvider == null) {
-            serviceProvider = appDAO.getApplication(appId);
-            if (serviceProvider == null) {
-                throw new IdentityApplicationManagementException(
-                        "Error while getting the service provider for appId: " + appId);
-            }
-            addToCache(serviceProvider, serviceProvider.getTenantDomain());
+            serviceProvider = loadApplication(getIdLoadKey(appId, tenantDomain), () -> {
+                ServiceProvider application = appDAO.getApplication(appId);
+                if (application == null) {
+                    throw new IdentityApplicationManagementException(
+                            "Error while getting the service provider for appId: " + appId);
+                }
+                addToCache(application, application.getTenantDomain());
+                return application;
+            });
         }
         return serviceProvider;
     }
@@ -450,10 +463,13 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
         ServiceProvider application = getApplicationFromCacheByResourceId(resourceId, tenantDomain);
         if (application == null) {
             // Cache miss, fetch from DB.
-            application = appDAO.getApplicationByResourceId(resourceId, tenantDomain);
-            if (application != null) {
-                addToCache(application, tenantDomain);
-            }
+            application = loadApplication(getResourceIdLoadKey(resourceId, tenantDomain), () -> {
+                ServiceProvider loadedApplication = appDAO.getApplicationByResourceId(resourceId, tenantDomain);
+                if (loadedApplication != null) {
+                    addToCache(loadedApplication, tenantDomain);
+                }
+                return loadedApplication;
+            });
         }
         return application;
     }
@@ -599,6 +615,90 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
         trustedAppByPlatformTypeCache.addToCache(cacheKey, cacheEntry, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
     }
 
+    /**
+     * Load the application with the given loader, unless a load of the same application is already in progress, in
+     * which case the result of that load is returned. This avoids concurrent cache misses of an application, e.g.
+     * after a cache invalidation, each loading the application from the database.
+     *
+     * @param loadKey Key identifying the application being loaded.
+     * @param loader  Loader which loads the application and adds it to the cache.
+     * @return Loaded application.
+     * @throws IdentityApplicationManagementException If the application could not be loaded.
+     */
+    private ServiceProvider loadApplication(String loadKey, ApplicationLoader loader)
+            throws IdentityApplicationManagementException {
+
+        CompletableFuture<ServiceProvider> load = new CompletableFuture<>();
+        CompletableFuture<ServiceProvider> inProgressLoad = IN_PROGRESS_APP_LOADS.putIfAbsent(loadKey, load);
+        if (inProgressLoad != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Waiting for the in progress load of the application: " + loadKey);
+            }
+            return waitForApplicationLoad(loadKey, inProgressLoad);
+        }
+
+        try {
+            ServiceProvider serviceProvider = loader.load();
+            load.complete(serviceProvider);
+            return serviceProvider;
+        } catch (IdentityApplicationManagementException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!load.isDone()) {
+                load.completeExceptionally(new IdentityApplicationManagementException(
+                        "Error while loading the application: " + loadKey));
+            }
+            IN_PROGRESS_APP_LOADS.remove(loadKey, load);
+        }
+    }
+
+    private ServiceProvider waitForApplicationLoad(String loadKey, CompletableFuture<ServiceProvider> load)
+            throws IdentityApplicationManagementException {
+
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdentityApplicationManagementException("Interrupted while waiting for the load of the " +
+                    "application: " + loadKey, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IdentityApplicationManagementException) {
+                throw (IdentityApplicationManagementException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IdentityApplicationManagementException("Error while loading the application: " + loadKey,
+                    cause);
+        }
+    }
+
+    private static String getNameLoadKey(String applicationName, String tenantDomain) {
+
+        return "name:" + tenantDomain + ":" + applicationName;
+    }
+
+    private static String getIdLoadKey(int appId, String tenantDomain) {
+
+        return "id:" + tenantDomain + ":" + appId;
+    }
+
+    private static String getResourceIdLoadKey(String resourceId, String tenantDomain) {
+
+        return "resourceId:" + tenantDomain + ":" + resourceId;
+    }
+
+    /**
+     * Loads an application from the underlying DAO.
+     */
+    @FunctionalInterface
+    private interface ApplicationLoader {
+
+        ServiceProvider load() throws IdentityApplicationManagementException;
+    }
+
     private ServiceProvider getApplicationFromCache(int appId, String tenantDomain) {
 
         ServiceProvider serviceProvider = null;
@@ -775,6 +875,12 @@ public class CacheBackedApplicationDAO extends ApplicationDAOImpl {
         appBasicInfoCacheByName.clearCacheEntry(basicInfoNameKey, tenantDomain);
 
         clearAppCacheByInboundKey(serviceProvider, tenantDomain);
+
+        /* Detach the loads which are in progress for the application, so that the requests which miss the cache from
+           now on load the updated application instead of waiting for a load which may have read the old one. */
+        IN_PROGRESS_APP_LOADS.remove(getNameLoadKey(serviceProvider.getApplicationName(), tenantDomain));
+        IN_PROGRESS_APP_LOADS.remove(getIdLoadKey(serviceProvider.getApplicationID(), tenantDomain));
+        IN_PROGRESS_APP_LOADS.remove(getResourceIdLoadKey(serviceProvider.getApplicationResourceId(), tenantDomain));
     }
 
     private void clearAllAppCache(ServiceProvider serviceProvider, String updatedName, String tenantDomain) throws
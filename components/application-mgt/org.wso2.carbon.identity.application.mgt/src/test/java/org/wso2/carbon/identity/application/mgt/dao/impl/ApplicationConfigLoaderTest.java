@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.mgt.dao.impl;
+
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link ApplicationConfigLoader}.
+ */
+public class ApplicationConfigLoaderTest {
+
+    @Test
+    public void testLoadInCallingThreadWithoutPool() throws Exception {
+
+        Connection callerConnection = mock(Connection.class);
+        ApplicationConfigLoader configLoader = new ApplicationConfigLoader(callerConnection, null, () -> {
+            throw new AssertionError("No connection should be taken when loading in the calling thread.");
+        });
+
+        List<Connection> usedConnections = new ArrayList<>();
+        ApplicationConfigLoader.LoadTask<String> task = configLoader.load(connection -> {
+            usedConnections.add(connection);
+            return "config";
+        });
+
+        assertEquals(task.get(), "config");
+        assertEquals(usedConnections.size(), 1);
+        assertSame(usedConnections.get(0), callerConnection);
+    }
+
+    @Test
+    public void testLoadInPoolUsesOwnConnection() throws Exception {
+
+        Connection callerConnection = mock(Connection.class);
+        Connection workerConnection = mock(Connection.class);
+        ApplicationConfigLoader configLoader = new ApplicationConfigLoader(callerConnection, Runnable::run,
+                () -> workerConnection);
+
+        List<Connection> usedConnections = new ArrayList<>();
+        ApplicationConfigLoader.LoadTask<String> task = configLoader.load(connection -> {
+            usedConnections.add(connection);
+            return "config";
+        });
+
+        assertEquals(task.get(), "config");
+        assertEquals(usedConnections.size(), 1);
+        assertSame(usedConnections.get(0), workerConnection);
+        verify(workerConnection).close();
+    }
+
+    @Test
+    public void testCallerDoesNotWaitForPoolWaitingOnConnection() throws Exception {
+
+        Connection callerConnection = mock(Connection.class);
+        Connection workerConnection = mock(Connection.class);
+        CountDownLatch connectionRequested = new CountDownLatch(1);
+        CountDownLatch connectionAvailable = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The pool thread blocks on an exhausted connection pool while the caller holds its connection.
+            ApplicationConfigLoader configLoader = new ApplicationConfigLoader(callerConnection, executor, () -> {
+                connectionRequested.countDown();
+                try {
+                    connectionAvailable.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return workerConnection;
+            });
+
+            List<Connection> usedConnections = new ArrayList<>();
+            ApplicationConfigLoader.LoadTask<String> task = configLoader.load(connection -> {
+                usedConnections.add(connection);
+                return "config";
+            });
+            assertTrue(connectionRequested.await(10, TimeUnit.SECONDS));
+
+            assertEquals(task.get(), "config");
+            assertSame(usedConnections.get(0), callerConnection);
+
+            // Once the pool thread gets its connection, it gives it back without loading the part again.
+            connectionAvailable.countDown();
+            verify(workerConnection, timeout(10000)).close();
+            assertEquals(usedConnections.size(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLoadFailureIsRethrown() throws Exception {
+
+        ApplicationConfigLoader configLoader = new ApplicationConfigLoader(mock(Connection.class), null, null);
+        ApplicationConfigLoader.LoadTask<String> task = configLoader.load(connection -> {
+            throw new SQLException("Error while loading.");
+        });
+
+        try {
+            task.get();
+            fail("The load failure should be rethrown.");
+        } catch (SQLException e) {
+            assertEquals(e.getMessage(), "Error while loading.");
+        }
+    }
+
+    @Test
+    public void testPartsLoadInParallel() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ExecutorService callerExecutor = Executors.newSingleThreadExecutor();
+        try {
+            ApplicationConfigLoader configLoader = new ApplicationConfigLoader(mock(Connection.class), executor,
+                    () -> mock(Connection.class));
+            // Each part waits for the other one to start, hence both complete only if loaded in parallel.
+            CountDownLatch started = new CountDownLatch(2);
+            ApplicationConfigLoader.ConfigLoader<Boolean> loader = connection -> {
+                started.countDown();
+                try {
+                    return started.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            };
+            ApplicationConfigLoader.LoadTask<Boolean> first = configLoader.load(loader);
+            ApplicationConfigLoader.LoadTask<Boolean> second = configLoader.load(loader);
+
+            Future<Boolean> secondResult = callerExecutor.submit(second::get);
+            assertTrue(first.get());
+            assertTrue(secondResult.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            callerExecutor.shutdownNow();
+        }
+    }
+}
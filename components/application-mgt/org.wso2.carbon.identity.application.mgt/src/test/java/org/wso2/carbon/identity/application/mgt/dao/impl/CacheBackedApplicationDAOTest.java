@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.mgt.dao.impl;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
+import org.wso2.carbon.identity.application.mgt.cache.IdentityServiceProviderCache;
+import org.wso2.carbon.identity.application.mgt.dao.ApplicationDAO;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ApplicationBasicInfoByNameCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ApplicationBasicInfoByResourceIdCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ApplicationResourceIDByInboundAuthCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderByIDCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderByInboundAuthCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.ServiceProviderByResourceIdCache;
+import org.wso2.carbon.identity.application.mgt.internal.cache.TrustedAppByPlatformTypeCache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for the coalescing of concurrent application loads in {@link CacheBackedApplicationDAO}.
+ */
+public class CacheBackedApplicationDAOTest {
+
+    private static final String TENANT_DOMAIN = "carbon.super";
+    private static final String RESOURCE_ID = "4a2c8d4e-0a3b-4d7e-9d3f-1f7c1b2a9e61";
+
+    private ApplicationDAO applicationDAO;
+    private CacheBackedApplicationDAO cacheBackedApplicationDAO;
+
+    @BeforeMethod
+    public void setUp() {
+
+        applicationDAO = mock(ApplicationDAO.class);
+        // Caches which always miss, so that every lookup reaches the load.
+        try (MockedStatic<IdentityServiceProviderCache> nameCache = mockStatic(IdentityServiceProviderCache.class);
+             MockedStatic<ServiceProviderByInboundAuthCache> inboundAuthCache =
+                     mockStatic(ServiceProviderByInboundAuthCache.class);
+             MockedStatic<ServiceProviderByIDCache> idCache = mockStatic(ServiceProviderByIDCache.class);
+             MockedStatic<ServiceProviderByResourceIdCache> resourceIdCache =
+                     mockStatic(ServiceProviderByResourceIdCache.class);
+             MockedStatic<ApplicationBasicInfoByResourceIdCache> basicInfoByResourceIdCache =
+                     mockStatic(ApplicationBasicInfoByResourceIdCache.class);
+             MockedStatic<ApplicationBasicInfoByNameCache> basicInfoByNameCache =
+                     mockStatic(ApplicationBasicInfoByNameCache.class);
+             MockedStatic<ApplicationResourceIDByInboundAuthCache> resourceIdByInboundAuthCache =
+                     mockStatic(ApplicationResourceIDByInboundAuthCache.class);
+             MockedStatic<TrustedAppByPlatformTypeCache> trustedAppCache =
+                     mockStatic(TrustedAppByPlatformTypeCache.class)) {
+            nameCache.when(IdentityServiceProviderCache::getInstance)
+                    .thenReturn(mock(IdentityServiceProviderCache.class));
+            inboundAuthCache.when(ServiceProviderByInboundAuthCache::getInstance)
+                    .thenReturn(mock(ServiceProviderByInboundAuthCache.class));
+            idCache.when(ServiceProviderByIDCache::getInstance).thenReturn(mock(ServiceProviderByIDCache.class));
+            resourceIdCache.when(ServiceProviderByResourceIdCache::getInstance)
+                    .thenReturn(mock(ServiceProviderByResourceIdCache.class));
+            basicInfoByResourceIdCache.when(ApplicationBasicInfoByResourceIdCache::getInstance)
+                    .thenReturn(mock(ApplicationBasicInfoByResourceIdCache.class));
+            basicInfoByNameCache.when(ApplicationBasicInfoByNameCache::getInstance)
+                    .thenReturn(mock(ApplicationBasicInfoByNameCache.class));
+            resourceIdByInboundAuthCache.when(ApplicationResourceIDByInboundAuthCache::getInstance)
+                    .thenReturn(mock(ApplicationResourceIDByInboundAuthCache.class));
+            trustedAppCache.when(TrustedAppByPlatformTypeCache::getInstance)
+                    .thenReturn(mock(TrustedAppByPlatformTypeCache.class));
+            cacheBackedApplicationDAO = new CacheBackedApplicationDAO(applicationDAO);
+        }
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        // The caches are held in static fields, hence those are set back to the actual caches.
+        new CacheBackedApplicationDAO(null);
+    }
+
+    @Test
+    public void testConcurrentCacheMissesShareOneLoad() throws Exception {
+
+        ServiceProvider application = getApplication();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(applicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(10, TimeUnit.SECONDS);
+            return application;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ServiceProvider> firstLoad = executor.submit(
+                    () -> cacheBackedApplicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN));
+            assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+
+            AtomicReference<Thread> waitingThread = new AtomicReference<>();
+            Future<ServiceProvider> secondLoad = executor.submit(() -> {
+                waitingThread.set(Thread.currentThread());
+                return cacheBackedApplicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+            });
+            waitUntilWaiting(waitingThread);
+            releaseLoad.countDown();
+
+            assertSame(firstLoad.get(10, TimeUnit.SECONDS), application);
+            assertSame(secondLoad.get(10, TimeUnit.SECONDS), application);
+            verify(applicationDAO, times(1)).getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+        } finally {
+            releaseLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompletedLoadIsNotShared() throws Exception {
+
+        ServiceProvider application = getApplication();
+        when(applicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN)).thenReturn(application);
+
+        cacheBackedApplicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+        cacheBackedApplicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+
+        verify(applicationDAO, times(2)).getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testLoadFailureIsSharedWithWaitingRequests() throws Exception {
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(applicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(10, TimeUnit.SECONDS);
+            throw new IdentityApplicationManagementException("Error while loading the application.");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ServiceProvider> firstLoad = executor.submit(
+                    () -> cacheBackedApplicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN));
+            assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+
+            AtomicReference<Thread> waitingThread = new AtomicReference<>();
+            Future<ServiceProvider> secondLoad = executor.submit(() -> {
+                waitingThread.set(Thread.currentThread());
+                return cacheBackedApplicationDAO.getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+            });
+            waitUntilWaiting(waitingThread);
+            releaseLoad.countDown();
+
+            assertLoadFailed(firstLoad);
+            assertLoadFailed(secondLoad);
+            verify(applicationDAO, times(1)).getApplicationByResourceId(RESOURCE_ID, TENANT_DOMAIN);
+        } finally {
+            releaseLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertLoadFailed(Future<ServiceProvider> load) throws Exception {
+
+        try {
+            load.get(10, TimeUnit.SECONDS);
+            fail("The load failure should be rethrown.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IdentityApplicationManagementException);
+            assertEquals(e.getCause().getMessage(), "Error while loading the application.");
+        }
+    }
+
+    private void waitUntilWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("The request did not wait for the in progress load.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private ServiceProvider getApplication() {
+
+        ServiceProvider application = new ServiceProvider();
+        application.setApplicationID(1);
+        application.setApplicationName("TestApp");
+        application.setApplicationResourceId(RESOURCE_ID);
+        return application;
+    }
+}
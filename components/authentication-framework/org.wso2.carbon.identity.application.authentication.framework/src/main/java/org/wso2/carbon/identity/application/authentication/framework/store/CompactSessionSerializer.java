@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.application.authentication.framework.exception.SessionSerializerException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact implementation of the Session Serializer.
+ * <p>
+ * The serialized form starts with a header containing a magic number, the format version and the compression
+ * algorithm. The payload is a Java serialization stream in which class descriptors are replaced by the class name,
+ * the serialVersionUID and a hash of the serializable fields, using the locally loaded class as the schema. A class
+ * whose serialVersionUID or fields differ from the serialized form is rejected with an {@link InvalidClassException}
+ * instead of being read with the wrong layout. The payload can optionally be compressed with Deflate.
+ * Rows written by {@link JavaSessionSerializer} do not carry the header and are read with the legacy format.
+ */
+public class CompactSessionSerializer implements SessionSerializer {
+
+    public static final String COMPRESSION_NONE = "none";
+    public static final String COMPRESSION_DEFLATE = "deflate";
+
+    static final byte MAGIC_BYTE_1 = (byte) 0xC5;
+    static final byte MAGIC_BYTE_2 = (byte) 0x53;
+    static final byte FORMAT_VERSION = 2;
+    static final byte COMPRESSION_TYPE_NONE = 0;
+    static final byte COMPRESSION_TYPE_DEFLATE = 1;
+
+    private static final int HEADER_LENGTH = 4;
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    private final byte compressionType;
+    private final JavaSessionSerializer legacySessionSerializer = new JavaSessionSerializer();
+
+    public CompactSessionSerializer() {
+
+        this(COMPRESSION_DEFLATE);
+    }
+
+    /**
+     * Creates a compact session serializer.
+     *
+     * @param compression Compression algorithm. Either {@link #COMPRESSION_NONE} or {@link #COMPRESSION_DEFLATE}.
+     */
+    public CompactSessionSerializer(String compression) {
+
+        if (StringUtils.isBlank(compression) || COMPRESSION_DEFLATE.equalsIgnoreCase(compression.trim())) {
+            this.compressionType = COMPRESSION_TYPE_DEFLATE;
+        } else if (COMPRESSION_NONE.equalsIgnoreCase(compression.trim())) {
+            this.compressionType = COMPRESSION_TYPE_NONE;
+        } else {
+            throw new IllegalArgumentException("Unsupported session serializer compression: " + compression);
+        }
+    }
+
+    @Override
+    public InputStream serializeSessionObject(Object value) throws SessionSerializerException {
+
+        SessionSerializerOutputStream out = new SessionSerializerOutputStream(DEFAULT_BUFFER_SIZE);
+        out.write(MAGIC_BYTE_1);
+        out.write(MAGIC_BYTE_2);
+        out.write(FORMAT_VERSION);
+        out.write(compressionType);
+
+        Deflater deflater = null;
+        try {
+            OutputStream payload = out;
+            if (compressionType == COMPRESSION_TYPE_DEFLATE) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                payload = new DeflaterOutputStream(out, deflater, DEFAULT_BUFFER_SIZE);
+            }
+            ObjectOutputStream oos = new CompactObjectOutputStream(payload);
+            oos.writeObject(value);
+            oos.close();
+        } catch (IOException e) {
+            throw new SessionSerializerException("Error while serializing the session object", e);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        return out.toInputStream();
+    }
+
+    @Override
+    public Object deSerializeSessionObject(InputStream inputStream) throws SessionSerializerException {
+
+        InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        byte[] header = new byte[HEADER_LENGTH];
+        Inflater inflater = null;
+        try {
+            in.mark(HEADER_LENGTH);
+            int headerLength = readHeader(in, header);
+            if (headerLength < HEADER_LENGTH || header[0] != MAGIC_BYTE_1 || header[1] != MAGIC_BYTE_2) {
+                // Rows persisted before the compact format was enabled.
+                in.reset();
+                return legacySessionSerializer.deSerializeSessionObject(in);
+            }
+            if (header[2] != FORMAT_VERSION) {
+                throw new SessionSerializerException("Unsupported session object format version: " + header[2]);
+            }
+
+            InputStream payload;
+            if (header[3] == COMPRESSION_TYPE_DEFLATE) {
+                inflater = new Inflater();
+                payload = new InflaterInputStream(in, inflater, DEFAULT_BUFFER_SIZE);
+            } else if (header[3] == COMPRESSION_TYPE_NONE) {
+                payload = in;
+            } else {
+                throw new SessionSerializerException("Unsupported session object compression type: " + header[3]);
+            }
+            ObjectInputStream ois = new CompactObjectInputStream(payload);
+            return ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SessionSerializerException("Error while de serializing the session object", e);
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    private int readHeader(InputStream in, byte[] header) throws IOException {
+
+        int offset = 0;
+        while (offset < header.length) {
+            int read = in.read(header, offset, header.length - offset);
+            if (read < 0) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    private static Class<?> loadClass(String className) throws ClassNotFoundException {
+
+        try {
+            return Class.forName(className, false, CompactSessionSerializer.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            if (contextClassLoader == null) {
+                throw e;
+            }
+            return Class.forName(className, false, contextClassLoader);
+        }
+    }
+
+    /**
+     * Get a hash of the names and types of the serializable fields of a class.
+     *
+     * @param desc Class descriptor.
+     * @return Hash of the field layout.
+     */
+    static int getFieldLayoutHash(ObjectStreamClass desc) {
+
+        StringBuilder fieldLayout = new StringBuilder();
+        for (ObjectStreamField field : desc.getFields()) {
+            fieldLayout.append(field.getName()).append(':').append(field.getTypeCode());
+            if (field.getTypeString() != null) {
+                fieldLayout.append(field.getTypeString());
+            }
+            fieldLayout.append(';');
+        }
+        return fieldLayout.toString().hashCode();
+    }
+
+    /**
+     * Object output stream which writes the class name, the serialVersionUID and the field layout hash instead of
+     * the full class descriptor.
+     */
+    private static class CompactObjectOutputStream extends ObjectOutputStream {
+
+        CompactObjectOutputStream(OutputStream out) throws IOException {
+
+            super(out);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+
+            writeUTF(desc.getName());
+            writeLong(desc.getSerialVersionUID());
+            writeInt(getFieldLayoutHash(desc));
+        }
+    }
+
+    /**
+     * Object input stream which resolves class descriptors written by {@link CompactObjectOutputStream} from the
+     * locally loaded classes.
+     */
+    private static class CompactObjectInputStream extends ObjectInputStream {
+
+        CompactObjectInputStream(InputStream in) throws IOException {
+
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+
+            String className = readUTF();
+            long serialVersionUID = readLong();
+            int fieldLayoutHash = readInt();
+            ObjectStreamClass desc = ObjectStreamClass.lookup(loadClass(className));
+            if (desc == null) {
+                throw new InvalidClassException(className, "Class is not serializable");
+            }
+            if (desc.getSerialVersionUID() != serialVersionUID) {
+                throw new InvalidClassException(className, "Incompatible class version. Stream serialVersionUID: " +
+                        serialVersionUID + ", local class serialVersionUID: " + desc.getSerialVersionUID());
+            }
+            if (getFieldLayoutHash(desc) != fieldLayoutHash) {
+                throw new InvalidClassException(className, "Serializable fields of the local class differ from the " +
+                        "serialized form");
+            }
+            return desc;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+
+            Class<?> clazz = desc.forClass();
+            if (clazz != null) {
+                return clazz;
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
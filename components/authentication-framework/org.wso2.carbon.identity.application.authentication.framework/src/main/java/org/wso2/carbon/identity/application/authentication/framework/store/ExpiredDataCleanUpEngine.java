@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.base.IdentityRuntimeException;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Removes expired records from the session data tables.
+ * <p>
+ * The expiry time range of each table is split into partitions which are deleted in bounded chunks, each partition
+ * on its own connection. Up to {@code parallelism} partitions are processed concurrently. When a chunk takes longer
+ * than the configured latency threshold, the partition backs off before deleting the next chunk so that the cleanup
+ * does not starve the authentication traffic of database resources. The partitions are processed by a pool owned by
+ * the engine, which has to be released with {@link #shutdown()}.
+ */
+public class ExpiredDataCleanUpEngine {
+
+    private static final Log log = LogFactory.getLog(ExpiredDataCleanUpEngine.class);
+    private static final String EXPIRY_TIME_CONDITION = "EXPIRY_TIME < ?";
+    private static final String EXPIRY_TIME_RANGE_CONDITION = "EXPIRY_TIME >= ? AND EXPIRY_TIME < ?";
+    private static final long MAX_THROTTLE_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final String THREAD_NAME_PREFIX = "ExpiredSessionDataCleanUp-";
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final long chunkLatencyThresholdMillis;
+    private final ExecutorService executorService;
+    private volatile long lastRunRemovedRecords;
+    private volatile double lastRunRemovalRate;
+
+    /**
+     * @param parallelism                 Maximum number of partitions deleted concurrently.
+     * @param chunkSize                   Number of records deleted by a single chunk delete query.
+     * @param chunkLatencyThresholdMillis Chunk latency above which the cleanup is throttled. Zero or less disables
+     *                                    throttling.
+     */
+    public ExpiredDataCleanUpEngine(int parallelism, int chunkSize, long chunkLatencyThresholdMillis) {
+
+        this(parallelism, chunkSize, chunkLatencyThresholdMillis, new CleanUpThreadFactory());
+    }
+
+    ExpiredDataCleanUpEngine(int parallelism, int chunkSize, long chunkLatencyThresholdMillis,
+                             ThreadFactory threadFactory) {
+
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = chunkSize;
+        this.chunkLatencyThresholdMillis = chunkLatencyThresholdMillis;
+        this.executorService = this.parallelism > 1 ? Executors.newFixedThreadPool(this.parallelism, threadFactory) :
+                null;
+    }
+
+    /**
+     * Stops the partition deletion pool. Partitions being deleted are interrupted and no further runs are accepted
+     * in parallel.
+     */
+    public void shutdown() {
+
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Removes the records expired before the given time from all the given targets.
+     *
+     * @param targets    Tables to be cleaned.
+     * @param expiryTime Records with an expiry time earlier than this are removed.
+     * @return Total number of removed records.
+     */
+    public long removeExpiredData(List<CleanUpTarget> targets, long expiryTime) {
+
+        long startTime = System.currentTimeMillis();
+        List<Callable<Long>> partitionTasks = new ArrayList<>();
+        for (CleanUpTarget target : targets) {
+            partitionTasks.addAll(getPartitionTasks(target, expiryTime));
+        }
+
+        long removedRecords = 0;
+        if (partitionTasks.size() == 1 || executorService == null || executorService.isShutdown()) {
+            for (Callable<Long> partitionTask : partitionTasks) {
+                removedRecords += callPartitionTask(partitionTask);
+            }
+        } else if (!partitionTasks.isEmpty()) {
+            removedRecords = runInParallel(partitionTasks);
+        }
+
+        long elapsedTime = Math.max(1, System.currentTimeMillis() - startTime);
+        lastRunRemovedRecords = removedRecords;
+        lastRunRemovalRate = removedRecords * 1000D / elapsedTime;
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Removed %d expired session records in %d ms (%.2f records per second) using %d "
+                    + "partitions.", removedRecords, elapsedTime, lastRunRemovalRate, partitionTasks.size()));
+        }
+        return removedRecords;
+    }
+
+    /**
+     * Returns the number of records removed during the last cleanup run.
+     *
+     * @return Removed record count.
+     */
+    public long getLastRunRemovedRecords() {
+
+        return lastRunRemovedRecords;
+    }
+
+    /**
+     * Returns the number of records removed per second during the last cleanup run.
+     *
+     * @return Removal rate.
+     */
+    public double getLastRunRemovalRate() {
+
+        return lastRunRemovalRate;
+    }
+
+    private long runInParallel(List<Callable<Long>> partitionTasks) {
+
+        long removedRecords = 0;
+        try {
+            List<Future<Long>> futures = executorService.invokeAll(partitionTasks);
+            for (Future<Long> future : futures) {
+                try {
+                    removedRecords += future.get();
+                } catch (ExecutionException e) {
+                    log.error("Error while removing expired session data partition.", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Expired session data cleanup was interrupted.");
+        } catch (RejectedExecutionException e) {
+            log.warn("Expired session data cleanup was stopped.");
+        }
+        return removedRecords;
+    }
+
+    private long callPartitionTask(Callable<Long> partitionTask) {
+
+        try {
+            return partitionTask.call();
+        } catch (Exception e) {
+            log.error("Error while removing expired session data partition.", e);
+            return 0;
+        }
+    }
+
+    private List<Callable<Long>> getPartitionTasks(CleanUpTarget target, long expiryTime) {
+
+        List<Callable<Long>> partitionTasks = new ArrayList<>();
+        String deleteQuery = target.getDeleteQuery();
+        boolean partitionable = parallelism > 1 && StringUtils.countMatches(deleteQuery, EXPIRY_TIME_CONDITION) == 1;
+        if (!partitionable) {
+            partitionTasks.add(() -> deleteInChunks(target.getName(), deleteQuery, false, 0L, expiryTime));
+            return partitionTasks;
+        }
+
+        Long minExpiryTime = getMinExpiryTime(target.getMinExpiryTimeQuery());
+        if (minExpiryTime == null || minExpiryTime >= expiryTime) {
+            if (log.isDebugEnabled()) {
+                log.debug("No expired records found in " + target.getName());
+            }
+            return partitionTasks;
+        }
+
+        String rangeDeleteQuery = deleteQuery.replace(EXPIRY_TIME_CONDITION, EXPIRY_TIME_RANGE_CONDITION);
+        long partitionWidth = (expiryTime - minExpiryTime) / parallelism;
+        if (partitionWidth <= 0) {
+            partitionTasks.add(() -> deleteInChunks(target.getName(), rangeDeleteQuery, true, minExpiryTime,
+                    expiryTime));
+            return partitionTasks;
+        }
+        for (int i = 0; i < parallelism; i++) {
+            long lowerBound = minExpiryTime + i * partitionWidth;
+            long upperBound = (i == parallelism - 1) ? expiryTime : lowerBound + partitionWidth;
+            partitionTasks.add(() -> deleteInChunks(target.getName(), rangeDeleteQuery, true, lowerBound,
+                    upperBound));
+        }
+        return partitionTasks;
+    }
+
+    private Long getMinExpiryTime(String minExpiryTimeQuery) {
+
+        try (Connection connection = IdentityDatabaseUtil.getSessionDBConnection(false);
+             PreparedStatement statement = connection.prepareStatement(minExpiryTimeQuery);
+             ResultSet resultSet = statement.executeQuery()) {
+            if (resultSet.next()) {
+                long minExpiryTime = resultSet.getLong(1);
+                return resultSet.wasNull() ? null : minExpiryTime;
+            }
+        } catch (SQLException | IdentityRuntimeException e) {
+            log.error("Error while retrieving the minimum expiry time using query: " + minExpiryTimeQuery, e);
+        }
+        return null;
+    }
+
+    private long deleteInChunks(String targetName, String sqlQuery, boolean ranged, long lowerBound,
+                                long upperBound) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("DB query for removing expired data: " + sqlQuery + (ranged ? " for expiry time range [" +
+                    lowerBound + ", " + upperBound + ")" : ""));
+        }
+        long totalDeletedEntries = 0;
+        try (Connection connection = IdentityDatabaseUtil.getSessionDBConnection(true)) {
+            boolean deleteCompleted = false;
+            while (!deleteCompleted) {
+                long chunkStartTime = System.currentTimeMillis();
+                try (PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
+                    if (ranged) {
+                        statement.setLong(1, lowerBound);
+                        statement.setLong(2, upperBound);
+                    } else {
+                        statement.setLong(1, upperBound);
+                    }
+                    int noOfDeletedRecords = statement.executeUpdate();
+                    deleteCompleted = noOfDeletedRecords < chunkSize;
+                    totalDeletedEntries += noOfDeletedRecords;
+                    // Commit the chunk deletion.
+                    IdentityDatabaseUtil.commitTransaction(connection);
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Removed %d expired records from %s.", noOfDeletedRecords,
+                                targetName));
+                    }
+                }
+                if (!deleteCompleted) {
+                    throttle(System.currentTimeMillis() - chunkStartTime);
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Deleted total of %d entries from %s", totalDeletedEntries, targetName));
+            }
+        } catch (SQLException | IdentityRuntimeException e) {
+            log.error("Error while removing expired data from " + targetName + " for nano time: " + upperBound, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Removing expired data from " + targetName + " was interrupted.");
+        }
+        return totalDeletedEntries;
+    }
+
+    /**
+     * Backs off when the database is slow to delete a chunk. The delay grows with the observed chunk latency so
+     * that the cleanup uses at most about half of the database time while the database is under pressure.
+     */
+    private void throttle(long chunkLatencyMillis) throws InterruptedException {
+
+        long delay = getThrottleDelay(chunkLatencyMillis);
+        if (delay <= 0) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Expired data chunk deletion took " + chunkLatencyMillis + " ms. Throttling the cleanup for "
+                    + delay + " ms.");
+        }
+        Thread.sleep(delay);
+    }
+
+    long getThrottleDelay(long chunkLatencyMillis) {
+
+        if (chunkLatencyThresholdMillis <= 0 || chunkLatencyMillis <= chunkLatencyThresholdMillis) {
+            return 0;
+        }
+        return Math.min(chunkLatencyMillis, MAX_THROTTLE_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates daemon threads for the partition deletion pool, so that the pool does not keep the server alive.
+     */
+    private static class CleanUpThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * A table from which expired records are removed.
+     */
+    public static class CleanUpTarget {
+
+        private final String name;
+        private final String deleteQuery;
+        private final String minExpiryTimeQuery;
+
+        /**
+         * @param name               Name used in logs.
+         * @param deleteQuery        Chunked delete query having an "EXPIRY_TIME &lt; ?" condition.
+         * @param minExpiryTimeQuery Query returning the minimum expiry time of the table.
+         */
+        public CleanUpTarget(String name, String deleteQuery, String minExpiryTimeQuery) {
+
+            this.name = name;
+            this.deleteQuery = deleteQuery;
+            this.minExpiryTimeQuery = minExpiryTimeQuery;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public String getDeleteQuery() {
+
+            return deleteQuery;
+        }
+
+        public String getMinExpiryTimeQuery() {
+
+            return minExpiryTimeQuery;
+        }
+    }
+}
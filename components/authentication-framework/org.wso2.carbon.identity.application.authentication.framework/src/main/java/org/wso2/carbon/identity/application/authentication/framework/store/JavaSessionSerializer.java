@@ -20,8 +20,6 @@ package org.wso2.carbon.identity.application.authentication.framework.store;
 
 import org.wso2.carbon.identity.application.authentication.framework.exception.SessionSerializerException;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -32,10 +30,12 @@ import java.io.ObjectOutputStream;
  */
 public class JavaSessionSerializer implements SessionSerializer {
 
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+
     @Override
     public InputStream serializeSessionObject(Object value) throws SessionSerializerException {
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SessionSerializerOutputStream baos = new SessionSerializerOutputStream(DEFAULT_BUFFER_SIZE);
         try {
             ObjectOutputStream oos = new ObjectOutputStream(baos);
             oos.writeObject(value);
@@ -44,7 +44,7 @@ public class JavaSessionSerializer implements SessionSerializer {
         } catch (IOException e) {
             throw new SessionSerializerException("Error while serializing the session object", e);
         }
-        return new ByteArrayInputStream(baos.toByteArray());
+        return baos.toInputStream();
     }
 
     @Override
@@ -21,19 +21,39 @@ package org.wso2.carbon.identity.application.authentication.framework.store;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Task to persist and remove session data
+ * Task to persist and remove session data. The task drains the queue in micro-batches, coalesces repeated
+ * operations on the same session key and type so that only the latest one is written, and hands the batch to
+ * {@link SessionDataStore#persistSessionDataBatch(List)}.
  */
 public class SessionDataPersistTask implements Runnable {
 
     private static final Log log = LogFactory.getLog(SessionDataPersistTask.class);
+    private static final AtomicLong persistedBatchCount = new AtomicLong();
+    private static final AtomicLong persistedOperationCount = new AtomicLong();
+    private static final AtomicLong coalescedOperationCount = new AtomicLong();
+    private static volatile int lastBatchSize;
     private BlockingDeque<SessionContextDO> sessionContextQueue;
+    private int batchSize;
     private static volatile boolean running;
 
     public SessionDataPersistTask(BlockingDeque<SessionContextDO> sessionContextQueue) {
+
+        this(sessionContextQueue, 1);
+    }
+
+    public SessionDataPersistTask(BlockingDeque<SessionContextDO> sessionContextQueue, int batchSize) {
+
         this.sessionContextQueue = sessionContextQueue;
+        this.batchSize = Math.max(1, batchSize);
     }
 
     @Override
@@ -46,28 +66,98 @@ public class SessionDataPersistTask implements Runnable {
 
             try {
                 SessionContextDO sessionContextDO = sessionContextQueue.take();
-                if (sessionContextDO != null) {
-                    if (sessionContextDO.getEntry() == null) {
-                        log.debug("Session Data removing Task is started to run");
-                        SessionDataStore.getInstance().removeSessionData(
-                                sessionContextDO.getKey(), sessionContextDO.getType(), sessionContextDO.getNanoTime());
-                    } else {
-                        log.debug("Session Data persisting Task is started to run");
-                        SessionDataStore.getInstance().persistSessionData(
-                                sessionContextDO.getKey(), sessionContextDO.getType(),
-                                sessionContextDO.getEntry(), sessionContextDO.getNanoTime(),
-                                sessionContextDO.getTenantId());
-                    }
+                List<SessionContextDO> drainedOperations = new ArrayList<>(batchSize);
+                drainedOperations.add(sessionContextDO);
+                if (batchSize > 1) {
+                    sessionContextQueue.drainTo(drainedOperations, batchSize - 1);
+                }
+                List<SessionContextDO> batch = coalesce(drainedOperations);
+                if (log.isDebugEnabled()) {
+                    log.debug("Session Data persisting Task is started to run for a batch of " + batch.size() +
+                            " operations. Drained operations: " + drainedOperations.size());
                 }
+                SessionDataStore.getInstance().persistSessionDataBatch(batch);
+
+                lastBatchSize = batch.size();
+                persistedBatchCount.incrementAndGet();
+                persistedOperationCount.addAndGet(batch.size());
+                coalescedOperationCount.addAndGet(drainedOperations.size() - batch.size());
             } catch (InterruptedException e) {
                 //ignore
                 log.error(e);
+            } catch (RuntimeException e) {
+                // Keep the consumer alive even if a batch fails unexpectedly.
+                log.error("Error while persisting session data batch.", e);
             }
 
         }
     }
 
+    /**
+     * Merges operations on the same session key and type, keeping only the one with the latest nano time.
+     *
+     * @param sessionContextDOs Operations drained from the queue.
+     * @return Coalesced operations.
+     */
+    static List<SessionContextDO> coalesce(List<SessionContextDO> sessionContextDOs) {
+
+        if (sessionContextDOs.size() < 2) {
+            return sessionContextDOs;
+        }
+        Map<Map.Entry<String, String>, SessionContextDO> latestOperations = new LinkedHashMap<>();
+        for (SessionContextDO sessionContextDO : sessionContextDOs) {
+            Map.Entry<String, String> operationKey =
+                    new AbstractMap.SimpleImmutableEntry<>(sessionContextDO.getKey(), sessionContextDO.getType());
+            SessionContextDO existing = latestOperations.get(operationKey);
+            if (existing == null || existing.getNanoTime() < sessionContextDO.getNanoTime()) {
+                latestOperations.put(operationKey, sessionContextDO);
+            }
+        }
+        return new ArrayList<>(latestOperations.values());
+    }
+
     public static void shutdown() {
         running = false;
     }
+
+    /**
+     * Returns the number of batches written by the session data persist consumers.
+     *
+     * @return Persisted batch count.
+     */
+    public static long getPersistedBatchCount() {
+
+        return persistedBatchCount.get();
+    }
+
+    /**
+     * Returns the number of operations written by the session data persist consumers after coalescing.
+     *
+     * @return Persisted operation count.
+     */
+    public static long getPersistedOperationCount() {
+
+        return persistedOperationCount.get();
+    }
+
+    /**
+     * Returns the number of operations that were dropped because a newer operation for the same session key and
+     * type was present in the same batch.
+     *
+     * @return Coalesced operation count.
+     */
+    public static long getCoalescedOperationCount() {
+
+        return coalescedOperationCount.get();
+    }
+
+    /**
+     * Returns the size of the most recently written batch.
+     *
+     * @return Last batch size.
+     */
+    public static int getLastBatchSize() {
+
+        return lastBatchSize;
+    }
 }
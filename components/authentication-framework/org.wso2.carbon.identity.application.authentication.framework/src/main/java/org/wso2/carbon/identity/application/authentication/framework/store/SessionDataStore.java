@@ -42,6 +42,15 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -103,6 +112,13 @@ public class SessionDataStore {
                     "FROM IDN_AUTH_SESSION_STORE WHERE SESSION_ID =? AND " +
                     "SESSION_TYPE=? ORDER BY TIME_CREATED DESC) WHERE ROWNUM < 2";
 
+    private static final String SQL_SELECT_LATEST_OPERATIONS =
+            "SELECT SESSION_ID, SESSION_TYPE, OPERATION, MAX(TIME_CREATED) FROM IDN_AUTH_SESSION_STORE WHERE " +
+                    "SESSION_ID IN (%s) GROUP BY SESSION_ID, SESSION_TYPE, OPERATION";
+
+    private static final String SQL_SELECT_MIN_EXPIRY_TIME =
+            "SELECT MIN(EXPIRY_TIME) FROM IDN_AUTH_SESSION_STORE";
+
     private static final String SQL_DELETE_EXPIRED_DATA_TASK_MYSQL =
             "DELETE FROM IDN_AUTH_SESSION_STORE WHERE EXPIRY_TIME < ? LIMIT %d";
     private static final String SQL_DELETE_EXPIRED_DATA_TASK_MSSQL =
@@ -127,12 +143,17 @@ public class SessionDataStore {
     private static final String INFORMIX_DATABASE = "Informix";
 
     private static final int DEFAULT_DELETE_LIMIT = 50000;
+    private static final int MAX_SESSION_IDS_PER_QUERY = 500;
+    private static final int DEFAULT_CLEANUP_PARALLELISM = 1;
+    private static final long DEFAULT_CLEANUP_CHUNK_LATENCY_THRESHOLD = 1000L;
     public static final String DEFAULT_SESSION_STORE_TABLE_NAME = "IDN_AUTH_SESSION_STORE";
     private static final String CACHE_MANAGER_NAME = "IdentityApplicationManagementCacheManager";
     public static final String DEFAULT_TEMP_SESSION_STORE_TABLE_NAME = "IDN_AUTH_TEMP_SESSION_STORE";
     private static int maxSessionDataPoolSize = 100;
     private static int maxTempDataPoolSize = 50;
-    private static BlockingDeque<SessionContextDO> sessionContextQueue = new LinkedBlockingDeque();
+    private static int sessionDataBatchSize = 100;
+    private static int sessionDataQueueCapacity = 10000;
+    private static BlockingDeque<SessionContextDO> sessionContextQueue;
     private static BlockingDeque<SessionContextDO> tempAuthnContextDataDeleteQueue = new LinkedBlockingDeque();
     private static volatile SessionDataStore instance;
     private boolean enablePersist;
@@ -144,6 +165,7 @@ public class SessionDataStore {
     private String sqlSelect;
     private String sqlDeleteExpiredDataTask;
     private int deleteChunkSize = DEFAULT_DELETE_LIMIT;
+    private ExpiredDataCleanUpEngine expiredDataCleanUpEngine;
     private boolean sessionDataCleanupEnabled = true;
     private boolean operationDataCleanupEnabled = false;
     private static boolean tempDataCleanupEnabled = false;
@@ -160,6 +182,23 @@ public class SessionDataStore {
                 maxSessionDataPoolSize = Integer.parseInt(maxPoolSizeValue);
             }
 
+            String batchSizeValue = IdentityUtil.getProperty("JDBCPersistenceManager.SessionDataPersist.BatchSize");
+            if (StringUtils.isNotBlank(batchSizeValue)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Session data persist batch size config value: " + batchSizeValue);
+                }
+                sessionDataBatchSize = Math.max(1, Integer.parseInt(batchSizeValue));
+            }
+
+            String queueCapacityValue =
+                    IdentityUtil.getProperty("JDBCPersistenceManager.SessionDataPersist.QueueCapacity");
+            if (StringUtils.isNotBlank(queueCapacityValue)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Session data persist queue capacity config value: " + queueCapacityValue);
+                }
+                sessionDataQueueCapacity = Integer.parseInt(queueCapacityValue);
+            }
+
             String isTempDataCleanupEnabledVal
                     = IdentityUtil.getProperty("JDBCPersistenceManager.SessionDataPersist.TempDataCleanup.Enable");
             if (StringUtils.isNotBlank(isTempDataCleanupEnabledVal)) {
@@ -190,11 +229,17 @@ public class SessionDataStore {
             }
             log.warn("One or more pool size configurations cause NumberFormatException. Default values would be used");
         }
+        if (sessionDataQueueCapacity > 0) {
+            sessionContextQueue = new LinkedBlockingDeque<>(sessionDataQueueCapacity);
+        } else {
+            sessionContextQueue = new LinkedBlockingDeque<>();
+        }
         if (maxSessionDataPoolSize > 0) {
-            log.info("Thread pool size for session persistent consumer : " + maxSessionDataPoolSize);
+            log.info("Thread pool size for session persistent consumer : " + maxSessionDataPoolSize +
+                    ", batch size : " + sessionDataBatchSize + ", queue capacity : " + sessionDataQueueCapacity);
             ExecutorService threadPool = Executors.newFixedThreadPool(maxSessionDataPoolSize);
             for (int i = 0; i < maxSessionDataPoolSize; i++) {
-                threadPool.execute(new SessionDataPersistTask(sessionContextQueue));
+                threadPool.execute(new SessionDataPersistTask(sessionContextQueue, sessionDataBatchSize));
             }
         }
         if (tempDataCleanupEnabled && maxTempDataPoolSize > 0) {
@@ -264,6 +309,21 @@ public class SessionDataStore {
             sqlDeleteExpiredDataTask = String.format(deleteExpiredDataTaskSQL, deleteChunkSize);
         }
 
+        int cleanUpParallelism = DEFAULT_CLEANUP_PARALLELISM;
+        String cleanUpParallelismString = IdentityUtil.getProperty("JDBCPersistenceManager.SessionDataPersist" +
+                ".SessionDataCleanUp.Parallelism");
+        if (StringUtils.isNotBlank(cleanUpParallelismString)) {
+            cleanUpParallelism = Integer.parseInt(cleanUpParallelismString);
+        }
+        long chunkLatencyThreshold = DEFAULT_CLEANUP_CHUNK_LATENCY_THRESHOLD;
+        String chunkLatencyThresholdString = IdentityUtil.getProperty("JDBCPersistenceManager.SessionDataPersist" +
+                ".SessionDataCleanUp.ChunkLatencyThreshold");
+        if (StringUtils.isNotBlank(chunkLatencyThresholdString)) {
+            chunkLatencyThreshold = Long.parseLong(chunkLatencyThresholdString);
+        }
+        expiredDataCleanUpEngine = new ExpiredDataCleanUpEngine(cleanUpParallelism, deleteChunkSize,
+                chunkLatencyThreshold);
+
         if (!enablePersist) {
             log.info("Session Data Persistence of Authentication framework is not enabled.");
         }
@@ -385,7 +445,14 @@ public class SessionDataStore {
         }
         long nanoTime = FrameworkUtils.getCurrentStandardNano();
         if (maxSessionDataPoolSize > 0 && !isTempCache(type)) {
-            sessionContextQueue.push(new SessionContextDO(key, type, entry, nanoTime, tenantId));
+            if (!sessionContextQueue.offerFirst(new SessionContextDO(key, type, entry, nanoTime, tenantId))) {
+                // Queue is full. Persist in the caller thread to apply backpressure on the producers.
+                if (log.isDebugEnabled()) {
+                    log.debug("Session data persist queue is full. Persisting session data synchronously. key : "
+                            + key + " type : " + type);
+                }
+                persistSessionData(key, type, entry, nanoTime, tenantId);
+            }
         } else {
             persistSessionData(key, type, entry, nanoTime, tenantId);
         }
@@ -397,12 +464,29 @@ public class SessionDataStore {
         }
         long nanoTime = FrameworkUtils.getCurrentStandardNano();
         if (maxSessionDataPoolSize > 0 && !isTempCache(type)) {
-            sessionContextQueue.push(new SessionContextDO(key, type, null, nanoTime));
+            if (!sessionContextQueue.offerFirst(new SessionContextDO(key, type, null, nanoTime))) {
+                // Queue is full. Remove in the caller thread to apply backpressure on the producers.
+                if (log.isDebugEnabled()) {
+                    log.debug("Session data persist queue is full. Removing session data synchronously. key : "
+                            + key + " type : " + type);
+                }
+                removeSessionData(key, type, nanoTime);
+            }
         } else {
             removeSessionData(key, type, nanoTime);
         }
     }
 
+    /**
+     * Returns the number of session data operations waiting in the persist queue.
+     *
+     * @return Current depth of the session data persist queue.
+     */
+    public int getSessionDataQueueSize() {
+
+        return sessionContextQueue.size();
+    }
+
     /**
      * Method to stop running tasks, when the component is deactivated.
      */
@@ -410,6 +494,9 @@ public class SessionDataStore {
 
         TempAuthContextDataDeleteTask.shutdown();
         SessionDataPersistTask.shutdown();
+        if (expiredDataCleanUpEngine != null) {
+            expiredDataCleanUpEngine.shutdown();
+        }
     }
 
     /**
@@ -451,39 +538,6 @@ public class SessionDataStore {
         }
     }
 
-    /**
-     * Removes the records related to expired sessions from DB.
-     */
-    private void removeExpiredSessionData(String sqlQuery) {
-
-        if (log.isDebugEnabled()) {
-            log.debug("DB query for removing expired data: " + sqlQuery);
-        }
-        long currentTime = FrameworkUtils.getCurrentStandardNano();
-        try (Connection connection = IdentityDatabaseUtil.getSessionDBConnection(true)) {
-            boolean deleteCompleted = false;
-            int totalDeletedEntries = 0;
-            while (!deleteCompleted) {
-                try (PreparedStatement statement = connection.prepareStatement(sqlQuery)) {
-                    statement.setLong(1, currentTime);
-                    int noOfDeletedRecords = statement.executeUpdate();
-                    deleteCompleted = noOfDeletedRecords < deleteChunkSize;
-                    totalDeletedEntries += noOfDeletedRecords;
-                    // Commit the chunk deletion.
-                    IdentityDatabaseUtil.commitTransaction(connection);
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Removed %d expired session records.", noOfDeletedRecords));
-                    }
-                }
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Deleted total of %d entries", totalDeletedEntries));
-            }
-        } catch (SQLException | IdentityRuntimeException e) {
-            log.error("Error while removing session data from the database for nano time: " + currentTime, e);
-        }
-    }
-
     /**
      * Cleans the session data and operation data (if enabled) from the DB
      */
@@ -496,11 +550,17 @@ public class SessionDataStore {
                 log.error("Error when initializing the db specific cleanup query.", e);
             }
         }
+        List<ExpiredDataCleanUpEngine.CleanUpTarget> cleanUpTargets = new ArrayList<>();
         if (sessionDataCleanupEnabled) {
-            removeExpiredSessionData(sqlDeleteExpiredDataTask);
+            cleanUpTargets.add(new ExpiredDataCleanUpEngine.CleanUpTarget(DEFAULT_SESSION_STORE_TABLE_NAME,
+                    sqlDeleteExpiredDataTask, SQL_SELECT_MIN_EXPIRY_TIME));
         }
         if (tempDataCleanupEnabled && periodicTempDataCleanupEnabled) {
-            removeExpiredSessionData(replaceTableName(sqlDeleteExpiredDataTask));
+            cleanUpTargets.add(new ExpiredDataCleanUpEngine.CleanUpTarget(DEFAULT_TEMP_SESSION_STORE_TABLE_NAME,
+                    replaceTableName(sqlDeleteExpiredDataTask), replaceTableName(SQL_SELECT_MIN_EXPIRY_TIME)));
+        }
+        if (!cleanUpTargets.isEmpty()) {
+            expiredDataCleanUpEngine.removeExpiredData(cleanUpTargets, FrameworkUtils.getCurrentStandardNano());
         }
         if (operationDataCleanupEnabled) {
             removeInvalidatedSTOREOperations();
@@ -607,6 +667,186 @@ public class SessionDataStore {
         }
     }
 
+    /**
+     * Persists a batch of STORE and DELETE operations using JDBC batch statements within a single transaction.
+     * If the batch write fails, the operations are retried one by one so that a single faulty entry does not
+     * cause the whole batch to be lost.
+     *
+     * @param sessionContextDOs Session data operations to be written. Entries with a null entry are DELETE operations.
+     */
+    public void persistSessionDataBatch(List<SessionContextDO> sessionContextDOs) {
+
+        if (!enablePersist || sessionContextDOs == null || sessionContextDOs.isEmpty()) {
+            return;
+        }
+        if (sessionContextDOs.size() == 1) {
+            persistSessionData(sessionContextDOs.get(0));
+            return;
+        }
+
+        Map<String, List<SessionContextDO>> storeOperations = new LinkedHashMap<>();
+        Map<String, List<SessionContextDO>> deleteOperations = new LinkedHashMap<>();
+        List<SessionContextDO> requestedDeleteOperations = new ArrayList<>();
+        for (SessionContextDO sessionContextDO : sessionContextDOs) {
+            if (sessionContextDO.getEntry() == null) {
+                requestedDeleteOperations.add(sessionContextDO);
+            } else {
+                storeOperations.computeIfAbsent(getSessionStoreDBQuery(sqlInsertSTORE, sessionContextDO.getType()),
+                        k -> new ArrayList<>()).add(sessionContextDO);
+            }
+        }
+
+        Connection connection;
+        try {
+            connection = IdentityDatabaseUtil.getSessionDBConnection(true);
+        } catch (IdentityRuntimeException e) {
+            log.error(e.getMessage(), e);
+            return;
+        }
+        try {
+            // Sessions which are already deleted in the store need no other DELETE operation.
+            Set<Map.Entry<String, String>> deletedSessions = getDeletedSessions(connection, requestedDeleteOperations);
+            for (SessionContextDO sessionContextDO : requestedDeleteOperations) {
+                if (!deletedSessions.contains(new AbstractMap.SimpleImmutableEntry<>(sessionContextDO.getKey(),
+                        sessionContextDO.getType()))) {
+                    deleteOperations.computeIfAbsent(getSessionStoreDBQuery(sqlInsertDELETE,
+                            sessionContextDO.getType()), k -> new ArrayList<>()).add(sessionContextDO);
+                }
+            }
+            for (Map.Entry<String, List<SessionContextDO>> operations : storeOperations.entrySet()) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(operations.getKey())) {
+                    for (SessionContextDO sessionContextDO : operations.getValue()) {
+                        Object entry = sessionContextDO.getEntry();
+                        long validityPeriodNano = 0L;
+                        if (entry instanceof CacheEntry) {
+                            validityPeriodNano = ((CacheEntry) entry).getValidityPeriod();
+                        }
+                        if (validityPeriodNano == 0L) {
+                            validityPeriodNano = getCleanupTimeout(sessionContextDO.getType(),
+                                    sessionContextDO.getTenantId());
+                        }
+                        preparedStatement.setString(1, sessionContextDO.getKey());
+                        preparedStatement.setString(2, sessionContextDO.getType());
+                        preparedStatement.setString(3, OPERATION_STORE);
+                        setBlobObject(preparedStatement, entry, 4);
+                        preparedStatement.setLong(5, sessionContextDO.getNanoTime());
+                        preparedStatement.setLong(6, sessionContextDO.getNanoTime() + validityPeriodNano);
+                        preparedStatement.setInt(7, sessionContextDO.getTenantId());
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                }
+            }
+            for (Map.Entry<String, List<SessionContextDO>> operations : deleteOperations.entrySet()) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(operations.getKey())) {
+                    for (SessionContextDO sessionContextDO : operations.getValue()) {
+                        long timeoutNano = sessionContextDO.getNanoTime() + getCleanupTimeout(
+                                sessionContextDO.getType(), MultitenantConstants.INVALID_TENANT_ID);
+                        preparedStatement.setString(1, sessionContextDO.getKey());
+                        preparedStatement.setString(2, sessionContextDO.getType());
+                        preparedStatement.setString(3, OPERATION_DELETE);
+                        preparedStatement.setLong(4, sessionContextDO.getNanoTime());
+                        preparedStatement.setLong(5, timeoutNano);
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                }
+            }
+            IdentityDatabaseUtil.commitTransaction(connection);
+            if (log.isDebugEnabled()) {
+                log.debug("Persisted a batch of " + sessionContextDOs.size() + " session data operations to DB.");
+            }
+            return;
+        } catch (SQLException | IOException | SessionSerializerException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            log.warn("Error while persisting a batch of session data. Retrying the operations individually.", e);
+        } finally {
+            IdentityDatabaseUtil.closeAllConnections(connection, null, null);
+        }
+
+        for (List<SessionContextDO> operations : storeOperations.values()) {
+            operations.forEach(this::persistSessionData);
+        }
+        for (List<SessionContextDO> operations : deleteOperations.values()) {
+            operations.forEach(this::persistSessionData);
+        }
+    }
+
+    /**
+     * Finds the sessions among the given DELETE operations whose latest operation in the store is already a DELETE
+     * operation. The latest operations are read with one query per session table and chunk of session ids, instead
+     * of one query per operation.
+     *
+     * @param connection       Session DB connection.
+     * @param deleteOperations DELETE operations to be written.
+     * @return Session key and type pairs which are already deleted in the store.
+     * @throws SQLException If an error occurred while reading the latest operations.
+     */
+    private Set<Map.Entry<String, String>> getDeletedSessions(Connection connection,
+                                                             List<SessionContextDO> deleteOperations)
+            throws SQLException {
+
+        if (deleteOperations.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Map<String, List<String>> sessionIdsByQuery = new LinkedHashMap<>();
+        for (SessionContextDO sessionContextDO : deleteOperations) {
+            List<String> sessionIds = sessionIdsByQuery.computeIfAbsent(
+                    getSessionStoreDBQuery(SQL_SELECT_LATEST_OPERATIONS, sessionContextDO.getType()),
+                    k -> new ArrayList<>());
+            if (!sessionIds.contains(sessionContextDO.getKey())) {
+                sessionIds.add(sessionContextDO.getKey());
+            }
+        }
+
+        Map<Map.Entry<String, String>, Long> latestStoreTimes = new HashMap<>();
+        Map<Map.Entry<String, String>, Long> latestDeleteTimes = new HashMap<>();
+        for (Map.Entry<String, List<String>> sessionIds : sessionIdsByQuery.entrySet()) {
+            List<String> allSessionIds = sessionIds.getValue();
+            for (int from = 0; from < allSessionIds.size(); from += MAX_SESSION_IDS_PER_QUERY) {
+                List<String> chunk = allSessionIds.subList(from,
+                        Math.min(from + MAX_SESSION_IDS_PER_QUERY, allSessionIds.size()));
+                String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        String.format(sessionIds.getKey(), placeholders))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        preparedStatement.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            Map.Entry<String, String> session = new AbstractMap.SimpleImmutableEntry<>(
+                                    resultSet.getString(1), resultSet.getString(2));
+                            if (StringUtils.equalsIgnoreCase(OPERATION_DELETE, resultSet.getString(3))) {
+                                latestDeleteTimes.put(session, resultSet.getLong(4));
+                            } else {
+                                latestStoreTimes.put(session, resultSet.getLong(4));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        Set<Map.Entry<String, String>> deletedSessions = new HashSet<>();
+        for (Map.Entry<Map.Entry<String, String>, Long> latestDelete : latestDeleteTimes.entrySet()) {
+            Long latestStoreTime = latestStoreTimes.get(latestDelete.getKey());
+            if (latestStoreTime == null || latestStoreTime < latestDelete.getValue()) {
+                deletedSessions.add(latestDelete.getKey());
+            }
+        }
+        return deletedSessions;
+    }
+
+    private void persistSessionData(SessionContextDO sessionContextDO) {
+
+        if (sessionContextDO.getEntry() == null) {
+            removeSessionData(sessionContextDO.getKey(), sessionContextDO.getType(), sessionContextDO.getNanoTime());
+        } else {
+            persistSessionData(sessionContextDO.getKey(), sessionContextDO.getType(), sessionContextDO.getEntry(),
+                    sessionContextDO.getNanoTime(), sessionContextDO.getTenantId());
+        }
+    }
+
     /**
      * Removes temporary authn context data from the table if temporary data cleanup is enabled.
      *
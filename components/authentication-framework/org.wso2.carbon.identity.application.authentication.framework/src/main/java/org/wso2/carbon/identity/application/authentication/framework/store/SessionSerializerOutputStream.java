@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+/**
+ * Byte array output stream which exposes the written bytes as an input stream without copying the buffer.
+ */
+class SessionSerializerOutputStream extends ByteArrayOutputStream {
+
+    SessionSerializerOutputStream(int size) {
+
+        super(size);
+    }
+
+    /**
+     * Returns an input stream backed by the internal buffer. The stream must not be written to afterwards.
+     *
+     * @return Input stream over the written bytes.
+     */
+    InputStream toInputStream() {
+
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+}
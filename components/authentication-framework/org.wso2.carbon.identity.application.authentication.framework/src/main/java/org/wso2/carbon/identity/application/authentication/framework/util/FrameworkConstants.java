@@ -376,6 +376,15 @@ public abstract class FrameworkConstants {
         public static final String SESSION_DATA_STORAGE_OPTIMIZATION_ENABLED =
                 "JDBCPersistenceManager.SessionDataPersist.SessionDataStorageOptimization.Enable";
 
+        /**
+         * Configurations used to select the default session serializer.
+         */
+        public static final String SESSION_SERIALIZER_TYPE =
+                "JDBCPersistenceManager.SessionDataPersist.Serializer.Type";
+        public static final String SESSION_SERIALIZER_COMPRESSION =
+                "JDBCPersistenceManager.SessionDataPersist.Serializer.Compression";
+        public static final String SESSION_SERIALIZER_TYPE_COMPACT = "compact";
+
         /**
          * Configuration to enable publishing the active session count in analytics event.
          */
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.context.AuthenticationContext;
+import org.wso2.carbon.identity.application.authentication.framework.exception.SessionSerializerException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Unit tests for {@link CompactSessionSerializer}.
+ */
+public class CompactSessionSerializerTest {
+
+    @DataProvider
+    public Object[][] getCompressionData() {
+
+        return new Object[][]{
+                {CompactSessionSerializer.COMPRESSION_NONE},
+                {CompactSessionSerializer.COMPRESSION_DEFLATE}
+        };
+    }
+
+    @Test(dataProvider = "getCompressionData")
+    public void testSerializeAndDeserialize(String compression) throws Exception {
+
+        CompactSessionSerializer serializer = new CompactSessionSerializer(compression);
+        AuthenticationContext context = buildAuthenticationContext();
+
+        byte[] serialized = IOUtils.toByteArray(serializer.serializeSessionObject(context));
+        AuthenticationContext deserialized = (AuthenticationContext) serializer.deSerializeSessionObject(
+                new ByteArrayInputStream(serialized));
+
+        assertEquals(deserialized.getContextIdentifier(), context.getContextIdentifier());
+        assertEquals(deserialized.getTenantDomain(), context.getTenantDomain());
+        assertEquals(deserialized.getServiceProviderName(), context.getServiceProviderName());
+        assertEquals(deserialized.getProperty("property-10"), "value-10");
+    }
+
+    @Test
+    public void testSerializedSizeIsSmallerThanJavaSerialization() throws Exception {
+
+        AuthenticationContext context = buildAuthenticationContext();
+        byte[] javaSerialized = IOUtils.toByteArray(new JavaSessionSerializer().serializeSessionObject(context));
+        byte[] compactSerialized = IOUtils.toByteArray(new CompactSessionSerializer(
+                CompactSessionSerializer.COMPRESSION_NONE).serializeSessionObject(context));
+        byte[] compressedSerialized = IOUtils.toByteArray(new CompactSessionSerializer(
+                CompactSessionSerializer.COMPRESSION_DEFLATE).serializeSessionObject(context));
+
+        assertTrue(compactSerialized.length < javaSerialized.length);
+        assertTrue(compressedSerialized.length < compactSerialized.length);
+    }
+
+    @Test
+    public void testDeserializeLegacyJavaSerializedObject() throws Exception {
+
+        AuthenticationContext context = buildAuthenticationContext();
+        byte[] javaSerialized = IOUtils.toByteArray(new JavaSessionSerializer().serializeSessionObject(context));
+
+        AuthenticationContext deserialized = (AuthenticationContext) new CompactSessionSerializer()
+                .deSerializeSessionObject(new ByteArrayInputStream(javaSerialized));
+
+        assertEquals(deserialized.getContextIdentifier(), context.getContextIdentifier());
+    }
+
+    @Test(expectedExceptions = SessionSerializerException.class)
+    public void testDeserializeUnsupportedVersion() throws Exception {
+
+        byte[] serialized = new byte[]{CompactSessionSerializer.MAGIC_BYTE_1, CompactSessionSerializer.MAGIC_BYTE_2,
+                (byte) (CompactSessionSerializer.FORMAT_VERSION + 1), CompactSessionSerializer.COMPRESSION_TYPE_NONE};
+        new CompactSessionSerializer().deSerializeSessionObject(new ByteArrayInputStream(serialized));
+    }
+
+    @DataProvider
+    public Object[][] getDescriptorOffsetData() {
+
+        // Offsets from the end of the class name: the serialVersionUID is followed by the field layout hash.
+        return new Object[][]{
+                {0},
+                {8}
+        };
+    }
+
+    @Test(dataProvider = "getDescriptorOffsetData")
+    public void testDeserializeIncompatibleClassVersion(int offset) throws Exception {
+
+        byte[] serialized = IOUtils.toByteArray(new CompactSessionSerializer(CompactSessionSerializer.COMPRESSION_NONE)
+                .serializeSessionObject(new VersionedValue("value")));
+        byte[] className = VersionedValue.class.getName().getBytes(StandardCharsets.UTF_8);
+        int descriptorIndex = indexOf(serialized, className) + className.length + offset;
+        assertTrue(descriptorIndex >= className.length + offset, "Class descriptor not found in the stream.");
+        // Simulate a row written by a different version of the class.
+        serialized[descriptorIndex] ^= 0x01;
+
+        try {
+            new CompactSessionSerializer().deSerializeSessionObject(new ByteArrayInputStream(serialized));
+            fail("Expected the incompatible class version to be rejected.");
+        } catch (SessionSerializerException e) {
+            assertTrue(e.getCause() instanceof InvalidClassException);
+        }
+    }
+
+    @Test
+    public void testSerializeAndDeserializeCustomClass() throws Exception {
+
+        CompactSessionSerializer serializer = new CompactSessionSerializer();
+        byte[] serialized = IOUtils.toByteArray(serializer.serializeSessionObject(new VersionedValue("value")));
+        VersionedValue deserialized = (VersionedValue) serializer.deSerializeSessionObject(
+                new ByteArrayInputStream(serialized));
+
+        assertEquals(deserialized.value, "value");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnsupportedCompression() {
+
+        new CompactSessionSerializer("lz4");
+    }
+
+    private static int indexOf(byte[] array, byte[] target) {
+
+        outer:
+        for (int i = 0; i <= array.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (array[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private AuthenticationContext buildAuthenticationContext() {
+
+        AuthenticationContext context = new AuthenticationContext();
+        context.setContextIdentifier("a7d3b5f8-3c2e-4f7a-9b1d-2e6f8c9a0b1c");
+        context.setTenantDomain("carbon.super");
+        context.setServiceProviderName("travelocity.com");
+        context.setRelyingParty("travelocity.com");
+        context.setRequestType("samlsso");
+        context.setCallerSessionKey("e1c9f8b7-6d5a-4c3b-2a19-0f8e7d6c5b4a");
+        for (int i = 0; i < 20; i++) {
+            context.setProperty("property-" + i, "value-" + i);
+        }
+        return context;
+    }
+
+    private static class VersionedValue implements Serializable {
+
+        private static final long serialVersionUID = 4128716438517562003L;
+
+        private final String value;
+
+        VersionedValue(String value) {
+
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.application.authentication.framework.store;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ExpiredDataCleanUpEngine}.
+ */
+public class ExpiredDataCleanUpEngineTest extends DataStoreBaseTest {
+
+    private static final String DB_NAME = "EXPIRED_DATA_CLEAN_UP_ENGINE";
+    private static final String SQL_DELETE_EXPIRED_DATA =
+            "DELETE FROM IDN_AUTH_SESSION_STORE WHERE EXPIRY_TIME < ? FETCH FIRST %d ROWS ONLY";
+    private static final String SQL_SELECT_MIN_EXPIRY_TIME = "SELECT MIN(EXPIRY_TIME) FROM IDN_AUTH_SESSION_STORE";
+    private static final String SQL_INSERT_SESSION = "INSERT INTO IDN_AUTH_SESSION_STORE (SESSION_ID, SESSION_TYPE, " +
+            "OPERATION, TIME_CREATED, EXPIRY_TIME) VALUES (?, 'AppAuthFrameworkSessionContextCache', 'STORE', ?, ?)";
+    private static final String SQL_COUNT_SESSIONS = "SELECT COUNT(*) FROM IDN_AUTH_SESSION_STORE";
+
+    private MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil;
+    private Set<String> connectionThreads;
+    private ExpiredDataCleanUpEngine engine;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        initH2DB(DB_NAME, getDatabaseScriptFilePath("session_data_store_h2.sql"));
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+
+        closeH2DB(DB_NAME);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+
+        connectionThreads = ConcurrentHashMap.newKeySet();
+        identityDatabaseUtil = mockIdentityDatabaseUtil();
+        try (Connection connection = getConnection(DB_NAME);
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM IDN_AUTH_SESSION_STORE")) {
+            statement.executeUpdate();
+        }
+    }
+
+    @AfterMethod
+    public void tearDownMethod() {
+
+        if (engine != null) {
+            engine.shutdown();
+            engine = null;
+        }
+        identityDatabaseUtil.close();
+    }
+
+    @Test
+    public void testRemoveExpiredDataInChunks() throws Exception {
+
+        insertSessions(7, 1000L, 10L);
+        insertSessions(3, 5000L, 10L);
+        engine = new ExpiredDataCleanUpEngine(1, 2, 0);
+
+        long removedRecords = engine.removeExpiredData(getTargets(2), 2000L);
+
+        assertEquals(removedRecords, 7);
+        assertEquals(engine.getLastRunRemovedRecords(), 7);
+        assertEquals(getSessionCount(), 3);
+        assertFalse(connectionThreads.stream().anyMatch(name -> name.startsWith("CleanUpTest-")));
+    }
+
+    @Test
+    public void testRemoveExpiredDataInParallelPartitions() throws Exception {
+
+        insertSessions(40, 1000L, 25L);
+        insertSessions(5, 5000L, 10L);
+        engine = new ExpiredDataCleanUpEngine(4, 3, 0, getThreadFactory());
+
+        long removedRecords = engine.removeExpiredData(getTargets(3), 2000L);
+
+        assertEquals(removedRecords, 40);
+        assertEquals(getSessionCount(), 5);
+        assertTrue(connectionThreads.stream().anyMatch(name -> name.startsWith("CleanUpTest-")),
+                "Partitions should be deleted by the engine pool.");
+    }
+
+    @Test
+    public void testPoolIsReusedAcrossRuns() throws Exception {
+
+        Set<String> poolThreads = ConcurrentHashMap.newKeySet();
+        ThreadFactory threadFactory = getThreadFactory();
+        engine = new ExpiredDataCleanUpEngine(2, 5, 0, runnable -> {
+            Thread thread = threadFactory.newThread(runnable);
+            poolThreads.add(thread.getName());
+            return thread;
+        });
+
+        insertSessions(10, 1000L, 10L);
+        assertEquals(engine.removeExpiredData(getTargets(5), 2000L), 10);
+        insertSessions(10, 3000L, 10L);
+        assertEquals(engine.removeExpiredData(getTargets(5), 4000L), 10);
+
+        assertEquals(poolThreads.size(), 2, "Runs should share the threads created with the engine.");
+        assertEquals(getSessionCount(), 0);
+    }
+
+    @Test
+    public void testRemoveExpiredDataAfterShutdown() throws Exception {
+
+        insertSessions(6, 1000L, 10L);
+        engine = new ExpiredDataCleanUpEngine(3, 2, 0, getThreadFactory());
+        engine.shutdown();
+
+        assertEquals(engine.removeExpiredData(getTargets(2), 2000L), 6);
+        assertEquals(getSessionCount(), 0);
+    }
+
+    @Test
+    public void testNoPartitionsWhenNothingExpired() throws Exception {
+
+        insertSessions(4, 5000L, 10L);
+        engine = new ExpiredDataCleanUpEngine(4, 2, 0, getThreadFactory());
+
+        assertEquals(engine.removeExpiredData(getTargets(2), 2000L), 0);
+        assertEquals(getSessionCount(), 4);
+        assertTrue(connectionThreads.stream().noneMatch(name -> name.startsWith("CleanUpTest-")));
+    }
+
+    @Test
+    public void testThrottleDelay() {
+
+        ExpiredDataCleanUpEngine throttledEngine = new ExpiredDataCleanUpEngine(1, 10, 100);
+        assertEquals(throttledEngine.getThrottleDelay(50), 0);
+        assertEquals(throttledEngine.getThrottleDelay(100), 0);
+        assertEquals(throttledEngine.getThrottleDelay(250), 250);
+        assertEquals(throttledEngine.getThrottleDelay(120000), 30000);
+
+        ExpiredDataCleanUpEngine unthrottledEngine = new ExpiredDataCleanUpEngine(1, 10, 0);
+        assertEquals(unthrottledEngine.getThrottleDelay(120000), 0);
+    }
+
+    @Test
+    public void testChunksAreThrottledWhenSlow() throws Exception {
+
+        insertSessions(4, 1000L, 10L);
+        ExpiredDataCleanUpEngine throttledEngine = spy(new ExpiredDataCleanUpEngine(1, 1, 1));
+        doReturn(20L).when(throttledEngine).getThrottleDelay(anyLong());
+
+        long startTime = System.currentTimeMillis();
+        assertEquals(throttledEngine.removeExpiredData(getTargets(1), 2000L), 4);
+        long elapsedTime = System.currentTimeMillis() - startTime;
+
+        // Every full chunk is followed by a back off, the final partial chunk is not.
+        verify(throttledEngine, times(4)).getThrottleDelay(anyLong());
+        assertTrue(elapsedTime >= 80, "Cleanup should back off after slow chunks.");
+        assertEquals(getSessionCount(), 0);
+    }
+
+    private List<ExpiredDataCleanUpEngine.CleanUpTarget> getTargets(int chunkSize) {
+
+        return Collections.singletonList(new ExpiredDataCleanUpEngine.CleanUpTarget("IDN_AUTH_SESSION_STORE",
+                String.format(SQL_DELETE_EXPIRED_DATA, chunkSize), SQL_SELECT_MIN_EXPIRY_TIME));
+    }
+
+    /**
+     * Static mocks are bound to the thread that created them, so each pool thread registers its own mock for the
+     * lifetime of the thread.
+     */
+    private ThreadFactory getThreadFactory() {
+
+        return new ThreadFactory() {
+
+            private int threadCount;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+
+                Thread thread = new Thread(() -> {
+                    try (MockedStatic<IdentityDatabaseUtil> ignored = mockIdentityDatabaseUtil()) {
+                        runnable.run();
+                    }
+                }, "CleanUpTest-" + (++threadCount));
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private MockedStatic<IdentityDatabaseUtil> mockIdentityDatabaseUtil() {
+
+        MockedStatic<IdentityDatabaseUtil> mockedStatic = mockStatic(IdentityDatabaseUtil.class);
+        mockedStatic.when(() -> IdentityDatabaseUtil.getSessionDBConnection(anyBoolean())).thenAnswer(invocation -> {
+            connectionThreads.add(Thread.currentThread().getName());
+            Connection connection = getConnection(DB_NAME);
+            connection.setAutoCommit(!(boolean) invocation.getArgument(0));
+            return connection;
+        });
+        mockedStatic.when(() -> IdentityDatabaseUtil.commitTransaction(any(Connection.class))).thenAnswer(
+                invocation -> {
+                    ((Connection) invocation.getArgument(0)).commit();
+                    return null;
+                });
+        return mockedStatic;
+    }
+
+    private void insertSessions(int count, long firstExpiryTime, long expiryTimeStep) throws SQLException {
+
+        try (Connection connection = getConnection(DB_NAME);
+             PreparedStatement statement = connection.prepareStatement(SQL_INSERT_SESSION)) {
+            for (int i = 0; i < count; i++) {
+                statement.setString(1, "session-" + firstExpiryTime + "-" + i);
+                statement.setLong(2, firstExpiryTime + i);
+                statement.setLong(3, firstExpiryTime + i * expiryTimeStep);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private int getSessionCount() throws SQLException {
+
+        try (Connection connection = getConnection(DB_NAME);
+             PreparedStatement statement = connection.prepareStatement(SQL_COUNT_SESSIONS);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -33,7 +33,11 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.idp.mgt.util.IdPManagementUtil;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -44,6 +48,9 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 /**
  * Test class that includes unit tests of Session Data Store.
@@ -97,6 +104,96 @@ public class SessionDataStoreTest extends DataStoreBaseTest {
         }
     }
 
+    @Test
+    public void testPersistSessionDataBatch() throws Exception {
+
+        try (MockedStatic<CarbonContext> carbonContext = mockStatic(CarbonContext.class);
+             MockedStatic<IdentityTenantUtil> identityTenantUtil = mockStatic(IdentityTenantUtil.class);
+             MockedStatic<IdPManagementUtil> idPManagementUtil = mockStatic(IdPManagementUtil.class);
+             MockedStatic<IdentityUtil> identityUtil = mockStatic(IdentityUtil.class);
+             MockedStatic<FrameworkServiceDataHolder> frameworkServiceDataHolder =
+                     mockStatic(FrameworkServiceDataHolder.class);
+             MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class)) {
+            Connection connection = getConnection(DB_NAME);
+            mockIdentityDataBaseUtilConnection(connection, true, identityDatabaseUtil);
+            mockIdentityDataBaseUtilConnection(connection, false, identityDatabaseUtil);
+            mockCarbonContext(carbonContext);
+            mockIdentityUtils(identityTenantUtil, idPManagementUtil, identityUtil);
+            mockDataHolder(frameworkServiceDataHolder);
+
+            Object entry = mock(Object.class, withSettings().serializable());
+            List<SessionContextDO> batch = Arrays.asList(
+                    new SessionContextDO("00000002", "sessionType", entry, 40000, 1),
+                    new SessionContextDO("00000003", "sessionType", entry, 40000, 1));
+            SessionDataStore.getInstance().persistSessionDataBatch(batch);
+
+            assertNotNull(SessionDataStore.getInstance().getSessionContextData("00000002", "sessionType"));
+            assertNotNull(SessionDataStore.getInstance().getSessionContextData("00000003", "sessionType"));
+
+            SessionDataStore.getInstance().persistSessionDataBatch(Arrays.asList(
+                    new SessionContextDO("00000002", "sessionType", null, 50000),
+                    new SessionContextDO("00000003", "sessionType", null, 50000)));
+
+            assertNull(SessionDataStore.getInstance().getSessionContextData("00000002", "sessionType"));
+            assertNull(SessionDataStore.getInstance().getSessionContextData("00000003", "sessionType"));
+        }
+    }
+
+    @Test
+    public void testPersistSessionDataBatchSkipsRecordedDeletes() throws Exception {
+
+        try (MockedStatic<CarbonContext> carbonContext = mockStatic(CarbonContext.class);
+             MockedStatic<IdentityTenantUtil> identityTenantUtil = mockStatic(IdentityTenantUtil.class);
+             MockedStatic<IdPManagementUtil> idPManagementUtil = mockStatic(IdPManagementUtil.class);
+             MockedStatic<IdentityUtil> identityUtil = mockStatic(IdentityUtil.class);
+             MockedStatic<FrameworkServiceDataHolder> frameworkServiceDataHolder =
+                     mockStatic(FrameworkServiceDataHolder.class);
+             MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class)) {
+            Connection connection = getConnection(DB_NAME);
+            mockIdentityDataBaseUtilConnection(connection, true, identityDatabaseUtil);
+            mockIdentityDataBaseUtilConnection(connection, false, identityDatabaseUtil);
+            mockCarbonContext(carbonContext);
+            mockIdentityUtils(identityTenantUtil, idPManagementUtil, identityUtil);
+            mockDataHolder(frameworkServiceDataHolder);
+
+            Object entry = mock(Object.class, withSettings().serializable());
+            SessionDataStore sessionDataStore = SessionDataStore.getInstance();
+            sessionDataStore.persistSessionDataBatch(Arrays.asList(
+                    new SessionContextDO("00000005", "sessionType", entry, 1000, 1),
+                    new SessionContextDO("00000006", "sessionType", entry, 1000, 1)));
+            sessionDataStore.persistSessionDataBatch(Arrays.asList(
+                    new SessionContextDO("00000005", "sessionType", null, 2000),
+                    new SessionContextDO("00000006", "sessionType", null, 2000)));
+            // Session 00000006 is stored again after it was deleted.
+            sessionDataStore.persistSessionDataBatch(Arrays.asList(
+                    new SessionContextDO("00000005", "sessionType", null, 3000),
+                    new SessionContextDO("00000006", "sessionType", entry, 3000, 1)));
+            sessionDataStore.persistSessionDataBatch(Arrays.asList(
+                    new SessionContextDO("00000005", "sessionType", null, 4000),
+                    new SessionContextDO("00000006", "sessionType", null, 4000)));
+
+            assertEquals(getDeleteOperationCount(connection, "00000005"), 1);
+            assertEquals(getDeleteOperationCount(connection, "00000006"), 2);
+            assertNull(sessionDataStore.getSessionContextData("00000006", "sessionType"));
+        }
+    }
+
+    @Test
+    public void testCoalesceSessionDataOperations() {
+
+        Object entry = new Object();
+        List<SessionContextDO> coalesced = SessionDataPersistTask.coalesce(Arrays.asList(
+                new SessionContextDO("00000004", "sessionType", entry, 100, 1),
+                new SessionContextDO("00000004", "sessionType", null, 300),
+                new SessionContextDO("00000004", "sessionType", entry, 200, 1),
+                new SessionContextDO("00000004", "otherType", entry, 100, 1)));
+
+        assertEquals(coalesced.size(), 2);
+        assertEquals(coalesced.get(0).getNanoTime(), 300);
+        assertNull(coalesced.get(0).getEntry());
+        assertEquals(coalesced.get(1).getType(), "otherType");
+    }
+
     @Test(dependsOnMethods = "testPersistSessionData")
     public void testRemoveExpiredSessionData() throws Exception {
 
@@ -113,6 +210,18 @@ public class SessionDataStoreTest extends DataStoreBaseTest {
         }
     }
 
+    private int getDeleteOperationCount(Connection connection, String sessionId) throws SQLException {
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT COUNT(*) FROM " +
+                "IDN_AUTH_SESSION_STORE WHERE SESSION_ID = ? AND OPERATION = 'DELETE'")) {
+            preparedStatement.setString(1, sessionId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
     private void mockCarbonContext(MockedStatic<CarbonContext> carbonContext) {
 
         CarbonContext mockCarbonContext = mock(CarbonContext.class);
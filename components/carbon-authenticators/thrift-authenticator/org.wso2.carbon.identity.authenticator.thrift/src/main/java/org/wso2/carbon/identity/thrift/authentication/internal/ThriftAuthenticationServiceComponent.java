@@ -66,6 +66,8 @@ public class ThriftAuthenticationServiceComponent {
 
     private TCPThriftAuthenticationService TCPThriftAuthenticationService;
 
+    private ThriftAuthenticatorServiceImpl thriftAuthenticatorServiceImpl;
+
     public static int readPortOffset() {
         return CarbonUtils.getPortFromServerConfig(ThriftAuthenticationConstants.CARBON_CONFIG_PORT_OFFSET_NODE) + 1;
     }
@@ -91,8 +93,15 @@ public class ThriftAuthenticationServiceComponent {
                 log.error("Error in loading ThriftSessionTimeout hence using the default: 30min, ", throwable);
                 thriftSessionTimeout = 60000L * 30;
             }
+            // configure the intervals of the session maintenance task in ms
+            long lastAccessFlushInterval = readIntervalConfig(ThriftAuthenticationConstants.LAST_ACCESS_FLUSH_INTERVAL,
+                    ThriftAuthenticationConstants.DEFAULT_LAST_ACCESS_FLUSH_INTERVAL);
+            long expiredSessionSweepInterval = readIntervalConfig(
+                    ThriftAuthenticationConstants.EXPIRED_SESSION_SWEEP_INTERVAL,
+                    ThriftAuthenticationConstants.DEFAULT_EXPIRED_SESSION_SWEEP_INTERVAL);
             // get an instance of this to register as an osgi service
-            ThriftAuthenticatorServiceImpl thriftAuthenticatorServiceImpl = new ThriftAuthenticatorServiceImpl(getRealmServiceInstance(), thriftSessionDAO, thriftSessionTimeout);
+            thriftAuthenticatorServiceImpl = new ThriftAuthenticatorServiceImpl(getRealmServiceInstance(),
+                    thriftSessionDAO, thriftSessionTimeout, lastAccessFlushInterval, expiredSessionSweepInterval);
             // register as an osgi service
             thriftAuthenticationService = compCtx.getBundleContext().registerService(ThriftAuthenticatorService.class.getName(), thriftAuthenticatorServiceImpl, null);
             // register AuthenticatorServiceImpl as a thrift service.
@@ -110,9 +119,25 @@ public class ThriftAuthenticationServiceComponent {
         if (TCPThriftAuthenticationService != null) {
             TCPThriftAuthenticationService.stop();
         }
+        if (thriftAuthenticatorServiceImpl != null) {
+            thriftAuthenticatorServiceImpl.shutdown();
+        }
         compCtx.getBundleContext().ungetService(thriftAuthenticationService.getReference());
     }
 
+    private long readIntervalConfig(String elementName, long defaultValue) {
+        OMElement intervalElement = ThriftAuthenticationConfigParser.getInstance().getConfigElement(elementName);
+        if (intervalElement == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(intervalElement.getText().trim());
+        } catch (NumberFormatException e) {
+            log.error("Error in loading " + elementName + " hence using the default: " + defaultValue + "ms", e);
+            return defaultValue;
+        }
+    }
+
     public static HttpService getHttpServiceInstance() {
         return httpServiceInstance;
     }
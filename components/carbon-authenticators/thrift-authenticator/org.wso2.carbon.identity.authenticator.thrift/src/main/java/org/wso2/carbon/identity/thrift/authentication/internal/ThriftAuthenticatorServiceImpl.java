@@ -27,6 +27,7 @@ import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.thrift.authentication.ThriftAuthenticatorService;
 import org.wso2.carbon.identity.thrift.authentication.dao.ThriftSessionDAO;
 import org.wso2.carbon.identity.thrift.authentication.internal.generatedCode.AuthenticationException;
+import org.wso2.carbon.identity.thrift.authentication.internal.util.ThriftAuthenticationConstants;
 import org.wso2.carbon.user.api.UserRealm;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
@@ -34,10 +35,14 @@ import org.wso2.carbon.utils.ServerConstants;
 import org.wso2.carbon.utils.ThriftSession;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is a utility class that performs authentication related functionality
@@ -52,11 +57,47 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
     private Map<String, ThriftSession> authenticatedSessions =
             new ConcurrentHashMap<String, ThriftSession>();
     private ThriftSessionDAO thriftSessionDAO;
+    // last access times which are not yet written to the session store, keyed by the session id
+    private Map<String, Long> pendingLastAccessTimes = new ConcurrentHashMap<String, Long>();
+    private ScheduledExecutorService sessionMaintenanceExecutor;
 
     public ThriftAuthenticatorServiceImpl(RealmService realmService, ThriftSessionDAO thriftSessionDAO, long thriftSessionTimeOut) {
+        this(realmService, thriftSessionDAO, thriftSessionTimeOut,
+                ThriftAuthenticationConstants.DEFAULT_LAST_ACCESS_FLUSH_INTERVAL,
+                ThriftAuthenticationConstants.DEFAULT_EXPIRED_SESSION_SWEEP_INTERVAL);
+    }
+
+    /**
+     * @param realmService             Realm service.
+     * @param thriftSessionDAO         Store of the thrift sessions.
+     * @param thriftSessionTimeOut     Session timeout in milli seconds.
+     * @param lastAccessFlushInterval  Interval in milli seconds at which the last access times of the sessions are
+     *                                 written to the session store. If not positive, the last access time is written
+     *                                 on every validated call.
+     * @param expiredSessionSweepInterval Interval in milli seconds at which expired sessions are removed. If not
+     *                                 positive, expired sessions are only removed when they are used.
+     */
+    public ThriftAuthenticatorServiceImpl(RealmService realmService, ThriftSessionDAO thriftSessionDAO,
+                                          long thriftSessionTimeOut, long lastAccessFlushInterval,
+                                          long expiredSessionSweepInterval) {
         this.realmService = realmService;
         setThriftSessionTimeOut(thriftSessionTimeOut);
         this.thriftSessionDAO = thriftSessionDAO.getInstance();
+        if (lastAccessFlushInterval > 0 || expiredSessionSweepInterval > 0) {
+            sessionMaintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ThriftSessionMaintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (lastAccessFlushInterval > 0) {
+            sessionMaintenanceExecutor.scheduleWithFixedDelay(this::flushLastAccessTimes, lastAccessFlushInterval,
+                    lastAccessFlushInterval, TimeUnit.MILLISECONDS);
+        }
+        if (expiredSessionSweepInterval > 0) {
+            sessionMaintenanceExecutor.scheduleWithFixedDelay(this::removeExpiredSessions,
+                    expiredSessionSweepInterval, expiredSessionSweepInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     private void addThriftSession(ThriftSession thriftSession) throws IdentityException {
@@ -70,6 +111,7 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
     private void removeThriftSession(String thriftSessionId) throws IdentityException {
         //remove from cache
         authenticatedSessions.remove(thriftSessionId);
+        pendingLastAccessTimes.remove(thriftSessionId);
         //remove from db
         ThriftSessionDAO sessionDAO = this.thriftSessionDAO.getInstance();
         sessionDAO.removeSession(thriftSessionId);
@@ -182,18 +224,16 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
         //if cache not empty, check if session id existing and valid, if so, update last access time and return it.
         if (!authenticatedSessions.isEmpty()) {
             ThriftSessionDAO sessionDAO = this.thriftSessionDAO.getInstance();
-            if (authenticatedSessions.containsKey(sessionId)) {
-                ThriftSession thriftSessionInCache = authenticatedSessions.get(sessionId);
+            ThriftSession thriftSessionInCache = authenticatedSessions.get(sessionId);
+            if (thriftSessionInCache != null) {
                 if (isSessionValid(thriftSessionInCache)) {
-                    //update the last access time in cache and d
+                    //update the last access time in cache, the session store is updated by the maintenance task
                     long lastAccessTime = System.currentTimeMillis();
-                    (authenticatedSessions.get(sessionId)).setLastAccess(lastAccessTime);
+                    thriftSessionInCache.setLastAccess(lastAccessTime);
                     try {
                         //if carbon context in the thrift session is not initialized, should do that now.
                         onSuccessLogin(thriftSessionInCache);
-                        //put the thrift session filled with carbon context info
-                        authenticatedSessions.put(sessionId, thriftSessionInCache);
-                        sessionDAO.updateLastAccessTime(sessionId, lastAccessTime);
+                        updateLastAccessTime(sessionDAO, sessionId, lastAccessTime);
                     } catch (IdentityException e) {
                         String error = "Error while updating last access time in DB";
                         log.error(error, e);
@@ -206,12 +246,12 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
                     //if not valid in cache, check if valid in db
                     try {
                         ThriftSession thriftSession = sessionDAO.getSession(sessionId);
-                        if (isSessionValid(thriftSession)) {
+                        if (isStoredSessionValid(thriftSession)) {
                             //update cache and return true
                             thriftSession.setLastAccess(System.currentTimeMillis());
                             onSuccessLogin(thriftSession);
                             authenticatedSessions.put(thriftSession.getSessionId(), thriftSession);
-                            sessionDAO.updateLastAccessTime(sessionId, thriftSession.getLastAccess());
+                            updateLastAccessTime(sessionDAO, sessionId, thriftSession.getLastAccess());
                             return true;
                         } else {
                             //remove from cache and db and return false
@@ -229,13 +269,13 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
             } else {
                 //if session id not found, check in db as well, if exist in db, populate cache
                 try {
-                    if (sessionDAO.isSessionExisting(sessionId)) {
-                        ThriftSession thriftSession = sessionDAO.getSession(sessionId);
+                    ThriftSession thriftSession = sessionDAO.getSession(sessionId);
+                    if (thriftSession != null && thriftSession.getSessionId() != null) {
                         if (isSessionValid(thriftSession)) {
                             thriftSession.setLastAccess(System.currentTimeMillis());
                             onSuccessLogin(thriftSession);
                             authenticatedSessions.put(thriftSession.getSessionId(), thriftSession);
-                            sessionDAO.updateLastAccessTime(sessionId, thriftSession.getLastAccess());
+                            updateLastAccessTime(sessionDAO, sessionId, thriftSession.getLastAccess());
                             return true;
                         } else {
                             sessionDAO.removeSession(sessionId);
@@ -255,6 +295,90 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
         return false;
     }
 
+    /**
+     * Write the pending last access times to the session store and stop the session maintenance task.
+     */
+    public void shutdown() {
+        if (sessionMaintenanceExecutor != null) {
+            sessionMaintenanceExecutor.shutdownNow();
+        }
+        flushLastAccessTimes();
+    }
+
+    private void updateLastAccessTime(ThriftSessionDAO sessionDAO, String sessionId, long lastAccessTime)
+            throws IdentityException {
+        if (sessionMaintenanceExecutor == null || sessionMaintenanceExecutor.isShutdown()) {
+            sessionDAO.updateLastAccessTime(sessionId, lastAccessTime);
+        } else {
+            pendingLastAccessTimes.put(sessionId, lastAccessTime);
+        }
+    }
+
+    /**
+     * Write the last access times recorded since the previous flush to the session store in one batch.
+     */
+    void flushLastAccessTimes() {
+        if (pendingLastAccessTimes.isEmpty()) {
+            return;
+        }
+        Map<String, Long> lastAccessTimes = new HashMap<String, Long>();
+        for (String sessionId : pendingLastAccessTimes.keySet()) {
+            Long lastAccessTime = pendingLastAccessTimes.remove(sessionId);
+            if (lastAccessTime != null) {
+                lastAccessTimes.put(sessionId, lastAccessTime);
+            }
+        }
+        try {
+            this.thriftSessionDAO.getInstance().updateLastAccessTimes(lastAccessTimes);
+        } catch (IdentityException | RuntimeException e) {
+            log.error("Error while updating the last access time of " + lastAccessTimes.size() +
+                    " thrift sessions in DB. The update will be retried.", e);
+            for (Map.Entry<String, Long> lastAccessTime : lastAccessTimes.entrySet()) {
+                pendingLastAccessTimes.merge(lastAccessTime.getKey(), lastAccessTime.getValue(), Math::max);
+            }
+        }
+    }
+
+    /**
+     * Remove the expired sessions from the cache and the session store. A session which expired in the cache is kept
+     * if the session store shows it was used recently, for example through another node.
+     */
+    void removeExpiredSessions() {
+        ThriftSessionDAO sessionDAO = this.thriftSessionDAO.getInstance();
+        int removedCount = 0;
+        for (ThriftSession thriftSession : authenticatedSessions.values()) {
+            if (isSessionValid(thriftSession)) {
+                continue;
+            }
+            String sessionId = thriftSession.getSessionId();
+            try {
+                ThriftSession storedSession = sessionDAO.getSession(sessionId);
+                if (storedSession != thriftSession && isStoredSessionValid(storedSession)) {
+                    thriftSession.setLastAccess(Math.max(thriftSession.getLastAccess(),
+                            storedSession.getLastAccess()));
+                    continue;
+                }
+                // the session may have been used while reading the session store.
+                if (isSessionValid(thriftSession) || !authenticatedSessions.remove(sessionId, thriftSession)) {
+                    continue;
+                }
+                pendingLastAccessTimes.remove(sessionId);
+                if (storedSession != null && storedSession.getSessionId() != null) {
+                    sessionDAO.removeSession(sessionId);
+                }
+                removedCount++;
+            } catch (IdentityException e) {
+                log.error("Error while removing the expired thrift session: " + sessionId, e);
+            } catch (RuntimeException e) {
+                log.error("Error while removing the expired thrift sessions.", e);
+                return;
+            }
+        }
+        if (log.isDebugEnabled() && removedCount > 0) {
+            log.debug("Removed " + removedCount + " expired thrift sessions.");
+        }
+    }
+
     public ThriftSession getSessionInfo(String sessionId) {
         return authenticatedSessions.get(sessionId);
     }
@@ -269,6 +393,11 @@ public class ThriftAuthenticatorServiceImpl implements ThriftAuthenticatorServic
         return (System.currentTimeMillis() - thriftSession.getLastAccess()) < getThriftSessionTimeOut();
     }
 
+    private boolean isStoredSessionValid(ThriftSession thriftSession) {
+        //a session which is not in the store is returned as null or as a session without an id.
+        return thriftSession != null && thriftSession.getSessionId() != null && isSessionValid(thriftSession);
+    }
+
     private void populateSessionsFromDB() throws Exception {
         //first clear the cache
         if (!authenticatedSessions.isEmpty()) {
@@ -34,6 +34,11 @@ public class ThriftAuthenticationConstants {
 
     public static final String THRIFT_SESSION_CACHE_ID = "THRIFT_SESSION_CACHE_ID";
 
+    public static final String LAST_ACCESS_FLUSH_INTERVAL = "ThriftSessionLastAccessFlushInterval";
+    public static final long DEFAULT_LAST_ACCESS_FLUSH_INTERVAL = 60000L;
+    public static final String EXPIRED_SESSION_SWEEP_INTERVAL = "ThriftSessionExpirySweepInterval";
+    public static final long DEFAULT_EXPIRED_SESSION_SWEEP_INTERVAL = 300000L;
+
     public static final String CHECK_EXISTING_THRIFT_SESSION_SQL =
             "SELECT SESSION_ID FROM IDN_THRIFT_SESSION WHERE SESSION_ID=?";
 
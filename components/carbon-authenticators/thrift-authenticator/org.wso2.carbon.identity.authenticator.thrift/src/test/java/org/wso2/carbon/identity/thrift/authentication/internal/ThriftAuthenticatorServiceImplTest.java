@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.thrift.authentication.internal;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.thrift.authentication.dao.ThriftSessionDAO;
+import org.wso2.carbon.utils.ServerConstants;
+import org.wso2.carbon.utils.ThriftSession;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ThriftAuthenticatorServiceImpl}.
+ */
+public class ThriftAuthenticatorServiceImplTest {
+
+    private static final long SESSION_TIMEOUT = 60000L;
+    private static final long MAINTENANCE_INTERVAL = 3600000L;
+
+    private ThriftSessionDAO thriftSessionDAO;
+    private MockedStatic<PrivilegedCarbonContext> privilegedCarbonContext;
+    private ThriftAuthenticatorServiceImpl thriftAuthenticatorService;
+
+    @BeforeMethod
+    public void setUp() {
+
+        thriftSessionDAO = mock(ThriftSessionDAO.class);
+        when(thriftSessionDAO.getInstance()).thenReturn(thriftSessionDAO);
+        privilegedCarbonContext = mockStatic(PrivilegedCarbonContext.class);
+        privilegedCarbonContext.when(PrivilegedCarbonContext::getThreadLocalCarbonContext)
+                .thenReturn(mock(PrivilegedCarbonContext.class));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        if (thriftAuthenticatorService != null) {
+            thriftAuthenticatorService.shutdown();
+        }
+        privilegedCarbonContext.close();
+    }
+
+    @Test
+    public void testLastAccessTimesAreCoalesced() throws Exception {
+
+        ThriftSession session = createSession("session-1", System.currentTimeMillis());
+        when(thriftSessionDAO.getAllSessions()).thenReturn(Arrays.asList(session));
+        thriftAuthenticatorService = new ThriftAuthenticatorServiceImpl(null, thriftSessionDAO, SESSION_TIMEOUT,
+                MAINTENANCE_INTERVAL, 0);
+
+        assertTrue(thriftAuthenticatorService.isAuthenticated("session-1"));
+        assertTrue(thriftAuthenticatorService.isAuthenticated("session-1"));
+        verify(thriftSessionDAO, never()).updateLastAccessTime(anyString(), anyLong());
+
+        thriftAuthenticatorService.flushLastAccessTimes();
+        thriftAuthenticatorService.flushLastAccessTimes();
+
+        ArgumentCaptor<Map<String, Long>> lastAccessTimes = ArgumentCaptor.forClass(Map.class);
+        verify(thriftSessionDAO, times(1)).updateLastAccessTimes(lastAccessTimes.capture());
+        assertEquals(lastAccessTimes.getValue().size(), 1);
+        assertEquals(lastAccessTimes.getValue().get("session-1"), Long.valueOf(session.getLastAccess()));
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() throws Exception {
+
+        ThriftSession session = createSession("session-1", System.currentTimeMillis());
+        when(thriftSessionDAO.getAllSessions()).thenReturn(Arrays.asList(session));
+        thriftAuthenticatorService = new ThriftAuthenticatorServiceImpl(null, thriftSessionDAO, SESSION_TIMEOUT,
+                MAINTENANCE_INTERVAL, 0);
+        assertTrue(thriftAuthenticatorService.isAuthenticated("session-1"));
+        doThrow(new IllegalStateException("Connection closed.")).doNothing()
+                .when(thriftSessionDAO).updateLastAccessTimes(anyMap());
+
+        thriftAuthenticatorService.flushLastAccessTimes();
+        thriftAuthenticatorService.flushLastAccessTimes();
+
+        ArgumentCaptor<Map<String, Long>> lastAccessTimes = ArgumentCaptor.forClass(Map.class);
+        verify(thriftSessionDAO, times(2)).updateLastAccessTimes(lastAccessTimes.capture());
+        assertEquals(lastAccessTimes.getValue().get("session-1"), Long.valueOf(session.getLastAccess()));
+    }
+
+    @Test
+    public void testExpiredSessionsAreSwept() throws Exception {
+
+        long expiredAccessTime = System.currentTimeMillis() - 2 * SESSION_TIMEOUT;
+        ThriftSession expiredSession = createSession("expired", expiredAccessTime);
+        ThriftSession usedOnOtherNode = createSession("used-on-other-node", expiredAccessTime);
+        ThriftSession activeSession = createSession("active", System.currentTimeMillis());
+        when(thriftSessionDAO.getAllSessions()).thenReturn(Arrays.asList(expiredSession, usedOnOtherNode,
+                activeSession));
+        when(thriftSessionDAO.getSession("expired")).thenReturn(createSession("expired", expiredAccessTime));
+        long otherNodeAccessTime = System.currentTimeMillis();
+        when(thriftSessionDAO.getSession("used-on-other-node"))
+                .thenReturn(createSession("used-on-other-node", otherNodeAccessTime));
+        thriftAuthenticatorService = new ThriftAuthenticatorServiceImpl(null, thriftSessionDAO, SESSION_TIMEOUT,
+                0, 0);
+        // Loads the sessions from the session store.
+        thriftAuthenticatorService.isAuthenticated("unknown");
+
+        thriftAuthenticatorService.removeExpiredSessions();
+
+        assertNull(thriftAuthenticatorService.getSessionInfo("expired"));
+        verify(thriftSessionDAO).removeSession("expired");
+        assertNotNull(thriftAuthenticatorService.getSessionInfo("used-on-other-node"));
+        assertEquals(usedOnOtherNode.getLastAccess(), otherNodeAccessTime);
+        verify(thriftSessionDAO, never()).removeSession("used-on-other-node");
+        assertNotNull(thriftAuthenticatorService.getSessionInfo("active"));
+        verify(thriftSessionDAO, never()).getSession("active");
+    }
+
+    private ThriftSession createSession(String sessionId, long lastAccessTime) {
+
+        ThriftSession session = new ThriftSession();
+        session.setSessionId(sessionId);
+        session.setUserName("admin");
+        session.setCreatedAt(lastAccessTime);
+        session.setLastAccess(lastAccessTime);
+        session.setAttribute(ServerConstants.AUTHENTICATION_SERVICE_USERNAME, "admin");
+        session.setAttribute(MultitenantConstants.TENANT_DOMAIN, MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        session.setAttribute(MultitenantConstants.TENANT_ID, MultitenantConstants.SUPER_TENANT_ID);
+        return session;
+    }
+}
@@ -18,36 +18,141 @@
 
 package org.wso2.carbon.identity.central.log.mgt.hanlder;
 
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.MDC;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.base.IdentityRuntimeException;
+import org.wso2.carbon.identity.core.handler.InitConfig;
+import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.utils.CarbonUtils;
 
+import java.util.HashMap;
 import java.util.Map;
 
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.ASYNC_PUBLISHING_PROPERTY;
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOG_CONTEXT_MDC;
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOG_CONTEXT_TENANT_DOMAIN;
 import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.PUBLISH_AUDIT_LOG;
 import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.PUBLISH_DIAGNOSTIC_LOG;
 
 /**
  * Central log event handler for audit, and diagnostic logs.
+ * <p>
+ * Logs are published on the request thread by default. When the 'CentralLogger.async.enable' module property is
+ * true, the logs are handed over to the asynchronous event dispatcher instead. The queue capacity, rejection policy
+ * and batch size of the dispatcher are configured with the 'async.*' module properties. Logs are published in the
+ * order they were logged only with the BLOCK rejection policy and a concurrency of one, and logs still queued when
+ * the server shuts down are not published. When the logs are published asynchronously, the MDC and tenant of the
+ * request captured by {@link org.wso2.carbon.identity.central.log.mgt.utils.LoggerUtils} are restored while a log is
+ * published.
  */
 public class CentralLogger extends AbstractEventHandler {
 
+    private static volatile boolean asyncPublishingEnabled;
+
+    @Override
+    public void init(InitConfig configuration) throws IdentityRuntimeException {
+
+        super.init(configuration);
+        try {
+            asyncPublishingEnabled = isAssociationAsync(PUBLISH_AUDIT_LOG) ||
+                    isAssociationAsync(PUBLISH_DIAGNOSTIC_LOG);
+        } catch (IdentityEventException e) {
+            asyncPublishingEnabled = false;
+        }
+    }
+
+    /**
+     * Check whether the logs may be published on a thread other than the one which logged them.
+     *
+     * @return True if the audit or diagnostic logs are published asynchronously.
+     */
+    public static boolean isAsyncPublishingEnabled() {
+
+        return asyncPublishingEnabled;
+    }
+
     @Override
     public void handleEvent(Event event) {
 
         String eventName = event.getEventName();
+        // This central log event handler handles only audit logs and diagnostic logs.
+        if (!PUBLISH_AUDIT_LOG.equals(eventName) && !PUBLISH_DIAGNOSTIC_LOG.equals(eventName)) {
+            return;
+        }
+
         Map<String, Object> eventProperties = event.getEventProperties();
+        if (!eventProperties.containsKey(LOG_CONTEXT_MDC) && !eventProperties.containsKey(LOG_CONTEXT_TENANT_DOMAIN)) {
+            // The log context is captured only for the logs published asynchronously.
+            publish(eventName, eventProperties);
+            return;
+        }
 
-        // This central log event handler handles only audit logs and diagnostic logs.
-        switch (eventName) {
-            case PUBLISH_AUDIT_LOG:
-                CarbonUtils.publishAuditLogs(eventProperties);
-                break;
-            case PUBLISH_DIAGNOSTIC_LOG:
-                CarbonUtils.publishDiagnosticLog(eventProperties);
-                break;
-            default:
-                break;
+        eventProperties = new HashMap<>(eventProperties);
+        Map<String, String> logContextMap = getLogContextMap(eventProperties.remove(LOG_CONTEXT_MDC));
+        String tenantDomain = (String) eventProperties.remove(LOG_CONTEXT_TENANT_DOMAIN);
+
+        // The context is already in place when the log is published on the thread which logged it.
+        Map<String, String> currentContextMap = MDC.getCopyOfContextMap();
+        boolean restoreContextMap = logContextMap != null && !logContextMap.equals(currentContextMap);
+        boolean startTenantFlow = StringUtils.isNotBlank(tenantDomain) &&
+                !tenantDomain.equals(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain());
+        try {
+            if (restoreContextMap) {
+                MDC.setContextMap(logContextMap);
+            }
+            if (startTenantFlow) {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+            }
+            publish(eventName, eventProperties);
+        } finally {
+            if (startTenantFlow) {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+            if (restoreContextMap) {
+                MDC.clear();
+                if (currentContextMap != null) {
+                    MDC.setContextMap(currentContextMap);
+                }
+            }
+        }
+    }
+
+    private void publish(String eventName, Map<String, Object> logProperties) {
+
+        if (PUBLISH_AUDIT_LOG.equals(eventName)) {
+            CarbonUtils.publishAuditLogs(logProperties);
+        } else {
+            CarbonUtils.publishDiagnosticLog(logProperties);
+        }
+    }
+
+    private Map<String, String> getLogContextMap(Object logContext) {
+
+        if (!(logContext instanceof Map)) {
+            return null;
+        }
+        Map<String, String> logContextMap = new HashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) logContext).entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                logContextMap.put(entry.getKey().toString(), entry.getValue().toString());
+            }
         }
+        return logContextMap;
+    }
+
+    @Override
+    public boolean isAssociationAsync(String eventName) throws IdentityEventException {
+
+        return Boolean.parseBoolean(getModuleProperty(ASYNC_PUBLISHING_PROPERTY)) || super.isAssociationAsync(eventName);
+    }
+
+    @Override
+    public boolean isBatchDeliverySupported() {
+
+        return true;
     }
 }
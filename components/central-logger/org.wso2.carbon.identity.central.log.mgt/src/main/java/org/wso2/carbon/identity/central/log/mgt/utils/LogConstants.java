@@ -37,6 +37,13 @@ public class LogConstants {
     public static final Pattern LOG_MASKING_PATTERN = Pattern.compile("(?<=.).(?=.)");
     public static final String LOGGABLE_USER_CLAIMS = "LoggableUserClaims.LoggableUserClaim";
 
+    /**
+     * Constants related to publishing central logs asynchronously.
+     */
+    public static final String ASYNC_PUBLISHING_PROPERTY = "async.enable";
+    public static final String LOG_CONTEXT_MDC = "logContextMDC";
+    public static final String LOG_CONTEXT_TENANT_DOMAIN = "logContextTenantDomain";
+
 
     /**
      * Define common and reusable Input keys for diagnostic logs.
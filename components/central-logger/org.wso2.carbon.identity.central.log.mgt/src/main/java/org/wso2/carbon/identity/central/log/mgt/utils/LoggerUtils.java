@@ -29,6 +29,7 @@ import org.json.JSONObject;
 import org.slf4j.MDC;
 import org.wso2.carbon.CarbonConstants;
 import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.identity.central.log.mgt.hanlder.CentralLogger;
 import org.wso2.carbon.identity.central.log.mgt.internal.CentralLogMgtServiceComponentHolder;
 import org.wso2.carbon.identity.core.util.IdentityConfigParser;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
@@ -40,11 +41,7 @@ import org.wso2.carbon.utils.AuditLog;
 import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.carbon.utils.DiagnosticLog;
 
-import java.time.DateTimeException;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +51,8 @@ import java.util.UUID;
 import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.ApplicationManagement.CONSOLE_APP_NAME;
 import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.ApplicationManagement.CONSOLE_CLIENT_ID;
 import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.ENABLE_LOG_MASKING;
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOG_CONTEXT_MDC;
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOG_CONTEXT_TENANT_DOMAIN;
 import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOGGABLE_USER_CLAIMS;
 import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.PUBLISH_AUDIT_LOG;
 import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.PUBLISH_DIAGNOSTIC_LOG;
@@ -103,8 +102,10 @@ public class LoggerUtils {
             }
             IdentityEventService eventMgtService =
                     CentralLogMgtServiceComponentHolder.getInstance().getIdentityEventService();
-            Event auditEvent = new Event(PUBLISH_AUDIT_LOG,
-                    Map.of(CarbonConstants.LogEventConstants.AUDIT_LOG, auditLogBuilder.build()));
+            Map<String, Object> auditLogProperties = new HashMap<>();
+            auditLogProperties.put(CarbonConstants.LogEventConstants.AUDIT_LOG, auditLogBuilder.build());
+            addLogContext(auditLogProperties);
+            Event auditEvent = new Event(PUBLISH_AUDIT_LOG, auditLogProperties);
             eventMgtService.handleEvent(auditEvent);
         } catch (IdentityEventException e) {
             String errorLog = "Error occurred when firing the event. Unable to audit the request.";
@@ -142,7 +143,7 @@ public class LoggerUtils {
         try {
             Map<String, Object> diagnosticLogProperties = new HashMap<>();
             String id = UUID.randomUUID().toString();
-            Instant recordedAt = parseDateTime(Instant.now().toString());
+            Instant recordedAt = Instant.now();
             String requestId = MDC.get(CORRELATION_ID_MDC);
             String flowId = MDC.get(FLOW_ID_MDC);
             DiagnosticLog diagnosticLog = new DiagnosticLog(id, recordedAt, requestId, flowId, resultStatus,
@@ -153,6 +154,7 @@ public class LoggerUtils {
             int tenantId =
                     IdentityTenantUtil.getTenantId(CarbonContext.getThreadLocalCarbonContext().getTenantDomain());
             diagnosticLogProperties.put(CarbonConstants.LogEventConstants.TENANT_ID, tenantId);
+            addLogContext(diagnosticLogProperties);
             Event diagnosticLogEvent = new Event(PUBLISH_DIAGNOSTIC_LOG, diagnosticLogProperties);
             eventMgtService.handleEvent(diagnosticLogEvent);
         } catch (IdentityEventException e) {
@@ -180,6 +182,7 @@ public class LoggerUtils {
                     CentralLogMgtServiceComponentHolder.getInstance().getIdentityEventService();
             diagnosticLogProperties.put(CarbonConstants.LogEventConstants.DIAGNOSTIC_LOG, diagnosticLog);
             diagnosticLogProperties.put(CarbonConstants.LogEventConstants.TENANT_ID, resolveTenantId());
+            addLogContext(diagnosticLogProperties);
             Event diagnosticLogEvent = new Event(PUBLISH_DIAGNOSTIC_LOG, diagnosticLogProperties);
             eventMgtService.handleEvent(diagnosticLogEvent);
         } catch (IdentityEventException e) {
@@ -215,27 +218,23 @@ public class LoggerUtils {
     }
 
     /**
-     * Parse Date Time into UTC format.
+     * Add the MDC and the tenant of the request to the log event, so that the central logger can publish the log with
+     * the same context when the log is published asynchronously. Logs published on the request thread already have
+     * that context, hence nothing is added for them.
      *
-     * @param dateTimeString Date time.
-     * @return Date time in ISO_OFFSET_DATE_TIME format.
+     * @param logProperties Properties of the log event.
      */
-    private static Instant parseDateTime(String dateTimeString) {
+    private static void addLogContext(Map<String, Object> logProperties) {
 
-        Instant localDateTime = null;
-        if (StringUtils.isEmpty(dateTimeString)) {
-            return null;
+        if (!CentralLogger.isAsyncPublishingEnabled()) {
+            return;
         }
-        try {
-            localDateTime = LocalDateTime.parse(dateTimeString).toInstant(ZoneOffset.UTC);
-        } catch (DateTimeException e) {
-            try {
-                return OffsetDateTime.parse(dateTimeString).toInstant();
-            } catch (DateTimeException dte) {
-                log.error("Error in parsing date time. Date time should adhere to ISO_OFFSET_DATE_TIME format", e);
-            }
+
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        if (contextMap != null) {
+            logProperties.put(LOG_CONTEXT_MDC, contextMap);
         }
-        return localDateTime;
+        logProperties.put(LOG_CONTEXT_TENANT_DOMAIN, CarbonContext.getThreadLocalCarbonContext().getTenantDomain());
     }
 
     /**
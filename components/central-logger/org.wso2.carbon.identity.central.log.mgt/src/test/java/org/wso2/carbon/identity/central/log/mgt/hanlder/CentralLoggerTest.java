@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.central.log.mgt.hanlder;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
+import org.slf4j.MDC;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOG_CONTEXT_MDC;
+import static org.wso2.carbon.identity.central.log.mgt.utils.LogConstants.LOG_CONTEXT_TENANT_DOMAIN;
+import static org.wso2.carbon.identity.event.IdentityEventConstants.Event.PUBLISH_AUDIT_LOG;
+
+/**
+ * Unit tests for {@link CentralLogger}.
+ */
+public class CentralLoggerTest {
+
+    private static final String TENANT_DOMAIN = "wso2.com";
+
+    private CentralLogger centralLogger;
+    private PrivilegedCarbonContext carbonContext;
+    private MockedStatic<CarbonUtils> carbonUtils;
+    private MockedStatic<PrivilegedCarbonContext> privilegedCarbonContext;
+    private MockedStatic<MDC> mdc;
+
+    @BeforeMethod
+    public void setUp() {
+
+        centralLogger = new CentralLogger();
+        carbonContext = mock(PrivilegedCarbonContext.class);
+        carbonUtils = mockStatic(CarbonUtils.class);
+        privilegedCarbonContext = mockStatic(PrivilegedCarbonContext.class);
+        privilegedCarbonContext.when(PrivilegedCarbonContext::getThreadLocalCarbonContext).thenReturn(carbonContext);
+        mdc = mockStatic(MDC.class);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        mdc.close();
+        privilegedCarbonContext.close();
+        carbonUtils.close();
+        centralLogger.init(new ModuleConfiguration(new Properties(), new ArrayList<>()));
+    }
+
+    @Test
+    public void testAsyncPublishingIsDisabledByDefault() {
+
+        centralLogger.init(new ModuleConfiguration(new Properties(), new ArrayList<>()));
+
+        assertFalse(CentralLogger.isAsyncPublishingEnabled());
+    }
+
+    @Test
+    public void testAsyncPublishingIsEnabledByModuleProperty() {
+
+        Properties moduleProperties = new Properties();
+        moduleProperties.setProperty("CentralLogger.async.enable", "true");
+        centralLogger.init(new ModuleConfiguration(moduleProperties, new ArrayList<>()));
+
+        assertTrue(CentralLogger.isAsyncPublishingEnabled());
+    }
+
+    @Test
+    public void testLogWithoutContextIsPublishedAsIs() {
+
+        Map<String, Object> logProperties = new HashMap<>();
+        logProperties.put("action", "login");
+
+        centralLogger.handleEvent(new Event(PUBLISH_AUDIT_LOG, logProperties));
+
+        ArgumentCaptor<Map<String, Object>> published = ArgumentCaptor.forClass(Map.class);
+        carbonUtils.verify(() -> CarbonUtils.publishAuditLogs(published.capture()));
+        assertSame(published.getValue(), logProperties);
+        mdc.verify(() -> MDC.setContextMap(anyMap()), never());
+        privilegedCarbonContext.verify(PrivilegedCarbonContext::startTenantFlow, never());
+    }
+
+    @Test
+    public void testContextIsRestoredOnAnotherThread() {
+
+        Map<String, String> logContextMap = Collections.singletonMap("Correlation-ID", "correlation-id");
+        Map<String, String> workerContextMap = Collections.singletonMap("Correlation-ID", "worker");
+        mdc.when(MDC::getCopyOfContextMap).thenReturn(workerContextMap);
+        when(carbonContext.getTenantDomain()).thenReturn("carbon.super");
+        Map<String, Object> logProperties = new HashMap<>();
+        logProperties.put("action", "login");
+        logProperties.put(LOG_CONTEXT_MDC, logContextMap);
+        logProperties.put(LOG_CONTEXT_TENANT_DOMAIN, TENANT_DOMAIN);
+
+        centralLogger.handleEvent(new Event(PUBLISH_AUDIT_LOG, logProperties));
+
+        ArgumentCaptor<Map<String, Object>> published = ArgumentCaptor.forClass(Map.class);
+        carbonUtils.verify(() -> CarbonUtils.publishAuditLogs(published.capture()));
+        assertTrue(published.getValue().containsKey("action"));
+        assertFalse(published.getValue().containsKey(LOG_CONTEXT_MDC));
+        assertFalse(published.getValue().containsKey(LOG_CONTEXT_TENANT_DOMAIN));
+        verify(carbonContext).setTenantDomain(TENANT_DOMAIN, true);
+        privilegedCarbonContext.verify(PrivilegedCarbonContext::startTenantFlow);
+        privilegedCarbonContext.verify(PrivilegedCarbonContext::endTenantFlow);
+
+        InOrder order = inOrder(MDC.class, CarbonUtils.class);
+        order.verify(mdc, () -> MDC.setContextMap(logContextMap));
+        order.verify(carbonUtils, () -> CarbonUtils.publishAuditLogs(any()));
+        order.verify(mdc, MDC::clear);
+        order.verify(mdc, () -> MDC.setContextMap(workerContextMap));
+    }
+
+    @Test
+    public void testContextIsNotRestoredOnTheLoggingThread() {
+
+        Map<String, String> logContextMap = Collections.singletonMap("Correlation-ID", "correlation-id");
+        mdc.when(MDC::getCopyOfContextMap).thenReturn(new HashMap<>(logContextMap));
+        when(carbonContext.getTenantDomain()).thenReturn(TENANT_DOMAIN);
+        Map<String, Object> logProperties = new HashMap<>();
+        logProperties.put(LOG_CONTEXT_MDC, logContextMap);
+        logProperties.put(LOG_CONTEXT_TENANT_DOMAIN, TENANT_DOMAIN);
+
+        centralLogger.handleEvent(new Event(PUBLISH_AUDIT_LOG, logProperties));
+
+        carbonUtils.verify(() -> CarbonUtils.publishAuditLogs(anyMap()));
+        mdc.verify(() -> MDC.setContextMap(anyMap()), never());
+        mdc.verify(MDC::clear, never());
+        privilegedCarbonContext.verify(PrivilegedCarbonContext::startTenantFlow, never());
+        verify(carbonContext, never()).setTenantDomain(anyString(), anyBoolean());
+    }
+}
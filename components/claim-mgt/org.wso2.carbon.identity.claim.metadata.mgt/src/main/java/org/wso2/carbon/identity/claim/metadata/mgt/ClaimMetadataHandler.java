@@ -18,7 +18,9 @@ package org.wso2.carbon.identity.claim.metadata.mgt;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDialectTranslationCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.exception.ClaimMetadataException;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ClaimDialectTranslation;
 import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
 import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
 import org.wso2.carbon.user.core.UserCoreConstants;
@@ -135,16 +137,109 @@ public class ClaimMetadataHandler {
     public Map<String, String> getMappingsMapFromOtherDialectToCarbon(String otherDialectURI, Set<String>
             otherClaimURIs, String tenantDomain, boolean useCarbonDialectAsKey) throws ClaimMetadataException {
 
+        ClaimDialectTranslation translation = getClaimDialectTranslation(otherDialectURI, tenantDomain);
+        if (otherClaimURIs == null || otherClaimURIs.isEmpty()) {
+            return new HashMap<>(useCarbonDialectAsKey ? translation.getFromLocalClaims() :
+                    translation.getToLocalClaims());
+        }
+
         Map<String, String> returnMap = new HashMap<>();
-        Set<ExternalClaim> mappings = getMappingsFromOtherDialectToCarbon(
-                otherDialectURI, otherClaimURIs, tenantDomain);
-        for (ExternalClaim externalClaim : mappings) {
+        for (String otherClaimURI : otherClaimURIs) {
+            String localClaimURI = translation.getToLocalClaims().get(otherClaimURI);
+            if (localClaimURI == null) {
+                continue;
+            }
             if (useCarbonDialectAsKey) {
-                returnMap.put(externalClaim.getMappedLocalClaim(), externalClaim.getClaimURI());
+                returnMap.put(localClaimURI, otherClaimURI);
             } else {
-                returnMap.put(externalClaim.getClaimURI(), externalClaim.getMappedLocalClaim());
+                returnMap.put(otherClaimURI, localClaimURI);
             }
         }
         return returnMap;
     }
+
+    /**
+     * Translate the claims of the given dialect to the local claims in one pass. Claims without a mapping to a local
+     * claim are skipped.
+     *
+     * @param otherDialectURI Claim dialect URI of the claims.
+     * @param claims          Claim values keyed by the claim URIs of the dialect.
+     * @param tenantDomain    Tenant domain.
+     * @return Claim values keyed by the local claim URIs.
+     * @throws ClaimMetadataException If an error occurred while loading the claim mappings.
+     */
+    public Map<String, String> getClaimsInCarbonDialect(String otherDialectURI, Map<String, String> claims,
+                                                        String tenantDomain) throws ClaimMetadataException {
+
+        return translateClaims(claims, getClaimDialectTranslation(otherDialectURI, tenantDomain).getToLocalClaims());
+    }
+
+    /**
+     * Translate the local claims to the claims of the given dialect in one pass. Claims without a mapping in the
+     * dialect are skipped.
+     *
+     * @param otherDialectURI Claim dialect URI to translate the claims to.
+     * @param claims          Claim values keyed by the local claim URIs.
+     * @param tenantDomain    Tenant domain.
+     * @return Claim values keyed by the claim URIs of the dialect.
+     * @throws ClaimMetadataException If an error occurred while loading the claim mappings.
+     */
+    public Map<String, String> getClaimsInOtherDialect(String otherDialectURI, Map<String, String> claims,
+                                                       String tenantDomain) throws ClaimMetadataException {
+
+        return translateClaims(claims, getClaimDialectTranslation(otherDialectURI, tenantDomain)
+                .getFromLocalClaims());
+    }
+
+    private Map<String, String> translateClaims(Map<String, String> claims, Map<String, String> claimURIMappings) {
+
+        Map<String, String> translatedClaims = new HashMap<>();
+        if (claims == null) {
+            return translatedClaims;
+        }
+        for (Map.Entry<String, String> claim : claims.entrySet()) {
+            String translatedClaimURI = claimURIMappings.get(claim.getKey());
+            if (translatedClaimURI != null) {
+                translatedClaims.put(translatedClaimURI, claim.getValue());
+            }
+        }
+        return translatedClaims;
+    }
+
+    /**
+     * Get the translation table between the given dialect and the local dialect of the tenant. The table is cached
+     * per tenant and dialect, and the cache backed claim DAOs invalidate it when the mappings change.
+     *
+     * @param otherDialectURI Claim dialect URI.
+     * @param tenantDomain    Tenant domain.
+     * @return Claim dialect translation table.
+     * @throws ClaimMetadataException If an error occurred while loading the claim mappings.
+     */
+    private ClaimDialectTranslation getClaimDialectTranslation(String otherDialectURI, String tenantDomain)
+            throws ClaimMetadataException {
+
+        if (otherDialectURI == null) {
+            String message = "Invalid argument: \'otherDialectURI\' is \'NULL\'";
+            log.error(message);
+            throw new ClaimMetadataException(message);
+        }
+
+        ClaimDialectTranslationCache translationCache = ClaimDialectTranslationCache.getInstance();
+        ClaimDialectTranslation translation = translationCache.getValueFromCache(otherDialectURI, tenantDomain);
+        if (translation != null) {
+            return translation;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Cache miss for claim dialect translation of dialect: " + otherDialectURI + " in tenant: " +
+                    tenantDomain);
+        }
+        Map<String, String> toLocalClaims = new HashMap<>();
+        for (ExternalClaim mapping : getMappingsFromOtherDialectToCarbon(otherDialectURI, null, tenantDomain)) {
+            toLocalClaims.put(mapping.getClaimURI(), mapping.getMappedLocalClaim());
+        }
+        translation = new ClaimDialectTranslation(otherDialectURI, toLocalClaims);
+        translationCache.addToCache(otherDialectURI, translation, tenantDomain);
+        return translation;
+    }
 }
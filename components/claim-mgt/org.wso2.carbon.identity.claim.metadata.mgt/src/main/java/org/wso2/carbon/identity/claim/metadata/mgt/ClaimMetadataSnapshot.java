@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt;
+
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable index of the claim metadata of a tenant, used by {@link DefaultClaimMetadataStore} to resolve claims
+ * without scanning the claim lists on every lookup.
+ * <p>
+ * A snapshot is built from the local claim list of a tenant and is kept in the local claim cache entry of that list,
+ * so it is evicted along with the entry. Any claim metadata change clears that entry, in this node or through cache
+ * invalidation in the cluster, and the next lookup builds a new snapshot. This includes the external claim and claim
+ * dialect changes, which drop the index of the external claims kept in the snapshot.
+ */
+public final class ClaimMetadataSnapshot {
+
+    private final Map<String, LocalClaim> localClaims = new HashMap<>();
+    private final Map<String, LocalClaim> localClaimsIgnoreCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    // Mapped attributes resolved for the local claims, keyed by the user store domain and then by the claim URI.
+    private final Map<String, Map<String, String>> mappedAttributes = new ConcurrentHashMap<>();
+    private volatile Map<String, LocalClaim> externalClaimIndex;
+
+    ClaimMetadataSnapshot(List<LocalClaim> localClaimList) {
+
+        for (LocalClaim localClaim : localClaimList) {
+            localClaimsIgnoreCase.putIfAbsent(localClaim.getClaimURI(), localClaim);
+        }
+        // Exact matches resolve to the same claim as a case insensitive scan of the list would.
+        for (LocalClaim localClaim : localClaimList) {
+            localClaims.putIfAbsent(localClaim.getClaimURI(), localClaimsIgnoreCase.get(localClaim.getClaimURI()));
+        }
+    }
+
+    /**
+     * Get the local claim of the given claim URI, ignoring the case.
+     *
+     * @param claimURI Local claim URI.
+     * @return Local claim or null if there is no such local claim.
+     */
+    LocalClaim getLocalClaim(String claimURI) {
+
+        LocalClaim localClaim = localClaims.get(claimURI);
+        if (localClaim == null) {
+            localClaim = localClaimsIgnoreCase.get(claimURI);
+        }
+        return localClaim;
+    }
+
+    String getMappedAttribute(String domainName, String claimURI) {
+
+        Map<String, String> domainAttributes = mappedAttributes.get(domainName);
+        return domainAttributes == null ? null : domainAttributes.get(claimURI);
+    }
+
+    void addMappedAttribute(String domainName, String claimURI, String mappedAttribute) {
+
+        mappedAttributes.computeIfAbsent(domainName, key -> new ConcurrentHashMap<>()).put(claimURI, mappedAttribute);
+    }
+
+    /**
+     * Get the index of the external claim URIs of all the external dialects to their mapped local claims.
+     *
+     * @return Case insensitive index, or null if it is not built yet.
+     */
+    Map<String, LocalClaim> getExternalClaimIndex() {
+
+        return externalClaimIndex;
+    }
+
+    /**
+     * Build the index of the external claim URIs to their mapped local claims and keep it in this snapshot.
+     *
+     * @param externalClaims External claim lists of the external dialects, in the order of the claim dialects.
+     * @return Case insensitive index.
+     */
+    Map<String, LocalClaim> buildExternalClaimIndex(List<List<ExternalClaim>> externalClaims) {
+
+        Map<String, LocalClaim> mappedLocalClaims = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (List<ExternalClaim> externalClaimList : externalClaims) {
+            for (ExternalClaim externalClaim : externalClaimList) {
+                if (mappedLocalClaims.containsKey(externalClaim.getClaimURI())) {
+                    continue;
+                }
+                LocalClaim localClaim = localClaimsIgnoreCase.get(externalClaim.getMappedLocalClaim());
+                if (localClaim != null) {
+                    mappedLocalClaims.put(externalClaim.getClaimURI(), localClaim);
+                }
+            }
+        }
+        externalClaimIndex = mappedLocalClaims;
+        return mappedLocalClaims;
+    }
+}
@@ -19,6 +19,7 @@ package org.wso2.carbon.identity.claim.metadata.mgt;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCacheEntry;
 import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedClaimDialectDAO;
 import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedExternalClaimDAO;
 import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedLocalClaimDAO;
@@ -134,45 +135,20 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
         }
 
         try {
-            // Add listener
-
-            List<LocalClaim> localClaimList = this.localClaimDAO.getLocalClaims(tenantId);
-
-            // Add listener
-
-            for (LocalClaim localClaim : localClaimList) {
-                if (localClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-                    return getMappedAttribute(domainName, localClaim, tenantId);
-                }
+            ClaimMetadataSnapshot snapshot = getClaimMetadataSnapshot();
+            LocalClaim localClaim = snapshot.getLocalClaim(claimURI);
+            if (localClaim != null) {
+                return getMappedAttribute(domainName, localClaim, snapshot);
             }
 
-
             // For backward compatibility
-            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
-
-            for (ClaimDialect claimDialect : claimDialects) {
-                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
-                    continue;
-                }
-
-                List<ExternalClaim> externalClaims = externalClaimDAO.getExternalClaims(claimDialect
-                        .getClaimDialectURI(), tenantId);
-
-                for (ExternalClaim externalClaim : externalClaims) {
-                    if (externalClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-
-                        for (LocalClaim localClaim : localClaimList) {
-                            if (localClaim.getClaimURI().equalsIgnoreCase(externalClaim.getMappedLocalClaim())) {
-                                if (log.isDebugEnabled()) {
-                                    log.debug("Picking mapped attribute for external claim : " + externalClaim
-                                            .getClaimURI() + " using mapped local claim : " + localClaim.getClaimURI());
-                                }
-                                return getMappedAttribute(domainName, localClaim, tenantId);
-                            }
-                        }
-
-                    }
+            localClaim = getMappedLocalClaim(claimURI, snapshot);
+            if (localClaim != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Picking mapped attribute for external claim : " + claimURI + " using mapped local " +
+                            "claim : " + localClaim.getClaimURI());
                 }
+                return getMappedAttribute(domainName, localClaim, snapshot);
             }
 
             if (log.isDebugEnabled()) {
@@ -187,6 +163,17 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
         }
     }
 
+    private String getMappedAttribute(String domainName, LocalClaim localClaim, ClaimMetadataSnapshot snapshot)
+            throws UserStoreException {
+
+        String mappedAttribute = snapshot.getMappedAttribute(domainName, localClaim.getClaimURI());
+        if (mappedAttribute == null) {
+            mappedAttribute = getMappedAttribute(domainName, localClaim, tenantId);
+            snapshot.addMappedAttribute(domainName, localClaim.getClaimURI(), mappedAttribute);
+        }
+        return mappedAttribute;
+    }
+
     private String getMappedAttribute(String domainName, LocalClaim localClaim, int tenantId) throws
             UserStoreException {
 
@@ -247,38 +234,16 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
     @Deprecated
     public Claim getClaim(String claimURI) throws UserStoreException {
         try {
-            List<LocalClaim> localClaims = localClaimDAO.getLocalClaims(this.tenantId);
-
-            for (LocalClaim localClaim : localClaims) {
-                if (localClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-                    ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this
-                            .tenantId);
-                    return claimMapping.getClaim();
-                }
+            ClaimMetadataSnapshot snapshot = getClaimMetadataSnapshot();
+            LocalClaim localClaim = snapshot.getLocalClaim(claimURI);
+            if (localClaim == null) {
+                // For backward compatibility
+                localClaim = getMappedLocalClaim(claimURI, snapshot);
             }
-
-            // For backward compatibility
-            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
-
-            for (ClaimDialect claimDialect : claimDialects) {
-                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
-                    continue;
-                }
-
-                List<ExternalClaim> externalClaims = externalClaimDAO.getExternalClaims(claimDialect
-                        .getClaimDialectURI(), tenantId);
-
-                for (ExternalClaim externalClaim : externalClaims) {
-                    if (externalClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-
-                        for (LocalClaim localClaim : localClaims) {
-                            ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping
-                                    (localClaim, this.tenantId);
-                            return claimMapping.getClaim();
-                        }
-
-                    }
-                }
+            if (localClaim != null) {
+                ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this
+                        .tenantId);
+                return claimMapping.getClaim();
             }
 
             if (log.isDebugEnabled()) {
@@ -294,40 +259,16 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
     @Deprecated
     public ClaimMapping getClaimMapping(String claimURI) throws UserStoreException {
         try {
-            List<LocalClaim> localClaims = localClaimDAO.getLocalClaims(this.tenantId);
-
-            for (LocalClaim localClaim : localClaims) {
-                if (localClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-                    ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this
-                            .tenantId);
-                    return claimMapping;
-                }
+            ClaimMetadataSnapshot snapshot = getClaimMetadataSnapshot();
+            LocalClaim localClaim = snapshot.getLocalClaim(claimURI);
+            if (localClaim == null) {
+                // For backward compatibility
+                localClaim = getMappedLocalClaim(claimURI, snapshot);
             }
-
-            // For backward compatibility
-            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
-
-            for (ClaimDialect claimDialect : claimDialects) {
-                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
-                    continue;
-                }
-
-                List<ExternalClaim> externalClaims = externalClaimDAO.getExternalClaims(claimDialect
-                        .getClaimDialectURI(), tenantId);
-
-                for (ExternalClaim externalClaim : externalClaims) {
-                    if (externalClaim.getClaimURI().equalsIgnoreCase(claimURI)) {
-
-                        for (LocalClaim localClaim : localClaims) {
-                            if (localClaim.getClaimURI().equalsIgnoreCase(externalClaim.getMappedLocalClaim())) {
-                                ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping
-                                        (localClaim, this.tenantId);
-                                return claimMapping;
-                            }
-                        }
-
-                    }
-                }
+            if (localClaim != null) {
+                ClaimMapping claimMapping = ClaimMetadataUtils.convertLocalClaimToClaimMapping(localClaim, this
+                        .tenantId);
+                return claimMapping;
             }
 
             if (log.isDebugEnabled()) {
@@ -461,6 +402,40 @@ public class DefaultClaimMetadataStore implements ClaimMetadataStore {
         }
     }
 
+    private ClaimMetadataSnapshot getClaimMetadataSnapshot() throws ClaimMetadataException {
+
+        List<LocalClaim> localClaims = localClaimDAO.getLocalClaims(tenantId);
+        if (!(localClaims instanceof LocalClaimCacheEntry)) {
+            // The local claim cache is disabled, hence there is no entry to keep the snapshot in.
+            return new ClaimMetadataSnapshot(localClaims);
+        }
+        LocalClaimCacheEntry cacheEntry = (LocalClaimCacheEntry) localClaims;
+        ClaimMetadataSnapshot snapshot = cacheEntry.getClaimMetadataSnapshot();
+        if (snapshot == null) {
+            snapshot = new ClaimMetadataSnapshot(localClaims);
+            cacheEntry.setClaimMetadataSnapshot(snapshot);
+        }
+        return snapshot;
+    }
+
+    private LocalClaim getMappedLocalClaim(String externalClaimURI, ClaimMetadataSnapshot snapshot)
+            throws ClaimMetadataException {
+
+        Map<String, LocalClaim> externalClaimIndex = snapshot.getExternalClaimIndex();
+        if (externalClaimIndex == null) {
+            List<ClaimDialect> claimDialects = claimDialectDAO.getClaimDialects(tenantId);
+            List<List<ExternalClaim>> externalClaims = new ArrayList<>(claimDialects.size());
+            for (ClaimDialect claimDialect : claimDialects) {
+                if (ClaimConstants.LOCAL_CLAIM_DIALECT_URI.equalsIgnoreCase(claimDialect.getClaimDialectURI())) {
+                    continue;
+                }
+                externalClaims.add(externalClaimDAO.getExternalClaims(claimDialect.getClaimDialectURI(), tenantId));
+            }
+            externalClaimIndex = snapshot.buildExternalClaimIndex(externalClaims);
+        }
+        return externalClaimIndex.get(externalClaimURI);
+    }
+
     private boolean isFilterableClaim(LocalClaim localClaim) {
 
         // Filter the local claim `role` when groups vs roles separation is enabled. This claim is
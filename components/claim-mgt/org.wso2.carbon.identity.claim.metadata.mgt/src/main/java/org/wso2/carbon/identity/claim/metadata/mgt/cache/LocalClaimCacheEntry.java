@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt.cache;
+
+import org.wso2.carbon.identity.claim.metadata.mgt.ClaimMetadataSnapshot;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Local claim list of a tenant kept in the {@link LocalClaimCache}.
+ * <p>
+ * The entry also holds the claim metadata snapshot built from its claims. The snapshot is not serialized, so it is
+ * dropped along with the cache entry when the entry is cleared, expires or is invalidated in the cluster.
+ */
+public class LocalClaimCacheEntry extends ArrayList<LocalClaim> {
+
+    private static final long serialVersionUID = -4182795614839563024L;
+
+    private transient volatile ClaimMetadataSnapshot claimMetadataSnapshot;
+
+    public LocalClaimCacheEntry(Collection<LocalClaim> localClaims) {
+
+        super(localClaims);
+    }
+
+    public ClaimMetadataSnapshot getClaimMetadataSnapshot() {
+
+        return claimMetadataSnapshot;
+    }
+
+    public void setClaimMetadataSnapshot(ClaimMetadataSnapshot claimMetadataSnapshot) {
+
+        this.claimMetadataSnapshot = claimMetadataSnapshot;
+    }
+}
@@ -20,7 +20,9 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.claim.metadata.mgt.cache.AssociatedClaimCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDialectTranslationCache;
 import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCacheEntry;
 import org.wso2.carbon.identity.claim.metadata.mgt.exception.ClaimMetadataException;
 import org.wso2.carbon.identity.claim.metadata.mgt.model.Claim;
 import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
@@ -41,6 +43,7 @@ public class CacheBackedLocalClaimDAO {
 
     LocalClaimCache localClaimInvalidationCache = LocalClaimCache.getInstance();
     AssociatedClaimCache associatedClaimCache = AssociatedClaimCache.getInstance();
+    ClaimDialectTranslationCache claimDialectTranslationCache = ClaimDialectTranslationCache.getInstance();
 
 
     public CacheBackedLocalClaimDAO(LocalClaimDAO localClaimDAO) {
@@ -56,8 +59,9 @@ public class CacheBackedLocalClaimDAO {
             if (log.isDebugEnabled()) {
                 log.debug("Cache miss for local claim list for tenant: " + tenantId);
             }
-            localClaimList = localClaimDAO.getLocalClaims(tenantId);
-            localClaimInvalidationCache.addToCache(tenantId, new ArrayList<>(localClaimList), tenantId);
+            LocalClaimCacheEntry cacheEntry = new LocalClaimCacheEntry(localClaimDAO.getLocalClaims(tenantId));
+            localClaimInvalidationCache.addToCache(tenantId, cacheEntry, tenantId);
+            localClaimList = cacheEntry;
         } else {
             if (log.isDebugEnabled()) {
                 log.debug("Cache hit for local claim list for tenant: " + tenantId);
@@ -71,6 +75,7 @@ public class CacheBackedLocalClaimDAO {
 
         localClaimDAO.addLocalClaim(localClaim, tenantId);
         localClaimInvalidationCache.clearCacheEntry(tenantId, tenantId);
+        claimDialectTranslationCache.clearCacheEntry(ClaimConstants.LOCAL_CLAIM_DIALECT_URI, tenantId);
     }
 
     public void updateLocalClaim(LocalClaim localClaim, int tenantId) throws ClaimMetadataException {
@@ -99,6 +104,7 @@ public class CacheBackedLocalClaimDAO {
 
         localClaimDAO.removeLocalClaim(localClaimURI, tenantId);
         localClaimInvalidationCache.clearCacheEntry(tenantId, tenantId);
+        claimDialectTranslationCache.clearCacheEntry(ClaimConstants.LOCAL_CLAIM_DIALECT_URI, tenantId);
         associatedClaimCache.clearCacheEntry(localClaimURI, tenantId);
     }
 
@@ -122,6 +128,18 @@ public class CacheBackedLocalClaimDAO {
         localClaimInvalidationCache.clearCacheEntry(tenantId, tenantId);
     }
 
+    /**
+     * Clear the cached local claim list of the given tenant along with the claim metadata snapshot built from it. The
+     * snapshot indexes the external claims by their mapped local claims, hence this is done on the external claim and
+     * claim dialect changes too. Clearing the cache entry drops the snapshot in the other nodes of the cluster as well.
+     *
+     * @param tenantId Tenant Id.
+     */
+    public static void clearClaimMetadataSnapshot(int tenantId) {
+
+        LocalClaimCache.getInstance().clearCacheEntry(tenantId, tenantId);
+    }
+
     /**
      * Fetch mapped external claims of a local claim.
      *
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable translation table between the claims of a claim dialect and the local claims of a tenant.
+ */
+public class ClaimDialectTranslation implements Serializable {
+
+    private static final long serialVersionUID = 2470835114628906387L;
+
+    private final String claimDialectURI;
+    private final Map<String, String> toLocalClaims;
+    private final Map<String, String> fromLocalClaims;
+
+    /**
+     * @param claimDialectURI Claim dialect URI.
+     * @param toLocalClaims   Claim URIs of the dialect mapped to the local claim URIs.
+     */
+    public ClaimDialectTranslation(String claimDialectURI, Map<String, String> toLocalClaims) {
+
+        this.claimDialectURI = claimDialectURI;
+        Map<String, String> fromLocalClaims = new HashMap<>();
+        for (Map.Entry<String, String> mapping : toLocalClaims.entrySet()) {
+            fromLocalClaims.put(mapping.getValue(), mapping.getKey());
+        }
+        this.toLocalClaims = Collections.unmodifiableMap(new HashMap<>(toLocalClaims));
+        this.fromLocalClaims = Collections.unmodifiableMap(fromLocalClaims);
+    }
+
+    public String getClaimDialectURI() {
+
+        return claimDialectURI;
+    }
+
+    /**
+     * Get the claim URIs of the dialect mapped to the local claim URIs.
+     *
+     * @return Unmodifiable map of claim URI of the dialect to the local claim URI.
+     */
+    public Map<String, String> getToLocalClaims() {
+
+        return toLocalClaims;
+    }
+
+    /**
+     * Get the local claim URIs mapped to the claim URIs of the dialect. When more than one claim of the dialect is
+     * mapped to the same local claim, one of them is picked.
+     *
+     * @return Unmodifiable map of local claim URI to the claim URI of the dialect.
+     */
+    public Map<String, String> getFromLocalClaims() {
+
+        return fromLocalClaims;
+    }
+}
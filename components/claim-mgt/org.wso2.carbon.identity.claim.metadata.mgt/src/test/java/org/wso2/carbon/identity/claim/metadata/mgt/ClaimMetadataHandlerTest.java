@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt;
+
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDialectTranslationCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.exception.ClaimMetadataException;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ClaimDialectTranslation;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+
+@WithCarbonHome
+public class ClaimMetadataHandlerTest {
+
+    private static final String EXTERNAL_CLAIM_DIALECT_URI = "http://schemas.xmlsoap.org/ws/2005/05/identity";
+    private static final String EMAIL_CLAIM_URI = "http://wso2.org/claims/emailaddress";
+    private static final String COUNTRY_CLAIM_URI = "http://wso2.org/claims/country";
+    private static final String EXTERNAL_EMAIL_CLAIM_URI =
+            "http://schemas.xmlsoap.org/ws/2005/05/identity/claims/emailaddress";
+    private static final String EXTERNAL_COUNTRY_CLAIM_URI =
+            "http://schemas.xmlsoap.org/ws/2005/05/identity/claims/country";
+
+    private MockedStatic<ClaimDialectTranslationCache> claimDialectTranslationCache;
+    private MockedConstruction<ClaimMetadataManagementServiceImpl> claimMetadataServices;
+    private ClaimDialectTranslationCache translationCache;
+
+    @BeforeMethod
+    public void setUp() {
+
+        translationCache = mock(ClaimDialectTranslationCache.class);
+        claimDialectTranslationCache = mockStatic(ClaimDialectTranslationCache.class);
+        claimDialectTranslationCache.when(ClaimDialectTranslationCache::getInstance).thenReturn(translationCache);
+        claimMetadataServices = mockConstruction(ClaimMetadataManagementServiceImpl.class,
+                (claimMetadataService, context) -> {
+                    when(claimMetadataService.getExternalClaims(EXTERNAL_CLAIM_DIALECT_URI, SUPER_TENANT_DOMAIN_NAME))
+                            .thenReturn(Arrays.asList(
+                                    new ExternalClaim(EXTERNAL_CLAIM_DIALECT_URI, EXTERNAL_EMAIL_CLAIM_URI,
+                                            EMAIL_CLAIM_URI),
+                                    new ExternalClaim(EXTERNAL_CLAIM_DIALECT_URI, EXTERNAL_COUNTRY_CLAIM_URI,
+                                            COUNTRY_CLAIM_URI)));
+                    when(claimMetadataService.getLocalClaims(SUPER_TENANT_DOMAIN_NAME)).thenReturn(
+                            Arrays.asList(new LocalClaim(EMAIL_CLAIM_URI), new LocalClaim(COUNTRY_CLAIM_URI)));
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        claimMetadataServices.close();
+        claimDialectTranslationCache.close();
+    }
+
+    @Test
+    public void testGetClaimsInCarbonDialect() throws Exception {
+
+        Map<String, String> claims = new HashMap<>();
+        claims.put(EXTERNAL_EMAIL_CLAIM_URI, "john@wso2.com");
+        claims.put(EXTERNAL_COUNTRY_CLAIM_URI, "Sri Lanka");
+        claims.put("http://schemas.xmlsoap.org/ws/2005/05/identity/claims/unknown", "unknown");
+
+        Map<String, String> localClaims = ClaimMetadataHandler.getInstance().getClaimsInCarbonDialect(
+                EXTERNAL_CLAIM_DIALECT_URI, claims, SUPER_TENANT_DOMAIN_NAME);
+
+        Map<String, String> expectedClaims = new HashMap<>();
+        expectedClaims.put(EMAIL_CLAIM_URI, "john@wso2.com");
+        expectedClaims.put(COUNTRY_CLAIM_URI, "Sri Lanka");
+        assertEquals(localClaims, expectedClaims);
+        verify(translationCache).addToCache(eq(EXTERNAL_CLAIM_DIALECT_URI), any(ClaimDialectTranslation.class),
+                eq(SUPER_TENANT_DOMAIN_NAME));
+    }
+
+    @Test
+    public void testGetClaimsInOtherDialect() throws Exception {
+
+        Map<String, String> claims = new HashMap<>();
+        claims.put(EMAIL_CLAIM_URI, "john@wso2.com");
+        claims.put("http://wso2.org/claims/unknown", "unknown");
+
+        Map<String, String> otherDialectClaims = ClaimMetadataHandler.getInstance().getClaimsInOtherDialect(
+                EXTERNAL_CLAIM_DIALECT_URI, claims, SUPER_TENANT_DOMAIN_NAME);
+
+        assertEquals(otherDialectClaims, Collections.singletonMap(EXTERNAL_EMAIL_CLAIM_URI, "john@wso2.com"));
+    }
+
+    @Test
+    public void testGetClaimsInCarbonDialectFromLocalDialect() throws Exception {
+
+        Map<String, String> claims = Collections.singletonMap(COUNTRY_CLAIM_URI, "Sri Lanka");
+
+        assertEquals(ClaimMetadataHandler.getInstance().getClaimsInCarbonDialect(
+                UserCoreConstants.DEFAULT_CARBON_DIALECT, claims, SUPER_TENANT_DOMAIN_NAME), claims);
+        assertEquals(ClaimMetadataHandler.getInstance().getClaimsInOtherDialect(
+                UserCoreConstants.DEFAULT_CARBON_DIALECT, claims, SUPER_TENANT_DOMAIN_NAME), claims);
+    }
+
+    @Test
+    public void testClaimTranslationUsesCachedTranslation() throws Exception {
+
+        ClaimDialectTranslation translation = new ClaimDialectTranslation(EXTERNAL_CLAIM_DIALECT_URI,
+                Collections.singletonMap(EXTERNAL_EMAIL_CLAIM_URI, EMAIL_CLAIM_URI));
+        when(translationCache.getValueFromCache(EXTERNAL_CLAIM_DIALECT_URI, SUPER_TENANT_DOMAIN_NAME))
+                .thenReturn(translation);
+
+        Map<String, String> localClaims = ClaimMetadataHandler.getInstance().getClaimsInCarbonDialect(
+                EXTERNAL_CLAIM_DIALECT_URI, Collections.singletonMap(EXTERNAL_EMAIL_CLAIM_URI, "john@wso2.com"),
+                SUPER_TENANT_DOMAIN_NAME);
+
+        assertEquals(localClaims, Collections.singletonMap(EMAIL_CLAIM_URI, "john@wso2.com"));
+        assertTrue(claimMetadataServices.constructed().isEmpty());
+        verify(translationCache, never()).addToCache(any(), any(), any(String.class));
+    }
+
+    @Test
+    public void testClaimTranslationOfNullClaims() throws Exception {
+
+        assertTrue(ClaimMetadataHandler.getInstance().getClaimsInCarbonDialect(EXTERNAL_CLAIM_DIALECT_URI, null,
+                SUPER_TENANT_DOMAIN_NAME).isEmpty());
+        assertTrue(ClaimMetadataHandler.getInstance().getClaimsInOtherDialect(EXTERNAL_CLAIM_DIALECT_URI, null,
+                SUPER_TENANT_DOMAIN_NAME).isEmpty());
+    }
+
+    @Test(expectedExceptions = ClaimMetadataException.class)
+    public void testClaimTranslationOfNullDialect() throws Exception {
+
+        ClaimMetadataHandler.getInstance().getClaimsInCarbonDialect(null, Collections.emptyMap(),
+                SUPER_TENANT_DOMAIN_NAME);
+    }
+}
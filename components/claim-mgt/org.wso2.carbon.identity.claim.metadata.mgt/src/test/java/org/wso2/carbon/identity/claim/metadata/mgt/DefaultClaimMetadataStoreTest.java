@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.claim.metadata.mgt;
+
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.AssociatedClaimCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ClaimDialectTranslationCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.ExternalClaimCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCache;
+import org.wso2.carbon.identity.claim.metadata.mgt.cache.LocalClaimCacheEntry;
+import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedClaimDialectDAO;
+import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedExternalClaimDAO;
+import org.wso2.carbon.identity.claim.metadata.mgt.dao.CacheBackedLocalClaimDAO;
+import org.wso2.carbon.identity.claim.metadata.mgt.dao.ExternalClaimDAO;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.AttributeMapping;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ClaimDialect;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.model.LocalClaim;
+import org.wso2.carbon.identity.claim.metadata.mgt.util.ClaimConstants;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.user.api.Claim;
+import org.wso2.carbon.user.core.claim.inmemory.ClaimConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_ID;
+import static org.wso2.carbon.identity.testutil.Whitebox.setInternalState;
+
+@WithCarbonHome
+public class DefaultClaimMetadataStoreTest {
+
+    private static final String PRIMARY_DOMAIN = "PRIMARY";
+    private static final String EXTERNAL_CLAIM_DIALECT_URI = "urn:ietf:params:scim:schemas:core:2.0:User";
+    private static final String USERNAME_CLAIM_URI = "http://wso2.org/claims/username";
+    private static final String EMAIL_CLAIM_URI = "http://wso2.org/claims/emailaddress";
+    private static final String EXTERNAL_EMAIL_CLAIM_URI = "urn:ietf:params:scim:schemas:core:2.0:User:emails";
+
+    private DefaultClaimMetadataStore claimMetadataStore;
+    private CacheBackedClaimDialectDAO claimDialectDAO;
+    private CacheBackedLocalClaimDAO localClaimDAO;
+    private CacheBackedExternalClaimDAO externalClaimDAO;
+    private LocalClaimCacheEntry localClaims;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        List<ClaimDialect> claimDialects = Arrays.asList(new ClaimDialect(ClaimConstants.LOCAL_CLAIM_DIALECT_URI),
+                new ClaimDialect(EXTERNAL_CLAIM_DIALECT_URI));
+        try (MockedConstruction<CacheBackedClaimDialectDAO> claimDialectDAOs = mockConstruction(
+                CacheBackedClaimDialectDAO.class,
+                (claimDialectDAO, context) -> when(claimDialectDAO.getClaimDialects(SUPER_TENANT_ID))
+                        .thenReturn(claimDialects))) {
+            claimMetadataStore = new DefaultClaimMetadataStore(new ClaimConfig(), SUPER_TENANT_ID);
+        }
+        claimDialectDAO = mock(CacheBackedClaimDialectDAO.class);
+        when(claimDialectDAO.getClaimDialects(SUPER_TENANT_ID)).thenReturn(claimDialects);
+        localClaimDAO = mock(CacheBackedLocalClaimDAO.class);
+        externalClaimDAO = mock(CacheBackedExternalClaimDAO.class);
+        setInternalState(claimMetadataStore, "claimDialectDAO", claimDialectDAO);
+        setInternalState(claimMetadataStore, "localClaimDAO", localClaimDAO);
+        setInternalState(claimMetadataStore, "externalClaimDAO", externalClaimDAO);
+
+        localClaims = new LocalClaimCacheEntry(Arrays.asList(createLocalClaim(USERNAME_CLAIM_URI, "uid"),
+                createLocalClaim(EMAIL_CLAIM_URI, "mail")));
+        when(localClaimDAO.getLocalClaims(SUPER_TENANT_ID)).thenReturn(localClaims);
+        when(externalClaimDAO.getExternalClaims(EXTERNAL_CLAIM_DIALECT_URI, SUPER_TENANT_ID)).thenReturn(
+                Collections.singletonList(new ExternalClaim(EXTERNAL_CLAIM_DIALECT_URI, EXTERNAL_EMAIL_CLAIM_URI,
+                        EMAIL_CLAIM_URI)));
+    }
+
+    @Test
+    public void testGetClaimOfLocalClaim() throws Exception {
+
+        Claim claim = claimMetadataStore.getClaim(EMAIL_CLAIM_URI);
+        assertNotNull(claim);
+        assertEquals(claim.getClaimUri(), EMAIL_CLAIM_URI);
+    }
+
+    @Test
+    public void testGetClaimOfExternalClaimReturnsMappedLocalClaim() throws Exception {
+
+        Claim claim = claimMetadataStore.getClaim(EXTERNAL_EMAIL_CLAIM_URI);
+        assertNotNull(claim);
+        assertEquals(claim.getClaimUri(), EMAIL_CLAIM_URI);
+    }
+
+    @Test
+    public void testGetClaimOfUnknownClaim() throws Exception {
+
+        assertNull(claimMetadataStore.getClaim("http://wso2.org/claims/unknown"));
+    }
+
+    @Test
+    public void testCaseInsensitiveLookups() throws Exception {
+
+        assertEquals(claimMetadataStore.getClaim("http://wso2.org/claims/EmailAddress").getClaimUri(),
+                EMAIL_CLAIM_URI);
+        assertEquals(claimMetadataStore.getClaim(EXTERNAL_EMAIL_CLAIM_URI.toUpperCase()).getClaimUri(),
+                EMAIL_CLAIM_URI);
+        assertEquals(claimMetadataStore.getClaimMapping("HTTP://WSO2.ORG/CLAIMS/USERNAME").getClaim()
+                .getClaimUri(), USERNAME_CLAIM_URI);
+        assertEquals(claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, "http://wso2.org/claims/EMAILADDRESS"),
+                "mail");
+        assertEquals(claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, EXTERNAL_EMAIL_CLAIM_URI.toLowerCase()),
+                "mail");
+    }
+
+    @Test
+    public void testSnapshotIsKeptInLocalClaimCacheEntry() throws Exception {
+
+        claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, USERNAME_CLAIM_URI);
+        ClaimMetadataSnapshot snapshot = localClaims.getClaimMetadataSnapshot();
+        assertNotNull(snapshot);
+
+        claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, EMAIL_CLAIM_URI);
+        assertSame(localClaims.getClaimMetadataSnapshot(), snapshot);
+
+        // A new cache entry, as loaded after the previous one is cleared, gets a new snapshot.
+        LocalClaimCacheEntry reloadedLocalClaims = new LocalClaimCacheEntry(Collections.singletonList(
+                createLocalClaim(EMAIL_CLAIM_URI, "email")));
+        when(localClaimDAO.getLocalClaims(SUPER_TENANT_ID)).thenReturn(reloadedLocalClaims);
+        assertEquals(claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, EMAIL_CLAIM_URI), "email");
+        assertNull(claimMetadataStore.getClaim(USERNAME_CLAIM_URI));
+        assertNotNull(reloadedLocalClaims.getClaimMetadataSnapshot());
+    }
+
+    @Test
+    public void testExternalClaimIndexIsKeptInSnapshot() throws Exception {
+
+        assertEquals(claimMetadataStore.getClaim(EXTERNAL_EMAIL_CLAIM_URI).getClaimUri(), EMAIL_CLAIM_URI);
+        assertNotNull(localClaims.getClaimMetadataSnapshot().getExternalClaimIndex());
+        assertEquals(claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, EXTERNAL_EMAIL_CLAIM_URI), "mail");
+        assertNull(claimMetadataStore.getClaim("urn:ietf:params:scim:schemas:core:2.0:User:unknown"));
+
+        // The claim dialects and external claims are only read to build the index.
+        verify(claimDialectDAO, times(1)).getClaimDialects(SUPER_TENANT_ID);
+        verify(externalClaimDAO, times(1)).getExternalClaims(EXTERNAL_CLAIM_DIALECT_URI, SUPER_TENANT_ID);
+    }
+
+    @Test
+    public void testExternalClaimChangeClearsSnapshot() throws Exception {
+
+        LocalClaimCache localClaimCache = mock(LocalClaimCache.class);
+        try (MockedStatic<LocalClaimCache> localClaimCacheStatic = mockStatic(LocalClaimCache.class)) {
+            localClaimCacheStatic.when(LocalClaimCache::getInstance).thenReturn(localClaimCache);
+            CacheBackedExternalClaimDAO cacheBackedExternalClaimDAO =
+                    new CacheBackedExternalClaimDAO(mock(ExternalClaimDAO.class));
+            setInternalState(cacheBackedExternalClaimDAO, "externalClaimCache", mock(ExternalClaimCache.class));
+            setInternalState(cacheBackedExternalClaimDAO, "associatedClaimCache", mock(AssociatedClaimCache.class));
+            setInternalState(cacheBackedExternalClaimDAO, "claimDialectTranslationCache",
+                    mock(ClaimDialectTranslationCache.class));
+
+            cacheBackedExternalClaimDAO.updateExternalClaim(new ExternalClaim(EXTERNAL_CLAIM_DIALECT_URI,
+                    EXTERNAL_EMAIL_CLAIM_URI, USERNAME_CLAIM_URI), SUPER_TENANT_ID);
+        }
+        verify(localClaimCache).clearCacheEntry(SUPER_TENANT_ID, SUPER_TENANT_ID);
+    }
+
+    @Test
+    public void testLookupsWithoutLocalClaimCacheEntry() throws Exception {
+
+        when(localClaimDAO.getLocalClaims(SUPER_TENANT_ID)).thenReturn(new ArrayList<>(localClaims));
+
+        assertEquals(claimMetadataStore.getAttributeName(PRIMARY_DOMAIN, EXTERNAL_EMAIL_CLAIM_URI), "mail");
+        assertEquals(claimMetadataStore.getClaim(USERNAME_CLAIM_URI).getClaimUri(), USERNAME_CLAIM_URI);
+        assertNull(localClaims.getClaimMetadataSnapshot());
+    }
+
+    private LocalClaim createLocalClaim(String claimURI, String attributeName) {
+
+        Map<String, String> claimProperties = new HashMap<>();
+        claimProperties.put(ClaimConstants.DEFAULT_ATTRIBUTE, attributeName);
+        return new LocalClaim(claimURI, Collections.singletonList(new AttributeMapping(PRIMARY_DOMAIN,
+                attributeName)), claimProperties);
+    }
+}
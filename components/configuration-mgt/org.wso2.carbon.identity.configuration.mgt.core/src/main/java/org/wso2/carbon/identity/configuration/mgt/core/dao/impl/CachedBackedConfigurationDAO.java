@@ -24,6 +24,12 @@ import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceByNameCache
 import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceByNameCacheKey;
 import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceCacheEntry;
 import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceByIdCacheKey;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceListCacheEntry;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceSearchCache;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceSearchCacheKey;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourcesByTypeCache;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourcesByTypeCacheKey;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourcesCacheEntry;
 import org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants;
 import org.wso2.carbon.identity.configuration.mgt.core.dao.ConfigurationDAO;
 import org.wso2.carbon.identity.configuration.mgt.core.exception.ConfigurationManagementException;
@@ -33,11 +39,14 @@ import org.wso2.carbon.identity.configuration.mgt.core.model.Resource;
 import org.wso2.carbon.identity.configuration.mgt.core.model.ResourceFile;
 import org.wso2.carbon.identity.configuration.mgt.core.model.ResourceType;
 import org.wso2.carbon.identity.configuration.mgt.core.model.Resources;
+import org.wso2.carbon.identity.configuration.mgt.core.search.ComplexCondition;
 import org.wso2.carbon.identity.configuration.mgt.core.search.Condition;
+import org.wso2.carbon.identity.configuration.mgt.core.search.PrimitiveCondition;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.wso2.carbon.identity.configuration.mgt.core.util.ConfigurationUtils.handleClientException;
@@ -51,12 +60,16 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
     private final ConfigurationDAO configurationDAO;
     private final ResourceByIdCache resourceByIdCache;
     private final ResourceByNameCache resourceByNameCache;
+    private final ResourcesByTypeCache resourcesByTypeCache;
+    private final ResourceSearchCache resourceSearchCache;
 
     public CachedBackedConfigurationDAO(ConfigurationDAO configurationDAO) {
     
         this.configurationDAO = configurationDAO;
         this.resourceByIdCache = ResourceByIdCache.getInstance();
         this.resourceByNameCache = ResourceByNameCache.getInstance();
+        this.resourcesByTypeCache = ResourcesByTypeCache.getInstance();
+        this.resourceSearchCache = ResourceSearchCache.getInstance();
     }
 
     @Override
@@ -68,7 +81,27 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
     @Override
     public Resources getTenantResources(Condition condition) throws ConfigurationManagementException {
 
-        return configurationDAO.getTenantResources(condition);
+        String searchKey = buildSearchKey(condition);
+        if (searchKey == null) {
+            return configurationDAO.getTenantResources(condition);
+        }
+        ResourceSearchCacheKey resourceSearchCacheKey = new ResourceSearchCacheKey(searchKey,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        ResourcesCacheEntry resourcesCacheEntry = resourceSearchCache.getValueFromCache(resourceSearchCacheKey);
+        if (resourcesCacheEntry != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cache hit for resource search. Search condition: " + searchKey);
+            }
+            return copyOf(resourcesCacheEntry.getResources());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Cache miss for resource search. Search condition: " + searchKey);
+        }
+        Resources resources = configurationDAO.getTenantResources(condition);
+        if (resources != null) {
+            resourceSearchCache.addToCache(resourceSearchCacheKey, new ResourcesCacheEntry(copyOf(resources)));
+        }
+        return resources;
     }
 
     @Override
@@ -125,8 +158,14 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
     @Override
     public void deleteResourceById(int tenantId, String resourceId) throws ConfigurationManagementException {
 
+        Resource resource = getResourceFromCacheById(resourceId, tenantId);
         configurationDAO.deleteResourceById(tenantId, resourceId);
         deleteCacheByResourceId(resourceId, tenantId);
+        if (resource != null) {
+            clearResourceListCaches(resource);
+        } else {
+            clearAllResourceListCaches();
+        }
     }
 
     @Override
@@ -134,6 +173,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
 
         configurationDAO.replaceResourceWithFiles(resource);
         deleteResourceFromCache(resource);
+        clearResourceListCaches(resource);
     }
 
     @Override
@@ -142,6 +182,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
 
         configurationDAO.deleteResourceByName(tenantId, resourceTypeId, name);
         deleteCacheByResourceByName(name, tenantId);
+        clearResourceListCaches(getTenantDomain(tenantId), resourceTypeId);
     }
 
     @Override
@@ -149,6 +190,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
 
         configurationDAO.addResource(resource);
         addResourceToCache(resource);
+        clearResourceListCaches(resource);
     }
 
     @Override
@@ -156,6 +198,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
 
         configurationDAO.replaceResource(resource);
         deleteResourceFromCache(resource);
+        clearResourceListCaches(resource);
     }
 
     @Override
@@ -168,6 +211,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
     public void replaceResourceType(ResourceType resourceType) throws ConfigurationManagementException {
 
         configurationDAO.replaceResourceType(resourceType);
+        resourceSearchCache.clear();
     }
 
     @Override
@@ -186,6 +230,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
     public void deleteResourceTypeByName(String resourceTypeName) throws ConfigurationManagementException {
 
         configurationDAO.deleteResourceTypeByName(resourceTypeName);
+        clearAllResourceListCaches();
     }
 
     @Override
@@ -199,6 +244,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
             throws ConfigurationManagementException {
 
         configurationDAO.updateAttribute(attributeId, resourceId, attribute);
+        clearAllResourceListCaches();
     }
 
     @Override
@@ -206,6 +252,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
             throws ConfigurationManagementException {
 
         configurationDAO.addAttribute(attributeId, resourceId, attribute);
+        clearAllResourceListCaches();
     }
 
     @Override
@@ -213,6 +260,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
             throws ConfigurationManagementException {
 
         configurationDAO.replaceAttribute(attributeId, resourceId, attribute);
+        clearAllResourceListCaches();
     }
 
     @Override
@@ -220,6 +268,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
             throws ConfigurationManagementException {
 
         configurationDAO.deleteAttribute(attributeId, resourceId, attributeKey);
+        clearAllResourceListCaches();
     }
 
     @Override
@@ -227,6 +276,7 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
             throws ConfigurationManagementException {
 
         configurationDAO.addFile(fileId, resourceId, fileName, fileStream);
+        clearAllResourceListCaches();
     }
 
     @Override
@@ -255,18 +305,41 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
             throws ConfigurationManagementException {
 
         configurationDAO.deleteFileById(resourceType, resourceName, fileId);
+        clearAllResourceListCaches();
     }
 
     @Override
     public void deleteFiles(String resourceId) throws ConfigurationManagementException {
 
         configurationDAO.deleteFiles(resourceId);
+        clearAllResourceListCaches();
     }
 
     @Override
     public List getResourcesByType(int tenantId, String resourceTypeId) throws ConfigurationManagementException {
 
-        return configurationDAO.getResourcesByType(tenantId, resourceTypeId);
+        String tenantDomain = getTenantDomain(tenantId);
+        ResourcesByTypeCacheKey resourcesByTypeCacheKey = new ResourcesByTypeCacheKey(resourceTypeId, tenantDomain);
+        ResourceListCacheEntry resourceListCacheEntry = resourcesByTypeCache.getValueFromCache(resourcesByTypeCacheKey);
+        if (resourceListCacheEntry != null) {
+            if (log.isDebugEnabled()) {
+                String message = String.format("Cache hit for resources by type. Resource type id: %s, Tenant " +
+                        "domain: %s", resourceTypeId, tenantDomain);
+                log.debug(message);
+            }
+            return new ArrayList<>(resourceListCacheEntry.getResources());
+        }
+        if (log.isDebugEnabled()) {
+            String message = String.format("Cache miss for resources by type. Resource type id: %s, Tenant " +
+                    "domain: %s", resourceTypeId, tenantDomain);
+            log.debug(message);
+        }
+        List<Resource> resourceList = configurationDAO.getResourcesByType(tenantId, resourceTypeId);
+        if (resourceList != null) {
+            resourcesByTypeCache.addToCache(resourcesByTypeCacheKey,
+                    new ResourceListCacheEntry(new ArrayList<>(resourceList)));
+        }
+        return resourceList;
     }
 
     @Override
@@ -289,32 +362,19 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
         for (Resource resource : resourceList) {
             deleteResourceFromCache(resource);
         }
+        clearResourceListCaches(getTenantDomain(tenantId), resourceTypeId);
     }
 
     private Resource getResourceFromCacheById(String resourceId, int tenantId)
             throws ConfigurationManagementException {
 
-        try {
-            String tenantDomain = ConfigurationManagerComponentDataHolder.getInstance().getRealmService()
-                    .getTenantManager().getDomain(tenantId);
-            return getResourceFromCacheById(resourceId, tenantDomain);
-        } catch (UserStoreException e) {
-            throw new ConfigurationManagementException("Error when setting tenant domain. ",
-                    ConfigurationConstants.ErrorMessages.ERROR_CODE_UNEXPECTED.getCode(), e);
-        }
+        return getResourceFromCacheById(resourceId, getTenantDomain(tenantId));
     }
 
     private Resource getResourceFromCacheByName(String resourceName, int tenantId)
             throws ConfigurationManagementException {
 
-        try {
-            String tenantDomain = ConfigurationManagerComponentDataHolder.getInstance().getRealmService()
-                    .getTenantManager().getDomain(tenantId);
-            return getResourceFromCacheByName(resourceName, tenantDomain);
-        } catch (UserStoreException e) {
-            throw new ConfigurationManagementException("Error when setting tenant domain. ",
-                    ConfigurationConstants.ErrorMessages.ERROR_CODE_UNEXPECTED.getCode(), e);
-        }
+        return getResourceFromCacheByName(resourceName, getTenantDomain(tenantId));
     }
 
     private Resource getResourceFromCacheById(String resourceId, String tenantDomain)
@@ -407,4 +467,112 @@ public class CachedBackedConfigurationDAO implements ConfigurationDAO {
         }
         deleteResourceFromCache(resource);
     }
+
+    private String getTenantDomain(int tenantId) throws ConfigurationManagementException {
+
+        try {
+            return ConfigurationManagerComponentDataHolder.getInstance().getRealmService().getTenantManager()
+                    .getDomain(tenantId);
+        } catch (UserStoreException e) {
+            throw new ConfigurationManagementException("Error when setting tenant domain. ",
+                    ConfigurationConstants.ErrorMessages.ERROR_CODE_UNEXPECTED.getCode(), e);
+        }
+    }
+
+    /**
+     * Clear the resources by type cache entry of the given resource's type and the resource search cache.
+     *
+     * @param resource Resource which was added, replaced or deleted.
+     * @throws ConfigurationManagementException Error while resolving the resource type.
+     */
+    private void clearResourceListCaches(Resource resource) throws ConfigurationManagementException {
+
+        if (resource == null || resource.getTenantDomain() == null || resource.getResourceType() == null) {
+            clearAllResourceListCaches();
+            return;
+        }
+        ResourceType resourceType = configurationDAO.getResourceTypeByName(resource.getResourceType());
+        if (resourceType == null || resourceType.getId() == null) {
+            clearAllResourceListCaches();
+            return;
+        }
+        clearResourceListCaches(resource.getTenantDomain(), resourceType.getId());
+    }
+
+    private void clearResourceListCaches(String tenantDomain, String resourceTypeId) {
+
+        if (log.isDebugEnabled()) {
+            String message = String.format("Clearing resources by type cache entry and resource search cache. " +
+                    "Resource type id: %s, Tenant domain: %s", resourceTypeId, tenantDomain);
+            log.debug(message);
+        }
+        resourcesByTypeCache.clearCacheEntry(new ResourcesByTypeCacheKey(resourceTypeId, tenantDomain));
+        resourceSearchCache.clear();
+    }
+
+    /**
+     * Clear all the resource listing caches. Used when the modified resource type or tenant can not be resolved.
+     */
+    private void clearAllResourceListCaches() {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Clearing resources by type cache and resource search cache.");
+        }
+        resourcesByTypeCache.clear();
+        resourceSearchCache.clear();
+    }
+
+    /**
+     * Build a canonical string for the given search condition to be used as the search cache key.
+     *
+     * @param condition Search condition.
+     * @return Canonical form of the condition or null if the condition can not be represented as a cache key.
+     */
+    private String buildSearchKey(Condition condition) {
+
+        if (condition instanceof PrimitiveCondition) {
+            PrimitiveCondition primitiveCondition = (PrimitiveCondition) condition;
+            return quote(primitiveCondition.getProperty()) + " " + primitiveCondition.getOperator() + " " +
+                    (primitiveCondition.getValue() == null ? "null" : quote(primitiveCondition.getValue()));
+        }
+        if (condition instanceof ComplexCondition) {
+            ComplexCondition complexCondition = (ComplexCondition) condition;
+            if (complexCondition.getConditions() == null) {
+                return null;
+            }
+            StringBuilder searchKey = new StringBuilder("(");
+            for (Condition subCondition : complexCondition.getConditions()) {
+                String subSearchKey = buildSearchKey(subCondition);
+                if (subSearchKey == null) {
+                    return null;
+                }
+                if (searchKey.length() > 1) {
+                    searchKey.append(' ').append(complexCondition.getOperator()).append(' ');
+                }
+                searchKey.append(subSearchKey);
+            }
+            return searchKey.append(')').toString();
+        }
+        return null;
+    }
+
+    /**
+     * Quote the given search term, escaping the quotes and escape characters within it, so that the terms of a
+     * search key can not be mistaken for the operators or the other terms of it.
+     *
+     * @param term Search term.
+     * @return Quoted search term.
+     */
+    private String quote(Object term) {
+
+        return "'" + String.valueOf(term).replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private Resources copyOf(Resources resources) {
+
+        if (resources.getResources() == null) {
+            return new Resources();
+        }
+        return new Resources(new ArrayList<>(resources.getResources()));
+    }
 }
@@ -44,6 +44,11 @@ public class ComplexCondition implements Condition {
         return conditions;
     }
 
+    public ConditionType.ComplexOperator getOperator() {
+
+        return operator;
+    }
+
     public PlaceholderSQL buildQuery(PrimitiveConditionValidator primitiveConditionValidator)
             throws PrimitiveConditionValidationException {
 
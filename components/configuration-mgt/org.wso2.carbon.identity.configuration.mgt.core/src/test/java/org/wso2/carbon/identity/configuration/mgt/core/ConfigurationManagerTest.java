@@ -25,7 +25,10 @@ import org.wso2.carbon.base.CarbonBaseConstants;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.database.utils.jdbc.JdbcTemplate;
 import org.wso2.carbon.database.utils.jdbc.exceptions.DataAccessException;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourceSearchCache;
+import org.wso2.carbon.identity.configuration.mgt.core.cache.ResourcesByTypeCache;
 import org.wso2.carbon.identity.configuration.mgt.core.dao.ConfigurationDAO;
+import org.wso2.carbon.identity.configuration.mgt.core.dao.impl.CachedBackedConfigurationDAO;
 import org.wso2.carbon.identity.configuration.mgt.core.dao.impl.ConfigurationDAOImpl;
 import org.wso2.carbon.identity.configuration.mgt.core.exception.ConfigurationManagementClientException;
 import org.wso2.carbon.identity.configuration.mgt.core.internal.ConfigurationManagerComponentDataHolder;
@@ -38,6 +41,8 @@ import org.wso2.carbon.identity.configuration.mgt.core.model.ResourceFile;
 import org.wso2.carbon.identity.configuration.mgt.core.model.ResourceTypeAdd;
 import org.wso2.carbon.identity.configuration.mgt.core.model.Resources;
 import org.wso2.carbon.identity.configuration.mgt.core.search.ComplexCondition;
+import org.wso2.carbon.identity.configuration.mgt.core.search.PrimitiveCondition;
+import org.wso2.carbon.identity.configuration.mgt.core.search.constant.ConditionType;
 import org.wso2.carbon.identity.configuration.mgt.core.util.TestUtils;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
@@ -49,6 +54,7 @@ import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.sql.Connection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import javax.sql.DataSource;
@@ -65,7 +71,10 @@ import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
 import static org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
 import static org.wso2.carbon.base.MultitenantConstants.SUPER_TENANT_ID;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.RESOURCE_SEARCH_BEAN_FIELD_ATTRIBUTE_KEY;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.ConfigurationConstants.RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_ATTRIBUTE_NAME1;
+import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_ATTRIBUTE_VALUE1;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_ATTRIBUTE_VALUE3_UPDATED;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_RESOURCE_NAME1;
 import static org.wso2.carbon.identity.configuration.mgt.core.constant.TestConstants.SAMPLE_RESOURCE_TYPE_NAME1;
@@ -611,6 +620,91 @@ public class ConfigurationManagerTest {
                 resourcesByType.getResources().size() == 0);
     }
 
+    @Test(priority = 34)
+    public void testResourcesByTypeCacheInvalidatedOnAddResource() throws Exception {
+
+        useCachedBackedConfigurationDAO();
+        ResourceType resourceType = configurationManager.addResourceType(getSampleResourceType2Add());
+        configurationManager.addResource(resourceType.getName(), getSampleResource1Add());
+        assertEquals(1, configurationManager.getResourcesByType(resourceType.getName()).getResources().size());
+
+        configurationManager.addResource(resourceType.getName(), getSampleResource2Add());
+
+        assertEquals("Added resource should be listed", 2,
+                configurationManager.getResourcesByType(resourceType.getName()).getResources().size());
+    }
+
+    @Test(priority = 35)
+    public void testResourceListCachesInvalidatedOnReplaceResource() throws Exception {
+
+        useCachedBackedConfigurationDAO();
+        ResourceType resourceType = configurationManager.addResourceType(getSampleResourceTypeAdd());
+        configurationManager.addResource(resourceType.getName(), getSampleResource1Add());
+        ComplexCondition condition = getSampleSearchCondition();
+        assertEquals(SAMPLE_ATTRIBUTE_VALUE1, getAttributeValue(configurationManager.getTenantResources(condition),
+                SAMPLE_ATTRIBUTE_NAME1));
+        assertEquals(SAMPLE_ATTRIBUTE_VALUE1, getAttributeValue(
+                configurationManager.getResourcesByType(resourceType.getName()), SAMPLE_ATTRIBUTE_NAME1));
+
+        ResourceAdd resourceReplace = getSampleResource1Add();
+        resourceReplace.getAttributes().get(0).setValue(SAMPLE_ATTRIBUTE_VALUE3_UPDATED);
+        configurationManager.replaceResource(resourceType.getName(), resourceReplace);
+
+        assertEquals("Search should return the replaced resource", SAMPLE_ATTRIBUTE_VALUE3_UPDATED,
+                getAttributeValue(configurationManager.getTenantResources(condition), SAMPLE_ATTRIBUTE_NAME1));
+        assertEquals("Resources by type should return the replaced resource", SAMPLE_ATTRIBUTE_VALUE3_UPDATED,
+                getAttributeValue(configurationManager.getResourcesByType(resourceType.getName()),
+                        SAMPLE_ATTRIBUTE_NAME1));
+    }
+
+    @Test(priority = 36)
+    public void testResourceListCachesInvalidatedOnDeleteResource() throws Exception {
+
+        useCachedBackedConfigurationDAO();
+        ResourceType resourceType = configurationManager.addResourceType(getSampleResourceTypeAdd());
+        configurationManager.addResource(resourceType.getName(), getSampleResource1Add());
+        configurationManager.addResource(resourceType.getName(), getSampleResource2Add());
+        ComplexCondition condition = getSampleSearchCondition();
+        assertEquals(2, configurationManager.getTenantResources(condition).getResources().size());
+        assertEquals(2, configurationManager.getResourcesByType(resourceType.getName()).getResources().size());
+
+        configurationManager.deleteResource(resourceType.getName(), SAMPLE_RESOURCE_NAME1);
+
+        assertEquals("Deleted resource should not be searched", 1,
+                configurationManager.getTenantResources(condition).getResources().size());
+        assertEquals("Deleted resource should not be listed", 1,
+                configurationManager.getResourcesByType(resourceType.getName()).getResources().size());
+    }
+
+    @Test(priority = 37)
+    public void testSearchCacheKeysOfDifferentConditionsDoNotCollide() throws Exception {
+
+        useCachedBackedConfigurationDAO();
+        ResourceType resourceType = configurationManager.addResourceType(getSampleResourceTypeAdd());
+        configurationManager.addResource(resourceType.getName(), getSampleResource1Add());
+        ComplexCondition condition = new ComplexCondition(ConditionType.ComplexOperator.AND, Arrays.asList(
+                new PrimitiveCondition(RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN,
+                        ConditionType.PrimitiveOperator.EQUALS, SUPER_TENANT_DOMAIN_NAME),
+                new PrimitiveCondition(RESOURCE_SEARCH_BEAN_FIELD_ATTRIBUTE_KEY,
+                        ConditionType.PrimitiveOperator.EQUALS, SAMPLE_ATTRIBUTE_NAME1)));
+        assertEquals(1, configurationManager.getTenantResources(condition).getResources().size());
+
+        // A single condition whose value reads like the two conditions above, when the value is not escaped.
+        ComplexCondition lookAlikeCondition = new ComplexCondition(ConditionType.ComplexOperator.AND,
+                Collections.singletonList(new PrimitiveCondition(RESOURCE_SEARCH_BEAN_FIELD_TENANT_DOMAIN,
+                        ConditionType.PrimitiveOperator.EQUALS, SUPER_TENANT_DOMAIN_NAME + "' " +
+                        ConditionType.ComplexOperator.AND + " " + RESOURCE_SEARCH_BEAN_FIELD_ATTRIBUTE_KEY + " " +
+                        ConditionType.PrimitiveOperator.EQUALS + " '" + SAMPLE_ATTRIBUTE_NAME1)));
+        Resources resources = null;
+        try {
+            resources = configurationManager.getTenantResources(lookAlikeCondition);
+        } catch (ConfigurationManagementClientException e) {
+            // No resources exist for the condition.
+        }
+        assertTrue("Results of another search condition should not be returned",
+                resources == null || resources.getResources().isEmpty());
+    }
+
     private void removeCreatedTimeColumn() throws DataAccessException {
 
         JdbcTemplate jdbcTemplate = JdbcUtils.getNewTemplate();
@@ -629,6 +723,29 @@ public class ConfigurationManagerTest {
                 .thenReturn(SAMPLE_TENANT_DOMAIN_ABC);
     }
 
+    private void useCachedBackedConfigurationDAO() {
+
+        ResourcesByTypeCache.getInstance().clear();
+        ResourceSearchCache.getInstance().clear();
+        mockIdentityTenantUtilForTheTest(identityTenantUtil);
+        ConfigurationManagerConfigurationHolder configurationHolder = new ConfigurationManagerConfigurationHolder();
+        configurationHolder.setConfigurationDAOS(
+                Collections.singletonList(new CachedBackedConfigurationDAO(new ConfigurationDAOImpl())));
+        configurationManager = new ConfigurationManagerImpl(configurationHolder);
+    }
+
+    private String getAttributeValue(Resources resources, String attributeKey) {
+
+        for (Resource resource : resources.getResources()) {
+            for (Attribute attribute : resource.getAttributes()) {
+                if (attribute.getKey().equals(attributeKey)) {
+                    return attribute.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
     private boolean isSearchConditionMatch(Resources resources) {
 
         for (Resource resource : resources.getResources()) {
@@ -19,6 +19,10 @@
 package org.wso2.carbon.identity.entitlement.endpoint.resources;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -40,9 +44,13 @@ import org.wso2.carbon.identity.entitlement.endpoint.resources.models.HomeRespon
 import org.wso2.carbon.identity.entitlement.endpoint.util.EntitlementEndpointConstants;
 import org.wso2.carbon.identity.entitlement.endpoint.util.JSONRequestParser;
 import org.wso2.carbon.identity.entitlement.endpoint.util.JSONResponseWriter;
+import org.wso2.carbon.identity.entitlement.pdp.BatchDecisionEvaluator;
 import org.wso2.carbon.identity.entitlement.pdp.EntitlementEngine;
 import org.wso2.carbon.identity.entitlement.policy.search.PolicySearch;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
@@ -133,6 +141,77 @@ public class DecisionResource extends AbstractResource {
 
     }
 
+    /**
+     * API endpoint for evaluating a batch of XACML requests in parallel. A JSON request is an array of XACML JSON
+     * requests and is answered with an array of XACML JSON responses in the same order. A XML request is a XACML
+     * request with MultiRequests, whose individual requests are evaluated in parallel and returned as the results
+     * of a single XACML response.
+     *
+     * @return XACML JSON/XML response String
+     */
+    @POST
+    @Path("pdp/batch")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @ApiOperation(value = "Get responses by evaluating a batch of JSON/XML XACML requests", response = String.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "XACML JSON/XML Response"),
+            @ApiResponse(code = 40010, message = EntitlementEndpointConstants.ERROR_UNAUTHORIZED_MESSAGE,
+                    response = ExceptionBean.class),
+            @ApiResponse(code = 40020, message = EntitlementEndpointConstants.ERROR_REQUEST_PARSE_MESSAGE,
+                    response = ExceptionBean.class),
+            @ApiResponse(code = 40010, message = EntitlementEndpointConstants.ERROR_RESPONSE_READ_MESSAGE,
+                    response = ExceptionBean.class)
+    })
+    public String getDecisions(@ApiParam(value = "Request Media Type", required = true)
+                               @HeaderParam(EntitlementEndpointConstants.ACCEPT_HEADER) String format,
+                               @ApiParam(value = "Authentication Type", required = true)
+                               @HeaderParam(EntitlementEndpointConstants.AUTHENTICATION_TYPE_HEADER) String authMechanism,
+                               @ApiParam(value = "Add HTTP Basic Authorization", required = true)
+                               @HeaderParam(EntitlementEndpointConstants.AUTHORIZATION_HEADER) String authorization,
+                               @ApiParam(value = "Response Media Type", required = true)
+                               @HeaderParam(EntitlementEndpointConstants.CONTENT_TYPE_HEADER) String contentType,
+                               @ApiParam(value = "XACML JSON/XML Requests", required = true)
+                                       String xacmlRequests) throws Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("recieved :" + xacmlRequests);
+        }
+
+        if (EntitlementEndpointConstants.APPLICATION_JSON.equals(contentType)) {
+            JsonArray jsonRequests;
+            try {
+                jsonRequests = gson.fromJson(xacmlRequests, JsonArray.class);
+            } catch (JsonParseException e) {
+                throw new RequestParseException("Batch request should be an array of XACML JSON requests", e);
+            }
+            if (jsonRequests == null) {
+                throw new RequestParseException(EntitlementEndpointConstants.ERROR_REQUEST_PARSE_CODE,
+                        "Batch request should be an array of XACML JSON requests");
+            }
+            // Parse the requests up front, so malformed requests are reported as such.
+            List<String> requests = new ArrayList<>();
+            List<RequestCtx> requestCtxs = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            for (JsonElement jsonRequest : jsonRequests) {
+                String request = jsonRequest.toString();
+                indexes.add(requests.size());
+                requests.add(request);
+                requestCtxs.add(JSONRequestParser.parse(request));
+            }
+            List<JsonObject> responses = BatchDecisionEvaluator.evaluate(indexes, requests::get,
+                    index -> JSONResponseWriter.write(EntitlementEngine.getInstance()
+                            .evaluate(requestCtxs.get(index), requests.get(index))));
+            JsonArray jsonResponses = new JsonArray();
+            for (JsonObject response : responses) {
+                jsonResponses.add(response);
+            }
+            return gson.toJson(jsonResponses);
+        } else {
+            return BatchDecisionEvaluator.evaluateMultiRequests(xacmlRequests);
+        }
+    }
+
     /**
      * API endpoint for evaluating policy by attributes as queries
      *
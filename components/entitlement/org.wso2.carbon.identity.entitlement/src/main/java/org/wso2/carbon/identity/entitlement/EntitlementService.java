@@ -21,10 +21,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.entitlement.dto.AttributeDTO;
 import org.wso2.carbon.identity.entitlement.dto.EntitledResultSetDTO;
+import org.wso2.carbon.identity.entitlement.pdp.BatchDecisionEvaluator;
 import org.wso2.carbon.identity.entitlement.pdp.EntitlementEngine;
 import org.wso2.carbon.identity.entitlement.policy.search.PolicySearch;
 import org.wso2.carbon.identity.entitlement.wsxacml.XACMLHandler;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Entitlement Service class which exposes the PDP
  */
@@ -54,6 +58,28 @@ public class EntitlementService implements XACMLHandler {
         }
     }
 
+    /**
+     * Evaluates the given XACML requests in parallel and returns the Responses in the same order. Identical
+     * requests are evaluated only once.
+     *
+     * @param requests XACML requests as String Objects
+     * @return XACML responses as String Objects
+     * @throws EntitlementException throws
+     */
+    public String[] getDecisions(String[] requests) throws EntitlementException {
+
+        if (requests == null) {
+            return new String[0];
+        }
+        try {
+            List<String> responses = BatchDecisionEvaluator.evaluate(Arrays.asList(requests));
+            return responses.toArray(new String[0]);
+        } catch (EntitlementException e) {
+            log.error("Error occurred while evaluating XACML requests", e);
+            throw new EntitlementException("Error occurred while evaluating XACML requests");
+        }
+    }
+
     /**
      * Evaluates the given XACML request and returns the Response that the EntitlementEngine will
      * hand back to the PEP. Here PEP does not need construct the XACML request before sending it to the
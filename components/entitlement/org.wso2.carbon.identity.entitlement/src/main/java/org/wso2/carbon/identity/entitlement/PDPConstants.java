@@ -249,10 +249,26 @@ public class PDPConstants {
 
     public static final String DECISION_CACHING_INTERVAL = "PDP.DecisionCaching.CachingInterval";
 
+    public static final String DECISION_CACHING_LOCAL_CACHE_SIZE = "PDP.DecisionCaching.LocalCacheSize";
+
+    public static final int DEFAULT_DECISION_CACHING_LOCAL_CACHE_SIZE = 10000;
+
+    public static final String DECISION_CACHING_NORMALIZE_REQUEST = "PDP.DecisionCaching.NormalizeRequest";
+
     public static final String ATTRIBUTE_CACHING = "PDP.AttributeCaching.Enable";
 
     public static final String ATTRIBUTE_CACHING_INTERVAL = "PDP.AttributeCaching.CachingInterval";
 
+    public static final String ATTRIBUTE_PREFETCH = "PDP.AttributePrefetch.Enable";
+
+    public static final int MAX_PREFETCH_ATTRIBUTES = 50;
+
+    public static final String BATCH_EVALUATION_PARALLELISM = "PDP.BatchEvaluation.Parallelism";
+
+    public static final String BATCH_EVALUATION_MAX_REQUESTS = "PDP.BatchEvaluation.MaxRequests";
+
+    public static final int DEFAULT_BATCH_EVALUATION_MAX_REQUESTS = 100;
+
     public static final String RESOURCE_CACHING = "PDP.ResourceCaching.Enable";
 
     public static final String RESOURCE_CACHING_INTERVAL = "PDP.DecisionCaching.CachingInterval";
@@ -279,6 +295,12 @@ public class PDPConstants {
 
     public static final String ENTITLEMENT_ENGINE_CACHING_INTERVAL = "Entitlement.Engine.CachingInterval";
 
+    public static final String ENTITLEMENT_ENGINE_CACHE_SIZE = "Entitlement.Engine.CacheSize";
+
+    public static final String COMPILED_POLICY_CACHE_SIZE = "PDP.PolicyCaching.CompiledPolicyCacheSize";
+
+    public static final int DEFAULT_COMPILED_POLICY_CACHE_SIZE = 1000;
+
     public static final String PDP_REGISTRY_LEVEL_POLICY_CACHE_CLEAR = "PDP.Registry.Level.Policy.Cache.Clear";
 
     public static final String POLICY_CACHING_INTERVAL = "PDP.PolicyCaching.CachingInterval";
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Properties;
+
+/**
+ * JVM wide cache of parsed policies, keyed by the SHA-256 digest of the policy XML.
+ * <p>
+ * Parsed policies are not modified after they are built, so a policy published with the same content to several
+ * tenants, or loaded again after an entitlement engine is rebuilt, is parsed once and shared. A changed policy has
+ * a different digest, so entries never need to be invalidated and are only evicted by size.
+ */
+public class CompiledPolicyCache {
+
+    private static final Log log = LogFactory.getLog(CompiledPolicyCache.class);
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static volatile CompiledPolicyCache instance;
+
+    private final Cache<String, AbstractPolicy> policies;
+
+    CompiledPolicyCache(int maxSize) {
+
+        policies = maxSize > 0 ? CacheBuilder.newBuilder().maximumSize(maxSize).<String, AbstractPolicy>build() :
+                null;
+    }
+
+    public static CompiledPolicyCache getInstance() {
+
+        if (instance == null) {
+            synchronized (CompiledPolicyCache.class) {
+                if (instance == null) {
+                    instance = new CompiledPolicyCache(getMaxSize());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the parsed policy for the given policy XML.
+     *
+     * @param policy Policy XML.
+     * @return Parsed policy, or null if the policy has not been parsed before.
+     */
+    public AbstractPolicy get(String policy) {
+
+        String key = getKey(policy);
+        return key != null ? policies.getIfPresent(key) : null;
+    }
+
+    /**
+     * Add a parsed policy against the policy XML it was built from.
+     *
+     * @param policy         Policy XML.
+     * @param abstractPolicy Parsed policy.
+     */
+    public void put(String policy, AbstractPolicy abstractPolicy) {
+
+        String key = getKey(policy);
+        if (key != null && abstractPolicy != null) {
+            policies.put(key, abstractPolicy);
+        }
+    }
+
+    public void clear() {
+
+        if (policies != null) {
+            policies.invalidateAll();
+        }
+    }
+
+    private String getKey(String policy) {
+
+        if (policies == null || policy == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(policy.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            log.error("Error while computing the digest of the policy.", e);
+            return null;
+        }
+    }
+
+    private static int getMaxSize() {
+
+        int maxSize = PDPConstants.DEFAULT_COMPILED_POLICY_CACHE_SIZE;
+        Properties properties = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties();
+        String maxSizeValue = properties.getProperty(PDPConstants.COMPILED_POLICY_CACHE_SIZE);
+        if (maxSizeValue != null) {
+            try {
+                maxSize = Integer.parseInt(maxSizeValue.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + PDPConstants.COMPILED_POLICY_CACHE_SIZE + ". Using default value " +
+                        maxSize + ".");
+            }
+        }
+        return maxSize;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node local, bounded decision cache which is kept in front of the distributed decision caches.
+ * <p>
+ * Each entry records the policy version it was evaluated against. Invalidating the cache moves it to a new policy
+ * version, so a decision that was evaluated before the invalidation is never served or stored afterwards, even if
+ * the evaluation was still in progress when the policies changed.
+ */
+public class LocalDecisionCache {
+
+    private static final Log log = LogFactory.getLog(LocalDecisionCache.class);
+
+    private static final long DEFAULT_TIMEOUT_SECONDS = 900;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong policyVersion = new AtomicLong();
+    private final int maxEntries;
+    private final long timeoutNanos;
+
+    /**
+     * @param maxEntries     Maximum number of decisions kept in the cache.
+     * @param timeoutSeconds Time in seconds a decision is kept in the cache. Default is used if not positive.
+     */
+    public LocalDecisionCache(int maxEntries, int timeoutSeconds) {
+
+        this.maxEntries = maxEntries;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds > 0 ? timeoutSeconds : DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Get the current policy version. Callers should read it before evaluating a request and pass it when adding
+     * the decision to the cache.
+     *
+     * @return Current policy version.
+     */
+    public long getPolicyVersion() {
+
+        return policyVersion.get();
+    }
+
+    /**
+     * Get the decision cached for the given key.
+     *
+     * @param key Cache key.
+     * @return Cached decision, or null if there is no valid decision for the key.
+     */
+    public Object get(String key) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.policyVersion != policyVersion.get() || entry.isExpired(System.nanoTime())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.decision;
+    }
+
+    /**
+     * Add a decision to the cache. The decision is ignored if the policies have changed since the given version.
+     *
+     * @param key           Cache key.
+     * @param decision      Decision.
+     * @param policyVersion Policy version read before the request was evaluated.
+     */
+    public void put(String key, Object decision, long policyVersion) {
+
+        if (key == null || decision == null || policyVersion != this.policyVersion.get()) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evict();
+        }
+        entries.put(key, new Entry(decision, policyVersion, System.nanoTime() + timeoutNanos));
+    }
+
+    /**
+     * Invalidate all cached decisions by moving to a new policy version.
+     */
+    public void invalidate() {
+
+        policyVersion.incrementAndGet();
+        entries.clear();
+        if (log.isDebugEnabled()) {
+            log.debug("Local decision cache is invalidated. Current policy version : " + policyVersion.get());
+        }
+    }
+
+    /**
+     * Get the number of decisions in the cache.
+     *
+     * @return Number of cached decisions.
+     */
+    public int size() {
+
+        return entries.size();
+    }
+
+    private void evict() {
+
+        long now = System.nanoTime();
+        long currentVersion = policyVersion.get();
+        entries.values().removeIf(entry -> entry.policyVersion != currentVersion || entry.isExpired(now));
+
+        // Still full, so make room for roughly a tenth of the cache. The map has no access order to rely on.
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (toRemove > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            toRemove--;
+        }
+    }
+
+    private static class Entry {
+
+        private final Object decision;
+        private final long policyVersion;
+        private final long expiryTime;
+
+        private Entry(Object decision, long policyVersion, long expiryTime) {
+
+            this.decision = decision;
+            this.policyVersion = policyVersion;
+            this.expiryTime = expiryTime;
+        }
+
+        private boolean isExpired(long now) {
+
+            return now - expiryTime > 0;
+        }
+    }
+}
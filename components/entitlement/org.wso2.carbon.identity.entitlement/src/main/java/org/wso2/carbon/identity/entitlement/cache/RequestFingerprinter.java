@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.wso2.balana.attr.AttributeValue;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.balana.ctx.Attribute;
+import org.wso2.balana.ctx.xacml3.RequestCtx;
+import org.wso2.balana.xacml3.Attributes;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Computes a compact fingerprint of a XACML request to be used as the decision cache key.
+ * <p>
+ * The fingerprint is the SHA-256 digest of a canonical form of the request, in which namespace prefixes,
+ * formatting whitespace between elements and the order of XML attributes are ignored. The order of the attributes
+ * within a category, and of the values within an attribute, is ignored as well, since XACML treats them as bags.
+ * The order of the categories themselves and anything under Content and MultiRequests is kept, as it can affect
+ * the response.
+ * <p>
+ * A request which is already parsed is fingerprinted from its DOM or its request context, so that it is not parsed
+ * again only to compute the cache key.
+ */
+public class RequestFingerprinter {
+
+    private static final Log log = LogFactory.getLog(RequestFingerprinter.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String[] ORDERED_ELEMENTS = {"Content", "ResourceContent", "MultiRequests"};
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+
+            try {
+                return IdentityUtil.getSecuredDocumentBuilderFactory().newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                log.error("Error while creating the document builder for XACML request fingerprints.", e);
+                return null;
+            }
+        }
+    };
+
+    private static final ThreadLocal<MessageDigest> MESSAGE_DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+
+            try {
+                return MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                log.error("Error while creating the message digest for XACML request fingerprints.", e);
+                return null;
+            }
+        }
+    };
+
+    private RequestFingerprinter() {
+
+    }
+
+    /**
+     * Compute the fingerprint of a XACML request.
+     *
+     * @param xacmlRequest XACML request as String.
+     * @return Fingerprint of the request, or null if the request is not a well formed XML document.
+     */
+    public static String getFingerprint(String xacmlRequest) {
+
+        return getFingerprint(parseRequest(xacmlRequest));
+    }
+
+    /**
+     * Parse a XACML request, so that the same DOM can be used to compute its fingerprint and to evaluate it.
+     *
+     * @param xacmlRequest XACML request as String.
+     * @return Request element, or null if the request is not a well formed XML document.
+     */
+    public static Element parseRequest(String xacmlRequest) {
+
+        if (xacmlRequest == null || !xacmlRequest.trim().startsWith("<")) {
+            return null;
+        }
+        DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+        if (documentBuilder == null) {
+            return null;
+        }
+
+        try {
+            documentBuilder.reset();
+            return documentBuilder.parse(new InputSource(new StringReader(xacmlRequest))).getDocumentElement();
+        } catch (SAXException | IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to parse the XACML request to compute its fingerprint.", e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Compute the fingerprint of a parsed XACML request.
+     *
+     * @param requestElement Request element.
+     * @return Fingerprint of the request.
+     */
+    public static String getFingerprint(Element requestElement) {
+
+        MessageDigest messageDigest = MESSAGE_DIGEST.get();
+        if (requestElement == null || messageDigest == null) {
+            return null;
+        }
+        return getFingerprint(requestElement, messageDigest);
+    }
+
+    /**
+     * Compute the fingerprint of a request context, without encoding or parsing the request again. Categories are
+     * ordered by their identifiers as the request context keeps them in a set.
+     *
+     * @param requestCtx Request context.
+     * @return Fingerprint of the request, or null if the request has Content, MultiRequests or RequestDefaults,
+     * which are not covered by the fingerprint.
+     */
+    public static String getFingerprint(AbstractRequestCtx requestCtx) {
+
+        MessageDigest messageDigest = MESSAGE_DIGEST.get();
+        if (requestCtx == null || requestCtx.getAttributesSet() == null || messageDigest == null) {
+            return null;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("ctx").append(requestCtx.getXacmlVersion());
+        if (requestCtx instanceof RequestCtx) {
+            RequestCtx xacml3RequestCtx = (RequestCtx) requestCtx;
+            if (xacml3RequestCtx.getMultiRequests() != null || xacml3RequestCtx.getDefaults() != null) {
+                return null;
+            }
+            builder.append(' ').append(xacml3RequestCtx.isReturnPolicyIdList()).append(' ')
+                    .append(xacml3RequestCtx.isCombinedDecision());
+        }
+
+        List<String> categories = new ArrayList<>();
+        for (Attributes attributes : requestCtx.getAttributesSet()) {
+            if (attributes.getContent() != null) {
+                return null;
+            }
+            categories.add(canonicalize(attributes));
+        }
+        Collections.sort(categories);
+        for (String category : categories) {
+            builder.append(category);
+        }
+        return getDigest(builder.toString(), messageDigest);
+    }
+
+    /**
+     * Compute a compact digest of the given value, to be used in cache keys in place of the value itself.
+     *
+     * @param value Value to digest.
+     * @return Digest of the value, or null if the digest can not be computed.
+     */
+    public static String getDigest(String value) {
+
+        MessageDigest messageDigest = MESSAGE_DIGEST.get();
+        if (value == null || messageDigest == null) {
+            return null;
+        }
+        return getDigest(value, messageDigest);
+    }
+
+    private static String getFingerprint(Element requestElement, MessageDigest messageDigest) {
+
+        // Categories directly under the request keep their order.
+        return getDigest(canonicalize(requestElement, true, false), messageDigest);
+    }
+
+    private static String getDigest(String value, MessageDigest messageDigest) {
+
+        messageDigest.reset();
+        byte[] digest = messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static String canonicalize(Element element, boolean root, boolean inOrderedSubtree) {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append('<').append('{').append(nullToEmpty(element.getNamespaceURI())).append('}')
+                .append(getLocalName(element));
+
+        NamedNodeMap attributes = element.getAttributes();
+        List<String> attributeList = new ArrayList<>(attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+                continue;
+            }
+            attributeList.add('{' + nullToEmpty(attribute.getNamespaceURI()) + '}' + getLocalName(attribute) + "=\"" +
+                    escape(attribute.getValue()) + '"');
+        }
+        Collections.sort(attributeList);
+        for (String attribute : attributeList) {
+            builder.append(' ').append(attribute);
+        }
+        builder.append('>');
+
+        boolean orderedSubtree = inOrderedSubtree || isOrderedElement(element);
+        List<String> children = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        boolean hasChildElements = false;
+        NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node child = childNodes.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                hasChildElements = true;
+                children.add(canonicalize((Element) child, false, orderedSubtree));
+            } else if (child.getNodeType() == Node.TEXT_NODE || child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                text.append(child.getNodeValue());
+                if (orderedSubtree && !child.getNodeValue().trim().isEmpty()) {
+                    // Keep the position of text in mixed XML content.
+                    children.add('"' + escape(child.getNodeValue()) + '"');
+                }
+            }
+        }
+
+        if (!hasChildElements) {
+            builder.append(escape(text.toString()));
+        } else {
+            if (!orderedSubtree) {
+                // Text between child elements is formatting whitespace in the XACML request structure.
+                builder.append(escape(text.toString().trim()));
+                if (!root) {
+                    Collections.sort(children);
+                }
+            }
+            for (String child : children) {
+                builder.append(child);
+            }
+        }
+        return builder.append("</>").toString();
+    }
+
+    private static String canonicalize(Attributes attributes) {
+
+        List<String> attributeList = new ArrayList<>();
+        if (attributes.getAttributes() != null) {
+            for (Attribute attribute : attributes.getAttributes()) {
+                List<String> values = new ArrayList<>();
+                if (attribute.getValues() != null) {
+                    for (AttributeValue value : attribute.getValues()) {
+                        values.add('"' + escape(value.getType() + " " + value.encode()) + '"');
+                    }
+                }
+                Collections.sort(values);
+                StringBuilder builder = new StringBuilder();
+                builder.append("<{").append(escape(String.valueOf(attribute.getId()))).append('}')
+                        .append(escape(String.valueOf(attribute.getType()))).append(" \"")
+                        .append(escape(nullToEmpty(attribute.getIssuer()))).append("\" ")
+                        .append(attribute.isIncludeInResult()).append('>');
+                for (String value : values) {
+                    builder.append(value);
+                }
+                attributeList.add(builder.append("</>").toString());
+            }
+        }
+        Collections.sort(attributeList);
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("<{").append(escape(String.valueOf(attributes.getCategory()))).append("} \"")
+                .append(escape(nullToEmpty(attributes.getId()))).append("\">");
+        for (String attribute : attributeList) {
+            builder.append(attribute);
+        }
+        return builder.append("</>").toString();
+    }
+
+    private static boolean isOrderedElement(Element element) {
+
+        String localName = getLocalName(element);
+        for (String orderedElement : ORDERED_ELEMENTS) {
+            if (orderedElement.equals(localName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getLocalName(Node node) {
+
+        return node.getLocalName() != null ? node.getLocalName() : node.getNodeName();
+    }
+
+    private static String escape(String value) {
+
+        // Escape the characters used as delimiters of the canonical form, so values can not mimic its structure.
+        return value.replace("\\", "\\\\").replace("<", "\\<").replace("\"", "\\\"");
+    }
+
+    private static String nullToEmpty(String value) {
+
+        return value != null ? value : "";
+    }
+}
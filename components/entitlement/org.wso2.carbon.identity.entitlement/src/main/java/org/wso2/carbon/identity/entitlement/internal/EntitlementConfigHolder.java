@@ -30,6 +30,7 @@ import org.wso2.carbon.identity.entitlement.policy.finder.PolicyFinderModule;
 import org.wso2.carbon.identity.entitlement.policy.publisher.PolicyPublisherModule;
 import org.wso2.carbon.identity.entitlement.policy.publisher.PostPublisherModule;
 import org.wso2.carbon.identity.entitlement.policy.publisher.PublisherVerificationModule;
+import org.wso2.carbon.identity.entitlement.policy.store.PolicyDataStore;
 import org.wso2.carbon.identity.entitlement.policy.store.PolicyStoreManageModule;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
@@ -112,6 +113,11 @@ public class EntitlementConfigHolder {
     private Map<PolicyStoreManageModule, Properties> policyStore =
             new HashMap<PolicyStoreManageModule, Properties>();
 
+    /**
+     * This holds the policy data store of entitlement engine
+     */
+    private Map<PolicyDataStore, Properties> policyDataStore = new HashMap<PolicyDataStore, Properties>();
+
     /**
      * This holds the policy schema against its version
      */
@@ -236,6 +242,14 @@ public class EntitlementConfigHolder {
         this.policyStore.put(policyStoreStore, properties);
     }
 
+    public Map<PolicyDataStore, Properties> getPolicyDataStore() {
+        return policyDataStore;
+    }
+
+    public void addPolicyDataStore(PolicyDataStore policyDataStore, Properties properties) {
+        this.policyDataStore.put(policyDataStore, properties);
+    }
+
     public Map<PostPublisherModule, Properties> getPolicyPostPublisherModules() {
         return policyPostPublisherModules;
     }
@@ -33,6 +33,7 @@ import org.wso2.carbon.identity.entitlement.policy.finder.PolicyFinderModule;
 import org.wso2.carbon.identity.entitlement.policy.publisher.PolicyPublisherModule;
 import org.wso2.carbon.identity.entitlement.policy.publisher.PostPublisherModule;
 import org.wso2.carbon.identity.entitlement.policy.publisher.PublisherVerificationModule;
+import org.wso2.carbon.identity.entitlement.policy.store.PolicyDataStore;
 import org.wso2.carbon.identity.entitlement.policy.store.PolicyStoreManageModule;
 import java.io.File;
 import java.io.FileInputStream;
@@ -106,6 +107,7 @@ public class EntitlementExtensionBuilder {
             populatePolicyFinders(properties, holder);
             populatePolicyCollection(properties, holder);
             populatePolicyStoreModule(properties, holder);
+            populatePolicyDataStoreModule(properties, holder);
             populatePolicyPostPublishers(properties, holder);
             populateAdminNotificationHandlers(properties, holder);
             populatePublisherVerificationHandler(properties, holder);
@@ -393,6 +395,33 @@ public class EntitlementExtensionBuilder {
         }
     }
 
+    /**
+     * @param properties
+     * @param holder
+     * @throws Exception
+     */
+    private void populatePolicyDataStoreModule(Properties properties, EntitlementConfigHolder holder)
+            throws Exception {
+
+        PolicyDataStore policyDataStore = null;
+
+        if (properties.getProperty("PDP.Policy.Data.Store.Module") != null) {
+            String className = properties.getProperty("PDP.Policy.Data.Store.Module");
+            Class clazz = Thread.currentThread().getContextClassLoader().loadClass(className);
+            policyDataStore = (PolicyDataStore) clazz.newInstance();
+
+            int j = 1;
+            Properties storeProps = new Properties();
+            while (properties.getProperty(className + "." + j) != null) {
+                String[] props = properties.getProperty(className + "." + j++).split(",");
+                storeProps.put(props[0], props[1]);
+            }
+
+            policyDataStore.init(storeProps);
+            holder.addPolicyDataStore(policyDataStore, storeProps);
+        }
+    }
+
     /**
      * @param properties
      * @param holder
@@ -43,6 +43,7 @@ import org.wso2.carbon.identity.entitlement.PDPConstants;
 import org.wso2.carbon.identity.entitlement.dto.PolicyDTO;
 import org.wso2.carbon.identity.entitlement.listener.CacheClearingUserOperationListener;
 import org.wso2.carbon.identity.entitlement.pap.store.PAPPolicyStore;
+import org.wso2.carbon.identity.entitlement.pdp.BatchDecisionEvaluator;
 import org.wso2.carbon.identity.entitlement.thrift.EntitlementService;
 import org.wso2.carbon.identity.entitlement.thrift.ThriftConfigConstants;
 import org.wso2.carbon.identity.entitlement.thrift.ThriftEntitlementServiceImpl;
@@ -353,6 +354,7 @@ public class EntitlementServiceComponent {
      */
     @Deactivate
     protected void deactivate(ComponentContext ctxt) {
+        BatchDecisionEvaluator.shutdown();
         if (log.isDebugEnabled()) {
             log.debug("Identity Entitlement bundle is deactivated");
         }
@@ -59,7 +59,13 @@ public class EntitlementAdminEngine {
         this.policyPublisher = new PolicyPublisher();
         this.papPolicyStoreManager = new PAPPolicyStoreManager();
         this.versionManager = new DefaultPolicyVersionManager();
-        this.policyDataStore = new DefaultPolicyDataStore();
+        Map<PolicyDataStore, Properties> dataStoreModules = EntitlementServiceComponent.
+                getEntitlementConfig().getPolicyDataStore();
+        if (dataStoreModules != null && !dataStoreModules.isEmpty()) {
+            this.policyDataStore = dataStoreModules.entrySet().iterator().next().getKey();
+        } else {
+            this.policyDataStore = new DefaultPolicyDataStore();
+        }
 
         Map<PAPStatusDataHandler, Properties> statusDataHandlers = EntitlementServiceComponent.
                 getEntitlementConfig().getPapStatusDataHandlers();
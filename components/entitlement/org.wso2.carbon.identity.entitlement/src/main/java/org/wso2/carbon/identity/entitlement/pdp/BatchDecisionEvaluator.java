@@ -0,0 +1,474 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pdp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.cache.RequestFingerprinter;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+/**
+ * Evaluates a batch of XACML requests in parallel on a bounded thread pool which is shared by all the tenants. When
+ * the pool and its queue are full, the caller evaluates the request itself, so a burst of batches slows the callers
+ * down instead of queueing without a limit.
+ * <p>
+ * Identical requests in a batch are evaluated only once, and each evaluation runs in the tenant flow of the caller,
+ * so the decision caches and the PIP attribute caches of the tenant are shared by the requests of the batch.
+ */
+public class BatchDecisionEvaluator {
+
+    private static final Log log = LogFactory.getLog(BatchDecisionEvaluator.class);
+
+    private static final String MULTI_REQUESTS = "MultiRequests";
+    private static final String REQUEST_REFERENCE = "RequestReference";
+    private static final String ATTRIBUTES_REFERENCE = "AttributesReference";
+    private static final String REFERENCE_ID = "ReferenceId";
+    private static final String ATTRIBUTES = "Attributes";
+    private static final String REQUEST_DEFAULTS = "RequestDefaults";
+    private static final String RESULT = "Result";
+    private static final String COMBINED_DECISION = "CombinedDecision";
+    private static final String XML_ID = "id";
+    private static final String WORKER_THREAD_NAME_PREFIX = "BatchDecisionEvaluator-";
+
+    private static final ThreadLocal<Boolean> WORKER_THREAD = new ThreadLocal<>();
+
+    private static volatile ThreadPoolExecutor threadPool;
+
+    private BatchDecisionEvaluator() {
+
+    }
+
+    /**
+     * Evaluation of a single request of a batch.
+     *
+     * @param <T> Request type.
+     * @param <R> Response type.
+     */
+    public interface Evaluation<T, R> {
+
+        R evaluate(T request) throws Exception;
+    }
+
+    /**
+     * Evaluate the given XACML requests, either XML or JSON, and return the responses in the same order.
+     *
+     * @param xacmlRequests XACML requests.
+     * @return XACML responses.
+     * @throws EntitlementException If the batch is too large or any of the requests can not be evaluated.
+     */
+    public static List<String> evaluate(List<String> xacmlRequests) throws EntitlementException {
+
+        return evaluate(xacmlRequests, BatchDecisionEvaluator::getRequestKey,
+                request -> EntitlementEngine.getInstance().evaluate(request));
+    }
+
+    /**
+     * Evaluate the given requests in parallel and return the responses in the same order.
+     *
+     * @param requests    Requests.
+     * @param keyFunction Function which returns the same key for requests with the same decision, or null if the
+     *                    request should not be matched with the others.
+     * @param evaluation  Evaluation of a single request.
+     * @param <T>         Request type.
+     * @param <R>         Response type.
+     * @return Responses.
+     * @throws EntitlementException If the batch is too large or any of the requests can not be evaluated.
+     */
+    public static <T, R> List<R> evaluate(List<T> requests, Function<T, String> keyFunction,
+                                          Evaluation<T, R> evaluation) throws EntitlementException {
+
+        List<R> results = new ArrayList<>();
+        if (requests == null || requests.isEmpty()) {
+            return results;
+        }
+        int maxRequests = getIntProperty(PDPConstants.BATCH_EVALUATION_MAX_REQUESTS,
+                PDPConstants.DEFAULT_BATCH_EVALUATION_MAX_REQUESTS);
+        if (requests.size() > maxRequests) {
+            throw new EntitlementException("The batch has " + requests.size() + " requests which exceeds the " +
+                    "maximum of " + maxRequests + " requests.");
+        }
+
+        // Identical requests of the batch are evaluated only once.
+        Map<String, Integer> keyIndexes = new HashMap<>();
+        List<T> uniqueRequests = new ArrayList<>();
+        int[] resultIndexes = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            T request = requests.get(i);
+            String key = keyFunction.apply(request);
+            Integer index = key != null ? keyIndexes.get(key) : null;
+            if (index == null) {
+                index = uniqueRequests.size();
+                uniqueRequests.add(request);
+                if (key != null) {
+                    keyIndexes.put(key, index);
+                }
+            }
+            resultIndexes[i] = index;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Evaluating " + uniqueRequests.size() + " unique requests of a batch of " + requests.size() +
+                    " XACML requests.");
+        }
+
+        List<R> uniqueResults = null;
+        if (uniqueRequests.size() > 1 && !isWorkerThread()) {
+            uniqueResults = evaluateInParallel(uniqueRequests, evaluation);
+        }
+        if (uniqueResults == null) {
+            uniqueResults = new ArrayList<>(uniqueRequests.size());
+            for (T request : uniqueRequests) {
+                uniqueResults.add(evaluateRequest(request, evaluation));
+            }
+        }
+
+        for (int index : resultIndexes) {
+            results.add(uniqueResults.get(index));
+        }
+        return results;
+    }
+
+    /**
+     * Shut down the thread pool used to evaluate the batches. Batches evaluated after the shutdown start a new pool.
+     */
+    public static void shutdown() {
+
+        synchronized (BatchDecisionEvaluator.class) {
+            if (threadPool != null) {
+                threadPool.shutdown();
+                threadPool = null;
+            }
+        }
+    }
+
+    /**
+     * Evaluate a XACML 3.0 request which uses MultiRequests. The individual requests are evaluated in parallel and
+     * their results are returned in a single response, in the order of the request references. Requests without
+     * MultiRequests, or which ask for a combined decision, are evaluated as they are.
+     *
+     * @param xacmlRequest XACML request.
+     * @return XACML response.
+     * @throws EntitlementException If the request can not be evaluated.
+     */
+    public static String evaluateMultiRequests(String xacmlRequest) throws EntitlementException {
+
+        return evaluateMultiRequests(xacmlRequest, request -> EntitlementEngine.getInstance().evaluate(request));
+    }
+
+    static String evaluateMultiRequests(String xacmlRequest, Evaluation<String, String> evaluation)
+            throws EntitlementException {
+
+        Element requestElement = parse(xacmlRequest);
+        Element multiRequests = getChildElement(requestElement, MULTI_REQUESTS);
+        if (multiRequests == null || Boolean.parseBoolean(requestElement.getAttribute(COMBINED_DECISION))) {
+            return evaluateRequest(xacmlRequest, evaluation);
+        }
+
+        List<String> individualRequests = getIndividualRequests(requestElement, multiRequests);
+        if (individualRequests.isEmpty()) {
+            return evaluateRequest(xacmlRequest, evaluation);
+        }
+        return mergeResponses(evaluate(individualRequests, BatchDecisionEvaluator::getRequestKey, evaluation));
+    }
+
+    private static List<String> getIndividualRequests(Element requestElement, Element multiRequests)
+            throws EntitlementException {
+
+        Map<String, Element> attributesById = new HashMap<>();
+        Element requestDefaults = null;
+        NodeList children = requestElement.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
+            }
+            if (ATTRIBUTES.equals(child.getLocalName())) {
+                String id = ((Element) child).getAttributeNS(XMLConstants.XML_NS_URI, XML_ID);
+                if (!id.isEmpty()) {
+                    attributesById.put(id, (Element) child);
+                }
+            } else if (REQUEST_DEFAULTS.equals(child.getLocalName())) {
+                requestDefaults = (Element) child;
+            }
+        }
+
+        List<String> individualRequests = new ArrayList<>();
+        DocumentBuilder documentBuilder = getDocumentBuilder();
+        NodeList requestReferences = multiRequests.getChildNodes();
+        for (int i = 0; i < requestReferences.getLength(); i++) {
+            Node requestReference = requestReferences.item(i);
+            if (requestReference.getNodeType() != Node.ELEMENT_NODE ||
+                    !REQUEST_REFERENCE.equals(requestReference.getLocalName())) {
+                continue;
+            }
+            Document document = documentBuilder.newDocument();
+            Element individualRequest = (Element) document.importNode(requestElement, false);
+            document.appendChild(individualRequest);
+            if (requestDefaults != null) {
+                individualRequest.appendChild(document.importNode(requestDefaults, true));
+            }
+            NodeList attributesReferences = requestReference.getChildNodes();
+            for (int j = 0; j < attributesReferences.getLength(); j++) {
+                Node attributesReference = attributesReferences.item(j);
+                if (attributesReference.getNodeType() != Node.ELEMENT_NODE ||
+                        !ATTRIBUTES_REFERENCE.equals(attributesReference.getLocalName())) {
+                    continue;
+                }
+                String referenceId = ((Element) attributesReference).getAttribute(REFERENCE_ID);
+                Element attributes = attributesById.get(referenceId);
+                if (attributes == null) {
+                    throw new EntitlementException("Invalid attributes reference : " + referenceId);
+                }
+                individualRequest.appendChild(document.importNode(attributes, true));
+            }
+            individualRequests.add(serialize(document));
+        }
+        return individualRequests;
+    }
+
+    private static String mergeResponses(List<String> responses) throws EntitlementException {
+
+        Element mergedResponse = parse(responses.get(0));
+        Document document = mergedResponse.getOwnerDocument();
+        for (int i = 1; i < responses.size(); i++) {
+            NodeList children = parse(responses.get(i)).getChildNodes();
+            for (int j = 0; j < children.getLength(); j++) {
+                Node child = children.item(j);
+                if (child.getNodeType() == Node.ELEMENT_NODE && RESULT.equals(child.getLocalName())) {
+                    mergedResponse.appendChild(document.importNode(child, true));
+                }
+            }
+        }
+        return serialize(document);
+    }
+
+    private static <T, R> List<R> evaluateInParallel(List<T> requests, Evaluation<T, R> evaluation)
+            throws EntitlementException {
+
+        CarbonContext carbonContext = CarbonContext.getThreadLocalCarbonContext();
+        int tenantId = carbonContext.getTenantId();
+        String tenantDomain = carbonContext.getTenantDomain();
+        String username = carbonContext.getUsername();
+
+        ThreadPoolExecutor pool = getThreadPool();
+        List<Future<R>> tasks = new ArrayList<>(requests.size());
+        try {
+            for (T request : requests) {
+                tasks.add(pool.submit(() -> evaluateRequest(request, evaluation, tenantId, tenantDomain,
+                        username)));
+            }
+        } catch (RejectedExecutionException e) {
+            // The pool was shut down while submitting the batch.
+            cancel(tasks);
+            if (log.isDebugEnabled()) {
+                log.debug("Thread pool is shut down. Evaluating the batch of XACML requests sequentially.");
+            }
+            return null;
+        }
+
+        List<R> results = new ArrayList<>(requests.size());
+        try {
+            for (Future<R> task : tasks) {
+                results.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(tasks);
+            throw new EntitlementException("Interrupted while evaluating the batch of XACML requests", e);
+        } catch (ExecutionException e) {
+            cancel(tasks);
+            if (e.getCause() instanceof EntitlementException) {
+                throw (EntitlementException) e.getCause();
+            }
+            throw new EntitlementException("Error occurred while evaluating XACML request", e.getCause());
+        }
+        return results;
+    }
+
+    private static <T, R> R evaluateRequest(T request, Evaluation<T, R> evaluation, int tenantId,
+                                            String tenantDomain, String username) throws EntitlementException {
+
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(tenantId);
+            carbonContext.setTenantDomain(tenantDomain);
+            carbonContext.setUsername(username);
+            return evaluateRequest(request, evaluation);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private static <T, R> R evaluateRequest(T request, Evaluation<T, R> evaluation) throws EntitlementException {
+
+        try {
+            return evaluation.evaluate(request);
+        } catch (EntitlementException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EntitlementException("Error occurred while evaluating XACML request", e);
+        }
+    }
+
+    static String getRequestKey(String xacmlRequest) {
+
+        String fingerprint = RequestFingerprinter.getFingerprint(xacmlRequest);
+        return fingerprint != null ? fingerprint : xacmlRequest;
+    }
+
+    private static void cancel(List<? extends Future<?>> tasks) {
+
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+
+    private static boolean isWorkerThread() {
+
+        // Avoid waiting on the pool from one of its own workers.
+        return Boolean.TRUE.equals(WORKER_THREAD.get());
+    }
+
+    private static ThreadPoolExecutor getThreadPool() {
+
+        if (threadPool == null) {
+            synchronized (BatchDecisionEvaluator.class) {
+                if (threadPool == null) {
+                    int parallelism = Math.max(1, getIntProperty(PDPConstants.BATCH_EVALUATION_PARALLELISM,
+                            Runtime.getRuntime().availableProcessors()));
+                    int maxRequests = Math.max(1, getIntProperty(PDPConstants.BATCH_EVALUATION_MAX_REQUESTS,
+                            PDPConstants.DEFAULT_BATCH_EVALUATION_MAX_REQUESTS));
+                    AtomicInteger threadCount = new AtomicInteger();
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L,
+                            TimeUnit.SECONDS, new ArrayBlockingQueue<>(parallelism * maxRequests), runnable -> {
+                                Thread thread = new Thread(() -> {
+                                    WORKER_THREAD.set(Boolean.TRUE);
+                                    runnable.run();
+                                }, WORKER_THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }, (runnable, pool) -> {
+                                if (pool.isShutdown()) {
+                                    throw new RejectedExecutionException("Batch evaluation thread pool is shut " +
+                                            "down.");
+                                }
+                                // The caller evaluates the request itself when the pool and its queue are full.
+                                runnable.run();
+                            });
+                    executor.allowCoreThreadTimeOut(true);
+                    threadPool = executor;
+                }
+            }
+        }
+        return threadPool;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+
+        Properties properties = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties();
+        String value = properties.getProperty(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + name + ". Using default value " + defaultValue + ".");
+            }
+        }
+        return defaultValue;
+    }
+
+    private static Element getChildElement(Element element, String localName) {
+
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE && localName.equals(child.getLocalName())) {
+                return (Element) child;
+            }
+        }
+        return null;
+    }
+
+    private static DocumentBuilder getDocumentBuilder() throws EntitlementException {
+
+        try {
+            return IdentityUtil.getSecuredDocumentBuilderFactory().newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new EntitlementException("Error while creating the document builder", e);
+        }
+    }
+
+    private static Element parse(String xml) throws EntitlementException {
+
+        try {
+            return getDocumentBuilder().parse(new InputSource(new StringReader(xml))).getDocumentElement();
+        } catch (SAXException | IOException e) {
+            throw new EntitlementException("Error while parsing the XACML message", e);
+        }
+    }
+
+    private static String serialize(Document document) throws EntitlementException {
+
+        try {
+            Transformer transformer = IdentityUtil.getSecuredTransformerFactory().newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            StringWriter writer = new StringWriter();
+            transformer.transform(new DOMSource(document), new StreamResult(writer));
+            return writer.toString();
+        } catch (TransformerException e) {
+            throw new EntitlementException("Error while serializing the XACML message", e);
+        }
+    }
+}
@@ -46,7 +46,9 @@ import org.wso2.carbon.identity.entitlement.EntitlementException;
 import org.wso2.carbon.identity.entitlement.EntitlementUtil;
 import org.wso2.carbon.identity.entitlement.PDPConstants;
 import org.wso2.carbon.identity.entitlement.cache.DecisionCache;
+import org.wso2.carbon.identity.entitlement.cache.LocalDecisionCache;
 import org.wso2.carbon.identity.entitlement.cache.PolicyCache;
+import org.wso2.carbon.identity.entitlement.cache.RequestFingerprinter;
 import org.wso2.carbon.identity.entitlement.cache.SimpleDecisionCache;
 import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
 import org.wso2.carbon.identity.entitlement.pap.store.PAPPolicyFinder;
@@ -100,6 +102,9 @@ public class EntitlementEngine {
 
     private SimpleDecisionCache simpleDecisionCache = null;
 
+    private LocalDecisionCache localDecisionCache = null;
+    private boolean normalizeDecisionCacheRequest = true;
+
     private static final Log log = LogFactory.getLog(EntitlementEngine.class);
 
     public PolicyCache getPolicyCache() {
@@ -109,6 +114,9 @@ public class EntitlementEngine {
     public void clearDecisionCache() {
         this.decisionCache.clear();
         this.simpleDecisionCache.clear();
+        if (this.localDecisionCache != null) {
+            this.localDecisionCache.invalidate();
+        }
     }
 
     /**
@@ -133,15 +141,7 @@ public class EntitlementEngine {
         if (entitlementEngineLoadingCache == null) {
             synchronized (lock) {
                 if (entitlementEngineLoadingCache == null) {
-                    entitlementEngineLoadingCache = CacheBuilder.newBuilder().weakValues().expireAfterAccess
-                            (getCacheInterval(), TimeUnit.SECONDS)
-                            .build(new CacheLoader<Integer, EntitlementEngine>() {
-                                @Override
-                                public EntitlementEngine load(Integer key) {
-
-                                    return new EntitlementEngine(key);
-                                }
-                            });
+                    entitlementEngineLoadingCache = createEngineCache(getCacheSize(), getCacheInterval());
                 }
             }
         }
@@ -163,6 +163,33 @@ public class EntitlementEngine {
         return entitleEngine;
     }
 
+    /**
+     * Create the cache holding the entitlement engines of the tenants.
+     *
+     * @param cacheSize     maximum number of cached engines, or zero or less to hold the engines with weak references
+     * @param cacheInterval seconds an engine is kept after it was last accessed
+     * @return entitlement engine cache
+     */
+    static LoadingCache<Integer, EntitlementEngine> createEngineCache(long cacheSize, long cacheInterval) {
+
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        if (cacheSize > 0) {
+            // Keep the engines of the most recently used tenants instead of letting the GC collect
+            // them, so they are not rebuilt on the next request.
+            cacheBuilder.maximumSize(cacheSize);
+        } else {
+            cacheBuilder.weakValues();
+        }
+        return cacheBuilder.expireAfterAccess(cacheInterval, TimeUnit.SECONDS)
+                .build(new CacheLoader<Integer, EntitlementEngine>() {
+                    @Override
+                    public EntitlementEngine load(Integer key) {
+
+                        return new EntitlementEngine(key);
+                    }
+                });
+    }
+
     private static long getCacheInterval() {
 
         Properties properties = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties();
@@ -185,6 +212,21 @@ public class EntitlementEngine {
         return entitlementEngineCachingInterval;
     }
 
+    private static long getCacheSize() {
+
+        Properties properties = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties();
+        String engineCacheSize = properties.getProperty(PDPConstants.ENTITLEMENT_ENGINE_CACHE_SIZE);
+        if (engineCacheSize != null) {
+            try {
+                return Long.parseLong(engineCacheSize.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + PDPConstants.ENTITLEMENT_ENGINE_CACHE_SIZE + ". Entitlement " +
+                        "engines will be held with weak references.");
+            }
+        }
+        return 0;
+    }
+
     private EntitlementEngine(int tenantId) {
 
         boolean isPDP = Boolean.parseBoolean((String) EntitlementServiceComponent.getEntitlementConfig().
@@ -223,6 +265,23 @@ public class EntitlementEngine {
             }
         }
 
+        int localDecisionCacheSize = PDPConstants.DEFAULT_DECISION_CACHING_LOCAL_CACHE_SIZE;
+        if (pdpDecisionCacheEnable) {
+            String localCacheSize = properties.getProperty(PDPConstants.DECISION_CACHING_LOCAL_CACHE_SIZE);
+            if (localCacheSize != null) {
+                try {
+                    localDecisionCacheSize = Integer.parseInt(localCacheSize.trim());
+                } catch (NumberFormatException e) {
+                    log.warn("Invalid value for " + PDPConstants.DECISION_CACHING_LOCAL_CACHE_SIZE + " : " +
+                            localCacheSize + ". Using the default value : " + localDecisionCacheSize);
+                }
+            }
+            String normalizeRequest = properties.getProperty(PDPConstants.DECISION_CACHING_NORMALIZE_REQUEST);
+            if (normalizeRequest != null) {
+                normalizeDecisionCacheRequest = Boolean.parseBoolean(normalizeRequest.trim());
+            }
+        }
+
         int pdpPolicyCachingInterval = -1;
         String policyCacheInterval = properties.getProperty(PDPConstants.POLICY_CACHING_INTERVAL);
         if (policyCacheInterval != null) {
@@ -237,6 +296,9 @@ public class EntitlementEngine {
         //init caches
         decisionCache = new DecisionCache(pdpDecisionCachingInterval);
         simpleDecisionCache = new SimpleDecisionCache(pdpDecisionCachingInterval);
+        if (pdpDecisionCacheEnable && localDecisionCacheSize > 0) {
+            localDecisionCache = new LocalDecisionCache(localDecisionCacheSize, pdpDecisionCachingInterval);
+        }
         this.policyCache = new PolicyCache(pdpPolicyCachingInterval);
 
         // policy search
@@ -290,7 +352,12 @@ public class EntitlementEngine {
             log.debug("XACML Request : " + xacmlRequest);
         }
 
-        String xacmlResponse = pdpTest.evaluate(xacmlRequest);
+        String xacmlResponse;
+        try {
+            xacmlResponse = pdpTest.evaluate(xacmlRequest);
+        } finally {
+            CarbonAttributeFinder.clearRequestAttributes();
+        }
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -317,8 +384,11 @@ public class EntitlementEngine {
         }
 
         String xacmlResponse;
+        Element requestElement = parseRequest(xacmlRequest);
+        String cacheKey = getDecisionCacheKey(xacmlRequest, RequestFingerprinter.getFingerprint(requestElement));
+        long policyVersion = getPolicyVersion();
 
-        if ((xacmlResponse = (String) getFromCache(xacmlRequest, false)) != null) {
+        if ((xacmlResponse = (String) getFromCache(cacheKey, false)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
                 log.debug("XACML Response : " + xacmlResponse);
             }
@@ -329,21 +399,33 @@ public class EntitlementEngine {
                 .getExtensions();
 
         if (extensions != null && !extensions.isEmpty()) {
-            PolicyRequestBuilder policyRequestBuilder = new PolicyRequestBuilder();
-            Element xacmlRequestElement = policyRequestBuilder.getXacmlRequest(xacmlRequest);
+            Element xacmlRequestElement = requestElement;
+            if (xacmlRequestElement == null) {
+                PolicyRequestBuilder policyRequestBuilder = new PolicyRequestBuilder();
+                xacmlRequestElement = policyRequestBuilder.getXacmlRequest(xacmlRequest);
+            }
             AbstractRequestCtx requestCtx = RequestCtxFactory.getFactory().
                     getRequestCtx(xacmlRequestElement);
             Set<PIPExtension> pipExtensions = extensions.keySet();
             for (PIPExtension pipExtension : pipExtensions) {
                 pipExtension.update(requestCtx);
             }
-            ResponseCtx responseCtx = pdp.evaluate(requestCtx);
-            xacmlResponse = responseCtx.encode();
+            try {
+                xacmlResponse = pdp.evaluate(requestCtx).encode();
+            } finally {
+                CarbonAttributeFinder.clearRequestAttributes();
+            }
+        } else if (requestElement != null) {
+            xacmlResponse = evaluateParsedRequest(requestElement, xacmlRequest).encode();
         } else {
-            xacmlResponse = pdp.evaluate(xacmlRequest);
+            try {
+                xacmlResponse = pdp.evaluate(xacmlRequest);
+            } finally {
+                CarbonAttributeFinder.clearRequestAttributes();
+            }
         }
 
-        addToCache(xacmlRequest, xacmlResponse, false);
+        addToCache(cacheKey, xacmlResponse, false, policyVersion);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -376,8 +458,11 @@ public class EntitlementEngine {
 
         String xacmlResponse;
         ResponseCtx responseCtx;
+        Element requestElement = parseRequest(xacmlRequest);
+        String cacheKey = getDecisionCacheKey(xacmlRequest, RequestFingerprinter.getFingerprint(requestElement));
+        long policyVersion = getPolicyVersion();
 
-        if ((xacmlResponse = (String) getFromCache(xacmlRequest, false)) != null) {
+        if ((xacmlResponse = (String) getFromCache(cacheKey, false)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
                 log.debug("XACML Response : " + xacmlResponse);
             }
@@ -395,22 +480,35 @@ public class EntitlementEngine {
                 .getExtensions();
 
         if (extensions != null && !extensions.isEmpty()) {
-            PolicyRequestBuilder policyRequestBuilder = new PolicyRequestBuilder();
-            Element xacmlRequestElement = policyRequestBuilder.getXacmlRequest(xacmlRequest);
+            Element xacmlRequestElement = requestElement;
+            if (xacmlRequestElement == null) {
+                PolicyRequestBuilder policyRequestBuilder = new PolicyRequestBuilder();
+                xacmlRequestElement = policyRequestBuilder.getXacmlRequest(xacmlRequest);
+            }
             AbstractRequestCtx requestCtx = RequestCtxFactory.getFactory().
                     getRequestCtx(xacmlRequestElement);
             Set<PIPExtension> pipExtensions = extensions.keySet();
             for (PIPExtension pipExtension : pipExtensions) {
                 pipExtension.update(requestCtx);
             }
-            responseCtx = pdp.evaluate(requestCtx);
+            try {
+                responseCtx = pdp.evaluate(requestCtx);
+            } finally {
+                CarbonAttributeFinder.clearRequestAttributes();
+            }
+        } else if (requestElement != null) {
+            responseCtx = evaluateParsedRequest(requestElement, xacmlRequest);
         } else {
-            responseCtx = pdp.evaluateReturnResponseCtx(xacmlRequest);
+            try {
+                responseCtx = pdp.evaluateReturnResponseCtx(xacmlRequest);
+            } finally {
+                CarbonAttributeFinder.clearRequestAttributes();
+            }
         }
 
         xacmlResponse = responseCtx.encode();
 
-        addToCache(xacmlRequest, xacmlResponse, false);
+        addToCache(cacheKey, xacmlResponse, false, policyVersion);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -428,7 +526,12 @@ public class EntitlementEngine {
      * @return ResponseCtx  Balana Object model for response
      */
     public ResponseCtx evaluateByContext(AbstractRequestCtx requestCtx) {
-        return pdp.evaluate(requestCtx);
+
+        try {
+            return pdp.evaluate(requestCtx);
+        } finally {
+            CarbonAttributeFinder.clearRequestAttributes();
+        }
     }
 
     /**
@@ -445,17 +548,24 @@ public class EntitlementEngine {
         }
 
         ResponseCtx xacmlResponse;
+        String cacheKey = getDecisionCacheKey(xacmlRequest,
+                isRequestFingerprinted() ? RequestFingerprinter.getFingerprint(requestCtx) : null);
+        long policyVersion = getPolicyVersion();
 
-        if ((xacmlResponse = (ResponseCtx) getFromCache(xacmlRequest, false)) != null) {
+        if ((xacmlResponse = (ResponseCtx) getFromCache(cacheKey, false)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
                 log.debug("XACML Response : " + xacmlResponse);
             }
             return xacmlResponse;
         }
 
-        xacmlResponse = pdp.evaluate(requestCtx);
+        try {
+            xacmlResponse = pdp.evaluate(requestCtx);
+        } finally {
+            CarbonAttributeFinder.clearRequestAttributes();
+        }
 
-        addToCache(xacmlRequest, xacmlResponse, false);
+        addToCache(cacheKey, xacmlResponse, false, policyVersion);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + xacmlResponse);
@@ -487,7 +597,10 @@ public class EntitlementEngine {
         String request = (subject != null ? subject : "") + (resource != null ? resource : "") +
                 (action != null ? action : "") + (environmentValue != null ? environmentValue : "");
 
-        if ((response = (String) getFromCache(request, true)) != null) {
+        String cacheKey = getDecisionCacheKey(request, null);
+        long policyVersion = getPolicyVersion();
+
+        if ((response = (String) getFromCache(cacheKey, true)) != null) {
             if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_REQUEST)) {
                 log.debug("XACML Request : " + EntitlementUtil.
                         createSimpleXACMLRequest(subject, resource, action, environmentValue));
@@ -504,9 +617,13 @@ public class EntitlementEngine {
             log.debug("XACML Request : " + requestAsString);
         }
 
-        response = pdp.evaluate(requestAsString);
+        try {
+            response = pdp.evaluate(requestAsString);
+        } finally {
+            CarbonAttributeFinder.clearRequestAttributes();
+        }
 
-        addToCache(request, response, true);
+        addToCache(cacheKey, response, true, policyVersion);
 
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.XACML_RESPONSE)) {
             log.debug("XACML Response : " + response);
@@ -553,18 +670,78 @@ public class EntitlementEngine {
         return carbonPolicyFinder;
     }
 
+    /**
+     * Build the decision cache key of the request. XACML requests are keyed by their normalized fingerprint, so
+     * requests differing only in formatting, namespace prefixes or attribute order share the cached decision.
+     *
+     * @param request     request as String
+     * @param fingerprint fingerprint of the request, or null to key the request by itself
+     * @return decision cache key, or null if decision caching is disabled
+     */
+    private String getDecisionCacheKey(String request, String fingerprint) {
+
+        if (!pdpDecisionCacheEnable) {
+            return null;
+        }
+        return tenantId + "+" + (fingerprint != null ? fingerprint : request);
+    }
+
+    private boolean isRequestFingerprinted() {
+
+        return pdpDecisionCacheEnable && normalizeDecisionCacheRequest;
+    }
+
+    /**
+     * Parse the request to compute its fingerprint. The same DOM is evaluated on a cache miss, so the request is
+     * parsed only once.
+     *
+     * @param xacmlRequest XACML request as String
+     * @return request element, or null if the request is not fingerprinted or is not well formed
+     */
+    private Element parseRequest(String xacmlRequest) {
+
+        return isRequestFingerprinted() ? RequestFingerprinter.parseRequest(xacmlRequest) : null;
+    }
+
+    /**
+     * Evaluate a request which was parsed to compute its decision cache key.
+     *
+     * @param requestElement parsed XACML request
+     * @param xacmlRequest   XACML request as String
+     * @return ResponseCtx response
+     */
+    private ResponseCtx evaluateParsedRequest(Element requestElement, String xacmlRequest) {
+
+        try {
+            AbstractRequestCtx requestCtx;
+            try {
+                requestCtx = RequestCtxFactory.getFactory().getRequestCtx(requestElement);
+            } catch (ParsingException e) {
+                // Let the PDP build the syntax error response for the invalid request.
+                return pdp.evaluateReturnResponseCtx(xacmlRequest);
+            }
+            return pdp.evaluate(requestCtx);
+        } finally {
+            CarbonAttributeFinder.clearRequestAttributes();
+        }
+    }
+
+    private long getPolicyVersion() {
+
+        return localDecisionCache != null ? localDecisionCache.getPolicyVersion() : 0;
+    }
+
     /**
      * get entry from decision caching
      *
-     * @param request     XACML request as String
+     * @param cacheKey    decision cache key of the request
      * @param simpleCache whether using simple cache or not
      * @return XACML response as String
      */
-    private Object getFromCache(String request, boolean simpleCache) {
+    private Object getFromCache(String cacheKey, boolean simpleCache) {
 
         if (pdpDecisionCacheEnable) {
 
-            String tenantRequest = tenantId + "+" + request;
             Object decision;
 
 
@@ -581,13 +758,25 @@ public class EntitlementEngine {
                 }
                 decisionCache.clear();
                 simpleDecisionCache.clear();
+                if (localDecisionCache != null) {
+                    localDecisionCache.invalidate();
+                }
                 return null;
             }
 
+            String localCacheKey = getLocalCacheKey(cacheKey, simpleCache);
+            if (localDecisionCache != null && (decision = localDecisionCache.get(localCacheKey)) != null) {
+                return decision;
+            }
+
+            long policyVersion = getPolicyVersion();
             if (simpleCache) {
-                decision = simpleDecisionCache.getFromCache(tenantRequest);
+                decision = simpleDecisionCache.getFromCache(cacheKey);
             } else {
-                decision = decisionCache.getFromCache(tenantRequest);
+                decision = decisionCache.getFromCache(cacheKey);
+            }
+            if (decision != null && localDecisionCache != null) {
+                localDecisionCache.put(localCacheKey, decision, policyVersion);
             }
             return decision;
         }
@@ -601,17 +790,20 @@ public class EntitlementEngine {
     /**
      * put entry in to cache
      *
-     * @param request     XACML request as String
-     * @param response    XACML response as String
-     * @param simpleCache whether using simple cache or not
+     * @param cacheKey      decision cache key of the request
+     * @param response      XACML response as String
+     * @param simpleCache   whether using simple cache or not
+     * @param policyVersion policy version read before the request was evaluated
      */
-    private void addToCache(String request, Object response, boolean simpleCache) {
+    private void addToCache(String cacheKey, Object response, boolean simpleCache, long policyVersion) {
         if (pdpDecisionCacheEnable) {
-            String tenantRequest = tenantId + "+" + request;
             if (simpleCache) {
-                simpleDecisionCache.addToCache(tenantRequest, response);
+                simpleDecisionCache.addToCache(cacheKey, response);
             } else {
-                decisionCache.addToCache(tenantRequest, response);
+                decisionCache.addToCache(cacheKey, response);
+            }
+            if (localDecisionCache != null) {
+                localDecisionCache.put(getLocalCacheKey(cacheKey, simpleCache), response, policyVersion);
             }
         } else {
             if (log.isDebugEnabled()) {
@@ -620,6 +812,12 @@ public class EntitlementEngine {
         }
     }
 
+    private String getLocalCacheKey(String cacheKey, boolean simpleCache) {
+
+        // Simple and XACML decisions share the local cache, so keep their keys apart.
+        return (simpleCache ? "S" : "X") + cacheKey;
+    }
+
     /**
      * Helper method to init engine
      */
@@ -39,7 +39,9 @@ import org.wso2.carbon.user.core.UserCoreConstants;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -75,85 +77,49 @@ public abstract class AbstractPIPAttributeFinder implements PIPAttributeFinder {
             throws Exception;
 
 
+    /**
+     * Simplified version of the bulk getAttributeValues() method, which modules backed by a remote store can
+     * override to retrieve several attributes of the subject with a single call. Attributes missing in the returned
+     * map are retrieved one by one.
+     *
+     * @param subject      Name of the subject the returned attributes should apply to.
+     * @param resource     The name of the resource the subject is trying to access.
+     * @param action       The name of the action the subject is trying to execute on resource
+     * @param environment  The name of the environment the subject is trying to access the resource
+     * @param attributeIds The unique ids of the required attributes.
+     * @param issuer       The attribute issuer.
+     * @return Returns a <code>Map</code> of attribute id to the attribute values, or null if not supported.
+     * @throws Exception throws if fails
+     */
+    protected Map<String, Set<String>> getAttributeValues(String subject, String resource, String action,
+                                                          String environment, Set<String> attributeIds,
+                                                          String issuer) throws Exception {
+
+        return null;
+    }
+
     @Override
     public Set<String> getAttributeValues(URI attributeType, URI attributeId, URI category,
                                           String issuer, EvaluationCtx evaluationCtx) throws Exception {
 
-        EvaluationResult subject;
-        String subjectId = null;
-        EvaluationResult resource;
-        String resourceId = null;
-        EvaluationResult action;
-        String actionId = null;
-        EvaluationResult environment;
-        String environmentId = null;
         Set<String> attributeValues = null;
 
         tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
 
-        subject = evaluationCtx.getAttribute(new URI(StringAttribute.identifier), new URI(
-                PDPConstants.SUBJECT_ID_DEFAULT), issuer, new URI(XACMLConstants.SUBJECT_CATEGORY));
-        if (subject != null && subject.getAttributeValue() != null &&
-            subject.getAttributeValue().isBag()) {
-            BagAttribute bagAttribute = (BagAttribute) subject.getAttributeValue();
-            if (bagAttribute.size() > 0) {
-                subjectId = ((AttributeValue) bagAttribute.iterator().next()).encode();
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Finding attributes for the subject %1$s",
-                                            subjectId));
-                }
-            }
-        }
-
-        resource = evaluationCtx.getAttribute(new URI(StringAttribute.identifier), new URI(
-                PDPConstants.RESOURCE_ID_DEFAULT), issuer, new URI(XACMLConstants.RESOURCE_CATEGORY));
-        if (resource != null && resource.getAttributeValue() != null &&
-            resource.getAttributeValue().isBag()) {
-            BagAttribute bagAttribute = (BagAttribute) resource.getAttributeValue();
-            if (bagAttribute.size() > 0) {
-                resourceId = ((AttributeValue) bagAttribute.iterator().next()).encode();
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Finding attributes for the resource %1$s",
-                                            resourceId));
-                }
-            }
-        }
-
-        action = evaluationCtx.getAttribute(new URI(StringAttribute.identifier), new URI(
-                PDPConstants.ACTION_ID_DEFAULT), issuer, new URI(XACMLConstants.ACTION_CATEGORY));
-        if (action != null && action.getAttributeValue() != null &&
-            action.getAttributeValue().isBag()) {
-            BagAttribute bagAttribute = (BagAttribute) action.getAttributeValue();
-            if (bagAttribute.size() > 0) {
-                actionId = ((AttributeValue) bagAttribute.iterator().next()).encode();
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Finding attributes for the action %1$s",
-                                            actionId));
-                }
-            }
-        }
-
-        environment = evaluationCtx.getAttribute(new URI(StringAttribute.identifier), new URI(
-                PDPConstants.ENVIRONMENT_ID_DEFAULT), issuer, new URI(XACMLConstants.ENT_CATEGORY));
-        if (environment != null && environment.getAttributeValue() != null &&
-            environment.getAttributeValue().isBag()) {
-            BagAttribute bagAttribute = (BagAttribute) environment.getAttributeValue();
-            if (bagAttribute.size() > 0) {
-                environmentId = ((AttributeValue) bagAttribute.iterator().next()).encode();
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Finding attributes for the environment %1$s",
-                                            environmentId));
-                }
-            }
-        }
+        String subjectId = getRequestAttribute(evaluationCtx, PDPConstants.SUBJECT_ID_DEFAULT,
+                XACMLConstants.SUBJECT_CATEGORY, issuer, "subject");
+        String resourceId = getRequestAttribute(evaluationCtx, PDPConstants.RESOURCE_ID_DEFAULT,
+                XACMLConstants.RESOURCE_CATEGORY, issuer, "resource");
+        String actionId = getRequestAttribute(evaluationCtx, PDPConstants.ACTION_ID_DEFAULT,
+                XACMLConstants.ACTION_CATEGORY, issuer, "action");
+        String environmentId = getRequestAttribute(evaluationCtx, PDPConstants.ENVIRONMENT_ID_DEFAULT,
+                XACMLConstants.ENT_CATEGORY, issuer, "environment");
 
         String key = null;
 
         if (isAbstractAttributeCachingEnabled) {
-            key = (subjectId != null ? subjectId : "") + (resourceId != null ? resourceId : "") +
-                  (environmentId != null ? environmentId : "") + (attributeId != null ? attributeId : "") +
-                  (issuer != null ? issuer : "") +
-                  (actionId != null ? actionId : "");
+            key = getCacheKey(subjectId, resourceId, actionId, environmentId,
+                    attributeId != null ? attributeId.toString() : null, issuer);
 
             attributeValues = abstractAttributeFinderCache.getFromCache(tenantId, key);
             if (log.isDebugEnabled()) {
@@ -195,6 +161,88 @@ public abstract class AbstractPIPAttributeFinder implements PIPAttributeFinder {
 
     }
 
+    @Override
+    public Map<URI, Set<String>> getAttributeValues(URI attributeType, Set<URI> attributeIds, URI category,
+                                                    String issuer, EvaluationCtx evaluationCtx) throws Exception {
+
+        tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+
+        String subjectId = getRequestAttribute(evaluationCtx, PDPConstants.SUBJECT_ID_DEFAULT,
+                XACMLConstants.SUBJECT_CATEGORY, issuer, "subject");
+        String resourceId = getRequestAttribute(evaluationCtx, PDPConstants.RESOURCE_ID_DEFAULT,
+                XACMLConstants.RESOURCE_CATEGORY, issuer, "resource");
+        String actionId = getRequestAttribute(evaluationCtx, PDPConstants.ACTION_ID_DEFAULT,
+                XACMLConstants.ACTION_CATEGORY, issuer, "action");
+        String environmentId = getRequestAttribute(evaluationCtx, PDPConstants.ENVIRONMENT_ID_DEFAULT,
+                XACMLConstants.ENT_CATEGORY, issuer, "environment");
+
+        Map<URI, Set<String>> attributeValues = new HashMap<>();
+        Map<String, URI> missingAttributeIds = new HashMap<>();
+        for (URI attributeId : attributeIds) {
+            // Application roles are filtered per request, so they are always retrieved one by one.
+            if (UserCoreConstants.INTERNAL_ROLES_CLAIM.equals(attributeId.toString())) {
+                continue;
+            }
+            Set<String> values = null;
+            if (isAbstractAttributeCachingEnabled) {
+                values = abstractAttributeFinderCache.getFromCache(tenantId, getCacheKey(subjectId, resourceId,
+                        actionId, environmentId, attributeId.toString(), issuer));
+            }
+            if (values != null) {
+                attributeValues.put(attributeId, values);
+            } else {
+                missingAttributeIds.put(attributeId.toString(), attributeId);
+            }
+        }
+
+        if (!missingAttributeIds.isEmpty()) {
+            Map<String, Set<String>> retrievedValues = getAttributeValues(subjectId, resourceId, actionId,
+                    environmentId, missingAttributeIds.keySet(), issuer);
+            if (retrievedValues == null) {
+                return null;
+            }
+            for (Map.Entry<String, Set<String>> entry : retrievedValues.entrySet()) {
+                URI attributeId = missingAttributeIds.get(entry.getKey());
+                if (attributeId == null || entry.getValue() == null) {
+                    continue;
+                }
+                attributeValues.put(attributeId, entry.getValue());
+                if (isAbstractAttributeCachingEnabled && !entry.getValue().isEmpty()) {
+                    abstractAttributeFinderCache.addToCache(tenantId, getCacheKey(subjectId, resourceId, actionId,
+                            environmentId, entry.getKey(), issuer), entry.getValue());
+                }
+            }
+        }
+        return attributeValues;
+    }
+
+    private String getRequestAttribute(EvaluationCtx evaluationCtx, String attributeId, String category,
+                                       String issuer, String name) throws URISyntaxException {
+
+        String value = null;
+        EvaluationResult result = evaluationCtx.getAttribute(new URI(StringAttribute.identifier),
+                new URI(attributeId), issuer, new URI(category));
+        if (result != null && result.getAttributeValue() != null && result.getAttributeValue().isBag()) {
+            BagAttribute bagAttribute = (BagAttribute) result.getAttributeValue();
+            if (bagAttribute.size() > 0) {
+                value = ((AttributeValue) bagAttribute.iterator().next()).encode();
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Finding attributes for the %1$s %2$s", name, value));
+                }
+            }
+        }
+        return value;
+    }
+
+    private String getCacheKey(String subjectId, String resourceId, String actionId, String environmentId,
+                               String attributeId, String issuer) {
+
+        return (subjectId != null ? subjectId : "") + (resourceId != null ? resourceId : "") +
+                (environmentId != null ? environmentId : "") + (attributeId != null ? attributeId : "") +
+                (issuer != null ? issuer : "") +
+                (actionId != null ? actionId : "");
+    }
+
     @Override
     public boolean overrideDefaultCache() {
 
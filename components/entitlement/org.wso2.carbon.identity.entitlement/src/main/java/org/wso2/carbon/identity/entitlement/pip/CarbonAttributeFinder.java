@@ -34,22 +34,27 @@ import org.wso2.balana.xacml3.Attributes;
 import org.wso2.carbon.identity.entitlement.EntitlementUtil;
 import org.wso2.carbon.identity.entitlement.PDPConstants;
 import org.wso2.carbon.identity.entitlement.cache.PIPAttributeCache;
+import org.wso2.carbon.identity.entitlement.cache.RequestFingerprinter;
 import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
 import org.wso2.carbon.identity.entitlement.pdp.EntitlementEngine;
 
 import javax.xml.transform.TransformerException;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CarbonAttributeFinder registers with sun-xacml engine as an AttributeFinderModule and delegate
@@ -62,7 +67,11 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
 
     private Map<String, List<PIPAttributeFinder>> attrFinders = new HashMap<String, List<PIPAttributeFinder>>();
     private static final Log log = LogFactory.getLog(CarbonAttributeFinder.class);
+    private static final ThreadLocal<RequestAttributes> requestAttributes = new ThreadLocal<RequestAttributes>();
     private PIPAttributeCache attributeFinderCache = null;
+    private boolean attributePrefetchEnabled = false;
+    // attribute ids requested from each finder, per attribute type, category and issuer
+    private final Map<String, Set<URI>> prefetchAttributeIds = new ConcurrentHashMap<String, Set<URI>>();
     protected int tenantId;
 
     public CarbonAttributeFinder(int tenantId) {
@@ -90,6 +99,10 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
             }
             attributeFinderCache = new PIPAttributeCache(attributeCachingInterval);
         }
+        String attributePrefetch = properties.getProperty(PDPConstants.ATTRIBUTE_PREFETCH);
+        if (attributePrefetch != null) {
+            attributePrefetchEnabled = Boolean.parseBoolean(attributePrefetch.trim());
+        }
         // clear decision cache
         if (designators != null && !designators.isEmpty()) {
             Set<PIPAttributeFinder> pipAttributeFinders = designators.keySet();
@@ -172,29 +185,27 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
 
                 Set<String> attrs = null;
                 String key = null;
+                boolean useDefaultCache = attributeFinderCache != null && !pipAttributeFinder.overrideDefaultCache();
+                String attributeKey = getAttributeKey(attributeType, attributeId, category, issuer);
 
-                if (attributeFinderCache != null && !pipAttributeFinder.overrideDefaultCache()) {
-
-                    key = "[" + attributeType.toString() + "][" + attributeId.toString() + "][" + category.toString() +
-                            "][" + encodeContext(context) + "]";
+                if (useDefaultCache) {
 
-                    if (issuer != null) {
-                        key += "[" + issuer + "]";
+                    key = attributeKey + "|" + getRequestAttributes(context).getRequestDigest();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Retrieving attributes from cache, tenantId: " + tenantId + ", key: " + key);
                     }
+                    attrs = attributeFinderCache.getFromCache(tenantId, key);
+                }
 
-                    if (key != null) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Retrieving attributes from cache, tenantId: " + tenantId + ", key: " + key);
-                        }
-                        attrs = attributeFinderCache.getFromCache(tenantId, key);
-                    }
+                if (attrs == null && attributePrefetchEnabled) {
+                    attrs = prefetchAttributes(pipAttributeFinder, attributeType, attributeId, category, issuer,
+                            context, useDefaultCache);
                 }
 
                 if (attrs == null) {
                     attrs = pipAttributeFinder.getAttributeValues(attributeType, attributeId, category,
                                                                   issuer, context);
-                    if (attributeFinderCache != null && key != null
-                        && !pipAttributeFinder.overrideDefaultCache()) {
+                    if (useDefaultCache) {
                         attributeFinderCache.addToCache(tenantId, key, attrs);
                     }
                 }
@@ -295,6 +306,90 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
         }
     }
 
+    /**
+     * Retrieves the attribute together with the other attributes that have been requested from the finder for the
+     * same attribute type, category and issuer, so a finder backed by a remote store can load them with a single
+     * call per request. The retrieved values are kept for the rest of the request evaluation.
+     *
+     * Finders which do not support bulk retrieval are not prefetched from. A finder which supports it may still
+     * return null when the attributes are not available in bulk for the current request, in which case the
+     * attribute is retrieved on its own for that request only.
+     *
+     * @return attribute values, or null if the attribute needs to be retrieved on its own
+     */
+    private Set<String> prefetchAttributes(PIPAttributeFinder pipAttributeFinder, URI attributeType,
+                                           URI attributeId, URI category, String issuer, EvaluationCtx context,
+                                           boolean useDefaultCache) throws Exception {
+
+        if (!pipAttributeFinder.isBulkRetrievalSupported()) {
+            return null;
+        }
+
+        RequestAttributes attributes = getRequestAttributes(context);
+        Map<String, Set<String>> prefetchedAttributes = attributes.getPrefetchedAttributes(pipAttributeFinder);
+        String attributeKey = getAttributeKey(attributeType, attributeId, category, issuer);
+        if (prefetchedAttributes.containsKey(attributeKey)) {
+            return prefetchedAttributes.get(attributeKey);
+        }
+
+        String groupKey = getAttributeKey(attributeType, null, category, issuer);
+        Set<URI> attributeIds = prefetchAttributeIds.computeIfAbsent(
+                pipAttributeFinder.getClass().getName() + "|" + groupKey, k -> ConcurrentHashMap.newKeySet());
+        if (attributeIds.size() < PDPConstants.MAX_PREFETCH_ATTRIBUTES) {
+            attributeIds.add(attributeId);
+        }
+        if (!attributeIds.contains(attributeId) || !attributes.markPrefetched(pipAttributeFinder, groupKey)) {
+            return null;
+        }
+
+        Map<URI, Set<String>> attributeValues = pipAttributeFinder.getAttributeValues(attributeType,
+                new HashSet<URI>(attributeIds), category, issuer, context);
+        if (attributeValues == null) {
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Prefetched %1$d attributes with the PIP attribute handler %2$s",
+                    attributeValues.size(), pipAttributeFinder.getClass()));
+        }
+        for (Map.Entry<URI, Set<String>> entry : attributeValues.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            String key = getAttributeKey(attributeType, entry.getKey(), category, issuer);
+            prefetchedAttributes.put(key, entry.getValue());
+            if (useDefaultCache) {
+                attributeFinderCache.addToCache(tenantId, key + "|" + attributes.getRequestDigest(),
+                        entry.getValue());
+            }
+        }
+        return prefetchedAttributes.get(attributeKey);
+    }
+
+    /**
+     * Clears the attributes retrieved for the request evaluated on the current thread. This must be called once the
+     * evaluation of a request is completed, so that pooled threads do not hold on to the retrieved attributes.
+     */
+    public static void clearRequestAttributes() {
+
+        requestAttributes.remove();
+    }
+
+    private RequestAttributes getRequestAttributes(EvaluationCtx context) {
+
+        RequestAttributes attributes = requestAttributes.get();
+        if (attributes == null || !attributes.isFor(context)) {
+            attributes = new RequestAttributes(context);
+            requestAttributes.set(attributes);
+        }
+        return attributes;
+    }
+
+    private static String getAttributeKey(URI attributeType, URI attributeId, URI category, String issuer) {
+
+        return attributeType + "|" + category + "|" + (issuer != null ? issuer : "") + "|" +
+                (attributeId != null ? attributeId : "");
+    }
+
     /**
      * Converts DOM object to String. This is a helper method for creating cache key
      *
@@ -302,7 +397,7 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
      * @return String Object
      * @throws TransformerException Exception throws if fails
      */
-    private String encodeContext(EvaluationCtx evaluationCtx) throws TransformerException {
+    private static String encodeContext(EvaluationCtx evaluationCtx) throws TransformerException {
         OutputStream stream = new ByteArrayOutputStream();
         evaluationCtx.getRequestCtx().encode(stream);
         String rowContext = stream.toString();
@@ -320,4 +415,52 @@ public class CarbonAttributeFinder extends AttributeFinderModule {
 
         return contextWithAttributeValues;
     }
+
+    /**
+     * Attributes retrieved while evaluating a single request on the current thread.
+     */
+    private static class RequestAttributes {
+
+        private final WeakReference<EvaluationCtx> context;
+        private final Map<PIPAttributeFinder, Map<String, Set<String>>> prefetchedAttributes =
+                new IdentityHashMap<PIPAttributeFinder, Map<String, Set<String>>>();
+        private final Set<String> prefetchedGroups = new HashSet<String>();
+        private String requestDigest;
+
+        private RequestAttributes(EvaluationCtx context) {
+
+            this.context = new WeakReference<EvaluationCtx>(context);
+        }
+
+        private boolean isFor(EvaluationCtx evaluationCtx) {
+
+            return context.get() == evaluationCtx;
+        }
+
+        private Map<String, Set<String>> getPrefetchedAttributes(PIPAttributeFinder pipAttributeFinder) {
+
+            return prefetchedAttributes.computeIfAbsent(pipAttributeFinder, k -> new HashMap<String, Set<String>>());
+        }
+
+        private boolean markPrefetched(PIPAttributeFinder pipAttributeFinder, String groupKey) {
+
+            return prefetchedGroups.add(System.identityHashCode(pipAttributeFinder) + "|" + groupKey);
+        }
+
+        /**
+         * The request is part of the attribute cache key. A digest of it keeps the key short.
+         */
+        private String getRequestDigest() throws TransformerException {
+
+            if (requestDigest == null) {
+                EvaluationCtx evaluationCtx = context.get();
+                String encodedContext = evaluationCtx != null ? encodeContext(evaluationCtx) : "";
+                requestDigest = RequestFingerprinter.getDigest(encodedContext);
+                if (requestDigest == null) {
+                    requestDigest = encodedContext;
+                }
+            }
+            return requestDigest;
+        }
+    }
 }
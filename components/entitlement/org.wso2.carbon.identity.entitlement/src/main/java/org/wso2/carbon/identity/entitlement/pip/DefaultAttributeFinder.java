@@ -36,7 +36,11 @@ import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -112,6 +116,93 @@ public class DefaultAttributeFinder extends AbstractPIPAttributeFinder {
         }
         return values;
     }
+
+    @Override
+    public Map<URI, Set<String>> getAttributeValues(URI attributeType, Set<URI> attributeIds, URI category,
+                                                    String issuer, EvaluationCtx evaluationCtx) throws Exception {
+
+        if (isLocalUserStoreLookupAllowed(issuer, evaluationCtx)) {
+            return super.getAttributeValues(attributeType, attributeIds, category, issuer, evaluationCtx);
+        }
+        // Federated users are not looked up in the userstore, so there is nothing to retrieve at once.
+        return null;
+    }
+
+    @Override
+    public boolean isBulkRetrievalSupported() {
+
+        return true;
+    }
+
+    /**
+     * Retrieves all the requested claims of the subject with a single userstore call.
+     */
+    @Override
+    protected Map<String, Set<String>> getAttributeValues(String subjectId, String resourceId, String actionId,
+                                                          String environmentId, Set<String> attributeIds,
+                                                          String issuer) throws Exception {
+
+        Map<String, Set<String>> attributeValues = new HashMap<>();
+        if (StringUtils.isEmpty(subjectId)) {
+            for (String attributeId : attributeIds) {
+                attributeValues.put(attributeId, new HashSet<String>());
+            }
+            return attributeValues;
+        }
+        subjectId = MultitenantUtils.getTenantAwareUsername(subjectId);
+
+        List<String> claims = new ArrayList<>(attributeIds.size());
+        for (String attributeId : attributeIds) {
+            if (UserCoreConstants.ClaimTypeURIs.ROLE.equals(attributeId)) {
+                // Roles are not claim values, so they are retrieved one by one.
+                continue;
+            }
+            claims.add(attributeId);
+        }
+        if (claims.isEmpty()) {
+            return attributeValues;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieving attribute values of subjectId \'" + subjectId + "\' with attributeIds " + claims);
+        }
+        Map<String, String> claimValues;
+        try {
+            claimValues = CarbonContext.getThreadLocalCarbonContext().getUserRealm().getUserStoreManager()
+                    .getUserClaimValues(subjectId, claims.toArray(new String[0]), null);
+        } catch (UserStoreException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith(IdentityCoreConstants.USER_NOT_FOUND)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("User: " + subjectId + " not found in user store");
+                }
+                claimValues = null;
+            } else {
+                throw e;
+            }
+        }
+        for (String claim : claims) {
+            Set<String> values = new HashSet<String>();
+            if (claimValues != null) {
+                addClaimValues(claimValues.get(claim), values);
+            }
+            attributeValues.put(claim, values);
+        }
+        return attributeValues;
+    }
+
+    private boolean isLocalUserStoreLookupAllowed(String issuer, EvaluationCtx evaluationCtx) throws Exception {
+
+        EvaluationResult userType = evaluationCtx.getAttribute(new URI(StringAttribute.identifier), new URI(
+                PDPConstants.USER_TYPE_ID), issuer, new URI(PDPConstants.USER_CATEGORY));
+        String userTypeId = null;
+        if (userType != null && userType.getAttributeValue() != null && userType.getAttributeValue().isBag()) {
+            BagAttribute bagAttribute = (BagAttribute) userType.getAttributeValue();
+            if (bagAttribute.size() > 0) {
+                userTypeId = ((AttributeValue) bagAttribute.iterator().next()).encode();
+            }
+        }
+        return !StringUtils.equalsIgnoreCase(userTypeId, FEDERATED_USER_DOMAIN) || mapFederatedUsersToLocal;
+    }
         /*
      * (non-Javadoc)
 	 * 
@@ -170,27 +261,32 @@ public class DefaultAttributeFinder extends AbstractPIPAttributeFinder {
             if (claimValue == null && log.isDebugEnabled()) {
                 log.debug(String.format("Request attribute %1$s not found", attributeId));
             }
-            // Fix for multiple claim values
-            if (claimValue != null) {
-                String claimSeparator = CarbonContext.getThreadLocalCarbonContext().getUserRealm().
-                        getRealmConfiguration().getUserStoreProperty(IdentityCoreConstants.MULTI_ATTRIBUTE_SEPARATOR);
-                if (StringUtils.isBlank(claimSeparator)) {
-                    claimSeparator = IdentityCoreConstants.MULTI_ATTRIBUTE_SEPARATOR_DEFAULT;
-                }
-                if (claimValue.contains(claimSeparator)) {
-                    StringTokenizer st = new StringTokenizer(claimValue, claimSeparator);
-                    while (st.hasMoreElements()) {
-                        String attributeValue = st.nextElement().toString();
-                        if (StringUtils.isNotBlank(attributeValue)) {
-                            values.add(attributeValue);
-                        }
+            addClaimValues(claimValue, values);
+        }
+        return values;
+    }
+
+    private void addClaimValues(String claimValue, Set<String> values) throws UserStoreException {
+
+        // Fix for multiple claim values
+        if (claimValue != null) {
+            String claimSeparator = CarbonContext.getThreadLocalCarbonContext().getUserRealm().
+                    getRealmConfiguration().getUserStoreProperty(IdentityCoreConstants.MULTI_ATTRIBUTE_SEPARATOR);
+            if (StringUtils.isBlank(claimSeparator)) {
+                claimSeparator = IdentityCoreConstants.MULTI_ATTRIBUTE_SEPARATOR_DEFAULT;
+            }
+            if (claimValue.contains(claimSeparator)) {
+                StringTokenizer st = new StringTokenizer(claimValue, claimSeparator);
+                while (st.hasMoreElements()) {
+                    String attributeValue = st.nextElement().toString();
+                    if (StringUtils.isNotBlank(attributeValue)) {
+                        values.add(attributeValue);
                     }
-                } else {
-                    values.add(claimValue);
                 }
+            } else {
+                values.add(claimValue);
             }
         }
-        return values;
     }
 
     /*
@@ -21,6 +21,7 @@ package org.wso2.carbon.identity.entitlement.pip;
 import org.wso2.balana.ctx.EvaluationCtx;
 
 import java.net.URI;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -66,6 +67,38 @@ public interface PIPAttributeFinder {
     public Set<String> getAttributeValues(URI attributeType, URI attributeId, URI category,
                                           String issuer, EvaluationCtx context) throws Exception;
 
+    /**
+     * Will be fired by CarbonAttributeFinder to retrieve several attributes of the same category at once, so that
+     * finders backed by a remote store can load them with a single call. This is only fired for modules which return
+     * true from isBulkRetrievalSupported(). Attributes missing in the returned map are retrieved one by one with the
+     * single attribute method.
+     *
+     * @param attributeType Data type of the required attributes.
+     * @param attributeIds  The unique ids of the required attributes.
+     * @param category      Category of the attributes.
+     * @param issuer        The attribute issuer.
+     * @param context       EvaluationCtx which encapsulates the XACML request.
+     * @return Returns a <code>Map</code> of attribute id to the attribute values, or null if the attributes can not
+     * be retrieved at once for this request. The attributes are then retrieved one by one for this request only.
+     * @throws Exception throws, if fails
+     */
+    default Map<URI, Set<String>> getAttributeValues(URI attributeType, Set<URI> attributeIds, URI category,
+                                                     String issuer, EvaluationCtx context) throws Exception {
+
+        return null;
+    }
+
+    /**
+     * This is to inform whether this module supports retrieving several attributes at once with the bulk
+     * getAttributeValues() method.
+     *
+     * @return True/False
+     */
+    default boolean isBulkRetrievalSupported() {
+
+        return false;
+    }
+
     /**
      * Returns a <code>Set</code> of <code>String</code>s that represent the attributeIds handled by
      * this module, or null if this module doesn't handle any specific attributeIds. A return value
@@ -27,6 +27,7 @@ import org.wso2.balana.Policy;
 import org.wso2.balana.PolicySet;
 import org.wso2.balana.finder.PolicyFinder;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.entitlement.cache.CompiledPolicyCache;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -103,10 +104,24 @@ public class PolicyReader implements ErrorHandler {
     }
 
     /**
-     * @param policy
-     * @return
+     * Returns the parsed policy for the given policy XML. Policies parsed before are served from the
+     * {@link CompiledPolicyCache}, which is shared by all the tenants.
+     *
+     * @param policy policy as a String
+     * @return parsed policy, or null if the policy can not be parsed
      */
-    public synchronized AbstractPolicy getPolicy(String policy) {
+    public AbstractPolicy getPolicy(String policy) {
+
+        CompiledPolicyCache compiledPolicyCache = CompiledPolicyCache.getInstance();
+        AbstractPolicy abstractPolicy = compiledPolicyCache.get(policy);
+        if (abstractPolicy == null) {
+            abstractPolicy = parsePolicy(policy);
+            compiledPolicyCache.put(policy, abstractPolicy);
+        }
+        return abstractPolicy;
+    }
+
+    private synchronized AbstractPolicy parsePolicy(String policy) {
         InputStream stream = null;
         try {
             stream = new ByteArrayInputStream(policy.getBytes("UTF-8"));
@@ -42,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
@@ -71,6 +72,8 @@ public class DefaultPolicyCollection implements PolicyCollection {
     // the optional policy id used when wrapping multiple policies
     private URI parentId;
     private int maxInMemoryPolicies;
+    // target index over a snapshot of the most recent policy versions, rebuilt lazily after a change
+    private volatile PolicyTargetIndex policyTargetIndex;
 
     ;
 
@@ -140,7 +143,8 @@ public class DefaultPolicyCollection implements PolicyCollection {
      * @param identifier
      * @return
      */
-    public boolean addPolicy(AbstractPolicy policy, String identifier) {
+    public synchronized boolean addPolicy(AbstractPolicy policy, String identifier) {
+        policyTargetIndex = null;
         if (policies.containsKey(identifier)) {
             // this identifier is already is use, so see if this version is
             // already in the set
@@ -169,12 +173,9 @@ public class DefaultPolicyCollection implements PolicyCollection {
     public AbstractPolicy getEffectivePolicy(EvaluationCtx context) throws EntitlementException {
         // setup a list of matching policies
         ArrayList<AbstractPolicy> list = new ArrayList<AbstractPolicy>();
-        // get an iterator over all the identifiers
-        Iterator<TreeSet<AbstractPolicy>> it = policies.values().iterator();
 
-        while (it.hasNext()) {
-            // for each identifier, get only the most recent policy
-            AbstractPolicy policy = it.next().first();
+        // the index holds only the most recent policy of each identifier
+        for (AbstractPolicy policy : getPolicyTargetIndex().getCandidatePolicies(context)) {
 
             // see if we match
             MatchResult match = policy.match(context);
@@ -221,6 +222,25 @@ public class DefaultPolicyCollection implements PolicyCollection {
         }
     }
 
+    private PolicyTargetIndex getPolicyTargetIndex() {
+
+        PolicyTargetIndex index = policyTargetIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = policyTargetIndex;
+                if (index == null) {
+                    List<AbstractPolicy> latestPolicies = new ArrayList<AbstractPolicy>(policies.size());
+                    for (TreeSet<AbstractPolicy> versions : policies.values()) {
+                        latestPolicies.add(versions.first());
+                    }
+                    index = PolicyTargetIndex.build(latestPolicies);
+                    policyTargetIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     /**
      * Get Policy using policyId
      *
@@ -252,7 +272,9 @@ public class DefaultPolicyCollection implements PolicyCollection {
      *
      * @return LinkedHashMap of policies
      */
-    public LinkedHashMap<String, TreeSet<AbstractPolicy>> getPolicies() {
+    public synchronized LinkedHashMap<String, TreeSet<AbstractPolicy>> getPolicies() {
+        // the caller may modify the returned map
+        policyTargetIndex = null;
         return policies;
     }
 
@@ -399,12 +421,18 @@ public class DefaultPolicyCollection implements PolicyCollection {
         return false;
     }
 @Override
-    public LinkedHashMap getPolicyMap() {
+    public synchronized LinkedHashMap getPolicyMap() {
         return this.policies;
     }
 
     @Override
-    public void setPolicyMap(LinkedHashMap policyMap) {
+    public void invalidateIndex() {
+        policyTargetIndex = null;
+    }
+
+    @Override
+    public synchronized void setPolicyMap(LinkedHashMap policyMap) {
         this.policies = policyMap ;
+        policyTargetIndex = null;
     }
 }
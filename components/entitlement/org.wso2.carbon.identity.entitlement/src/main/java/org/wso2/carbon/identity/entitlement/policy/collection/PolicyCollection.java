@@ -87,7 +87,21 @@ public interface PolicyCollection {
 
 
     public boolean deletePolicy(String policyId);
+
+    /**
+     * returns the live policy map of the collection. {@link #invalidateIndex()} must be called after the returned
+     * map is changed.
+     *
+     * @return policy map
+     */
     public LinkedHashMap getPolicyMap() ;
     public void setPolicyMap(LinkedHashMap policyMap) ;
 
+    /**
+     * drops any index built over the policies, so that changes made to the map returned by
+     * {@link #getPolicyMap()} are seen by the following evaluations
+     */
+    public default void invalidateIndex() {
+    }
+
 }
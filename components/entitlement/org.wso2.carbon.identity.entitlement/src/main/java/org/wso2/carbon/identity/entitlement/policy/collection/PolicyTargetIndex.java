@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.entitlement.policy.collection;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.balana.AbstractTarget;
+import org.wso2.balana.Policy;
+import org.wso2.balana.PolicySet;
+import org.wso2.balana.TargetMatch;
+import org.wso2.balana.attr.AttributeDesignator;
+import org.wso2.balana.attr.AttributeValue;
+import org.wso2.balana.attr.StringAttribute;
+import org.wso2.balana.cond.Evaluatable;
+import org.wso2.balana.ctx.AbstractRequestCtx;
+import org.wso2.balana.ctx.Attribute;
+import org.wso2.balana.ctx.EvaluationCtx;
+import org.wso2.balana.ctx.xacml3.XACML3EvaluationCtx;
+import org.wso2.balana.xacml3.AllOfSelection;
+import org.wso2.balana.xacml3.AnyOfSelection;
+import org.wso2.balana.xacml3.Attributes;
+import org.wso2.balana.xacml3.Target;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index over the targets of a set of top level policies, used to find the policies that can possibly
+ * match a request without running the target match of every policy.
+ * <p>
+ * A policy is indexed on the first AnyOf of its XACML 3.0 target, when the first Match of each AllOf in it compares
+ * a string literal with an attribute designator using string-equal. Balana stops evaluating an AllOf at its first
+ * non matching Match, and a target at its first non matching AnyOf, so if the request carries the designated
+ * attribute and none of its values equals the literal of any AllOf, the target can not match. When the request does
+ * not carry the attribute, it may still be resolved by an attribute finder, so the policy stays a candidate. All
+ * other policies are always candidates. Candidates are returned in the order the policies were added to the index.
+ */
+public class PolicyTargetIndex {
+
+    private static final Log log = LogFactory.getLog(PolicyTargetIndex.class);
+
+    private static final String STRING_EQUAL_FUNCTION = "urn:oasis:names:tc:xacml:1.0:function:string-equal";
+
+    private final List<AbstractPolicy> policies;
+    private final BitSet unindexedPolicies;
+    private final Map<AttributeKey, BitSet> policiesByAttribute;
+    private final Map<AttributeKey, Map<String, BitSet>> policiesByAttributeValue;
+
+    private PolicyTargetIndex(List<AbstractPolicy> policies) {
+
+        this.policies = Collections.unmodifiableList(new ArrayList<>(policies));
+        this.unindexedPolicies = new BitSet(policies.size());
+        this.policiesByAttribute = new HashMap<>();
+        this.policiesByAttributeValue = new HashMap<>();
+
+        for (int i = 0; i < policies.size(); i++) {
+            List<TargetConstraint> constraints = getTargetConstraints(policies.get(i));
+            if (constraints == null) {
+                unindexedPolicies.set(i);
+                continue;
+            }
+            for (TargetConstraint constraint : constraints) {
+                policiesByAttribute.computeIfAbsent(constraint.attributeKey, key -> new BitSet()).set(i);
+                policiesByAttributeValue.computeIfAbsent(constraint.attributeKey, key -> new HashMap<>())
+                        .computeIfAbsent(constraint.value, value -> new BitSet()).set(i);
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Policy target index is built for " + policies.size() + " policies. Indexed policies : " +
+                    (policies.size() - unindexedPolicies.cardinality()));
+        }
+    }
+
+    /**
+     * Build the index for the given policies.
+     *
+     * @param policies Top level policies in evaluation order.
+     * @return Policy target index.
+     */
+    public static PolicyTargetIndex build(Collection<AbstractPolicy> policies) {
+
+        return new PolicyTargetIndex(new ArrayList<>(policies));
+    }
+
+    /**
+     * Get all the policies in the index.
+     *
+     * @return Policies in evaluation order.
+     */
+    public List<AbstractPolicy> getPolicies() {
+
+        return policies;
+    }
+
+    /**
+     * Get the policies whose target can possibly match the given request.
+     *
+     * @param context Evaluation context of the request.
+     * @return Candidate policies in evaluation order.
+     */
+    public List<AbstractPolicy> getCandidatePolicies(EvaluationCtx context) {
+
+        if (policiesByAttribute.isEmpty() || !(context instanceof XACML3EvaluationCtx)) {
+            return policies;
+        }
+        Map<AttributeKey, Set<String>> requestAttributes = getRequestAttributes(context);
+        if (requestAttributes == null) {
+            return policies;
+        }
+
+        BitSet candidates = (BitSet) unindexedPolicies.clone();
+        for (Map.Entry<AttributeKey, BitSet> entry : policiesByAttribute.entrySet()) {
+            Set<String> values = requestAttributes.get(entry.getKey());
+            if (values == null) {
+                // The attribute may still be resolved by an attribute finder.
+                candidates.or(entry.getValue());
+                continue;
+            }
+            Map<String, BitSet> policiesByValue = policiesByAttributeValue.get(entry.getKey());
+            for (String value : values) {
+                BitSet matchingPolicies = policiesByValue.get(value);
+                if (matchingPolicies != null) {
+                    candidates.or(matchingPolicies);
+                }
+            }
+        }
+
+        List<AbstractPolicy> candidatePolicies = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            candidatePolicies.add(policies.get(i));
+        }
+        return candidatePolicies;
+    }
+
+    private Map<AttributeKey, Set<String>> getRequestAttributes(EvaluationCtx context) {
+
+        AbstractRequestCtx requestCtx = context.getRequestCtx();
+        if (requestCtx == null || requestCtx.getAttributesSet() == null) {
+            return null;
+        }
+        Map<AttributeKey, Set<String>> requestAttributes = new HashMap<>();
+        for (Attributes attributes : requestCtx.getAttributesSet()) {
+            if (attributes.getCategory() == null || attributes.getAttributes() == null) {
+                continue;
+            }
+            for (Attribute attribute : attributes.getAttributes()) {
+                if (attribute.getId() == null || !isStringType(attribute.getType())) {
+                    continue;
+                }
+                AttributeKey attributeKey = new AttributeKey(attributes.getCategory(), attribute.getId());
+                // Without values, the attribute is looked up through the attribute finders as if it is absent.
+                if (!policiesByAttribute.containsKey(attributeKey) || attribute.getValues() == null ||
+                        attribute.getValues().isEmpty()) {
+                    continue;
+                }
+                Set<String> values = requestAttributes.computeIfAbsent(attributeKey, key -> new HashSet<>());
+                for (AttributeValue value : attribute.getValues()) {
+                    values.add(value.encode());
+                }
+            }
+        }
+        return requestAttributes;
+    }
+
+    private static List<TargetConstraint> getTargetConstraints(AbstractPolicy policy) {
+
+        if (!(policy instanceof Policy) && !(policy instanceof PolicySet)) {
+            return null;
+        }
+        AbstractTarget target = policy.getTarget();
+        if (!(target instanceof Target)) {
+            return null;
+        }
+        List<AnyOfSelection> anyOfSelections = ((Target) target).getAnyOfSelections();
+        if (anyOfSelections == null || anyOfSelections.isEmpty()) {
+            return null;
+        }
+        List<AllOfSelection> allOfSelections = anyOfSelections.get(0).getAllOfSelections();
+        if (allOfSelections == null || allOfSelections.isEmpty()) {
+            return null;
+        }
+
+        List<TargetConstraint> constraints = new ArrayList<>(allOfSelections.size());
+        for (AllOfSelection allOfSelection : allOfSelections) {
+            List<TargetMatch> matches = allOfSelection.getMatches();
+            if (matches == null || matches.isEmpty()) {
+                return null;
+            }
+            TargetConstraint constraint = getTargetConstraint(matches.get(0));
+            if (constraint == null) {
+                return null;
+            }
+            constraints.add(constraint);
+        }
+        return constraints;
+    }
+
+    private static TargetConstraint getTargetConstraint(TargetMatch match) {
+
+        if (match.getMatchFunction() == null || match.getMatchFunction().getIdentifier() == null ||
+                !STRING_EQUAL_FUNCTION.equals(match.getMatchFunction().getIdentifier().toString())) {
+            return null;
+        }
+        AttributeValue matchValue = match.getMatchValue();
+        Evaluatable evaluatable = match.getMatchEvaluatable();
+        if (matchValue == null || !isStringType(matchValue.getType()) ||
+                !(evaluatable instanceof AttributeDesignator)) {
+            return null;
+        }
+        AttributeDesignator designator = (AttributeDesignator) evaluatable;
+        if (designator.getCategory() == null || designator.getId() == null || designator.getIssuer() != null ||
+                !isStringType(designator.getType())) {
+            return null;
+        }
+        return new TargetConstraint(new AttributeKey(designator.getCategory(), designator.getId()),
+                matchValue.encode());
+    }
+
+    private static boolean isStringType(URI type) {
+
+        return type != null && StringAttribute.identifier.equals(type.toString());
+    }
+
+    private static class TargetConstraint {
+
+        private final AttributeKey attributeKey;
+        private final String value;
+
+        private TargetConstraint(AttributeKey attributeKey, String value) {
+
+            this.attributeKey = attributeKey;
+            this.value = value;
+        }
+    }
+
+    private static class AttributeKey {
+
+        private final String category;
+        private final String attributeId;
+
+        private AttributeKey(URI category, URI attributeId) {
+
+            this.category = category.toString();
+            this.attributeId = attributeId.toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AttributeKey)) {
+                return false;
+            }
+            AttributeKey that = (AttributeKey) o;
+            return category.equals(that.category) && attributeId.equals(that.attributeId);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return 31 * category.hashCode() + attributeId.hashCode();
+        }
+    }
+}
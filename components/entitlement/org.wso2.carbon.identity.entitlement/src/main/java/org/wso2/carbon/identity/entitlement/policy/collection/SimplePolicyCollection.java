@@ -34,7 +34,6 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -59,6 +58,11 @@ public class SimplePolicyCollection implements PolicyCollection {
      * the optional policy id used when wrapping multiple policies
      */
     private URI parentId;
+    /**
+     * target index over a snapshot of the policies. It is dropped when the policies change and rebuilt lazily,
+     * so requests are evaluated without locking the collection.
+     */
+    private volatile PolicyTargetIndex policyTargetIndex;
 
     @Override
     public void init(Properties properties) throws Exception {
@@ -79,9 +83,7 @@ public class SimplePolicyCollection implements PolicyCollection {
         // setup a list of matching policies
         ArrayList<AbstractPolicy> list = new ArrayList<AbstractPolicy>();
 
-        for (Map.Entry<URI, AbstractPolicy> entry : policyCollection.entrySet()) {
-
-            AbstractPolicy policy = entry.getValue();
+        for (AbstractPolicy policy : getPolicyTargetIndex().getCandidatePolicies(context)) {
 
             // see if we match
             MatchResult match = policy.match(context);
@@ -155,17 +157,34 @@ public class SimplePolicyCollection implements PolicyCollection {
     }
 
     private synchronized boolean addPolicy(URI identifier, AbstractPolicy policy) {
+        policyTargetIndex = null;
         return policyCollection.put(identifier, policy) != null;
     }
 
+    private PolicyTargetIndex getPolicyTargetIndex() {
+
+        PolicyTargetIndex index = policyTargetIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = policyTargetIndex;
+                if (index == null) {
+                    index = PolicyTargetIndex.build(policyCollection.values());
+                    policyTargetIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     @Override
     public void setPolicyCombiningAlgorithm(PolicyCombiningAlgorithm algorithm) {
         this.combiningAlg = algorithm;
     }
 
     @Override
-    public boolean deletePolicy(String policyId) {
+    public synchronized boolean deletePolicy(String policyId) {
         try {
+            policyTargetIndex = null;
             return this.policyCollection.remove(new URI(policyId)) != null;
         } catch (URISyntaxException ex) {
             return false;
@@ -173,12 +192,18 @@ public class SimplePolicyCollection implements PolicyCollection {
     }
 
     @Override
-    public LinkedHashMap getPolicyMap() {
+    public synchronized LinkedHashMap getPolicyMap() {
         return this.policyCollection;
     }
 
     @Override
-    public void setPolicyMap(LinkedHashMap policyMap) {
+    public void invalidateIndex() {
+        policyTargetIndex = null;
+    }
+
+    @Override
+    public synchronized void setPolicyMap(LinkedHashMap policyMap) {
         this.policyCollection = policyMap;
+        policyTargetIndex = null;
     }
 }
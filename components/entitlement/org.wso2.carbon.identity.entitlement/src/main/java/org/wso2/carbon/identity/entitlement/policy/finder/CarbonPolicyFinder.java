@@ -146,7 +146,13 @@ public class CarbonPolicyFinder extends org.wso2.balana.finder.PolicyFinderModul
             // here we can get policy data store by using EntitlementAdminEngine. But we are not
             // use it here.  As we need not to have a dependant on EntitlementAdminEngine
             PolicyDataStore policyDataStore;
-            policyDataStore = new DefaultPolicyDataStore();
+            Map<PolicyDataStore, Properties> dataStoreModules = EntitlementServiceComponent.
+                    getEntitlementConfig().getPolicyDataStore();
+            if (dataStoreModules != null && !dataStoreModules.isEmpty()) {
+                policyDataStore = dataStoreModules.entrySet().iterator().next().getKey();
+            } else {
+                policyDataStore = new DefaultPolicyDataStore();
+            }
 
             policyCombiningAlgorithm = policyDataStore.getGlobalPolicyAlgorithm();
 
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.policy.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.balana.combine.PolicyCombiningAlgorithm;
+import org.wso2.balana.combine.xacml3.DenyOverridesPolicyAlg;
+import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+import org.wso2.carbon.identity.entitlement.EntitlementUtil;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.dto.PolicyStoreDTO;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
+import org.wso2.carbon.identity.entitlement.pdp.EntitlementEngine;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Policy data store which keeps the policy status, order and the global policy combining algorithm in the identity
+ * database instead of the registry.
+ */
+public class JDBCPolicyDataStore implements PolicyDataStore {
+
+    private static final String GLOBAL_POLICY_COMBINING_ALGORITHM = "globalPolicyCombiningAlgorithm";
+    private static final String ACTIVE = "1";
+    private static final String INACTIVE = "0";
+    private static final Log log = LogFactory.getLog(JDBCPolicyDataStore.class);
+
+    @Override
+    public void init(Properties properties) throws EntitlementException {
+
+    }
+
+    @Override
+    public PolicyCombiningAlgorithm getGlobalPolicyAlgorithm() {
+
+        try {
+            String algorithm = getConfig(GLOBAL_POLICY_COMBINING_ALGORITHM);
+            if (StringUtils.isBlank(algorithm)) {
+                // Read algorithm from entitlement.properties file.
+                algorithm = EntitlementServiceComponent.getEntitlementConfig().getEngineProperties().
+                        getProperty(PDPConstants.PDP_GLOBAL_COMBINING_ALGORITHM);
+                log.info("Using Global policy combining algorithm that is defined in configuration file.");
+                try {
+                    return EntitlementUtil.getPolicyCombiningAlgorithm(algorithm);
+                } catch (Exception e) {
+                    log.debug(e);
+                }
+            }
+
+            if (StringUtils.isNotBlank(algorithm)) {
+                if ("first-applicable".equals(algorithm) || "only-one-applicable".equals(algorithm)) {
+                    algorithm = DefaultPolicyDataStore.POLICY_COMBINING_PREFIX_1 + algorithm;
+                } else {
+                    algorithm = DefaultPolicyDataStore.POLICY_COMBINING_PREFIX_3 + algorithm;
+                }
+                return EntitlementUtil.getPolicyCombiningAlgorithm(algorithm);
+            }
+        } catch (EntitlementException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Exception while getting Global Policy Algorithm from policy data store.", e);
+            }
+        }
+
+        log.warn("Global policy combining algorithm is not defined. Therefore using default one");
+        return new DenyOverridesPolicyAlg();
+    }
+
+    @Override
+    public void setGlobalPolicyAlgorithm(String policyCombiningAlgorithm) throws EntitlementException {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            try {
+                persistConfig(GLOBAL_POLICY_COMBINING_ALGORITHM, policyCombiningAlgorithm, tenantId);
+            } catch (SQLException e) {
+                if (!JDBCPolicyStoreManageModule.isDuplicateEntry(e)) {
+                    throw e;
+                }
+                // The algorithm was added by a concurrent request. Persisting it again updates the added value.
+                persistConfig(GLOBAL_POLICY_COMBINING_ALGORITHM, policyCombiningAlgorithm, tenantId);
+            }
+        } catch (SQLException e) {
+            log.error("Error while updating Global combing algorithm in policy store ", e);
+            throw new EntitlementException("Error while updating combing algorithm in policy store");
+        }
+
+        // performing cache invalidation
+        EntitlementEngine.getInstance().invalidatePolicyCache();
+    }
+
+    @Override
+    public String getGlobalPolicyAlgorithmName() {
+
+        String algorithm = null;
+        try {
+            algorithm = getConfig(GLOBAL_POLICY_COMBINING_ALGORITHM);
+        } catch (EntitlementException e) {
+            log.error("Error while getting Global Policy Combining Algorithm Name.", e);
+        }
+
+        // set default
+        if (algorithm == null) {
+            algorithm = "deny-overrides";
+        }
+        return algorithm;
+    }
+
+    @Override
+    public String[] getAllGlobalPolicyAlgorithmNames() {
+
+        return new String[]{"deny-overrides", "permit-overrides", "first-applicable",
+                "ordered-deny-overrides", "ordered-permit-overrides", "only-one-applicable"};
+    }
+
+    @Override
+    public PolicyStoreDTO getPolicyData(String policyId) {
+
+        PolicyStoreDTO dataDTO = new PolicyStoreDTO();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_POLICY_DATA)) {
+            prepStmt.setString(1, policyId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next()) {
+                    dataDTO.setActive(ACTIVE.equals(resultSet.getString(1)));
+                    dataDTO.setPolicyOrder(resultSet.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error while getting policy data for policyId: " + policyId, e);
+        }
+        return dataDTO;
+    }
+
+    @Override
+    public PolicyStoreDTO[] getPolicyData() {
+
+        List<PolicyStoreDTO> policyStoreDTOs = new ArrayList<>();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_ALL_POLICY_DATA)) {
+            prepStmt.setInt(1, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    PolicyStoreDTO dataDTO = new PolicyStoreDTO();
+                    dataDTO.setPolicyId(resultSet.getString(1));
+                    dataDTO.setActive(ACTIVE.equals(resultSet.getString(2)));
+                    dataDTO.setPolicyOrder(resultSet.getInt(3));
+                    policyStoreDTOs.add(dataDTO);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error while getting all policy data.", e);
+        }
+        return policyStoreDTOs.toArray(new PolicyStoreDTO[0]);
+    }
+
+    @Override
+    public void setPolicyData(String policyId, PolicyStoreDTO policyDataDTO) throws EntitlementException {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            try {
+                persistPolicyData(policyId, policyDataDTO, tenantId);
+            } catch (SQLException e) {
+                if (!JDBCPolicyStoreManageModule.isDuplicateEntry(e)) {
+                    throw e;
+                }
+                // The policy data was added by a concurrent request after it was looked up. Persisting it again
+                // updates the added policy data.
+                if (log.isDebugEnabled()) {
+                    log.debug("Policy data of " + policyId + " was added concurrently. Updating the policy data.");
+                }
+                persistPolicyData(policyId, policyDataDTO, tenantId);
+            }
+        } catch (SQLException e) {
+            log.error("Error while updating Policy data in policy store ", e);
+            throw new EntitlementException("Error while updating Policy data in policy store");
+        }
+    }
+
+    @Override
+    public void removePolicyData(String policyId) throws EntitlementException {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.DELETE_POLICY_DATA)) {
+                prepStmt.setString(1, policyId);
+                prepStmt.setInt(2, tenantId);
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error while deleting Policy data in policy store ", e);
+            throw new EntitlementException("Error while deleting Policy data in policy store");
+        }
+    }
+
+    private void persistPolicyData(String policyId, PolicyStoreDTO policyDataDTO, int tenantId)
+            throws SQLException {
+
+        boolean setOrder = policyDataDTO.isSetOrder() && policyDataDTO.getPolicyOrder() > 0;
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                if (!isPolicyDataExist(connection, policyId, tenantId)) {
+                    try (PreparedStatement prepStmt = connection.prepareStatement(
+                            PolicyStoreSQLQueries.INSERT_POLICY_DATA)) {
+                        prepStmt.setString(1, policyId);
+                        prepStmt.setInt(2, tenantId);
+                        prepStmt.setString(3, policyDataDTO.isSetActive() && policyDataDTO.isActive() ?
+                                ACTIVE : INACTIVE);
+                        prepStmt.setInt(4, setOrder ? policyDataDTO.getPolicyOrder() : 0);
+                        prepStmt.executeUpdate();
+                    }
+                } else {
+                    if (policyDataDTO.isSetActive()) {
+                        try (PreparedStatement prepStmt = connection.prepareStatement(
+                                PolicyStoreSQLQueries.UPDATE_POLICY_DATA_ACTIVE)) {
+                            prepStmt.setString(1, policyDataDTO.isActive() ? ACTIVE : INACTIVE);
+                            prepStmt.setString(2, policyId);
+                            prepStmt.setInt(3, tenantId);
+                            prepStmt.executeUpdate();
+                        }
+                    }
+                    if (setOrder) {
+                        try (PreparedStatement prepStmt = connection.prepareStatement(
+                                PolicyStoreSQLQueries.UPDATE_POLICY_DATA_ORDER)) {
+                            prepStmt.setInt(1, policyDataDTO.getPolicyOrder());
+                            prepStmt.setString(2, policyId);
+                            prepStmt.setInt(3, tenantId);
+                            prepStmt.executeUpdate();
+                        }
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        }
+    }
+
+    private void persistConfig(String key, String value, int tenantId) throws SQLException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                int updated;
+                try (PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.UPDATE_CONFIG)) {
+                    prepStmt.setString(1, value);
+                    prepStmt.setString(2, key);
+                    prepStmt.setInt(3, tenantId);
+                    updated = prepStmt.executeUpdate();
+                }
+                if (updated == 0) {
+                    try (PreparedStatement prepStmt = connection.prepareStatement(
+                            PolicyStoreSQLQueries.INSERT_CONFIG)) {
+                        prepStmt.setString(1, key);
+                        prepStmt.setString(2, value);
+                        prepStmt.setInt(3, tenantId);
+                        prepStmt.executeUpdate();
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        }
+    }
+
+    private boolean isPolicyDataExist(Connection connection, String policyId, int tenantId) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_POLICY_DATA)) {
+            prepStmt.setString(1, policyId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private String getConfig(String key) throws EntitlementException {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_CONFIG)) {
+            prepStmt.setString(1, key);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new EntitlementException("Error while reading " + key + " from policy data store", e);
+        }
+    }
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.policy.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+import org.wso2.carbon.identity.entitlement.EntitlementUtil;
+import org.wso2.carbon.identity.entitlement.dto.AttributeDTO;
+import org.wso2.carbon.identity.entitlement.dto.PolicyStoreDTO;
+import org.wso2.carbon.identity.entitlement.policy.finder.AbstractPolicyFinderModule;
+import org.wso2.carbon.identity.entitlement.policy.finder.PolicyFinderModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Policy store which keeps the PDP policies in the identity database instead of the registry.
+ * <p>
+ * Policies are kept in IDN_XACML_POLICY along with their version, status and order, and their metadata in
+ * IDN_XACML_POLICY_ATTRIBUTE, so active policies, ordered identifiers and search attributes are each loaded with a
+ * single query rather than by traversing and parsing every policy resource.
+ */
+public class JDBCPolicyStoreManageModule extends AbstractPolicyFinderModule implements PolicyStoreManageModule {
+
+    private static final String MODULE_NAME = "JDBC Policy Finder Module";
+    private static final String ACTIVE = "1";
+    private static final String INACTIVE = "0";
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_STATE = "23000";
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+    // MySQL ER_DUP_ENTRY, Oracle ORA-00001 and MSSQL unique constraint and unique index violations.
+    private static final int[] UNIQUE_VIOLATION_ERROR_CODES = {1062, 1, 2627, 2601};
+    private static final String ATTRIBUTE_VALUE_HASH_ALGORITHM = "SHA-256";
+    private static final Log log = LogFactory.getLog(JDBCPolicyStoreManageModule.class);
+
+    @Override
+    public void init(Properties properties) {
+
+    }
+
+    @Override
+    public void addPolicy(PolicyStoreDTO policy) throws EntitlementException {
+
+        if (policy == null || StringUtils.isBlank(policy.getPolicyId())) {
+            throw new EntitlementException("Policy can not be null");
+        }
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            try {
+                persistPolicy(policy, tenantId);
+            } catch (SQLException e) {
+                if (!isDuplicateEntry(e)) {
+                    throw e;
+                }
+                // The policy was added by a concurrent request after it was looked up. Persisting it again updates
+                // the added policy.
+                if (log.isDebugEnabled()) {
+                    log.debug("Policy " + policy.getPolicyId() + " was added concurrently. Updating the policy.");
+                }
+                persistPolicy(policy, tenantId);
+            }
+        } catch (SQLException e) {
+            log.error("Error while persisting policy", e);
+            throw new EntitlementException("Error while persisting policy", e);
+        }
+    }
+
+    @Override
+    public boolean isPolicyExist(String policyId) {
+
+        if (StringUtils.isBlank(policyId)) {
+            return false;
+        }
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            return getPolicyVersion(connection, policyId, tenantId) >= 0;
+        } catch (SQLException e) {
+            log.error("Error while checking the existence of policy " + policyId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void updatePolicy(PolicyStoreDTO policy) throws EntitlementException {
+
+        addPolicy(policy);
+    }
+
+    @Override
+    public boolean deletePolicy(String policyIdentifier) {
+
+        if (StringUtils.isBlank(policyIdentifier)) {
+            return false;
+        }
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                executeUpdate(connection, PolicyStoreSQLQueries.DELETE_POLICY_ATTRIBUTES, null, policyIdentifier,
+                        tenantId);
+                executeUpdate(connection, PolicyStoreSQLQueries.DELETE_POLICY, null, policyIdentifier, tenantId);
+                IdentityDatabaseUtil.commitTransaction(connection);
+                return true;
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            log.error("Error while deleting policy " + policyIdentifier, e);
+            return false;
+        }
+    }
+
+    @Override
+    public String getModuleName() {
+
+        return MODULE_NAME;
+    }
+
+    @Override
+    public String getPolicy(String policyId) {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_POLICY)) {
+            prepStmt.setString(1, policyId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next()) {
+                    return readPolicy(resultSet, 1);
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Policy with identifier " + policyId + " can not be retrieved " +
+                    "from JDBC policy finder module", e);
+        }
+        return null;
+    }
+
+    @Override
+    public int getPolicyOrder(String policyId) {
+
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_POLICY)) {
+            prepStmt.setString(1, policyId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt(4);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Policy with identifier " + policyId + " can not be retrieved " +
+                    "from JDBC policy finder module", e);
+        }
+        return -1;
+    }
+
+    @Override
+    public String[] getActivePolicies() {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieving active policies from the JDBC policy finder module.");
+        }
+        List<String> policies = new ArrayList<>();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_ACTIVE_POLICIES)) {
+            prepStmt.setInt(1, tenantId);
+            prepStmt.setString(2, ACTIVE);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    String policy = readPolicy(resultSet, 1);
+                    if (policy != null) {
+                        policies.add(policy);
+                    }
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Policies can not be retrieved from JDBC policy finder module", e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieved " + policies.size() + " active policies from the JDBC policy finder module.");
+        }
+        return policies.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getOrderedPolicyIdentifiers() {
+
+        return getPolicyIdentifiers(PolicyStoreSQLQueries.GET_ORDERED_POLICY_IDS, null);
+    }
+
+    @Override
+    public String[] getPolicyIdentifiers() {
+
+        return getPolicyIdentifiers(PolicyStoreSQLQueries.GET_POLICY_IDS, null);
+    }
+
+    /**
+     * Get the identifiers of the policies which have the given attribute value in their metadata. This is served
+     * from the attribute value index, without loading the policies.
+     *
+     * @param attributeValue Attribute value.
+     * @return Policy identifiers.
+     */
+    public String[] getPolicyIdentifiers(String attributeValue) {
+
+        if (StringUtils.isBlank(attributeValue)) {
+            return new String[0];
+        }
+        return getPolicyIdentifiers(PolicyStoreSQLQueries.GET_POLICY_IDS_BY_ATTRIBUTE_VALUE_HASH, attributeValue);
+    }
+
+    @Override
+    public String getReferencedPolicy(String policyId) {
+
+        // Retrieve for policies that are not active.
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_POLICY)) {
+            prepStmt.setString(1, policyId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next() && !ACTIVE.equals(resultSet.getString(3))) {
+                    return readPolicy(resultSet, 1);
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("Error while retrieving reference policy " + policyId, e);
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, Set<AttributeDTO>> getSearchAttributes(String identifier, Set<AttributeDTO> givenAttribute) {
+
+        Map<String, Set<AttributeDTO>> attributeMap = new HashMap<>();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     PolicyStoreSQLQueries.GET_ACTIVE_POLICY_ATTRIBUTES)) {
+            prepStmt.setInt(1, tenantId);
+            prepStmt.setString(2, ACTIVE);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    Set<AttributeDTO> attributeDTOs = attributeMap.computeIfAbsent(resultSet.getString(1),
+                            k -> new HashSet<>());
+                    String category = resultSet.getString(2);
+                    if (category == null) {
+                        // Active policy without any stored metadata.
+                        continue;
+                    }
+                    AttributeDTO attributeDTO = new AttributeDTO();
+                    attributeDTO.setCategory(category);
+                    attributeDTO.setAttributeId(resultSet.getString(3));
+                    attributeDTO.setAttributeValue(resultSet.getString(4));
+                    attributeDTO.setAttributeDataType(resultSet.getString(5));
+                    attributeDTOs.add(attributeDTO);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Policies can not be retrieved from JDBC policy finder module", e);
+            return null;
+        }
+        return attributeMap;
+    }
+
+    @Override
+    public int getSupportedSearchAttributesScheme() {
+
+        return PolicyFinderModule.COMBINATIONS_BY_CATEGORY_AND_PARAMETER;
+    }
+
+    @Override
+    public boolean isDefaultCategoriesSupported() {
+
+        return true;
+    }
+
+    @Override
+    public boolean isPolicyOrderingSupport() {
+
+        return true;
+    }
+
+    @Override
+    public boolean isPolicyDeActivationSupport() {
+
+        return true;
+    }
+
+    private String[] getPolicyIdentifiers(String query, String attributeValue) {
+
+        Set<String> policyIds = new LinkedHashSet<>();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(query)) {
+            prepStmt.setInt(1, tenantId);
+            if (attributeValue != null) {
+                prepStmt.setString(2, getAttributeValueHash(attributeValue));
+            }
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    // Attribute values are looked up by their hash, so the value is compared to rule out collisions.
+                    if (attributeValue == null || attributeValue.equals(resultSet.getString(2))) {
+                        policyIds.add(resultSet.getString(1));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Policy identifiers can not be retrieved from JDBC policy finder module", e);
+        }
+        return policyIds.toArray(new String[0]);
+    }
+
+    private void persistPolicy(PolicyStoreDTO policy, int tenantId) throws SQLException {
+
+        String policyId = policy.getPolicyId();
+        boolean hasContent = StringUtils.isNotBlank(policy.getPolicy());
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                int version = getPolicyVersion(connection, policyId, tenantId);
+                if (version < 0) {
+                    if (!hasContent) {
+                        log.info("Prevented adding null content to policy " + policyId);
+                        IdentityDatabaseUtil.rollbackTransaction(connection);
+                        return;
+                    }
+                    insertPolicy(connection, policy, tenantId);
+                } else {
+                    if (hasContent) {
+                        updatePolicyContent(connection, policy, version + 1, tenantId);
+                    }
+                    if (policy.isSetActive()) {
+                        executeUpdate(connection, PolicyStoreSQLQueries.UPDATE_POLICY_ACTIVE,
+                                policy.isActive() ? ACTIVE : INACTIVE, policyId, tenantId);
+                    }
+                    if (policy.isSetOrder() && policy.getPolicyOrder() > 0) {
+                        executeUpdate(connection, PolicyStoreSQLQueries.UPDATE_POLICY_ORDER,
+                                policy.getPolicyOrder(), policyId, tenantId);
+                    }
+                }
+                if (hasContent) {
+                    replacePolicyAttributes(connection, policy, tenantId);
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Check whether the given exception is caused by inserting a row with an existing primary key, which happens
+     * when a concurrent request inserts the same row after it was looked up.
+     *
+     * @param e SQL exception.
+     * @return True if the exception is a duplicate key violation.
+     */
+    static boolean isDuplicateEntry(SQLException e) {
+
+        // Other integrity constraint violations, such as a missing foreign key, share the SQL state class 23 and
+        // must not be retried. H2, PostgreSQL and DB2 report unique violations with their own SQL state, while
+        // MySQL, Oracle and MSSQL report the generic 23000 state with a vendor error code.
+        if (UNIQUE_VIOLATION_STATE.equals(e.getSQLState())) {
+            return true;
+        }
+        if (!INTEGRITY_CONSTRAINT_VIOLATION_STATE.equals(e.getSQLState())) {
+            return false;
+        }
+        for (int errorCode : UNIQUE_VIOLATION_ERROR_CODES) {
+            if (e.getErrorCode() == errorCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Attribute values are indexed by their hash, since the values can be longer than what databases can index.
+     *
+     * @param attributeValue Attribute value.
+     * @return Hash of the attribute value, or null if the value is null.
+     */
+    static String getAttributeValueHash(String attributeValue) {
+
+        if (attributeValue == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance(ATTRIBUTE_VALUE_HASH_ALGORITHM)
+                    .digest(attributeValue.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("Error while computing the hash of the attribute value.", e);
+        }
+    }
+
+    private int getPolicyVersion(Connection connection, String policyId, int tenantId) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.GET_POLICY_VERSION)) {
+            prepStmt.setString(1, policyId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : -1;
+            }
+        }
+    }
+
+    private void insertPolicy(Connection connection, PolicyStoreDTO policy, int tenantId) throws SQLException {
+
+        byte[] content = policy.getPolicy().getBytes(StandardCharsets.UTF_8);
+        try (PreparedStatement prepStmt = connection.prepareStatement(PolicyStoreSQLQueries.INSERT_POLICY)) {
+            prepStmt.setString(1, policy.getPolicyId());
+            prepStmt.setInt(2, tenantId);
+            prepStmt.setInt(3, 1);
+            prepStmt.setString(4, policy.isSetActive() && policy.isActive() ? ACTIVE : INACTIVE);
+            prepStmt.setInt(5, policy.isSetOrder() && policy.getPolicyOrder() > 0 ? policy.getPolicyOrder() : 0);
+            prepStmt.setBinaryStream(6, new ByteArrayInputStream(content), content.length);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private void updatePolicyContent(Connection connection, PolicyStoreDTO policy, int version, int tenantId)
+            throws SQLException {
+
+        byte[] content = policy.getPolicy().getBytes(StandardCharsets.UTF_8);
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                PolicyStoreSQLQueries.UPDATE_POLICY_CONTENT)) {
+            prepStmt.setBinaryStream(1, new ByteArrayInputStream(content), content.length);
+            prepStmt.setInt(2, version);
+            prepStmt.setString(3, policy.getPolicyId());
+            prepStmt.setInt(4, tenantId);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private void replacePolicyAttributes(Connection connection, PolicyStoreDTO policy, int tenantId)
+            throws SQLException {
+
+        executeUpdate(connection, PolicyStoreSQLQueries.DELETE_POLICY_ATTRIBUTES, null, policy.getPolicyId(),
+                tenantId);
+        AttributeDTO[] attributeDTOs = policy.getAttributeDTOs();
+        // Store policy metadata based on the configured property.
+        if (attributeDTOs == null || attributeDTOs.length == 0 || !EntitlementUtil.isPolicyMetadataStoringEnabled()) {
+            return;
+        }
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                PolicyStoreSQLQueries.INSERT_POLICY_ATTRIBUTE)) {
+            for (AttributeDTO attributeDTO : attributeDTOs) {
+                prepStmt.setString(1, policy.getPolicyId());
+                prepStmt.setInt(2, tenantId);
+                prepStmt.setString(3, attributeDTO.getCategory());
+                prepStmt.setString(4, attributeDTO.getAttributeId());
+                prepStmt.setString(5, attributeDTO.getAttributeValue());
+                prepStmt.setString(6, getAttributeValueHash(attributeDTO.getAttributeValue()));
+                prepStmt.setString(7, attributeDTO.getAttributeDataType());
+                prepStmt.addBatch();
+            }
+            prepStmt.executeBatch();
+        }
+    }
+
+    private void executeUpdate(Connection connection, String query, Object value, String policyId, int tenantId)
+            throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(query)) {
+            int index = 1;
+            if (value instanceof Integer) {
+                prepStmt.setInt(index++, (Integer) value);
+            } else if (value != null) {
+                prepStmt.setString(index++, value.toString());
+            }
+            prepStmt.setString(index++, policyId);
+            prepStmt.setInt(index, tenantId);
+            prepStmt.executeUpdate();
+        }
+    }
+
+    private String readPolicy(ResultSet resultSet, int columnIndex) throws SQLException, IOException {
+
+        try (InputStream inputStream = resultSet.getBinaryStream(columnIndex)) {
+            if (inputStream == null) {
+                return null;
+            }
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+            return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
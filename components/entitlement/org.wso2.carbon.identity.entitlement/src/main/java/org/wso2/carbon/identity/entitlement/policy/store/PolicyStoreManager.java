@@ -27,6 +27,7 @@ import org.wso2.carbon.identity.entitlement.dto.PolicyStoreDTO;
 import org.wso2.carbon.identity.entitlement.internal.EntitlementServiceComponent;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -176,12 +177,22 @@ public class PolicyStoreManager {
         List<PolicyDTO> policyDTOs = new ArrayList<PolicyDTO>();
         String[] policies = policyStoreStore.getOrderedPolicyIdentifiers();
         if (policies != null) {
+            // Load the data of all the policies at once, instead of reading them one by one.
+            Map<String, PolicyStoreDTO> storeDTOs = new HashMap<String, PolicyStoreDTO>();
+            PolicyStoreDTO[] allPolicyData = policyDataStore.getPolicyData();
+            if (allPolicyData != null) {
+                for (PolicyStoreDTO storeDTO : allPolicyData) {
+                    storeDTOs.put(storeDTO.getPolicyId(), storeDTO);
+                }
+            }
             for (String policy : policies) {
                 PolicyDTO policyDTO = new PolicyDTO();
                 policyDTO.setPolicyId(policy);
-                PolicyStoreDTO storeDTO = policyDataStore.getPolicyData(policy);
-                policyDTO.setActive(storeDTO.isActive());
-                policyDTO.setPolicyOrder(storeDTO.getPolicyOrder());
+                PolicyStoreDTO storeDTO = storeDTOs.get(policy);
+                if (storeDTO != null) {
+                    policyDTO.setActive(storeDTO.isActive());
+                    policyDTO.setPolicyOrder(storeDTO.getPolicyOrder());
+                }
                 policyDTOs.add(policyDTO);
             }
         }
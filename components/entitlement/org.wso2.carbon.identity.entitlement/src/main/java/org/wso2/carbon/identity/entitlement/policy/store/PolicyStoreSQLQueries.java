@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.policy.store;
+
+/**
+ * SQL queries used by the JDBC based policy store and policy data store.
+ */
+public class PolicyStoreSQLQueries {
+
+    // IDN_XACML_POLICY
+    public static final String GET_POLICY = "SELECT POLICY, VERSION, IS_ACTIVE, POLICY_ORDER FROM " +
+            "IDN_XACML_POLICY WHERE POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String GET_POLICY_VERSION = "SELECT VERSION FROM IDN_XACML_POLICY WHERE POLICY_ID = ? " +
+            "AND TENANT_ID = ?";
+    public static final String GET_ACTIVE_POLICIES = "SELECT POLICY FROM IDN_XACML_POLICY WHERE TENANT_ID = ? " +
+            "AND IS_ACTIVE = ? ORDER BY POLICY_ORDER DESC";
+    public static final String GET_ORDERED_POLICY_IDS = "SELECT POLICY_ID FROM IDN_XACML_POLICY WHERE " +
+            "TENANT_ID = ? ORDER BY POLICY_ORDER DESC";
+    public static final String GET_POLICY_IDS = "SELECT POLICY_ID FROM IDN_XACML_POLICY WHERE TENANT_ID = ?";
+    public static final String GET_POLICY_IDS_BY_ATTRIBUTE_VALUE_HASH = "SELECT POLICY_ID, ATTRIBUTE_VALUE FROM " +
+            "IDN_XACML_POLICY_ATTRIBUTE WHERE TENANT_ID = ? AND ATTRIBUTE_VALUE_HASH = ?";
+    public static final String INSERT_POLICY = "INSERT INTO IDN_XACML_POLICY (POLICY_ID, TENANT_ID, VERSION, " +
+            "IS_ACTIVE, POLICY_ORDER, POLICY) VALUES (?, ?, ?, ?, ?, ?)";
+    public static final String UPDATE_POLICY_CONTENT = "UPDATE IDN_XACML_POLICY SET POLICY = ?, VERSION = ? " +
+            "WHERE POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String UPDATE_POLICY_ACTIVE = "UPDATE IDN_XACML_POLICY SET IS_ACTIVE = ? WHERE " +
+            "POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String UPDATE_POLICY_ORDER = "UPDATE IDN_XACML_POLICY SET POLICY_ORDER = ? WHERE " +
+            "POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String DELETE_POLICY = "DELETE FROM IDN_XACML_POLICY WHERE POLICY_ID = ? AND TENANT_ID = ?";
+
+    // IDN_XACML_POLICY_ATTRIBUTE
+    public static final String GET_ACTIVE_POLICY_ATTRIBUTES = "SELECT P.POLICY_ID, A.CATEGORY, A.ATTRIBUTE_ID, " +
+            "A.ATTRIBUTE_VALUE, A.DATA_TYPE FROM IDN_XACML_POLICY P LEFT OUTER JOIN IDN_XACML_POLICY_ATTRIBUTE A " +
+            "ON P.POLICY_ID = A.POLICY_ID AND P.TENANT_ID = A.TENANT_ID WHERE P.TENANT_ID = ? AND P.IS_ACTIVE = ?";
+    public static final String INSERT_POLICY_ATTRIBUTE = "INSERT INTO IDN_XACML_POLICY_ATTRIBUTE (POLICY_ID, " +
+            "TENANT_ID, CATEGORY, ATTRIBUTE_ID, ATTRIBUTE_VALUE, ATTRIBUTE_VALUE_HASH, DATA_TYPE) VALUES " +
+            "(?, ?, ?, ?, ?, ?, ?)";
+    public static final String DELETE_POLICY_ATTRIBUTES = "DELETE FROM IDN_XACML_POLICY_ATTRIBUTE WHERE " +
+            "POLICY_ID = ? AND TENANT_ID = ?";
+
+    // IDN_XACML_POLICY_DATA
+    public static final String GET_POLICY_DATA = "SELECT IS_ACTIVE, POLICY_ORDER FROM IDN_XACML_POLICY_DATA " +
+            "WHERE POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String GET_ALL_POLICY_DATA = "SELECT POLICY_ID, IS_ACTIVE, POLICY_ORDER FROM " +
+            "IDN_XACML_POLICY_DATA WHERE TENANT_ID = ?";
+    public static final String INSERT_POLICY_DATA = "INSERT INTO IDN_XACML_POLICY_DATA (POLICY_ID, TENANT_ID, " +
+            "IS_ACTIVE, POLICY_ORDER) VALUES (?, ?, ?, ?)";
+    public static final String UPDATE_POLICY_DATA_ACTIVE = "UPDATE IDN_XACML_POLICY_DATA SET IS_ACTIVE = ? " +
+            "WHERE POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String UPDATE_POLICY_DATA_ORDER = "UPDATE IDN_XACML_POLICY_DATA SET POLICY_ORDER = ? " +
+            "WHERE POLICY_ID = ? AND TENANT_ID = ?";
+    public static final String DELETE_POLICY_DATA = "DELETE FROM IDN_XACML_POLICY_DATA WHERE POLICY_ID = ? AND " +
+            "TENANT_ID = ?";
+
+    // IDN_XACML_CONFIG
+    public static final String GET_CONFIG = "SELECT CONFIG_VALUE FROM IDN_XACML_CONFIG WHERE CONFIG_KEY = ? AND " +
+            "TENANT_ID = ?";
+    public static final String INSERT_CONFIG = "INSERT INTO IDN_XACML_CONFIG (CONFIG_KEY, CONFIG_VALUE, " +
+            "TENANT_ID) VALUES (?, ?, ?)";
+    public static final String UPDATE_CONFIG = "UPDATE IDN_XACML_CONFIG SET CONFIG_VALUE = ? WHERE " +
+            "CONFIG_KEY = ? AND TENANT_ID = ?";
+
+    private PolicyStoreSQLQueries() {
+
+    }
+}
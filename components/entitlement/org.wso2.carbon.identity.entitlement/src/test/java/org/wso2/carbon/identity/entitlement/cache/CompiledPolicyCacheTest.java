@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.balana.Balana;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementConfigHolder;
+import org.wso2.carbon.identity.entitlement.policy.PolicyReader;
+
+import java.lang.reflect.Field;
+import java.util.Properties;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CompiledPolicyCache}.
+ */
+public class CompiledPolicyCacheTest {
+
+    private static final String POLICY = "<Policy xmlns=\"urn:oasis:names:tc:xacml:3.0:core:schema:wd-17\" " +
+            "PolicyId=\"%s\" RuleCombiningAlgId=\"urn:oasis:names:tc:xacml:3.0:rule-combining-algorithm:" +
+            "deny-overrides\" Version=\"1.0\"><Target/><Rule Effect=\"Permit\" RuleId=\"rule\"/></Policy>";
+
+    private Properties engineProperties;
+
+    @BeforeClass
+    public void initBalana() {
+
+        Balana.getInstance();
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        engineProperties = EntitlementConfigHolder.getInstance().getEngineProperties();
+        resetInstance();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+
+        EntitlementConfigHolder.getInstance().setEngineProperties(engineProperties);
+        resetInstance();
+    }
+
+    @Test
+    public void testPolicyIsCachedByContent() {
+
+        CompiledPolicyCache cache = new CompiledPolicyCache(10);
+        AbstractPolicy policy = mock(AbstractPolicy.class);
+        String policyXml = String.format(POLICY, "policy1");
+
+        cache.put(policyXml, policy);
+
+        // An equal policy read again, e.g. from the store of another tenant, is a different String instance.
+        assertSame(cache.get(new String(policyXml)), policy);
+        assertNull(cache.get(String.format(POLICY, "policy2")));
+        assertNull(cache.get(policyXml.replace("Permit", "Deny")));
+    }
+
+    @Test
+    public void testParsedPolicyIsSharedAcrossTenants() throws Exception {
+
+        setCacheSize("10");
+        String policyXml = String.format(POLICY, "sharedPolicy");
+        PolicyReader policyReader = PolicyReader.getInstance(null);
+
+        // The same policy published to two tenants is read from the store of each tenant.
+        AbstractPolicy firstTenantPolicy = policyReader.getPolicy(new String(policyXml));
+        AbstractPolicy secondTenantPolicy = policyReader.getPolicy(new String(policyXml));
+
+        assertNotNull(firstTenantPolicy);
+        assertSame(secondTenantPolicy, firstTenantPolicy);
+        assertNotSame(policyReader.getPolicy(String.format(POLICY, "otherPolicy")), firstTenantPolicy);
+    }
+
+    @Test
+    public void testZeroSizeDisablesCache() throws Exception {
+
+        setCacheSize("0");
+        CompiledPolicyCache cache = CompiledPolicyCache.getInstance();
+        String policyXml = String.format(POLICY, "policy1");
+
+        cache.put(policyXml, mock(AbstractPolicy.class));
+
+        assertNull(cache.get(policyXml));
+        AbstractPolicy firstParse = PolicyReader.getInstance(null).getPolicy(policyXml);
+        assertNotNull(firstParse);
+        assertNotSame(PolicyReader.getInstance(null).getPolicy(policyXml), firstParse);
+    }
+
+    @Test
+    public void testCacheIsBoundedBySize() {
+
+        CompiledPolicyCache cache = new CompiledPolicyCache(2);
+        for (int i = 0; i < 10; i++) {
+            cache.put(String.format(POLICY, "policy" + i), mock(AbstractPolicy.class));
+        }
+
+        int cachedPolicies = 0;
+        for (int i = 0; i < 10; i++) {
+            if (cache.get(String.format(POLICY, "policy" + i)) != null) {
+                cachedPolicies++;
+            }
+        }
+        assertTrue(cachedPolicies <= 2, "Cache kept " + cachedPolicies + " policies.");
+        assertNotNull(cache.get(String.format(POLICY, "policy9")));
+    }
+
+    private void setCacheSize(String cacheSize) throws Exception {
+
+        Properties properties = new Properties();
+        properties.setProperty(PDPConstants.COMPILED_POLICY_CACHE_SIZE, cacheSize);
+        EntitlementConfigHolder.getInstance().setEngineProperties(properties);
+        resetInstance();
+    }
+
+    private static void resetInstance() throws Exception {
+
+        Field instance = CompiledPolicyCache.class.getDeclaredField("instance");
+        instance.setAccessible(true);
+        instance.set(null, null);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LocalDecisionCache}.
+ */
+public class LocalDecisionCacheTest {
+
+    private static final String KEY = "-1234+request";
+    private static final String DECISION = "Permit";
+
+    @Test
+    public void testGetCachedDecision() {
+
+        LocalDecisionCache cache = new LocalDecisionCache(10, 60);
+
+        cache.put(KEY, DECISION, cache.getPolicyVersion());
+
+        assertEquals(cache.get(KEY), DECISION);
+        assertNull(cache.get("-1234+otherRequest"));
+    }
+
+    @Test
+    public void testInvalidateOnPolicyVersionChange() {
+
+        LocalDecisionCache cache = new LocalDecisionCache(10, 60);
+        long policyVersion = cache.getPolicyVersion();
+        cache.put(KEY, DECISION, policyVersion);
+
+        cache.invalidate();
+
+        assertEquals(cache.getPolicyVersion(), policyVersion + 1);
+        assertNull(cache.get(KEY));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testDecisionEvaluatedBeforeInvalidationIsNotStored() {
+
+        LocalDecisionCache cache = new LocalDecisionCache(10, 60);
+        // The policy version is read before the evaluation, and the policies change while it is in progress.
+        long policyVersion = cache.getPolicyVersion();
+        cache.invalidate();
+
+        cache.put(KEY, DECISION, policyVersion);
+
+        assertNull(cache.get(KEY));
+        assertEquals(cache.size(), 0);
+
+        cache.put(KEY, "Deny", cache.getPolicyVersion());
+        assertEquals(cache.get(KEY), "Deny");
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+
+        LocalDecisionCache cache = new LocalDecisionCache(10, 60);
+
+        for (int i = 0; i < 25; i++) {
+            cache.put(KEY + i, DECISION, cache.getPolicyVersion());
+        }
+
+        assertTrue(cache.size() <= 10);
+        assertEquals(cache.get(KEY + 24), DECISION);
+    }
+}
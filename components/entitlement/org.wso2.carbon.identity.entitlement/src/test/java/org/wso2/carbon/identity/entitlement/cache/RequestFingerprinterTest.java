@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.cache;
+
+import org.testng.annotations.Test;
+import org.wso2.balana.XACMLConstants;
+import org.wso2.balana.attr.AttributeValue;
+import org.wso2.balana.attr.StringAttribute;
+import org.wso2.balana.ctx.Attribute;
+import org.wso2.balana.ctx.xacml3.RequestCtx;
+import org.wso2.balana.xacml3.Attributes;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Unit tests for {@link RequestFingerprinter}.
+ */
+public class RequestFingerprinterTest {
+
+    private static final String SUBJECT_CATEGORY = "urn:oasis:names:tc:xacml:1.0:subject-category:access-subject";
+    private static final String RESOURCE_CATEGORY = "urn:oasis:names:tc:xacml:3.0:attribute-category:resource";
+    private static final String SUBJECT_ID = "urn:oasis:names:tc:xacml:1.0:subject:subject-id";
+    private static final String ROLE_ID = "http://wso2.org/claims/role";
+    private static final String RESOURCE_ID = "urn:oasis:names:tc:xacml:1.0:resource:resource-id";
+    private static final String STRING_TYPE = "http://www.w3.org/2001/XMLSchema#string";
+
+    private static final String REQUEST =
+            "<Request xmlns=\"urn:oasis:names:tc:xacml:3.0:core:schema:wd-17\" CombinedDecision=\"false\" " +
+                    "ReturnPolicyIdList=\"false\">" +
+            "<Attributes Category=\"" + SUBJECT_CATEGORY + "\">" +
+            "<Attribute AttributeId=\"" + SUBJECT_ID + "\" IncludeInResult=\"false\">" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">alice</AttributeValue></Attribute>" +
+            "<Attribute AttributeId=\"" + ROLE_ID + "\" IncludeInResult=\"false\">" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">admin</AttributeValue>" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">manager</AttributeValue></Attribute>" +
+            "</Attributes>" +
+            "<Attributes Category=\"" + RESOURCE_CATEGORY + "\">" +
+            "<Attribute AttributeId=\"" + RESOURCE_ID + "\" IncludeInResult=\"false\">" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">/orders</AttributeValue></Attribute>" +
+            "</Attributes></Request>";
+
+    @Test
+    public void testFingerprintIgnoresFormattingAndOrderOfBags() {
+
+        // Reordered XML attributes, attributes within a category, attribute values, a namespace prefix and
+        // formatting whitespace.
+        String equivalentRequest =
+                "<x:Request xmlns:x=\"urn:oasis:names:tc:xacml:3.0:core:schema:wd-17\" " +
+                        "ReturnPolicyIdList=\"false\" CombinedDecision=\"false\">\n" +
+                "  <x:Attributes Category=\"" + SUBJECT_CATEGORY + "\">\n" +
+                "    <x:Attribute IncludeInResult=\"false\" AttributeId=\"" + ROLE_ID + "\">\n" +
+                "      <x:AttributeValue DataType=\"" + STRING_TYPE + "\">manager</x:AttributeValue>\n" +
+                "      <x:AttributeValue DataType=\"" + STRING_TYPE + "\">admin</x:AttributeValue>\n" +
+                "    </x:Attribute>\n" +
+                "    <x:Attribute IncludeInResult=\"false\" AttributeId=\"" + SUBJECT_ID + "\">\n" +
+                "      <x:AttributeValue DataType=\"" + STRING_TYPE + "\">alice</x:AttributeValue>\n" +
+                "    </x:Attribute>\n" +
+                "  </x:Attributes>\n" +
+                "  <x:Attributes Category=\"" + RESOURCE_CATEGORY + "\">\n" +
+                "    <x:Attribute IncludeInResult=\"false\" AttributeId=\"" + RESOURCE_ID + "\">\n" +
+                "      <x:AttributeValue DataType=\"" + STRING_TYPE + "\">/orders</x:AttributeValue>\n" +
+                "    </x:Attribute>\n" +
+                "  </x:Attributes>\n" +
+                "</x:Request>";
+
+        String fingerprint = RequestFingerprinter.getFingerprint(REQUEST);
+
+        assertNotNull(fingerprint);
+        assertEquals(RequestFingerprinter.getFingerprint(equivalentRequest), fingerprint);
+    }
+
+    @Test
+    public void testFingerprintOfParsedRequestMatchesFingerprintOfString() {
+
+        assertEquals(RequestFingerprinter.getFingerprint(RequestFingerprinter.parseRequest(REQUEST)),
+                RequestFingerprinter.getFingerprint(REQUEST));
+    }
+
+    @Test
+    public void testFingerprintDiffersForDifferentRequests() {
+
+        String otherSubject = REQUEST.replace(">alice<", ">bob<");
+        // The same values, but "alice" is a role and "admin" is the subject.
+        String swappedValues = REQUEST.replace(">alice<", ">%<").replace(">admin<", ">alice<")
+                .replace(">%<", ">admin<");
+
+        String fingerprint = RequestFingerprinter.getFingerprint(REQUEST);
+
+        assertNotEquals(RequestFingerprinter.getFingerprint(otherSubject), fingerprint);
+        assertNotEquals(RequestFingerprinter.getFingerprint(swappedValues), fingerprint);
+    }
+
+    @Test
+    public void testDigestIsSha256() throws Exception {
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest("value".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(RequestFingerprinter.getDigest("value"),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(expected));
+        // 256 bit digests encoded without padding.
+        assertEquals(RequestFingerprinter.getFingerprint(REQUEST).length(), 43);
+    }
+
+    @Test
+    public void testFingerprintOfInvalidRequest() {
+
+        assertNull(RequestFingerprinter.getFingerprint((String) null));
+        assertNull(RequestFingerprinter.getFingerprint("{\"Request\":{}}"));
+        assertNull(RequestFingerprinter.getFingerprint("<Request><Attributes></Request>"));
+    }
+
+    @Test
+    public void testFingerprintOfRequestContextIgnoresOrderOfBags() throws Exception {
+
+        RequestCtx requestCtx = createRequestCtx(false,
+                createAttributes(SUBJECT_CATEGORY, createAttribute(SUBJECT_ID, "alice"),
+                        createAttribute(ROLE_ID, "admin", "manager")),
+                createAttributes(RESOURCE_CATEGORY, createAttribute(RESOURCE_ID, "/orders")));
+        RequestCtx reorderedRequestCtx = createRequestCtx(false,
+                createAttributes(RESOURCE_CATEGORY, createAttribute(RESOURCE_ID, "/orders")),
+                createAttributes(SUBJECT_CATEGORY, createAttribute(ROLE_ID, "manager", "admin"),
+                        createAttribute(SUBJECT_ID, "alice")));
+
+        String fingerprint = RequestFingerprinter.getFingerprint(requestCtx);
+
+        assertNotNull(fingerprint);
+        assertEquals(RequestFingerprinter.getFingerprint(reorderedRequestCtx), fingerprint);
+    }
+
+    @Test
+    public void testFingerprintOfRequestContextDiffersForDifferentRequests() throws Exception {
+
+        String fingerprint = RequestFingerprinter.getFingerprint(createRequestCtx(false,
+                createAttributes(SUBJECT_CATEGORY, createAttribute(SUBJECT_ID, "alice"))));
+
+        assertNotEquals(RequestFingerprinter.getFingerprint(createRequestCtx(false,
+                createAttributes(SUBJECT_CATEGORY, createAttribute(SUBJECT_ID, "bob")))), fingerprint);
+        assertNotEquals(RequestFingerprinter.getFingerprint(createRequestCtx(false,
+                createAttributes(RESOURCE_CATEGORY, createAttribute(SUBJECT_ID, "alice")))), fingerprint);
+        assertNotEquals(RequestFingerprinter.getFingerprint(createRequestCtx(true,
+                createAttributes(SUBJECT_CATEGORY, createAttribute(SUBJECT_ID, "alice")))), fingerprint);
+    }
+
+    private static RequestCtx createRequestCtx(boolean returnPolicyIdList, Attributes... attributes) {
+
+        Set<Attributes> attributesSet = new LinkedHashSet<>(Arrays.asList(attributes));
+        return new RequestCtx(null, attributesSet, returnPolicyIdList, false, null, null);
+    }
+
+    private static Attributes createAttributes(String category, Attribute... attributes) throws Exception {
+
+        return new Attributes(new URI(category), null, new LinkedHashSet<>(Arrays.asList(attributes)), null);
+    }
+
+    private static Attribute createAttribute(String id, String... values) throws Exception {
+
+        AttributeValue[] attributeValues = new AttributeValue[values.length];
+        for (int i = 0; i < values.length; i++) {
+            attributeValues[i] = new StringAttribute(values[i]);
+        }
+        return new Attribute(new URI(id), new URI(STRING_TYPE), null, null, Arrays.asList(attributeValues), false,
+                XACMLConstants.XACML_VERSION_3_0);
+    }
+}
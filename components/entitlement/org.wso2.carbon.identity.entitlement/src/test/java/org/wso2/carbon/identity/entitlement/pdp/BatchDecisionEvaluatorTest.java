@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pdp;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.wso2.carbon.base.CarbonBaseConstants;
+import org.wso2.carbon.identity.entitlement.EntitlementException;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementConfigHolder;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link BatchDecisionEvaluator}.
+ */
+public class BatchDecisionEvaluatorTest {
+
+    private static final String SUBJECT_CATEGORY = "urn:oasis:names:tc:xacml:1.0:subject-category:access-subject";
+    private static final String RESOURCE_CATEGORY = "urn:oasis:names:tc:xacml:3.0:attribute-category:resource";
+    private static final String SUBJECT_ID = "urn:oasis:names:tc:xacml:1.0:subject:subject-id";
+    private static final String RESOURCE_ID = "urn:oasis:names:tc:xacml:1.0:resource:resource-id";
+    private static final String STRING_TYPE = "http://www.w3.org/2001/XMLSchema#string";
+    private static final String XACML_NAMESPACE = "urn:oasis:names:tc:xacml:3.0:core:schema:wd-17";
+
+    private static final String MULTI_REQUEST =
+            "<Request xmlns=\"" + XACML_NAMESPACE + "\" CombinedDecision=\"false\" ReturnPolicyIdList=\"false\">" +
+            "<Attributes Category=\"" + SUBJECT_CATEGORY + "\" xml:id=\"alice\">" +
+            "<Attribute AttributeId=\"" + SUBJECT_ID + "\" IncludeInResult=\"false\">" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">alice</AttributeValue></Attribute></Attributes>" +
+            "<Attributes Category=\"" + RESOURCE_CATEGORY + "\" xml:id=\"orders\">" +
+            "<Attribute AttributeId=\"" + RESOURCE_ID + "\" IncludeInResult=\"false\">" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">/orders</AttributeValue></Attribute></Attributes>" +
+            "<Attributes Category=\"" + RESOURCE_CATEGORY + "\" xml:id=\"invoices\">" +
+            "<Attribute AttributeId=\"" + RESOURCE_ID + "\" IncludeInResult=\"false\">" +
+            "<AttributeValue DataType=\"" + STRING_TYPE + "\">/invoices</AttributeValue></Attribute></Attributes>" +
+            "<MultiRequests>" +
+            "<RequestReference><AttributesReference ReferenceId=\"alice\"/>" +
+            "<AttributesReference ReferenceId=\"orders\"/></RequestReference>" +
+            "<RequestReference><AttributesReference ReferenceId=\"alice\"/>" +
+            "<AttributesReference ReferenceId=\"invoices\"/></RequestReference>" +
+            "<RequestReference><AttributesReference ReferenceId=\"alice\"/>" +
+            "<AttributesReference ReferenceId=\"orders\"/></RequestReference>" +
+            "</MultiRequests></Request>";
+
+    @BeforeClass
+    public void setUp() {
+
+        String carbonHome = Paths.get(System.getProperty("user.dir"), "target", "test-classes").toString();
+        System.setProperty(CarbonBaseConstants.CARBON_HOME, carbonHome);
+        System.setProperty(CarbonBaseConstants.CARBON_CONFIG_DIR_PATH, Paths.get(carbonHome, "conf").toString());
+        EntitlementConfigHolder.getInstance().setEngineProperties(new Properties());
+    }
+
+    @Test
+    public void testIdenticalRequestsAreEvaluatedOnce() throws Exception {
+
+        Map<String, AtomicInteger> evaluations = new ConcurrentHashMap<>();
+        List<String> responses = BatchDecisionEvaluator.evaluate(Arrays.asList("a", "b", "a", "c", "b"),
+                Function.identity(), request -> {
+                    evaluations.computeIfAbsent(request, k -> new AtomicInteger()).incrementAndGet();
+                    return request.toUpperCase();
+                });
+
+        assertEquals(responses, Arrays.asList("A", "B", "A", "C", "B"));
+        assertEquals(evaluations.size(), 3);
+        for (AtomicInteger count : evaluations.values()) {
+            assertEquals(count.get(), 1);
+        }
+    }
+
+    @Test
+    public void testRequestsWithoutKeyAreEvaluatedSeparately() throws Exception {
+
+        AtomicInteger evaluations = new AtomicInteger();
+        List<String> responses = BatchDecisionEvaluator.evaluate(Arrays.asList("a", "a", "a"), request -> null,
+                request -> {
+                    evaluations.incrementAndGet();
+                    return request;
+                });
+
+        assertEquals(responses, Arrays.asList("a", "a", "a"));
+        assertEquals(evaluations.get(), 3);
+    }
+
+    @Test
+    public void testNestedBatchIsEvaluatedOnTheWorker() throws Exception {
+
+        Map<String, String> innerThreads = new ConcurrentHashMap<>();
+        List<String> responses = BatchDecisionEvaluator.evaluate(Arrays.asList("a", "b"), Function.identity(),
+                request -> {
+                    String outerThread = Thread.currentThread().getName();
+                    List<String> innerResponses = BatchDecisionEvaluator.evaluate(
+                            Arrays.asList(request + "1", request + "2"), Function.identity(), innerRequest -> {
+                                innerThreads.put(innerRequest, Thread.currentThread().getName());
+                                return innerRequest;
+                            });
+                    for (String innerResponse : innerResponses) {
+                        assertEquals(innerThreads.get(innerResponse), outerThread);
+                    }
+                    return String.join(",", innerResponses);
+                });
+
+        assertEquals(responses, Arrays.asList("a1,a2", "b1,b2"));
+        assertEquals(innerThreads.size(), 4);
+    }
+
+    @Test
+    public void testBatchIsEvaluatedAfterShutdown() throws Exception {
+
+        BatchDecisionEvaluator.evaluate(Arrays.asList("a", "b"), Function.identity(), request -> request);
+        BatchDecisionEvaluator.shutdown();
+
+        List<String> responses = BatchDecisionEvaluator.evaluate(Arrays.asList("a", "b", "c"), Function.identity(),
+                String::toUpperCase);
+
+        assertEquals(responses, Arrays.asList("A", "B", "C"));
+    }
+
+    @Test
+    public void testEquivalentRequestsHaveTheSameKey() {
+
+        String request = getRequest("alice", "/orders", "");
+        String formattedRequest = getRequest("alice", "/orders", "\n  ");
+
+        assertEquals(BatchDecisionEvaluator.getRequestKey(formattedRequest),
+                BatchDecisionEvaluator.getRequestKey(request));
+        assertNotEquals(BatchDecisionEvaluator.getRequestKey(getRequest("alice", "/invoices", "")),
+                BatchDecisionEvaluator.getRequestKey(request));
+        // Requests which can not be fingerprinted, such as JSON requests, are matched as they are.
+        assertEquals(BatchDecisionEvaluator.getRequestKey("{\"Request\":{}}"), "{\"Request\":{}}");
+    }
+
+    @Test(expectedExceptions = EntitlementException.class)
+    public void testEvaluationErrorIsReported() throws Exception {
+
+        BatchDecisionEvaluator.evaluate(Arrays.asList("a", "b"), Function.identity(), request -> {
+            if ("b".equals(request)) {
+                throw new IllegalStateException("Evaluation failed");
+            }
+            return request;
+        });
+    }
+
+    @Test
+    public void testMultiRequestsAreSplitAndMerged() throws Exception {
+
+        List<String> individualRequests = Collections.synchronizedList(new ArrayList<>());
+        String response = BatchDecisionEvaluator.evaluateMultiRequests(MULTI_REQUEST, request -> {
+            individualRequests.add(request);
+            return "<Response xmlns=\"" + XACML_NAMESPACE + "\"><Result><Decision>" +
+                    (request.contains("/orders") ? "Permit" : "Deny") + "</Decision></Result></Response>";
+        });
+
+        // The repeated request reference is evaluated once.
+        assertEquals(individualRequests.size(), 2);
+        for (String individualRequest : individualRequests) {
+            assertFalse(individualRequest.contains("MultiRequests"));
+            assertTrue(individualRequest.contains(">alice<"));
+            assertTrue(individualRequest.contains("/orders") ^ individualRequest.contains("/invoices"));
+        }
+        assertEquals(getDecisions(response), Arrays.asList("Permit", "Deny", "Permit"));
+    }
+
+    @Test
+    public void testCombinedDecisionRequestIsNotSplit() throws Exception {
+
+        String combinedRequest = MULTI_REQUEST.replace("CombinedDecision=\"false\"", "CombinedDecision=\"true\"");
+        List<String> evaluatedRequests = new ArrayList<>();
+        BatchDecisionEvaluator.evaluateMultiRequests(combinedRequest, request -> {
+            evaluatedRequests.add(request);
+            return "<Response xmlns=\"" + XACML_NAMESPACE + "\"/>";
+        });
+
+        assertEquals(evaluatedRequests, Collections.singletonList(combinedRequest));
+    }
+
+    private static String getRequest(String subject, String resource, String whitespace) {
+
+        return "<Request xmlns=\"" + XACML_NAMESPACE + "\" CombinedDecision=\"false\" " +
+                "ReturnPolicyIdList=\"false\">" + whitespace +
+                "<Attributes Category=\"" + SUBJECT_CATEGORY + "\">" + whitespace +
+                "<Attribute AttributeId=\"" + SUBJECT_ID + "\" IncludeInResult=\"false\">" +
+                "<AttributeValue DataType=\"" + STRING_TYPE + "\">" + subject + "</AttributeValue></Attribute>" +
+                whitespace + "</Attributes>" + whitespace +
+                "<Attributes Category=\"" + RESOURCE_CATEGORY + "\">" + whitespace +
+                "<Attribute AttributeId=\"" + RESOURCE_ID + "\" IncludeInResult=\"false\">" +
+                "<AttributeValue DataType=\"" + STRING_TYPE + "\">" + resource + "</AttributeValue></Attribute>" +
+                whitespace + "</Attributes>" + whitespace + "</Request>";
+    }
+
+    private static List<String> getDecisions(String response) throws Exception {
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(response)));
+        NodeList decisions = document.getElementsByTagNameNS(XACML_NAMESPACE, "Decision");
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < decisions.getLength(); i++) {
+            values.add(decisions.item(i).getTextContent());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pdp;
+
+import com.google.common.cache.LoadingCache;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Unit tests for the cache holding the entitlement engines of the tenants.
+ */
+public class EntitlementEngineCacheTest {
+
+    @Test
+    public void testEnginesAreEvictedAtMaximumSize() {
+
+        LoadingCache<Integer, EntitlementEngine> engineCache = EntitlementEngine.createEngineCache(2, 3600);
+        EntitlementEngine firstEngine = mock(EntitlementEngine.class);
+        EntitlementEngine secondEngine = mock(EntitlementEngine.class);
+        EntitlementEngine thirdEngine = mock(EntitlementEngine.class);
+
+        engineCache.put(1, firstEngine);
+        engineCache.put(2, secondEngine);
+        // Accessing the first tenant keeps its engine over the engine of the second tenant.
+        engineCache.getIfPresent(1);
+        engineCache.put(3, thirdEngine);
+
+        assertEquals(engineCache.size(), 2);
+        assertSame(engineCache.getIfPresent(1), firstEngine);
+        assertNull(engineCache.getIfPresent(2));
+        assertSame(engineCache.getIfPresent(3), thirdEngine);
+    }
+
+    @Test
+    public void testEnginesAreNotBoundedWithoutSize() {
+
+        LoadingCache<Integer, EntitlementEngine> engineCache = EntitlementEngine.createEngineCache(0, 3600);
+        // Engines are weakly held when no size is configured, so the test keeps them reachable.
+        List<EntitlementEngine> engines = new ArrayList<>();
+        for (int tenantId = 1; tenantId <= 5; tenantId++) {
+            EntitlementEngine engine = mock(EntitlementEngine.class);
+            engines.add(engine);
+            engineCache.put(tenantId, engine);
+        }
+
+        assertEquals(engineCache.size(), 5);
+        for (int tenantId = 1; tenantId <= 5; tenantId++) {
+            assertSame(engineCache.getIfPresent(tenantId), engines.get(tenantId - 1));
+        }
+    }
+}
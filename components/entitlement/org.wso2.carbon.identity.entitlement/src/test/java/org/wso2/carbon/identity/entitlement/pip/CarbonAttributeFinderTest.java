@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.pip;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.balana.attr.BagAttribute;
+import org.wso2.balana.attr.StringAttribute;
+import org.wso2.balana.cond.EvaluationResult;
+import org.wso2.balana.ctx.EvaluationCtx;
+import org.wso2.carbon.identity.entitlement.PDPConstants;
+import org.wso2.carbon.identity.entitlement.internal.EntitlementConfigHolder;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Unit tests for the attribute prefetching of {@link CarbonAttributeFinder}.
+ */
+public class CarbonAttributeFinderTest {
+
+    private static final int TENANT_ID = -1234;
+    private static final String SUBJECT_CATEGORY = "urn:oasis:names:tc:xacml:1.0:subject-category:access-subject";
+    private static final String EMAIL_CLAIM = "http://wso2.org/claims/emailaddress";
+
+    private URI attributeType;
+    private URI attributeId;
+    private URI category;
+    private PIPAttributeFinder pipAttributeFinder;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        attributeType = new URI(StringAttribute.identifier);
+        attributeId = new URI(EMAIL_CLAIM);
+        category = new URI(SUBJECT_CATEGORY);
+
+        pipAttributeFinder = mock(PIPAttributeFinder.class);
+        when(pipAttributeFinder.getSupportedAttributes()).thenReturn(Collections.singleton(SUBJECT_CATEGORY));
+        when(pipAttributeFinder.getAttributeValues(eq(attributeType), eq(attributeId), eq(category), any(),
+                any(EvaluationCtx.class))).thenReturn(Collections.singleton("single@wso2.com"));
+
+        EntitlementConfigHolder.getInstance().getDesignators().clear();
+        EntitlementConfigHolder.getInstance().addDesignators(pipAttributeFinder, new Properties());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        CarbonAttributeFinder.clearRequestAttributes();
+        EntitlementConfigHolder.getInstance().getDesignators().clear();
+    }
+
+    @Test
+    public void testPrefetchIsDisabledByDefault() throws Exception {
+
+        when(pipAttributeFinder.isBulkRetrievalSupported()).thenReturn(true);
+        CarbonAttributeFinder attributeFinder = createAttributeFinder(null);
+
+        assertEquals(findAttribute(attributeFinder, mock(EvaluationCtx.class)),
+                Collections.singleton("single@wso2.com"));
+
+        verify(pipAttributeFinder, never()).getAttributeValues(any(URI.class), anySet(), any(URI.class), any(),
+                any(EvaluationCtx.class));
+    }
+
+    @Test
+    public void testFinderWithoutBulkSupportIsNotPrefetched() throws Exception {
+
+        CarbonAttributeFinder attributeFinder = createAttributeFinder("true");
+
+        assertEquals(findAttribute(attributeFinder, mock(EvaluationCtx.class)),
+                Collections.singleton("single@wso2.com"));
+
+        verify(pipAttributeFinder, never()).getAttributeValues(any(URI.class), anySet(), any(URI.class), any(),
+                any(EvaluationCtx.class));
+    }
+
+    @Test
+    public void testNullBulkResultOnlyAffectsCurrentRequest() throws Exception {
+
+        when(pipAttributeFinder.isBulkRetrievalSupported()).thenReturn(true);
+        EvaluationCtx federatedUserContext = mock(EvaluationCtx.class);
+        EvaluationCtx localUserContext = mock(EvaluationCtx.class);
+        when(pipAttributeFinder.getAttributeValues(eq(attributeType), anySet(), eq(category), any(),
+                eq(federatedUserContext))).thenReturn(null);
+        when(pipAttributeFinder.getAttributeValues(eq(attributeType), anySet(), eq(category), any(),
+                eq(localUserContext))).thenReturn(Collections.singletonMap(attributeId,
+                Collections.singleton("bulk@wso2.com")));
+        CarbonAttributeFinder attributeFinder = createAttributeFinder("true");
+
+        assertEquals(findAttribute(attributeFinder, federatedUserContext), Collections.singleton("single@wso2.com"));
+        CarbonAttributeFinder.clearRequestAttributes();
+        assertEquals(findAttribute(attributeFinder, localUserContext), Collections.singleton("bulk@wso2.com"));
+
+        verify(pipAttributeFinder, times(1)).getAttributeValues(eq(attributeType), eq(attributeId), eq(category),
+                any(), eq(federatedUserContext));
+        verify(pipAttributeFinder, never()).getAttributeValues(eq(attributeType), eq(attributeId), eq(category),
+                any(), eq(localUserContext));
+    }
+
+    @Test
+    public void testPrefetchedAttributesAreClearedAfterRequest() throws Exception {
+
+        when(pipAttributeFinder.isBulkRetrievalSupported()).thenReturn(true);
+        EvaluationCtx context = mock(EvaluationCtx.class);
+        when(pipAttributeFinder.getAttributeValues(eq(attributeType), anySet(), eq(category), any(),
+                eq(context))).thenReturn(Collections.singletonMap(attributeId, Collections.singleton("bulk@wso2.com")));
+        CarbonAttributeFinder attributeFinder = createAttributeFinder("true");
+
+        findAttribute(attributeFinder, context);
+        findAttribute(attributeFinder, context);
+        // The attributes of the request are kept until the evaluation of the request completes.
+        verify(pipAttributeFinder, times(1)).getAttributeValues(eq(attributeType), anySet(), eq(category), any(),
+                eq(context));
+
+        CarbonAttributeFinder.clearRequestAttributes();
+        findAttribute(attributeFinder, context);
+
+        verify(pipAttributeFinder, times(2)).getAttributeValues(eq(attributeType), anySet(), eq(category), any(),
+                eq(context));
+    }
+
+    private CarbonAttributeFinder createAttributeFinder(String attributePrefetch) {
+
+        Properties properties = new Properties();
+        if (attributePrefetch != null) {
+            properties.setProperty(PDPConstants.ATTRIBUTE_PREFETCH, attributePrefetch);
+        }
+        EntitlementConfigHolder.getInstance().setEngineProperties(properties);
+
+        CarbonAttributeFinder attributeFinder = new CarbonAttributeFinder(TENANT_ID);
+        attributeFinder.init();
+        return attributeFinder;
+    }
+
+    private Set<String> findAttribute(CarbonAttributeFinder attributeFinder, EvaluationCtx context) {
+
+        EvaluationResult result = attributeFinder.findAttribute(attributeType, attributeId, null, category, context);
+        Set<String> values = new HashSet<>();
+        BagAttribute bag = (BagAttribute) result.getAttributeValue();
+        bag.iterator().forEachRemaining(value -> values.add(((StringAttribute) value).getValue()));
+        return values;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.policy.collection;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+import org.wso2.balana.AbstractPolicy;
+import org.wso2.balana.Balana;
+import org.wso2.balana.MatchResult;
+import org.wso2.balana.PDPConfig;
+import org.wso2.balana.Policy;
+import org.wso2.balana.ctx.EvaluationCtx;
+import org.wso2.balana.ctx.EvaluationCtxFactory;
+import org.wso2.balana.ctx.RequestCtxFactory;
+import org.wso2.balana.finder.AttributeFinder;
+import org.wso2.balana.finder.PolicyFinder;
+import org.wso2.balana.finder.ResourceFinder;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that pruning the policies with {@link PolicyTargetIndex} gives the same decisions as matching the targets of
+ * all the policies.
+ */
+public class PolicyTargetIndexTest {
+
+    private static final String XACML3_NAMESPACE = "urn:oasis:names:tc:xacml:3.0:core:schema:wd-17";
+    private static final String STRING_EQUAL = "urn:oasis:names:tc:xacml:1.0:function:string-equal";
+    private static final String STRING_REGEXP_MATCH = "urn:oasis:names:tc:xacml:1.0:function:string-regexp-match";
+    private static final String STRING_TYPE = "http://www.w3.org/2001/XMLSchema#string";
+
+    private static final String SUBJECT = "urn:oasis:names:tc:xacml:1.0:subject-category:access-subject";
+    private static final String RESOURCE = "urn:oasis:names:tc:xacml:3.0:attribute-category:resource";
+    private static final String ACTION = "urn:oasis:names:tc:xacml:3.0:attribute-category:action";
+    private static final String SUBJECT_ID = "urn:oasis:names:tc:xacml:1.0:subject:subject-id";
+    private static final String ROLE_ID = "http://wso2.org/claims/role";
+    private static final String RESOURCE_ID = "urn:oasis:names:tc:xacml:1.0:resource:resource-id";
+    private static final String ACTION_ID = "urn:oasis:names:tc:xacml:1.0:action:action-id";
+
+    private PolicyTargetIndex policyTargetIndex;
+    private PDPConfig pdpConfig;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        Balana.getInstance();
+        pdpConfig = new PDPConfig(new AttributeFinder(), new PolicyFinder(), new ResourceFinder(), false);
+
+        List<AbstractPolicy> policies = new ArrayList<>();
+        // Multiple AllOf in the first AnyOf, and a second AnyOf.
+        policies.add(createPolicy("ordersOrInvoices", "Permit",
+                anyOf(allOf(match(STRING_EQUAL, "/orders", RESOURCE, RESOURCE_ID, null)),
+                        allOf(match(STRING_EQUAL, "/invoices", RESOURCE, RESOURCE_ID, null))) +
+                anyOf(allOf(match(STRING_EQUAL, "read", ACTION, ACTION_ID, null)))));
+        // Multiple Match in an AllOf. Only the first one is indexed.
+        policies.add(createPolicy("usersForAdmins", "Deny",
+                anyOf(allOf(match(STRING_EQUAL, "/users", RESOURCE, RESOURCE_ID, null),
+                        match(STRING_EQUAL, "admin", SUBJECT, ROLE_ID, null)))));
+        // Empty target, which matches every request.
+        policies.add(createPolicy("emptyTarget", "Deny", ""));
+        // Non equality match function, so the policy is not indexed.
+        policies.add(createPolicy("reports", "Permit",
+                anyOf(allOf(match(STRING_REGEXP_MATCH, "^/reports/.*", RESOURCE, RESOURCE_ID, null)))));
+        // Only the first AnyOf is indexed. It uses a non equality match function here.
+        policies.add(createPolicy("wildcardFirst", "Permit",
+                anyOf(allOf(match(STRING_REGEXP_MATCH, ".*", RESOURCE, RESOURCE_ID, null))) +
+                anyOf(allOf(match(STRING_EQUAL, "write", ACTION, ACTION_ID, null)))));
+        // A designator with an issuer is not indexed.
+        policies.add(createPolicy("issuedRole", "Permit",
+                anyOf(allOf(match(STRING_EQUAL, "admin", SUBJECT, ROLE_ID, "https://issuer.example.com")))));
+        // Indexed on an attribute that may be missing in the request.
+        policies.add(createPolicy("alice", "Permit",
+                anyOf(allOf(match(STRING_EQUAL, "alice", SUBJECT, SUBJECT_ID, null)))));
+        // Mixed AllOf in the first AnyOf, one of which is not indexable.
+        policies.add(createPolicy("mixedAllOf", "Deny",
+                anyOf(allOf(match(STRING_EQUAL, "/orders", RESOURCE, RESOURCE_ID, null)),
+                        allOf(match(STRING_REGEXP_MATCH, "^/inv.*", RESOURCE, RESOURCE_ID, null)))));
+        policyTargetIndex = PolicyTargetIndex.build(policies);
+    }
+
+    @DataProvider(name = "requests")
+    public Object[][] requests() {
+
+        return new Object[][]{
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/orders")),
+                        attributes(ACTION, attribute(ACTION_ID, "read")),
+                        attributes(SUBJECT, attribute(SUBJECT_ID, "alice")))},
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/invoices")),
+                        attributes(ACTION, attribute(ACTION_ID, "write")))},
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/users")),
+                        attributes(SUBJECT, attribute(ROLE_ID, "admin")))},
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/users")),
+                        attributes(SUBJECT, attribute(ROLE_ID, "guest", "auditor")))},
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/reports/2024")))},
+                {request(attributes(ACTION, attribute(ACTION_ID, "read")))},
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/orders", "/users")),
+                        attributes(SUBJECT, attribute(ROLE_ID, "admin"), attribute(SUBJECT_ID, "bob")))},
+                {request(attributes(RESOURCE, attribute(RESOURCE_ID, "/unknown")),
+                        attributes(SUBJECT, attribute(SUBJECT_ID, "bob")))},
+                {request()}
+        };
+    }
+
+    @Test(dataProvider = "requests")
+    public void testIndexedPruningGivesSameDecisionsAsFullScan(String request) throws Exception {
+
+        EvaluationCtx context = createContext(request);
+
+        List<AbstractPolicy> candidates = policyTargetIndex.getCandidatePolicies(context);
+
+        assertTrue(isInOrder(candidates, policyTargetIndex.getPolicies()),
+                "Candidates should keep the evaluation order of the policies.");
+        assertEquals(getApplicablePolicies(candidates, context),
+                getApplicablePolicies(policyTargetIndex.getPolicies(), context));
+    }
+
+    @Test
+    public void testNonMatchingIndexedPoliciesArePruned() throws Exception {
+
+        EvaluationCtx context = createContext(request(attributes(RESOURCE, attribute(RESOURCE_ID, "/unknown")),
+                attributes(SUBJECT, attribute(SUBJECT_ID, "bob"))));
+
+        List<String> candidateIds = new ArrayList<>();
+        for (AbstractPolicy policy : policyTargetIndex.getCandidatePolicies(context)) {
+            candidateIds.add(policy.getId().toString());
+        }
+
+        assertEquals(candidateIds, Arrays.asList("emptyTarget", "reports", "wildcardFirst",
+                "issuedRole", "mixedAllOf"));
+    }
+
+    @Test
+    public void testPolicyIndexedOnMissingAttributeStaysCandidate() throws Exception {
+
+        EvaluationCtx context = createContext(request(attributes(RESOURCE, attribute(RESOURCE_ID, "/unknown"))));
+
+        List<String> candidateIds = new ArrayList<>();
+        for (AbstractPolicy policy : policyTargetIndex.getCandidatePolicies(context)) {
+            candidateIds.add(policy.getId().toString());
+        }
+
+        assertTrue(candidateIds.contains("alice"));
+        assertFalse(candidateIds.contains("ordersOrInvoices"));
+        assertFalse(candidateIds.contains("usersForAdmins"));
+    }
+
+    @Test
+    public void testIndexFollowsPolicyMapChangesAfterInvalidation() throws Exception {
+
+        SimplePolicyCollection policyCollection = new SimplePolicyCollection();
+        AbstractPolicy alice = createPolicy("alice", "Permit",
+                anyOf(allOf(match(STRING_EQUAL, "alice", SUBJECT, SUBJECT_ID, null))));
+        policyCollection.addPolicy(alice);
+        String request = request(attributes(SUBJECT, attribute(SUBJECT_ID, "alice")));
+        assertEquals(policyCollection.getEffectivePolicy(createContext(request)), alice);
+
+        AbstractPolicy bob = createPolicy("alice", "Deny",
+                anyOf(allOf(match(STRING_EQUAL, "bob", SUBJECT, SUBJECT_ID, null))));
+        policyCollection.getPolicyMap().put(alice.getId(), bob);
+        policyCollection.invalidateIndex();
+
+        assertNull(policyCollection.getEffectivePolicy(createContext(request)));
+        assertEquals(policyCollection.getEffectivePolicy(createContext(request(attributes(SUBJECT,
+                attribute(SUBJECT_ID, "bob"))))), bob);
+    }
+
+    /**
+     * Match and evaluate the given policies the way the policy collection does, and describe the policies which
+     * apply to the request with their decisions.
+     */
+    private static List<String> getApplicablePolicies(List<AbstractPolicy> policies, EvaluationCtx context) {
+
+        List<String> applicablePolicies = new ArrayList<>();
+        for (AbstractPolicy policy : policies) {
+            int result = policy.match(context).getResult();
+            if (result == MatchResult.NO_MATCH) {
+                continue;
+            }
+            String decision = result == MatchResult.MATCH ?
+                    String.valueOf(policy.evaluate(context).getDecision()) : "Indeterminate";
+            applicablePolicies.add(policy.getId() + "=" + decision);
+        }
+        return applicablePolicies;
+    }
+
+    private static boolean isInOrder(List<AbstractPolicy> candidates, List<AbstractPolicy> policies) {
+
+        int position = 0;
+        for (AbstractPolicy candidate : candidates) {
+            while (position < policies.size() && policies.get(position) != candidate) {
+                position++;
+            }
+            if (position == policies.size()) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    private EvaluationCtx createContext(String request) throws Exception {
+
+        return EvaluationCtxFactory.getFactory().getEvaluationCtx(
+                RequestCtxFactory.getFactory().getRequestCtx(parse(request)), pdpConfig);
+    }
+
+    private static AbstractPolicy createPolicy(String policyId, String effect, String targetContent)
+            throws Exception {
+
+        return Policy.getInstance(parse("<Policy xmlns=\"" + XACML3_NAMESPACE + "\" PolicyId=\"" + policyId +
+                "\" RuleCombiningAlgId=\"urn:oasis:names:tc:xacml:3.0:rule-combining-algorithm:deny-overrides\" " +
+                "Version=\"1.0\"><Target>" + targetContent + "</Target><Rule Effect=\"" + effect +
+                "\" RuleId=\"rule\"><Target/></Rule></Policy>"));
+    }
+
+    private static String anyOf(String... allOfs) {
+
+        return "<AnyOf>" + String.join("", allOfs) + "</AnyOf>";
+    }
+
+    private static String allOf(String... matches) {
+
+        return "<AllOf>" + String.join("", matches) + "</AllOf>";
+    }
+
+    private static String match(String function, String value, String category, String attributeId,
+                                String issuer) {
+
+        return "<Match MatchId=\"" + function + "\"><AttributeValue DataType=\"" + STRING_TYPE + "\">" + value +
+                "</AttributeValue><AttributeDesignator AttributeId=\"" + attributeId + "\" Category=\"" + category +
+                "\" DataType=\"" + STRING_TYPE + "\" MustBePresent=\"false\"" +
+                (issuer != null ? " Issuer=\"" + issuer + "\"" : "") + "/></Match>";
+    }
+
+    private static String request(String... attributes) {
+
+        return "<Request xmlns=\"" + XACML3_NAMESPACE + "\" CombinedDecision=\"false\" ReturnPolicyIdList=\"false\">" +
+                String.join("", attributes) + "</Request>";
+    }
+
+    private static String attributes(String category, String... attributes) {
+
+        return "<Attributes Category=\"" + category + "\">" + String.join("", attributes) + "</Attributes>";
+    }
+
+    private static String attribute(String attributeId, String... values) {
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("<Attribute AttributeId=\"").append(attributeId).append("\" IncludeInResult=\"false\">");
+        for (String value : values) {
+            builder.append("<AttributeValue DataType=\"").append(STRING_TYPE).append("\">").append(value)
+                    .append("</AttributeValue>");
+        }
+        return builder.append("</Attribute>").toString();
+    }
+
+    private static Element parse(String xml) throws Exception {
+
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        return documentBuilderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)))
+                .getDocumentElement();
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.entitlement.policy.store;
+
+import org.apache.commons.lang.StringUtils;
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.entitlement.EntitlementUtil;
+import org.wso2.carbon.identity.entitlement.dto.AttributeDTO;
+import org.wso2.carbon.identity.entitlement.dto.PolicyStoreDTO;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * H2 backed tests for {@link JDBCPolicyStoreManageModule} and {@link JDBCPolicyDataStore}.
+ */
+public class JDBCPolicyStoreTest {
+
+    private static final String DB_URL = "jdbc:h2:mem:entitlement;DB_CLOSE_DELAY=-1";
+    private static final int TENANT_ID = -1234;
+    private static final String POLICY_ID = "samplePolicy";
+    private static final String POLICY = "<Policy PolicyId=\"samplePolicy\"/>";
+    private static final String UPDATED_POLICY = "<Policy PolicyId=\"samplePolicy\" Version=\"2\"/>";
+
+    private Connection databaseConnection;
+    private MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil;
+    private MockedStatic<CarbonContext> carbonContext;
+    private String concurrentQuery;
+    private String concurrentInsert;
+
+    @BeforeClass
+    public void initDatabase() throws Exception {
+
+        // Keeps the in-memory database open for the test class.
+        databaseConnection = DriverManager.getConnection(DB_URL);
+        try (Statement statement = databaseConnection.createStatement()) {
+            statement.executeUpdate("RUNSCRIPT FROM '" + Paths.get(System.getProperty("user.dir"), "src", "test",
+                    "resources", "dbscripts", "h2.sql") + "'");
+        }
+    }
+
+    @AfterClass
+    public void closeDatabase() throws Exception {
+
+        databaseConnection.close();
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        try (Statement statement = databaseConnection.createStatement()) {
+            statement.executeUpdate("DELETE FROM IDN_XACML_POLICY_ATTRIBUTE");
+            statement.executeUpdate("DELETE FROM IDN_XACML_POLICY");
+            statement.executeUpdate("DELETE FROM IDN_XACML_POLICY_DATA");
+        }
+        concurrentQuery = null;
+        concurrentInsert = null;
+
+        CarbonContext context = mock(CarbonContext.class);
+        when(context.getTenantId()).thenReturn(TENANT_ID);
+        carbonContext = mockStatic(CarbonContext.class);
+        carbonContext.when(CarbonContext::getThreadLocalCarbonContext).thenReturn(context);
+
+        identityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
+        identityDatabaseUtil.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> getConnection(invocation.getArgument(0)));
+        identityDatabaseUtil.when(() -> IdentityDatabaseUtil.commitTransaction(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).commit();
+                    return null;
+                });
+        identityDatabaseUtil.when(() -> IdentityDatabaseUtil.rollbackTransaction(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).rollback();
+                    return null;
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        identityDatabaseUtil.close();
+        carbonContext.close();
+    }
+
+    @Test
+    public void testAddAndUpdatePolicy() throws Exception {
+
+        JDBCPolicyStoreManageModule policyStore = new JDBCPolicyStoreManageModule();
+
+        policyStore.addPolicy(createPolicy(POLICY));
+        assertEquals(policyStore.getPolicy(POLICY_ID), POLICY);
+        assertEquals(getPolicyVersion(), 1);
+
+        policyStore.updatePolicy(createPolicy(UPDATED_POLICY));
+        assertEquals(policyStore.getPolicy(POLICY_ID), UPDATED_POLICY);
+        assertEquals(getPolicyVersion(), 2);
+    }
+
+    @Test
+    public void testAddPolicyAddedConcurrently() throws Exception {
+
+        // Another node adds the policy after it was looked up and before it is inserted.
+        concurrentQuery = PolicyStoreSQLQueries.INSERT_POLICY;
+        concurrentInsert = "INSERT INTO IDN_XACML_POLICY (POLICY_ID, TENANT_ID, VERSION, IS_ACTIVE, POLICY_ORDER, " +
+                "POLICY) VALUES ('" + POLICY_ID + "', " + TENANT_ID + ", 1, '0', 0, X'00')";
+        JDBCPolicyStoreManageModule policyStore = new JDBCPolicyStoreManageModule();
+
+        PolicyStoreDTO policy = createPolicy(UPDATED_POLICY);
+        policy.setActive(true);
+        policy.setSetActive(true);
+        policyStore.addPolicy(policy);
+
+        assertEquals(policyStore.getPolicy(POLICY_ID), UPDATED_POLICY);
+        assertEquals(getPolicyVersion(), 2);
+        assertEquals(policyStore.getActivePolicies().length, 1);
+    }
+
+    @Test
+    public void testSetPolicyData() throws Exception {
+
+        JDBCPolicyDataStore policyDataStore = new JDBCPolicyDataStore();
+
+        policyDataStore.setPolicyData(POLICY_ID, createPolicyData(true, 3));
+        PolicyStoreDTO policyData = policyDataStore.getPolicyData(POLICY_ID);
+        assertTrue(policyData.isActive());
+        assertEquals(policyData.getPolicyOrder(), 3);
+
+        policyDataStore.setPolicyData(POLICY_ID, createPolicyData(false, 5));
+        policyData = policyDataStore.getPolicyData(POLICY_ID);
+        assertFalse(policyData.isActive());
+        assertEquals(policyData.getPolicyOrder(), 5);
+        assertEquals(policyDataStore.getPolicyData().length, 1);
+    }
+
+    @Test
+    public void testSetPolicyDataAddedConcurrently() throws Exception {
+
+        // Another node adds the policy data after it was looked up and before it is inserted.
+        concurrentQuery = PolicyStoreSQLQueries.INSERT_POLICY_DATA;
+        concurrentInsert = "INSERT INTO IDN_XACML_POLICY_DATA (POLICY_ID, TENANT_ID, IS_ACTIVE, POLICY_ORDER) " +
+                "VALUES ('" + POLICY_ID + "', " + TENANT_ID + ", '0', 1)";
+        JDBCPolicyDataStore policyDataStore = new JDBCPolicyDataStore();
+
+        policyDataStore.setPolicyData(POLICY_ID, createPolicyData(true, 4));
+
+        PolicyStoreDTO policyData = policyDataStore.getPolicyData(POLICY_ID);
+        assertTrue(policyData.isActive());
+        assertEquals(policyData.getPolicyOrder(), 4);
+        assertEquals(policyDataStore.getPolicyData().length, 1);
+    }
+
+    @Test
+    public void testIsDuplicateEntry() {
+
+        assertTrue(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("duplicate", "23505")));
+        assertTrue(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("mysql", "23000", 1062)));
+        assertTrue(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("oracle", "23000", 1)));
+        assertTrue(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("mssql", "23000", 2627)));
+        assertTrue(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("mssql", "23000", 2601)));
+        assertFalse(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("timeout", "HYT00")));
+        // Foreign key and not null violations are integrity constraint violations too, but not duplicates.
+        assertFalse(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("foreign key", "23503")));
+        assertFalse(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("not null", "23502")));
+        assertFalse(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("mysql", "23000", 1452)));
+        assertFalse(JDBCPolicyStoreManageModule.isDuplicateEntry(new SQLException("oracle", "23000", 1400)));
+    }
+
+    @Test
+    public void testGetPolicyIdentifiersByLongAttributeValue() throws Exception {
+
+        String longValue = StringUtils.repeat("https://example.com/resources/", 40);
+        AttributeDTO attributeDTO = new AttributeDTO();
+        attributeDTO.setCategory("urn:oasis:names:tc:xacml:3.0:attribute-category:resource");
+        attributeDTO.setAttributeId("urn:oasis:names:tc:xacml:1.0:resource:resource-id");
+        attributeDTO.setAttributeValue(longValue);
+        attributeDTO.setAttributeDataType("http://www.w3.org/2001/XMLSchema#string");
+        PolicyStoreDTO policy = createPolicy(POLICY);
+        policy.setAttributeDTOs(new AttributeDTO[]{attributeDTO});
+        JDBCPolicyStoreManageModule policyStore = new JDBCPolicyStoreManageModule();
+
+        try (MockedStatic<EntitlementUtil> entitlementUtil = mockStatic(EntitlementUtil.class)) {
+            entitlementUtil.when(EntitlementUtil::isPolicyMetadataStoringEnabled).thenReturn(true);
+            policyStore.addPolicy(policy);
+        }
+
+        assertEquals(policyStore.getPolicyIdentifiers(longValue), new String[]{POLICY_ID});
+        assertEquals(policyStore.getPolicyIdentifiers(longValue + "/other").length, 0);
+    }
+
+    private Connection getConnection(boolean shouldApplyTransaction) throws SQLException {
+
+        Connection connection = DriverManager.getConnection(DB_URL);
+        connection.setAutoCommit(!shouldApplyTransaction);
+        if (concurrentQuery == null) {
+            return connection;
+        }
+        Connection spyConnection = spy(connection);
+        doAnswer(invocation -> {
+            if (concurrentInsert != null) {
+                try (Connection otherConnection = DriverManager.getConnection(DB_URL);
+                     Statement statement = otherConnection.createStatement()) {
+                    statement.executeUpdate(concurrentInsert);
+                }
+                concurrentInsert = null;
+            }
+            return invocation.callRealMethod();
+        }).when(spyConnection).prepareStatement(concurrentQuery);
+        return spyConnection;
+    }
+
+    private int getPolicyVersion() throws SQLException {
+
+        try (PreparedStatement prepStmt = databaseConnection.prepareStatement(
+                PolicyStoreSQLQueries.GET_POLICY_VERSION)) {
+            prepStmt.setString(1, POLICY_ID);
+            prepStmt.setInt(2, TENANT_ID);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                assertTrue(resultSet.next());
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private PolicyStoreDTO createPolicy(String policy) {
+
+        PolicyStoreDTO policyStoreDTO = new PolicyStoreDTO();
+        policyStoreDTO.setPolicyId(POLICY_ID);
+        policyStoreDTO.setPolicy(policy);
+        return policyStoreDTO;
+    }
+
+    private PolicyStoreDTO createPolicyData(boolean active, int order) {
+
+        PolicyStoreDTO policyStoreDTO = new PolicyStoreDTO();
+        policyStoreDTO.setActive(active);
+        policyStoreDTO.setSetActive(true);
+        policyStoreDTO.setPolicyOrder(order);
+        policyStoreDTO.setSetOrder(true);
+        return policyStoreDTO;
+    }
+}
@@ -0,0 +1,35 @@
+CREATE TABLE IF NOT EXISTS IDN_XACML_POLICY (
+	POLICY_ID VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	VERSION INTEGER NOT NULL,
+	IS_ACTIVE CHAR(1) DEFAULT '0',
+	POLICY_ORDER INTEGER DEFAULT 0,
+	POLICY BLOB NOT NULL,
+	PRIMARY KEY (POLICY_ID, TENANT_ID)
+);
+
+CREATE TABLE IF NOT EXISTS IDN_XACML_POLICY_ATTRIBUTE (
+	POLICY_ID VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	CATEGORY VARCHAR(255) NOT NULL,
+	ATTRIBUTE_ID VARCHAR(255),
+	ATTRIBUTE_VALUE VARCHAR(4000),
+	ATTRIBUTE_VALUE_HASH VARCHAR(64),
+	DATA_TYPE VARCHAR(255),
+	FOREIGN KEY (POLICY_ID, TENANT_ID) REFERENCES IDN_XACML_POLICY(POLICY_ID, TENANT_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS IDN_XACML_POLICY_DATA (
+	POLICY_ID VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	IS_ACTIVE CHAR(1) DEFAULT '0',
+	POLICY_ORDER INTEGER DEFAULT 0,
+	PRIMARY KEY (POLICY_ID, TENANT_ID)
+);
+
+CREATE TABLE IF NOT EXISTS IDN_XACML_CONFIG (
+	CONFIG_KEY VARCHAR(255) NOT NULL,
+	CONFIG_VALUE VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	PRIMARY KEY (CONFIG_KEY, TENANT_ID)
+);
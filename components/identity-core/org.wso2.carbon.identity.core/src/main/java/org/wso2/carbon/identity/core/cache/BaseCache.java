@@ -20,6 +20,7 @@ package org.wso2.carbon.identity.core.cache;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.caching.impl.CacheImpl;
 import org.wso2.carbon.caching.impl.CachingConstants;
 import org.wso2.carbon.context.CarbonContext;
@@ -31,12 +32,15 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.cache.Cache;
 import javax.cache.CacheBuilder;
 import javax.cache.CacheConfiguration;
 import javax.cache.CacheManager;
 import javax.cache.Caching;
+import javax.cache.Status;
 
 /**
  * A base class for all cache implementations in Identity modules. This maintains  caches in the tenanted space.
@@ -49,7 +53,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
 
     private static final Log log = LogFactory.getLog(BaseCache.class);
     private static final String CACHE_MANAGER_NAME = "IdentityApplicationManagementCacheManager";
-    private CacheBuilder<K, V> cacheBuilder;
+    private static final Map<String, Object> CACHE_BUILD_LOCKS = new ConcurrentHashMap<>();
+    private volatile CacheBuilder<K, V> cacheBuilder;
+    // Resolved cache handles per tenant id. A handle is re-resolved once the underlying cache is stopped.
+    private final Map<Integer, Cache<K, V>> cacheHandles = new ConcurrentHashMap<>();
+    // Node local near caches per tenant id, only used for distributed caches with the near cache enabled.
+    private final Map<Integer, NearCache<K, V>> nearCaches = new ConcurrentHashMap<>();
+    private final NearCacheStatistics nearCacheStatistics;
     private final List<AbstractCacheListener<K, V>> cacheListeners;
     private String cacheName;
     private final IdentityCacheConfig identityCacheConfig;
@@ -80,6 +90,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             }
             identityCacheConfig.setTemporary(isTemp);
         }
+        if (identityCacheConfig != null && identityCacheConfig.isDistributed() &&
+                identityCacheConfig.isNearCacheEnabled() && identityCacheConfig.getNearCacheCapacity() > 0 &&
+                identityCacheConfig.getNearCacheTimeout() > 0) {
+            nearCacheStatistics = new NearCacheStatistics();
+        } else {
+            nearCacheStatistics = null;
+        }
         if (cacheListeners != null) {
             this.cacheListeners = cacheListeners;
         } else {
@@ -93,27 +110,89 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
 
     private Cache<K, V> getBaseCache() {
 
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Cache<K, V> cache = cacheHandles.get(tenantId);
+        if (cache != null && cache.getStatus() == Status.STARTED) {
+            return cache;
+        }
+        cache = resolveBaseCache();
+        if (cache != null && cacheHandles.put(tenantId, cache) != cache && nearCacheStatistics != null) {
+            registerNearCache(tenantId, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Binds the near cache of the tenant to a newly resolved distributed cache. Entries loaded from a previous cache
+     * instance are dropped and the near cache is invalidated through the cache entry listeners from then on.
+     */
+    private void registerNearCache(int tenantId, Cache<K, V> cache) {
+
+        NearCache<K, V> nearCache = nearCaches.computeIfAbsent(tenantId, id -> new NearCache<>(
+                identityCacheConfig.getNearCacheCapacity(), identityCacheConfig.getNearCacheTimeout(),
+                nearCacheStatistics));
+        nearCache.invalidateAll();
+        NearCacheInvalidationListener<K, V> invalidationListener = new NearCacheInvalidationListener<>(nearCache);
+        if (invalidationListener.isEnable()) {
+            cache.registerCacheEntryListener(invalidationListener);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Near cache is enabled for cache : " + cacheName + " with capacity : " +
+                    identityCacheConfig.getNearCacheCapacity() + " and timeout : " +
+                    identityCacheConfig.getNearCacheTimeout() + " for tenant id : " + tenantId);
+        }
+    }
+
+    /**
+     * Returns the near cache of the current tenant if the near cache is enabled and bound to a started cache.
+     */
+    private NearCache<K, V> getActiveNearCache() {
+
+        if (nearCacheStatistics == null) {
+            return null;
+        }
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Cache<K, V> cache = cacheHandles.get(tenantId);
+        if ((cache == null || cache.getStatus() != Status.STARTED) && getBaseCache() == null) {
+            return null;
+        }
+        return nearCaches.get(tenantId);
+    }
+
+    /**
+     * Returns the hit, miss and staleness counters of the near cache.
+     *
+     * @return Near cache statistics, or null if the near cache is not enabled for this cache.
+     */
+    public NearCacheStatistics getNearCacheStatistics() {
+
+        return nearCacheStatistics;
+    }
+
+    private Cache<K, V> resolveBaseCache() {
+
         Cache<K, V> cache;
         CacheManager cacheManager = Caching.getCacheManagerFactory()
                 .getCacheManager(CACHE_MANAGER_NAME);
 
         if (getCacheTimeout() > 0 && cacheBuilder == null) {
-            synchronized (cacheName.intern()) {
+            synchronized (CACHE_BUILD_LOCKS.computeIfAbsent(cacheName, name -> new Object())) {
                 if (cacheBuilder == null) {
                     cacheManager.removeCache(cacheName);
-                    cacheBuilder = cacheManager.<K, V>createCacheBuilder(cacheName).
+                    CacheBuilder<K, V> builder = cacheManager.<K, V>createCacheBuilder(cacheName).
                             setExpiry(CacheConfiguration.ExpiryType.ACCESSED,
                                     new CacheConfiguration.Duration(TimeUnit.SECONDS, getCacheTimeout())).
                             setExpiry(CacheConfiguration.ExpiryType.MODIFIED,
                                     new CacheConfiguration.Duration(TimeUnit.SECONDS, getCacheTimeout())).
                             setStoreByValue(false);
-                    cache = cacheBuilder.build();
+                    cache = builder.build();
 
                     for (AbstractCacheListener<K, V> cacheListener : cacheListeners) {
                         if (cacheListener.isEnable()) {
-                            this.cacheBuilder.registerCacheEntryListener(cacheListener);
+                            builder.registerCacheEntryListener(cacheListener);
                         }
                     }
+                    cacheBuilder = builder;
 
                     setCapacity((CacheImpl<K, V>) cache);
                     if (log.isDebugEnabled()) {
@@ -147,12 +226,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return;
         }
 
+        if (isCurrentTenant(tenantDomain)) {
+            put(key, entry);
+            return;
+        }
         try {
             startTenantFlow(tenantDomain);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null) {
-                cache.put(key, entry);
-            }
+            put(key, entry);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -171,12 +251,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return;
         }
 
+        if (isCurrentTenant(tenantId)) {
+            put(key, entry);
+            return;
+        }
         try {
             startTenantFlow(tenantId);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null) {
-                cache.put(key, entry);
-            }
+            put(key, entry);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -199,13 +280,12 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return null;
         }
 
+        if (isCurrentTenant(tenantDomain)) {
+            return get(key);
+        }
         try {
             startTenantFlow(tenantDomain);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null && cache.get(key) != null) {
-                return cache.get(key);
-            }
-            return null;
+            return get(key);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -228,13 +308,12 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return null;
         }
 
+        if (isCurrentTenant(tenantId)) {
+            return get(key);
+        }
         try {
             startTenantFlow(tenantId);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null && cache.get(key) != null) {
-                return cache.get(key);
-            }
-            return null;
+            return get(key);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -252,12 +331,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return;
         }
 
+        if (isCurrentTenant(tenantDomain)) {
+            remove(key);
+            return;
+        }
         try {
             startTenantFlow(tenantDomain);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null) {
-                cache.remove(key);
-            }
+            remove(key);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -275,12 +355,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return;
         }
 
+        if (isCurrentTenant(tenantId)) {
+            remove(key);
+            return;
+        }
         try {
             startTenantFlow(tenantId);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null) {
-                cache.remove(key);
-            }
+            remove(key);
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -297,12 +378,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return;
         }
 
+        if (isCurrentTenant(tenantDomain)) {
+            removeAll();
+            return;
+        }
         try {
             startTenantFlow(tenantDomain);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null) {
-                cache.removeAll();
-            }
+            removeAll();
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -319,12 +401,13 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
             return;
         }
 
+        if (isCurrentTenant(tenantId)) {
+            removeAll();
+            return;
+        }
         try {
             startTenantFlow(tenantId);
-            Cache<K, V> cache = getBaseCache();
-            if (cache != null) {
-                cache.removeAll();
-            }
+            removeAll();
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
@@ -361,6 +444,92 @@ public abstract class BaseCache<K extends Serializable, V extends Serializable>
         }
     }
 
+    private void put(K key, V entry) {
+
+        Cache<K, V> cache = getBaseCache();
+        if (cache != null) {
+            cache.put(key, entry);
+        }
+        NearCache<K, V> nearCache = getActiveNearCache();
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private V get(K key) {
+
+        NearCache<K, V> nearCache = getActiveNearCache();
+        if (nearCache == null) {
+            Cache<K, V> cache = getBaseCache();
+            if (cache != null) {
+                return cache.get(key);
+            }
+            return null;
+        }
+
+        V value = nearCache.get(key);
+        if (value != null) {
+            return value;
+        }
+        long nearCacheVersion = nearCache.getVersion(key);
+        Cache<K, V> cache = getBaseCache();
+        if (cache == null) {
+            return null;
+        }
+        value = cache.get(key);
+        if (value != null) {
+            nearCache.put(key, value, nearCacheVersion);
+        }
+        return value;
+    }
+
+    private void remove(K key) {
+
+        Cache<K, V> cache = getBaseCache();
+        if (cache != null) {
+            cache.remove(key);
+        }
+        NearCache<K, V> nearCache = getActiveNearCache();
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private void removeAll() {
+
+        Cache<K, V> cache = getBaseCache();
+        if (cache != null) {
+            cache.removeAll();
+        }
+        NearCache<K, V> nearCache = getActiveNearCache();
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Checks whether the thread is already running in the flow of the given tenant, in which case starting a new
+     * tenant flow can be skipped.
+     */
+    private boolean isCurrentTenant(String tenantDomain) {
+
+        if (tenantDomain == null) {
+            return false;
+        }
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        return tenantDomain.equals(carbonContext.getTenantDomain())
+                && carbonContext.getTenantId() != MultitenantConstants.INVALID_TENANT_ID;
+    }
+
+    private boolean isCurrentTenant(int tenantId) {
+
+        if (tenantId == MultitenantConstants.INVALID_TENANT_ID) {
+            return false;
+        }
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        return carbonContext.getTenantId() == tenantId && carbonContext.getTenantDomain() != null;
+    }
+
     private void startTenantFlow(String tenantDomain) {
 
         PrivilegedCarbonContext.startTenantFlow();
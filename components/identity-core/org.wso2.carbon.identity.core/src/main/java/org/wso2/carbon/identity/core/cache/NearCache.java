@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, time limited node local cache kept in front of a distributed cache.
+ * <p>
+ * Entries are spread over independently locked segments, each evicting its least recently used entries, so that
+ * concurrent reads of different keys do not contend on a single lock.
+ * <p>
+ * Every invalidation of a key increments the version stamp of that key, and clearing the cache increments the
+ * version of all keys. A value read from the distributed cache is only added if its key was not invalidated since
+ * the read started, so an update racing with a read can not leave a stale value behind in the near cache, while
+ * updates of other keys do not reject it. Version stamps are striped by key hash, so an invalidation may also
+ * reject a racing read of a key sharing its stripe, which only costs a near cache miss.
+ *
+ * @param <K> cache key type.
+ * @param <V> cache value type.
+ */
+public class NearCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final int VERSION_STRIPES = 1024;
+
+    private final long timeoutNanos;
+    private final Segment<K, V>[] segments;
+    private final NearCacheStatistics statistics;
+    private final AtomicLongArray keyVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong clearVersion = new AtomicLong();
+
+    /**
+     * @param capacity       Maximum number of entries. Least recently used entries are evicted first.
+     * @param timeoutSeconds Time an entry stays valid after being added.
+     * @param statistics     Statistics shared by the near caches of the same cache name.
+     */
+    @SuppressWarnings("unchecked")
+    public NearCache(int capacity, int timeoutSeconds, NearCacheStatistics statistics) {
+
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        this.statistics = statistics;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && capacity / (segmentCount * 2) >= MIN_SEGMENT_CAPACITY) {
+            segmentCount <<= 1;
+        }
+        int segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+    }
+
+    /**
+     * Returns the current version of the given key. Capture it before reading the key from the distributed cache
+     * and pass it to {@link #put(Object, Object, long)}.
+     *
+     * @param key Cache key.
+     * @return Current version of the key.
+     */
+    public long getVersion(K key) {
+
+        // Both counters only grow, so their sum changes whenever either of them does.
+        return clearVersion.get() + keyVersions.get(getVersionStripe(hash(key)));
+    }
+
+    public V get(K key) {
+
+        Segment<K, V> segment = getSegment(hash(key));
+        NearCacheEntry<V> entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                segment.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        statistics.recordHit();
+        return entry.getValue();
+    }
+
+    /**
+     * Adds a value read from the distributed cache unless the key was invalidated since the read started.
+     *
+     * @param key             Cache key.
+     * @param value           Cache value.
+     * @param expectedVersion Version of the key captured before reading the value.
+     */
+    public void put(K key, V value, long expectedVersion) {
+
+        Segment<K, V> segment = getSegment(hash(key));
+        synchronized (segment) {
+            if (getVersion(key) != expectedVersion) {
+                statistics.recordStaleRejection();
+                return;
+            }
+            segment.put(key, new NearCacheEntry<>(value, System.nanoTime() + timeoutNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+
+        int hash = hash(key);
+        Segment<K, V> segment = getSegment(hash);
+        synchronized (segment) {
+            keyVersions.incrementAndGet(getVersionStripe(hash));
+            segment.remove(key);
+        }
+        statistics.recordInvalidation();
+    }
+
+    public void invalidateAll() {
+
+        clearVersion.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        statistics.recordInvalidation();
+    }
+
+    public int size() {
+
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static int hash(Object key) {
+
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private Segment<K, V> getSegment(int hash) {
+
+        // Uses the high bits of a multiplicative hash, independent of the bits selecting the version stripe.
+        return segments[((hash * 0x9E3779B9) >>> 28) & (segments.length - 1)];
+    }
+
+    private static int getVersionStripe(int hash) {
+
+        return hash & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * Access ordered segment of the near cache, evicting its least recently used entry when full. Guarded by its
+     * own monitor.
+     */
+    private static class Segment<K, V> extends LinkedHashMap<K, NearCacheEntry<V>> {
+
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, NearCacheEntry<V>> eldest) {
+
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * Near cache entry holding the value and its expiry time.
+     */
+    private static class NearCacheEntry<V> {
+
+        private final V value;
+        private final long expiryTime;
+
+        NearCacheEntry(V value, long expiryTime) {
+
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+
+        V getValue() {
+
+            return value;
+        }
+
+        boolean isExpired(long now) {
+
+            return now - expiryTime >= 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+
+/**
+ * Cache listener which invalidates the near cache entries of a tenant when the corresponding entries of the
+ * distributed cache are updated, removed or expired, locally or through cluster invalidation.
+ *
+ * @param <K> cache key type.
+ * @param <V> cache value type.
+ */
+public class NearCacheInvalidationListener<K, V> extends AbstractCacheListener<K, V>
+        implements CacheEntryUpdatedListener<K, V>, CacheEntryRemovedListener<K, V>, CacheEntryExpiredListener<K, V> {
+
+    private final NearCache<K, V> nearCache;
+
+    public NearCacheInvalidationListener(NearCache<K, V> nearCache) {
+
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public void entryUpdated(CacheEntryEvent<? extends K, ? extends V> event) throws CacheEntryListenerException {
+
+        nearCache.invalidate(event.getKey());
+    }
+
+    @Override
+    public void entryRemoved(CacheEntryEvent<? extends K, ? extends V> event) throws CacheEntryListenerException {
+
+        nearCache.invalidate(event.getKey());
+    }
+
+    @Override
+    public void entryExpired(CacheEntryEvent<? extends K, ? extends V> event) throws CacheEntryListenerException {
+
+        nearCache.invalidate(event.getKey());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and staleness counters of the near caches of a cache name.
+ */
+public class NearCacheStatistics {
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong staleRejectionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    void recordHit() {
+
+        hitCount.incrementAndGet();
+    }
+
+    void recordMiss() {
+
+        missCount.incrementAndGet();
+    }
+
+    void recordStaleRejection() {
+
+        staleRejectionCount.incrementAndGet();
+    }
+
+    void recordInvalidation() {
+
+        invalidationCount.incrementAndGet();
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of values that were not added to the near cache because the cache was invalidated while
+     * the value was being read from the distributed cache.
+     *
+     * @return Stale rejection count.
+     */
+    public long getStaleRejectionCount() {
+
+        return staleRejectionCount.get();
+    }
+
+    public long getInvalidationCount() {
+
+        return invalidationCount.get();
+    }
+
+    @Override
+    public String toString() {
+
+        return "NearCacheStatistics{hitCount=" + getHitCount() + ", missCount=" + getMissCount() +
+                ", staleRejectionCount=" + getStaleRejectionCount() + ", invalidationCount=" +
+                getInvalidationCount() + "}";
+    }
+}
@@ -19,12 +19,18 @@ package org.wso2.carbon.identity.core.model;
 
 public class IdentityCacheConfig {
 
+    private static final int DEFAULT_NEAR_CACHE_CAPACITY = 1000;
+    private static final int DEFAULT_NEAR_CACHE_TIMEOUT = 60;
+
     private IdentityCacheConfigKey identityCacheConfigKey;
     private boolean isEnabled;
     private int timeout;
     private int capacity;
     private boolean isDistributed = true;
     private boolean isTemporary = false;
+    private boolean isNearCacheEnabled = false;
+    private int nearCacheCapacity = DEFAULT_NEAR_CACHE_CAPACITY;
+    private int nearCacheTimeout = DEFAULT_NEAR_CACHE_TIMEOUT;
 
     public IdentityCacheConfig(IdentityCacheConfigKey identityCacheConfigKey) {
         this.identityCacheConfigKey = identityCacheConfigKey;
@@ -73,4 +79,28 @@ public class IdentityCacheConfig {
     public void setDistributed(boolean isDistributed) {
         this.isDistributed = isDistributed;
     }
+
+    public boolean isNearCacheEnabled() {
+        return isNearCacheEnabled;
+    }
+
+    public void setNearCacheEnabled(boolean isNearCacheEnabled) {
+        this.isNearCacheEnabled = isNearCacheEnabled;
+    }
+
+    public int getNearCacheCapacity() {
+        return nearCacheCapacity;
+    }
+
+    public void setNearCacheCapacity(int nearCacheCapacity) {
+        this.nearCacheCapacity = nearCacheCapacity;
+    }
+
+    public int getNearCacheTimeout() {
+        return nearCacheTimeout;
+    }
+
+    public void setNearCacheTimeout(int nearCacheTimeout) {
+        this.nearCacheTimeout = nearCacheTimeout;
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handle to a single identity.xml property. Callers on hot paths can hold a handle for a property key and read the
+ * value through the typed accessors, which reuse the resolved value of the property until the identity
+ * configuration changes.
+ */
+public class IdentityConfigProperty {
+
+    private final String key;
+
+    IdentityConfigProperty(String key) {
+
+        this.key = key;
+    }
+
+    /**
+     * Get the key of the property.
+     *
+     * @return Property key.
+     */
+    public String getKey() {
+
+        return key;
+    }
+
+    /**
+     * Get the value of the property with the placeholders filled.
+     *
+     * @return Property value or null if the property is not configured.
+     */
+    public String getValue() {
+
+        ResolvedIdentityProperty property = IdentityUtil.getResolvedProperty(key);
+        return property == null ? null : property.getValue();
+    }
+
+    /**
+     * Get the values of a property defined as a list.
+     *
+     * @return Property values or an empty list if the property is not configured.
+     */
+    public List<String> getValues() {
+
+        ResolvedIdentityProperty property = IdentityUtil.getResolvedProperty(key);
+        return property == null ? new ArrayList<>() : new ArrayList<>(property.getValues());
+    }
+
+    /**
+     * Get the value of the property as an int.
+     *
+     * @param defaultValue Value to return if the property is not configured or is not a valid int.
+     * @return Property value.
+     */
+    public int getIntValue(int defaultValue) {
+
+        ResolvedIdentityProperty property = IdentityUtil.getResolvedProperty(key);
+        return property == null ? defaultValue : property.getIntValue(defaultValue);
+    }
+
+    /**
+     * Get the value of the property as a long.
+     *
+     * @param defaultValue Value to return if the property is not configured or is not a valid long.
+     * @return Property value.
+     */
+    public long getLongValue(long defaultValue) {
+
+        ResolvedIdentityProperty property = IdentityUtil.getResolvedProperty(key);
+        return property == null ? defaultValue : property.getLongValue(defaultValue);
+    }
+
+    /**
+     * Get the value of the property as a boolean.
+     *
+     * @param defaultValue Value to return if the property is not configured.
+     * @return Property value.
+     */
+    public boolean getBooleanValue(boolean defaultValue) {
+
+        ResolvedIdentityProperty property = IdentityUtil.getResolvedProperty(key);
+        return property == null ? defaultValue : property.getBooleanValue(defaultValue);
+    }
+}
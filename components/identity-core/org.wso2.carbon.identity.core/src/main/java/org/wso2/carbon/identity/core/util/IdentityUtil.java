@@ -91,6 +91,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -135,6 +136,7 @@ public class IdentityUtil {
     private static final String DISABLE_EMAIL_USERNAME_VALIDATION = "DisableEmailUserNameValidation";
     private static Log log = LogFactory.getLog(IdentityUtil.class);
     private static Map<String, Object> configuration = new HashMap<>();
+    private static final Map<String, ResolvedIdentityProperty> resolvedProperties = new ConcurrentHashMap<>();
     private static Map<IdentityEventListenerConfigKey, IdentityEventListenerConfig> eventListenerConfiguration = new
             HashMap<>();
     private static Map<IdentityCacheConfigKey, IdentityCacheConfig> identityCacheConfigurationHolder = new HashMap<>();
@@ -192,22 +194,86 @@ public class IdentityUtil {
      */
     public static String getProperty(String key) {
 
-        Object value = configuration.get(key);
-        String strValue;
+        ResolvedIdentityProperty property = getResolvedProperty(key);
+        return property == null ? null : property.getValue();
+    }
 
-        if (value == null) {
+    /**
+     * Get a handle to a configuration element of the identity.xml. The handle can be kept by the caller and reads the
+     * resolved value of the element on each access.
+     *
+     * @param key Element Name as specified from the parent elements in the XML structure.
+     * @return Handle to the configuration element.
+     */
+    public static IdentityConfigProperty getConfigProperty(String key) {
+
+        return new IdentityConfigProperty(key);
+    }
+
+    /**
+     * Read a configuration element from the identity.xml as an int.
+     *
+     * @param key          Element Name as specified from the parent elements in the XML structure.
+     * @param defaultValue Value to return if the element is not configured or is not a valid int.
+     * @return Element value as an int.
+     */
+    public static int getPropertyAsInt(String key, int defaultValue) {
+
+        ResolvedIdentityProperty property = getResolvedProperty(key);
+        return property == null ? defaultValue : property.getIntValue(defaultValue);
+    }
+
+    /**
+     * Read a configuration element from the identity.xml as a long.
+     *
+     * @param key          Element Name as specified from the parent elements in the XML structure.
+     * @param defaultValue Value to return if the element is not configured or is not a valid long.
+     * @return Element value as a long.
+     */
+    public static long getPropertyAsLong(String key, long defaultValue) {
+
+        ResolvedIdentityProperty property = getResolvedProperty(key);
+        return property == null ? defaultValue : property.getLongValue(defaultValue);
+    }
+
+    /**
+     * Read a configuration element from the identity.xml as a boolean.
+     *
+     * @param key          Element Name as specified from the parent elements in the XML structure.
+     * @param defaultValue Value to return if the element is not configured.
+     * @return Element value as a boolean.
+     */
+    public static boolean getPropertyAsBoolean(String key, boolean defaultValue) {
+
+        ResolvedIdentityProperty property = getResolvedProperty(key);
+        return property == null ? defaultValue : property.getBooleanValue(defaultValue);
+    }
+
+    /**
+     * Get the resolved value of a configuration element. The placeholders of a value are filled only when the value
+     * is read for the first time, and the resolved value is reused as long as the configuration holds the same value.
+     *
+     * @param key Element Name as specified from the parent elements in the XML structure.
+     * @return Resolved value of the element or null if the element is not configured.
+     */
+    static ResolvedIdentityProperty getResolvedProperty(String key) {
+
+        if (key == null) {
             return null;
         }
-        if (value instanceof List) {
-            value = ((List) value).get(0);
+        Object value = configuration.get(key);
+        if (value == null) {
+            return null;
         }
-        if (value instanceof String) {
-            strValue = (String) value;
-        } else {
-            strValue = String.valueOf(value);
+
+        ResolvedIdentityProperty property = resolvedProperties.get(key);
+        if (property != null && property.getRawValue() == value) {
+            return property;
         }
-        strValue = fillURLPlaceholders(strValue);
-        return strValue;
+
+        property = new ResolvedIdentityProperty(value);
+        resolvedProperties.put(key, property);
+        return property;
     }
 
     public static IdentityEventListenerConfig readEventListenerProperty(String type, String name) {
@@ -320,6 +386,7 @@ public class IdentityUtil {
 
     public static void populateProperties() {
         configuration = IdentityConfigParser.getInstance().getConfiguration();
+        resolvedProperties.clear();
         eventListenerConfiguration = IdentityConfigParser.getInstance().getEventListenerConfiguration();
         identityCacheConfigurationHolder = IdentityConfigParser.getInstance().getIdentityCacheConfigurationHolder();
         identityCookiesConfigurationHolder = IdentityConfigParser.getIdentityCookieConfigurationHolder();
@@ -1799,27 +1866,11 @@ public class IdentityUtil {
      */
     public static List<String> getPropertyAsList(String key) {
 
-        List<String> propertyList = new ArrayList<>();
-        Object value = configuration.get(key);
-
-        if (value == null) {
-            return propertyList;
-        }
-        if (value instanceof List) {
-            List rawProps = (List) value;
-            for (Object rawProp: rawProps ) {
-                if (rawProp instanceof String) {
-                    propertyList.add((String) rawProp);
-                } else {
-                    propertyList.add(String.valueOf(rawProp));
-                }
-            }
-        } else if (value instanceof String) {
-            propertyList.add((String) value);
-        } else {
-            propertyList.add(String.valueOf(value));
+        ResolvedIdentityProperty property = getResolvedProperty(key);
+        if (property == null) {
+            return new ArrayList<>();
         }
-        return propertyList;
+        return new ArrayList<>(property.getValues());
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.util;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolved value of an identity.xml property. The placeholders of the value are filled once and the typed
+ * representations are parsed once, so repeated reads of the property do not redo that work.
+ */
+final class ResolvedIdentityProperty {
+
+    private final Object rawValue;
+    private final List<String> values;
+    private volatile Value value;
+
+    ResolvedIdentityProperty(Object rawValue) {
+
+        this.rawValue = rawValue;
+        this.values = Collections.unmodifiableList(toValueList(rawValue));
+    }
+
+    /**
+     * Get the configuration value this property was resolved from.
+     *
+     * @return Raw configuration value.
+     */
+    Object getRawValue() {
+
+        return rawValue;
+    }
+
+    String getValue() {
+
+        return getResolvedValue().value;
+    }
+
+    List<String> getValues() {
+
+        return values;
+    }
+
+    int getIntValue(int defaultValue) {
+
+        Integer intValue = getResolvedValue().intValue;
+        return intValue == null ? defaultValue : intValue;
+    }
+
+    long getLongValue(long defaultValue) {
+
+        Long longValue = getResolvedValue().longValue;
+        return longValue == null ? defaultValue : longValue;
+    }
+
+    boolean getBooleanValue(boolean defaultValue) {
+
+        Boolean booleanValue = getResolvedValue().booleanValue;
+        return booleanValue == null ? defaultValue : booleanValue;
+    }
+
+    /**
+     * Fill the placeholders of the first value on the first read. Resolving is not done at construction since the
+     * list values of a property are read without filling placeholders, and a concurrent first read only resolves
+     * the same value twice.
+     */
+    private Value getResolvedValue() {
+
+        Value resolvedValue = value;
+        if (resolvedValue == null) {
+            resolvedValue = new Value(IdentityUtil.fillURLPlaceholders(values.get(0)));
+            value = resolvedValue;
+        }
+        return resolvedValue;
+    }
+
+    private static List<String> toValueList(Object rawValue) {
+
+        List<String> valueList = new ArrayList<>();
+        if (rawValue instanceof List) {
+            for (Object rawProp : (List) rawValue) {
+                valueList.add(rawProp instanceof String ? (String) rawProp : String.valueOf(rawProp));
+            }
+        } else if (rawValue instanceof String) {
+            valueList.add((String) rawValue);
+        } else {
+            valueList.add(String.valueOf(rawValue));
+        }
+        return valueList;
+    }
+
+    private static final class Value {
+
+        private final String value;
+        private final Integer intValue;
+        private final Long longValue;
+        private final Boolean booleanValue;
+
+        private Value(String value) {
+
+            this.value = value;
+            this.intValue = parseInt(value);
+            this.longValue = parseLong(value);
+            this.booleanValue = StringUtils.isBlank(value) ? null : Boolean.valueOf(value.trim());
+        }
+    }
+
+    private static Integer parseInt(String value) {
+
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -141,4 +141,21 @@ public class BaseCacheTest {
         entry = TestCache.getInstance().getValueFromCache(new TestCacheKey("test2"), "bar.com");
         assertEquals("value2", entry.getValue());
     }
+
+    @Test
+    public void testTenantFlowIsRestoredAfterCacheAccess() {
+
+        TestCache.getInstance().addToCache(new TestCacheKey("test1"), new TestCacheEntry("value1"), 1);
+        TestCache.getInstance().addToCache(new TestCacheKey("test2"), new TestCacheEntry("value2"), "bar.com");
+
+        TestCacheEntry entry = TestCache.getInstance().getValueFromCache(new TestCacheKey("test2"), 2);
+        assertEquals("value2", entry.getValue());
+        assertEquals(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(), 1);
+        assertEquals(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(), "foo.com");
+
+        entry = TestCache.getInstance().getValueFromCache(new TestCacheKey("test1"), "foo.com");
+        assertEquals("value1", entry.getValue());
+        entry = TestCache.getInstance().getValueFromCache(new TestCacheKey("test1"), 2);
+        assertNull(entry);
+    }
 }
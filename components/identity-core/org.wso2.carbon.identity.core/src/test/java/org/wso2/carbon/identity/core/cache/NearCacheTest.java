@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.core.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for the near cache.
+ */
+public class NearCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+
+        NearCacheStatistics statistics = new NearCacheStatistics();
+        NearCache<String, String> nearCache = new NearCache<>(10, 60, statistics);
+
+        assertNull(nearCache.get("key"));
+        nearCache.put("key", "value", nearCache.getVersion("key"));
+        assertEquals(nearCache.get("key"), "value");
+        assertEquals(statistics.getHitCount(), 1);
+        assertEquals(statistics.getMissCount(), 1);
+    }
+
+    @Test
+    public void testStaleValueIsRejectedAfterInvalidation() {
+
+        NearCacheStatistics statistics = new NearCacheStatistics();
+        NearCache<String, String> nearCache = new NearCache<>(10, 60, statistics);
+
+        long version = nearCache.getVersion("key");
+        // An update invalidates the key while the old value is being read from the distributed cache.
+        nearCache.invalidate("key");
+        nearCache.put("key", "oldValue", version);
+
+        assertNull(nearCache.get("key"));
+        assertEquals(statistics.getStaleRejectionCount(), 1);
+        assertEquals(statistics.getInvalidationCount(), 1);
+    }
+
+    @Test
+    public void testInvalidationOfOtherKeyDoesNotRejectValue() {
+
+        NearCacheStatistics statistics = new NearCacheStatistics();
+        NearCache<String, String> nearCache = new NearCache<>(10, 60, statistics);
+
+        long version = nearCache.getVersion("key1");
+        nearCache.invalidate("key2");
+        nearCache.put("key1", "value1", version);
+
+        assertEquals(nearCache.get("key1"), "value1");
+        assertEquals(statistics.getStaleRejectionCount(), 0);
+    }
+
+    @Test
+    public void testStaleValueIsRejectedAfterInvalidateAll() {
+
+        NearCacheStatistics statistics = new NearCacheStatistics();
+        NearCache<String, String> nearCache = new NearCache<>(10, 60, statistics);
+
+        long version = nearCache.getVersion("key");
+        nearCache.invalidateAll();
+        nearCache.put("key", "oldValue", version);
+
+        assertNull(nearCache.get("key"));
+        assertEquals(statistics.getStaleRejectionCount(), 1);
+    }
+
+    @Test
+    public void testCapacityIsBoundedAcrossSegments() {
+
+        NearCache<String, String> nearCache = new NearCache<>(512, 60, new NearCacheStatistics());
+        for (int i = 0; i < 2048; i++) {
+            String key = "key" + i;
+            nearCache.put(key, "value" + i, nearCache.getVersion(key));
+        }
+
+        assertTrue(nearCache.size() <= 512, "Near cache grew beyond its capacity: " + nearCache.size());
+        assertEquals(nearCache.get("key2047"), "value2047");
+    }
+
+    @Test
+    public void testConcurrentReadsAndInvalidations() throws Exception {
+
+        NearCache<Integer, String> nearCache = new NearCache<>(256, 60, new NearCacheStatistics());
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        int key = i % 512;
+                        if (nearCache.get(key) == null) {
+                            nearCache.put(key, "value" + key, nearCache.getVersion(key));
+                        }
+                        if (i % 7 == 0) {
+                            nearCache.invalidate(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertTrue(nearCache.size() <= 256);
+        nearCache.invalidate(5);
+        assertNull(nearCache.get(5));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+
+        NearCache<String, String> nearCache = new NearCache<>(10, 60, new NearCacheStatistics());
+        nearCache.put("key1", "value1", nearCache.getVersion("key1"));
+        nearCache.put("key2", "value2", nearCache.getVersion("key2"));
+
+        nearCache.invalidateAll();
+
+        assertEquals(nearCache.size(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+
+        NearCache<String, String> nearCache = new NearCache<>(2, 60, new NearCacheStatistics());
+        nearCache.put("key1", "value1", nearCache.getVersion("key1"));
+        nearCache.put("key2", "value2", nearCache.getVersion("key2"));
+        nearCache.get("key1");
+        nearCache.put("key3", "value3", nearCache.getVersion("key3"));
+
+        assertEquals(nearCache.size(), 2);
+        assertEquals(nearCache.get("key1"), "value1");
+        assertNull(nearCache.get("key2"));
+    }
+
+    @Test
+    public void testExpiredEntryIsNotReturned() {
+
+        NearCache<String, String> nearCache = new NearCache<>(2, 0, new NearCacheStatistics());
+        nearCache.put("key", "value", nearCache.getVersion("key"));
+
+        assertNull(nearCache.get("key"));
+    }
+}
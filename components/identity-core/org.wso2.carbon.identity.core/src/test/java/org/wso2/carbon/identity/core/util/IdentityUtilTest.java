@@ -207,6 +207,56 @@ public class IdentityUtilTest {
                 "= %s, value = %s", key, String.valueOf(value)));
     }
 
+    @DataProvider
+    public Object[][] getTypedPropertyTestData() {
+        return new Object[][]{
+                {"100", 100, 100L, false},
+                {" 25 ", 25, 25L, false},
+                {"true", -1, -1L, true},
+                {"NotANumber", -1, -1L, false},
+                {Arrays.asList("7", "8"), 7, 7L, false},
+                {null, -1, -1L, false},
+        };
+    }
+
+    @Test(dataProvider = "getTypedPropertyTestData")
+    public void testGetTypedProperty(Object value, int expectedInt, long expectedLong, boolean expectedBoolean)
+            throws Exception {
+
+        Map<String, Object> mockConfig = new HashMap<>();
+        mockConfig.put("testTyped", value);
+        setPrivateStaticField(IdentityUtil.class, "configuration", mockConfig);
+
+        assertEquals(IdentityUtil.getPropertyAsInt("testTyped", -1), expectedInt);
+        assertEquals(IdentityUtil.getPropertyAsLong("testTyped", -1L), expectedLong);
+        assertEquals(IdentityUtil.getPropertyAsBoolean("testTyped", false), expectedBoolean);
+
+        IdentityConfigProperty property = IdentityUtil.getConfigProperty("testTyped");
+        assertEquals(property.getIntValue(-1), expectedInt);
+        assertEquals(property.getLongValue(-1L), expectedLong);
+        assertEquals(property.getBooleanValue(false), expectedBoolean);
+        assertEquals(property.getValue(), IdentityUtil.getProperty("testTyped"));
+        assertEquals(property.getValues(), IdentityUtil.getPropertyAsList("testTyped"));
+    }
+
+    @Test
+    public void testGetPropertyAfterConfigurationChange() throws Exception {
+
+        Map<String, Object> mockConfig = new HashMap<>();
+        mockConfig.put("testChanged", "10");
+        setPrivateStaticField(IdentityUtil.class, "configuration", mockConfig);
+        IdentityConfigProperty property = IdentityUtil.getConfigProperty("testChanged");
+        assertEquals(property.getIntValue(-1), 10);
+
+        mockConfig.put("testChanged", "20");
+        assertEquals(property.getIntValue(-1), 20, "Resolved value should follow the configuration.");
+        assertEquals(IdentityUtil.getProperty("testChanged"), "20");
+
+        mockConfig.remove("testChanged");
+        assertEquals(property.getIntValue(-1), -1);
+        assertNull(IdentityUtil.getProperty("testChanged"));
+    }
+
 
     @Test
     public void testReadEventListenerProperty() throws Exception {
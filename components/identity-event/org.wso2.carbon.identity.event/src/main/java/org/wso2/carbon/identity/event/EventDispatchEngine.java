@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.internal.IdentityEventServiceDataHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatches events to asynchronous event handlers.
+ * <p>
+ * Every handler gets its own bounded queue, so a slow handler only fills up its own queue instead of delaying the
+ * events of other handlers. Queued events are delivered by a shared worker pool. A handler never occupies more than
+ * the configured number of workers at a time, and each worker task delivers at most one batch before yielding, so
+ * the pool is shared fairly. When several handlers have pending work, the handler with the lower priority value
+ * (see {@link AbstractEventHandler#getPriority}) is served first.
+ * <p>
+ * The defaults given to the constructor can be overridden per handler with the following module properties in
+ * identity-event.properties.
+ * <pre>
+ *     &lt;module&gt;.async.queueCapacity
+ *     &lt;module&gt;.async.rejectionPolicy
+ *     &lt;module&gt;.async.batchSize
+ *     &lt;module&gt;.async.concurrency
+ * </pre>
+ */
+public class EventDispatchEngine {
+
+    private static final Log log = LogFactory.getLog(EventDispatchEngine.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final EventRejectionPolicy DEFAULT_REJECTION_POLICY = EventRejectionPolicy.CALLER_RUNS;
+
+    static final String QUEUE_CAPACITY_PROPERTY = "async.queueCapacity";
+    static final String REJECTION_POLICY_PROPERTY = "async.rejectionPolicy";
+    static final String BATCH_SIZE_PROPERTY = "async.batchSize";
+    static final String CONCURRENCY_PROPERTY = "async.concurrency";
+
+    private static final long BLOCK_TIMEOUT_MILLIS = 5000;
+    private static final int DROP_LOG_INTERVAL = 1000;
+
+    private final ThreadPoolExecutor workerPool;
+    private final ExecutorService legacyThreadPool;
+    private final ConcurrentMap<AbstractEventHandler, HandlerDispatcher> dispatchers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final int defaultQueueCapacity;
+    private final EventRejectionPolicy defaultRejectionPolicy;
+    private final int defaultBatchSize;
+    private final int defaultConcurrency;
+
+    /**
+     * Create a dispatch engine with the default queue settings.
+     *
+     * @param threadPoolSize Number of worker threads shared by all handlers.
+     */
+    public EventDispatchEngine(int threadPoolSize) {
+
+        this(threadPoolSize, DEFAULT_QUEUE_CAPACITY, DEFAULT_REJECTION_POLICY, DEFAULT_BATCH_SIZE, 0);
+    }
+
+    /**
+     * Create a dispatch engine.
+     *
+     * @param threadPoolSize  Number of worker threads shared by all handlers.
+     * @param queueCapacity   Default capacity of the queue of each handler.
+     * @param rejectionPolicy Default action taken when the queue of a handler is full.
+     * @param batchSize       Default maximum number of events delivered to a handler in one worker task.
+     * @param concurrency     Default maximum number of workers a handler may occupy at a time. A non positive value
+     *                        limits a handler to half of the worker pool.
+     */
+    public EventDispatchEngine(int threadPoolSize, int queueCapacity, EventRejectionPolicy rejectionPolicy,
+                               int batchSize, int concurrency) {
+
+        int poolSize = Math.max(1, threadPoolSize);
+        this.defaultQueueCapacity = queueCapacity > 0 ? queueCapacity : DEFAULT_QUEUE_CAPACITY;
+        this.defaultRejectionPolicy = rejectionPolicy != null ? rejectionPolicy : DEFAULT_REJECTION_POLICY;
+        this.defaultBatchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.defaultConcurrency = concurrency > 0 ? Math.min(concurrency, poolSize) : Math.max(1, poolSize / 2);
+
+        // Pending worker tasks are bounded by the per handler concurrency, hence the work queue need not be bounded.
+        this.workerPool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(), new EventDispatchThreadFactory());
+        // The worker pool only accepts delivery tasks. Code which submits its own tasks to the thread pool of the
+        // data holder keeps getting a general purpose executor as before.
+        this.legacyThreadPool = Executors.newFixedThreadPool(poolSize);
+        IdentityEventServiceDataHolder.getInstance().setThreadPool(legacyThreadPool);
+    }
+
+    /**
+     * Queue an event for asynchronous delivery to the given handler.
+     *
+     * @param handler Handler which subscribed to the event.
+     * @param event   Event to be delivered.
+     */
+    public void dispatch(AbstractEventHandler handler, Event event) {
+
+        getDispatcher(handler).enqueue(event);
+    }
+
+    /**
+     * @return Dispatch statistics of each handler which received asynchronous events, keyed by the handler name.
+     */
+    public Map<String, EventDispatchStatistics> getStatistics() {
+
+        Map<String, EventDispatchStatistics> statistics = new LinkedHashMap<>();
+        for (HandlerDispatcher dispatcher : dispatchers.values()) {
+            statistics.put(dispatcher.statistics.getHandlerName(), dispatcher.statistics);
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Stop accepting events. Worker tasks which are already running complete, while events still waiting in the
+     * handler queues are discarded.
+     */
+    public void shutdown() {
+
+        workerPool.shutdown();
+        legacyThreadPool.shutdown();
+        for (HandlerDispatcher dispatcher : dispatchers.values()) {
+            if (!dispatcher.queue.isEmpty()) {
+                log.warn(dispatcher.queue.size() + " queued events of handler: " + dispatcher.handler.getName() +
+                        " will not be delivered as the event dispatcher is shutting down.");
+            }
+        }
+    }
+
+    private HandlerDispatcher getDispatcher(AbstractEventHandler handler) {
+
+        HandlerDispatcher dispatcher = dispatchers.get(handler);
+        if (dispatcher == null) {
+            HandlerDispatcher newDispatcher = new HandlerDispatcher(handler);
+            dispatcher = dispatchers.putIfAbsent(handler, newDispatcher);
+            if (dispatcher == null) {
+                dispatcher = newDispatcher;
+                if (log.isDebugEnabled()) {
+                    log.debug("Created asynchronous event queue for handler: " + handler.getName() + " with " +
+                            "capacity: " + newDispatcher.statistics.getQueueCapacity() + ", rejection policy: " +
+                            newDispatcher.rejectionPolicy + ", batch size: " + newDispatcher.batchSize +
+                            ", concurrency: " + newDispatcher.concurrency);
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    private int getIntProperty(AbstractEventHandler handler, String propertyName, int defaultValue) {
+
+        String value = handler.getModuleProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + value + " configured for " + handler.getName() + "." + propertyName +
+                    ". Using the default value: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Bounded queue and delivery state of a single handler.
+     */
+    private final class HandlerDispatcher {
+
+        private final AbstractEventHandler handler;
+        private final BlockingQueue<Event> queue;
+        private final EventRejectionPolicy rejectionPolicy;
+        private final int batchSize;
+        private final int concurrency;
+        private final int priority;
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private final EventDispatchStatistics statistics;
+
+        private HandlerDispatcher(AbstractEventHandler handler) {
+
+            this.handler = handler;
+            int queueCapacity = getIntProperty(handler, QUEUE_CAPACITY_PROPERTY, defaultQueueCapacity);
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.rejectionPolicy = EventRejectionPolicy.fromName(handler.getModuleProperty(REJECTION_POLICY_PROPERTY),
+                    defaultRejectionPolicy);
+            this.batchSize = getIntProperty(handler, BATCH_SIZE_PROPERTY, defaultBatchSize);
+            this.concurrency = Math.min(getIntProperty(handler, CONCURRENCY_PROPERTY, defaultConcurrency),
+                    workerPool.getMaximumPoolSize());
+            this.priority = handler.getPriority(null);
+            this.statistics = new EventDispatchStatistics(handler.getName(), queue, queueCapacity);
+        }
+
+        private void enqueue(Event event) {
+
+            if (workerPool.isShutdown()) {
+                reject(event, "the event dispatcher is shut down");
+                return;
+            }
+            if (queue.offer(event)) {
+                statistics.recordEnqueued();
+                schedule();
+                return;
+            }
+
+            switch (rejectionPolicy) {
+                case DROP_OLDEST:
+                    while (!queue.offer(event)) {
+                        if (queue.poll() != null) {
+                            reject(null, "the queue is full and the oldest event was discarded");
+                        }
+                    }
+                    statistics.recordEnqueued();
+                    schedule();
+                    break;
+                case CALLER_RUNS:
+                    statistics.recordCallerRuns();
+                    deliver(Collections.singletonList(event));
+                    break;
+                case BLOCK:
+                    try {
+                        if (queue.offer(event, BLOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                            statistics.recordEnqueued();
+                            schedule();
+                        } else {
+                            reject(event, "the queue stayed full for " + BLOCK_TIMEOUT_MILLIS + " ms");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        reject(event, "the publishing thread was interrupted");
+                    }
+                    break;
+                default:
+                    reject(event, "the queue is full");
+            }
+        }
+
+        private void reject(Event event, String reason) {
+
+            long dropped = statistics.recordDropped();
+            if (dropped == 1 || dropped % DROP_LOG_INTERVAL == 0) {
+                log.warn("Discarded an event of handler: " + handler.getName() + " as " + reason + ". " +
+                        statistics);
+            } else if (log.isDebugEnabled()) {
+                log.debug("Discarded " + (event != null ? "event: " + event.getEventName() : "an event") +
+                        " of handler: " + handler.getName() + " as " + reason + ".");
+            }
+        }
+
+        /**
+         * Start delivery workers while there are enough queued events to keep another worker busy and the handler
+         * has not reached its concurrency limit.
+         */
+        private void schedule() {
+
+            while (true) {
+                int active = activeWorkers.get();
+                if (active >= concurrency || queue.size() <= (long) active * batchSize) {
+                    return;
+                }
+                if (!activeWorkers.compareAndSet(active, active + 1)) {
+                    continue;
+                }
+                try {
+                    workerPool.execute(new DeliveryTask(this, sequence.incrementAndGet()));
+                } catch (RejectedExecutionException e) {
+                    activeWorkers.decrementAndGet();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Worker pool rejected the delivery task of handler: " + handler.getName(), e);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void deliverNextBatch() {
+
+            try {
+                List<Event> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+                if (queue.drainTo(batch, batchSize) > 0) {
+                    deliver(batch);
+                }
+            } finally {
+                activeWorkers.decrementAndGet();
+                // Yield the worker and requeue behind other handlers if more events arrived meanwhile.
+                schedule();
+            }
+        }
+
+        private void deliver(List<Event> events) {
+
+            long start = System.nanoTime();
+            if (events.size() > 1 && handler.isBatchDeliverySupported()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Executing " + handler.getName() + " on a batch of " + events.size() + " events");
+                }
+                try {
+                    handler.handleEvents(events);
+                } catch (IdentityEventException | RuntimeException e) {
+                    statistics.recordFailed(events.size());
+                    log.error("Error while invoking event handler " + handler.getName() + " for a batch of " +
+                            events.size() + " events", e);
+                }
+            } else {
+                for (Event event : events) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Executing " + handler.getName() + " on event" + event.getEventName());
+                    }
+                    try {
+                        handler.handleEvent(event);
+                    } catch (IdentityEventException | RuntimeException e) {
+                        statistics.recordFailed(1);
+                        log.error("Error while invoking event handler " + handler.getName(), e);
+                    }
+                }
+            }
+            statistics.recordDelivery(events.size(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Worker task delivering one batch of a handler. Tasks are ordered by handler priority and then by submission
+     * order.
+     */
+    private static final class DeliveryTask implements Runnable, Comparable<DeliveryTask> {
+
+        private final HandlerDispatcher dispatcher;
+        private final long sequence;
+
+        private DeliveryTask(HandlerDispatcher dispatcher, long sequence) {
+
+            this.dispatcher = dispatcher;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+
+            dispatcher.deliverNextBatch();
+        }
+
+        @Override
+        public int compareTo(DeliveryTask other) {
+
+            if (dispatcher.priority != other.dispatcher.priority) {
+                return dispatcher.priority < other.dispatcher.priority ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class EventDispatchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            return new Thread(runnable, "IdentityEventDispatcher-" + threadCount.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event;
+
+import org.wso2.carbon.identity.event.event.Event;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime statistics of the asynchronous dispatch queue of a single event handler.
+ */
+public class EventDispatchStatistics {
+
+    private final String handlerName;
+    private final Queue<Event> queue;
+    private final int queueCapacity;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    EventDispatchStatistics(String handlerName, Queue<Event> queue, int queueCapacity) {
+
+        this.handlerName = handlerName;
+        this.queue = queue;
+        this.queueCapacity = queueCapacity;
+    }
+
+    void recordEnqueued() {
+
+        enqueuedCount.incrementAndGet();
+    }
+
+    long recordDropped() {
+
+        return droppedCount.incrementAndGet();
+    }
+
+    void recordCallerRuns() {
+
+        callerRunsCount.incrementAndGet();
+    }
+
+    void recordFailed(int events) {
+
+        failedCount.addAndGet(events);
+    }
+
+    void recordDelivery(int events, long latencyNanos) {
+
+        deliveredCount.addAndGet(events);
+        batchCount.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        long max = maxLatencyNanos.get();
+        while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = maxLatencyNanos.get();
+        }
+    }
+
+    public String getHandlerName() {
+
+        return handlerName;
+    }
+
+    /**
+     * @return Number of events currently waiting in the handler queue.
+     */
+    public int getQueueDepth() {
+
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    public long getEnqueuedCount() {
+
+        return enqueuedCount.get();
+    }
+
+    /**
+     * @return Number of events handed over to the handler, including the ones executed on the publishing thread.
+     */
+    public long getDeliveredCount() {
+
+        return deliveredCount.get();
+    }
+
+    /**
+     * @return Number of events discarded because the handler queue was full.
+     */
+    public long getDroppedCount() {
+
+        return droppedCount.get();
+    }
+
+    /**
+     * @return Number of events executed on the publishing thread because the handler queue was full.
+     */
+    public long getCallerRunsCount() {
+
+        return callerRunsCount.get();
+    }
+
+    /**
+     * @return Number of events for which the handler failed.
+     */
+    public long getFailedCount() {
+
+        return failedCount.get();
+    }
+
+    /**
+     * @return Number of handler invocations, where a batch delivery counts as a single invocation.
+     */
+    public long getBatchCount() {
+
+        return batchCount.get();
+    }
+
+    public double getAverageLatencyMillis() {
+
+        long batches = batchCount.get();
+        if (batches == 0) {
+            return 0;
+        }
+        return (double) totalLatencyNanos.get() / batches / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis() {
+
+        return (double) maxLatencyNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+
+        return "EventDispatchStatistics{handler=" + handlerName + ", queueDepth=" + getQueueDepth() + "/" +
+                queueCapacity + ", enqueued=" + getEnqueuedCount() + ", delivered=" + getDeliveredCount() +
+                ", dropped=" + getDroppedCount() + ", callerRuns=" + getCallerRunsCount() + ", failed=" +
+                getFailedCount() + ", avgLatencyMs=" + getAverageLatencyMillis() + ", maxLatencyMs=" +
+                getMaxLatencyMillis() + "}";
+    }
+}
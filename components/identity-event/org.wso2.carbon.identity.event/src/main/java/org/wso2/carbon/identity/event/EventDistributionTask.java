@@ -33,7 +33,10 @@ import java.util.concurrent.LinkedBlockingDeque;
 /**
  * This has a queue inside. All publishers add events to this queue and this event distribution task is responsible
  * for distributing these events to Notification sending modules
+ *
+ * @deprecated Use {@link EventDispatchEngine}, which keeps a bounded queue per handler.
  */
+@Deprecated
 public class EventDistributionTask implements Runnable {
 
     private static final Log log = LogFactory.getLog(EventDistributionTask.class);
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Action taken by the {@link EventDispatchEngine} when the bounded queue of an asynchronous event handler is full.
+ */
+public enum EventRejectionPolicy {
+
+    /**
+     * Discard the incoming event.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discard the oldest queued event to make room for the incoming event.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Execute the handler on the publishing thread, slowing down the publisher.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Wait for a bounded amount of time for space in the queue and discard the event if none becomes available.
+     */
+    BLOCK;
+
+    /**
+     * Resolve a rejection policy from its configured name.
+     *
+     * @param name          Configured policy name. Case insensitive.
+     * @param defaultPolicy Policy returned when the name is empty or unknown.
+     * @return Matching rejection policy.
+     */
+    public static EventRejectionPolicy fromName(String name, EventRejectionPolicy defaultPolicy) {
+
+        if (StringUtils.isBlank(name)) {
+            return defaultPolicy;
+        }
+        for (EventRejectionPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name.trim())) {
+                return policy;
+            }
+        }
+        return defaultPolicy;
+    }
+}
@@ -62,6 +62,22 @@ public class IdentityEventConfigBuilder {
      * Thread pool size for message sending task
      */
     private String threadPoolSize;
+    /**
+     * Default capacity of the asynchronous event queue of each handler
+     */
+    private String queueCapacity;
+    /**
+     * Default action taken when the asynchronous event queue of a handler is full
+     */
+    private String rejectionPolicy;
+    /**
+     * Default maximum number of asynchronous events delivered to a handler at once
+     */
+    private String batchSize;
+    /**
+     * Default maximum number of worker threads a handler may occupy at a time
+     */
+    private String handlerConcurrency;
 
     private static IdentityEventConfigBuilder notificationMgtConfigBuilder = new IdentityEventConfigBuilder();
 
@@ -92,10 +108,14 @@ public class IdentityEventConfigBuilder {
     }
 
     /**
-     * Sets the thread pool size read from configurations
+     * Sets the thread pool size and the asynchronous dispatch settings read from configurations
      */
     private void setThreadPoolSize() {
         threadPoolSize = (String) notificationMgtConfigProperties.remove("threadPool.size");
+        queueCapacity = (String) notificationMgtConfigProperties.remove("threadPool.queueCapacity");
+        rejectionPolicy = (String) notificationMgtConfigProperties.remove("threadPool.rejectionPolicy");
+        batchSize = (String) notificationMgtConfigProperties.remove("threadPool.batchSize");
+        handlerConcurrency = (String) notificationMgtConfigProperties.remove("threadPool.handlerConcurrency");
     }
 
     /**
@@ -222,6 +242,22 @@ public class IdentityEventConfigBuilder {
         return threadPoolSize;
     }
 
+    public String getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public String getBatchSize() {
+        return batchSize;
+    }
+
+    public String getHandlerConcurrency() {
+        return handlerConcurrency;
+    }
+
     /**
      * There can be sensitive information like passwords in configuration file. If they are encrypted using secure
      * vault, this method will resolve them and replace with original values.
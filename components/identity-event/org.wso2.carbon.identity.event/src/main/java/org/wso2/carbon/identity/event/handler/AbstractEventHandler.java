@@ -134,6 +134,45 @@ public abstract class AbstractEventHandler extends AbstractIdentityMessageHandle
 
     public abstract void handleEvent(Event event) throws IdentityEventException;
 
+    /**
+     * Handlers which can process several asynchronous events in one go (for example, by sending them in a single
+     * remote call) can override this method together with {@link #handleEvents(List)} to receive queued events in
+     * batches. The batch size is configured with the 'async.batchSize' module property.
+     *
+     * @return True if the handler accepts batch delivery of asynchronous events.
+     */
+    public boolean isBatchDeliverySupported() {
+
+        return false;
+    }
+
+    /**
+     * Handle a batch of asynchronous events. Only invoked when {@link #isBatchDeliverySupported()} returns true.
+     *
+     * @param events Events in the order they were published.
+     * @throws IdentityEventException
+     */
+    public void handleEvents(List<Event> events) throws IdentityEventException {
+
+        for (Event event : events) {
+            handleEvent(event);
+        }
+    }
+
+    /**
+     * Get a property configured for the current module in identity-event.properties.
+     *
+     * @param propertyName Property name without the module name prefix.
+     * @return Property value, or null if the property is not configured.
+     */
+    public String getModuleProperty(String propertyName) {
+
+        if (configs == null || configs.getModuleProperties() == null) {
+            return null;
+        }
+        return configs.getModuleProperties().getProperty(this.getName() + "." + propertyName);
+    }
+
     @Override
     public void init(InitConfig configuration) throws IdentityRuntimeException {
         if (configuration instanceof ModuleConfiguration) {
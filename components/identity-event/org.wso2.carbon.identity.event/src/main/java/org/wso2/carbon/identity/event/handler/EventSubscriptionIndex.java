@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index from event name to the ordered list of handlers subscribed to it.
+ * <p>
+ * Handlers relying on the default subscription matching of {@link AbstractEventHandler#canHandle(MessageContext)}
+ * are resolved from their configured subscriptions once, when the index is built. Handlers which override
+ * {@link AbstractEventHandler#canHandle(MessageContext)}, or which are not initialized with a module configuration,
+ * are added to the subscriber list of every event and are matched with
+ * {@link AbstractEventHandler#canHandle(MessageContext)} at dispatch time. The same applies to the
+ * 'operationAsync' subscription property and {@link AbstractEventHandler#isAssociationAsync(String)}.
+ * <p>
+ * The index must be rebuilt whenever handlers are registered, unregistered or re-initialized.
+ */
+public final class EventSubscriptionIndex {
+
+    private static final Log log = LogFactory.getLog(EventSubscriptionIndex.class);
+
+    private final List<AbstractEventHandler> source;
+    private final Map<String, List<Subscriber>> subscribersByEvent;
+    private final List<Subscriber> dynamicSubscribers;
+
+    private EventSubscriptionIndex(List<AbstractEventHandler> source, Map<String, List<Subscriber>> subscribersByEvent,
+                                   List<Subscriber> dynamicSubscribers) {
+
+        this.source = source;
+        this.subscribersByEvent = subscribersByEvent;
+        this.dynamicSubscribers = dynamicSubscribers;
+    }
+
+    /**
+     * Build the index for the given handlers.
+     *
+     * @param handlers Registered handlers, in the order they should be invoked.
+     * @return Subscription index.
+     */
+    public static EventSubscriptionIndex build(List<AbstractEventHandler> handlers) {
+
+        List<AbstractEventHandler> snapshot = new ArrayList<>(handlers);
+        List<Subscriber> allSubscribers = new ArrayList<>(snapshot.size());
+        Set<String> eventNames = new LinkedHashSet<>();
+        List<Subscriber> dynamicSubscribers = new ArrayList<>();
+
+        for (AbstractEventHandler handler : snapshot) {
+            Subscriber subscriber = new Subscriber(handler);
+            allSubscribers.add(subscriber);
+            if (subscriber.dynamicMatch) {
+                dynamicSubscribers.add(subscriber);
+            } else {
+                eventNames.addAll(subscriber.asyncByEvent.keySet());
+            }
+        }
+
+        Map<String, List<Subscriber>> subscribersByEvent = new HashMap<>();
+        for (String eventName : eventNames) {
+            List<Subscriber> subscribers = new ArrayList<>();
+            for (Subscriber subscriber : allSubscribers) {
+                if (subscriber.dynamicMatch || subscriber.asyncByEvent.containsKey(eventName)) {
+                    subscribers.add(subscriber);
+                }
+            }
+            subscribersByEvent.put(eventName, Collections.unmodifiableList(subscribers));
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Built event subscription index for " + snapshot.size() + " handlers and " +
+                    subscribersByEvent.size() + " events. Handlers matched at dispatch time: " +
+                    dynamicSubscribers.size());
+        }
+        return new EventSubscriptionIndex(handlers, subscribersByEvent,
+                Collections.unmodifiableList(dynamicSubscribers));
+    }
+
+    /**
+     * @param eventName Name of the event.
+     * @return Handlers which may handle the event, in invocation order.
+     */
+    public List<Subscriber> getSubscribers(String eventName) {
+
+        List<Subscriber> subscribers = subscribersByEvent.get(eventName);
+        return subscribers != null ? subscribers : dynamicSubscribers;
+    }
+
+    /**
+     * @param handlers Handler list.
+     * @return True if this index was built from the given handler list instance.
+     */
+    public boolean isBuiltFrom(List<AbstractEventHandler> handlers) {
+
+        return source == handlers;
+    }
+
+    /**
+     * A handler entry of the subscription index.
+     */
+    public static final class Subscriber {
+
+        private final AbstractEventHandler handler;
+        private final boolean dynamicMatch;
+        private final boolean dynamicAsync;
+        private final Map<String, Boolean> asyncByEvent = new HashMap<>();
+
+        private Subscriber(AbstractEventHandler handler) {
+
+            this.handler = handler;
+            this.dynamicMatch = handler.configs == null || handler.configs.getSubscriptions() == null ||
+                    isOverridden(handler, "canHandle", MessageContext.class);
+            this.dynamicAsync = isOverridden(handler, "isAssociationAsync", String.class) ||
+                    isOverridden(handler, "getSubscriptionProperty", String.class, String.class) ||
+                    isOverridden(handler, "getSubscriptionProperties", String.class);
+            if (dynamicMatch) {
+                return;
+            }
+            boolean resolvedAsync = !dynamicAsync;
+            for (Subscription subscription : handler.configs.getSubscriptions()) {
+                String eventName = subscription.getSubscriptionName();
+                Boolean async = null;
+                if (resolvedAsync) {
+                    try {
+                        async = handler.isAssociationAsync(eventName);
+                    } catch (IdentityEventException e) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Unable to resolve operationAsync of handler: " + handler.getName() + " for " +
+                                    "event: " + eventName + ". It will be resolved at dispatch time.", e);
+                        }
+                    }
+                }
+                asyncByEvent.put(eventName, async);
+            }
+        }
+
+        public AbstractEventHandler getHandler() {
+
+            return handler;
+        }
+
+        /**
+         * @return True if {@link AbstractEventHandler#canHandle(MessageContext)} has to be evaluated for each event.
+         */
+        public boolean isDynamicMatch() {
+
+            return dynamicMatch;
+        }
+
+        /**
+         * @param eventName Name of the event.
+         * @return True if the handler should process the event asynchronously.
+         * @throws IdentityEventException
+         */
+        public boolean isAsync(String eventName) throws IdentityEventException {
+
+            Boolean async = asyncByEvent.get(eventName);
+            if (async != null) {
+                return async;
+            }
+            return handler.isAssociationAsync(eventName);
+        }
+
+        private static boolean isOverridden(AbstractEventHandler handler, String methodName, Class<?>... types) {
+
+            try {
+                return handler.getClass().getMethod(methodName, types).getDeclaringClass() !=
+                        AbstractEventHandler.class;
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    }
+}
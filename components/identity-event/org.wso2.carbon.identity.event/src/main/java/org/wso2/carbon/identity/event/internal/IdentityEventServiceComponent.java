@@ -17,6 +17,7 @@
  */
 package org.wso2.carbon.identity.event.internal;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.framework.ServiceRegistration;
@@ -24,9 +25,12 @@ import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
 import org.wso2.carbon.identity.core.handler.MessageHandlerComparator;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
+import org.wso2.carbon.identity.event.EventDispatchEngine;
+import org.wso2.carbon.identity.event.EventRejectionPolicy;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.IdentityEventConfigBuilder;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.handler.EventSubscriptionIndex;
 import org.wso2.carbon.identity.event.services.IdentityEventService;
 import org.wso2.carbon.identity.event.services.IdentityEventServiceImpl;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
@@ -58,7 +62,16 @@ public class IdentityEventServiceComponent {
     @Activate
     protected void activate(ComponentContext context) {
         try {
-            IdentityEventServiceDataHolder.getInstance().setEventMgtService(new IdentityEventServiceImpl(eventHandlerList, Integer.parseInt(IdentityEventConfigBuilder.getInstance().getThreadPoolSize())));
+            IdentityEventConfigBuilder configBuilder = IdentityEventConfigBuilder.getInstance();
+            EventDispatchEngine eventDispatchEngine = new EventDispatchEngine(
+                    Integer.parseInt(configBuilder.getThreadPoolSize()),
+                    parseInt(configBuilder.getQueueCapacity(), EventDispatchEngine.DEFAULT_QUEUE_CAPACITY),
+                    EventRejectionPolicy.fromName(configBuilder.getRejectionPolicy(),
+                            EventDispatchEngine.DEFAULT_REJECTION_POLICY),
+                    parseInt(configBuilder.getBatchSize(), EventDispatchEngine.DEFAULT_BATCH_SIZE),
+                    parseInt(configBuilder.getHandlerConcurrency(), 0));
+            IdentityEventServiceDataHolder.getInstance().setEventMgtService(
+                    new IdentityEventServiceImpl(eventDispatchEngine));
             context.getBundleContext().registerService(IdentityEventService.class.getName(), IdentityEventServiceDataHolder.getInstance().getEventMgtService(), null);
         } catch (IdentityEventException e) {
             log.error("Error while initiating IdentityMgtService.");
@@ -70,11 +83,28 @@ public class IdentityEventServiceComponent {
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
+        IdentityEventService eventMgtService = IdentityEventServiceDataHolder.getInstance().getEventMgtService();
+        if (eventMgtService instanceof IdentityEventServiceImpl) {
+            ((IdentityEventServiceImpl) eventMgtService).shutdown();
+        }
         if (log.isDebugEnabled()) {
             log.debug("Identity Management bundle is de-activated");
         }
     }
 
+    private static int parseInt(String value, int defaultValue) {
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid asynchronous event dispatch configuration value: " + value + ". Using the default " +
+                    "value: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     @Reference(
              name = "event.handler", 
              service = org.wso2.carbon.identity.event.handler.AbstractEventHandler.class, 
@@ -88,12 +118,22 @@ public class IdentityEventServiceComponent {
         } catch (IdentityEventException | IdentityRuntimeException e) {
             log.warn("Properties for " + handlerName + " is not configured. This event handler will not be activated");
         }
-        eventHandlerList.add(eventHandler);
-        MessageHandlerComparator messageHandlerComparator = new MessageHandlerComparator(null);
-        Collections.sort(eventHandlerList, messageHandlerComparator);
+        synchronized (IdentityEventServiceComponent.class) {
+            eventHandlerList.add(eventHandler);
+            MessageHandlerComparator messageHandlerComparator = new MessageHandlerComparator(null);
+            Collections.sort(eventHandlerList, messageHandlerComparator);
+            IdentityEventServiceDataHolder.getInstance().setSubscriptionIndex(
+                    EventSubscriptionIndex.build(eventHandlerList));
+        }
     }
 
     protected void unRegisterEventHandler(AbstractEventHandler eventHandler) {
+        synchronized (IdentityEventServiceComponent.class) {
+            if (eventHandlerList.remove(eventHandler)) {
+                IdentityEventServiceDataHolder.getInstance().setSubscriptionIndex(
+                        EventSubscriptionIndex.build(eventHandlerList));
+            }
+        }
     }
 
     @Reference(
@@ -21,41 +21,86 @@ package org.wso2.carbon.identity.event.services;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import org.wso2.carbon.identity.event.EventDistributionTask;
+import org.wso2.carbon.identity.event.EventDispatchEngine;
+import org.wso2.carbon.identity.event.EventDispatchStatistics;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.bean.IdentityEventMessageContext;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.handler.EventSubscriptionIndex;
 import org.wso2.carbon.identity.event.internal.IdentityEventServiceComponent;
+import org.wso2.carbon.identity.event.internal.IdentityEventServiceDataHolder;
 
 import java.util.List;
+import java.util.Map;
 
 public class IdentityEventServiceImpl implements IdentityEventService {
 
     private static final Log log = LogFactory.getLog(IdentityEventServiceImpl.class);
-    private EventDistributionTask eventDistributionTask;
+    private EventDispatchEngine eventDispatchEngine;
 
     public IdentityEventServiceImpl(List<AbstractEventHandler> handlerList, int threadPoolSize) {
-        this.eventDistributionTask = new EventDistributionTask(handlerList, threadPoolSize);
+        this(new EventDispatchEngine(threadPoolSize));
+    }
+
+    public IdentityEventServiceImpl(EventDispatchEngine eventDispatchEngine) {
         if (log.isDebugEnabled()) {
-            log.debug("Starting event distribution task from Notification Management component");
+            log.debug("Starting event dispatch engine from Notification Management component");
         }
-        new Thread(eventDistributionTask).start();
+        this.eventDispatchEngine = eventDispatchEngine;
     }
+
     @Override
     public void handleEvent(Event event) throws IdentityEventException {
 
-        List<AbstractEventHandler> eventHandlerList = IdentityEventServiceComponent.eventHandlerList;
-        IdentityEventMessageContext eventContext = new IdentityEventMessageContext(event);
-        for (final AbstractEventHandler handler : eventHandlerList) {
-
-            if (handler.canHandle(eventContext)) {
-                if (handler.isAssociationAsync(event.getEventName())) {
-                    eventDistributionTask.addEventToQueue(event);
-                } else {
-                    handler.handleEvent(event);
+        String eventName = event.getEventName();
+        IdentityEventMessageContext eventContext = null;
+        for (EventSubscriptionIndex.Subscriber subscriber : getSubscriptionIndex().getSubscribers(eventName)) {
+            AbstractEventHandler handler = subscriber.getHandler();
+            if (subscriber.isDynamicMatch()) {
+                if (eventContext == null) {
+                    eventContext = new IdentityEventMessageContext(event);
+                }
+                if (!handler.canHandle(eventContext)) {
+                    continue;
+                }
+            }
+            if (subscriber.isAsync(eventName)) {
+                if (eventContext == null) {
+                    eventContext = new IdentityEventMessageContext(event);
+                }
+                // Asynchronous handlers are only invoked while enabled, as done by the event distribution task.
+                if (handler.isEnabled(eventContext)) {
+                    eventDispatchEngine.dispatch(handler, event);
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Event: " + eventName + " is not dispatched to the disabled handler: " +
+                            handler.getName());
                 }
+            } else {
+                handler.handleEvent(event);
             }
         }
     }
+
+    /**
+     * @return Asynchronous dispatch statistics keyed by the handler name.
+     */
+    public Map<String, EventDispatchStatistics> getDispatchStatistics() {
+        return eventDispatchEngine.getStatistics();
+    }
+
+    public void shutdown() {
+        eventDispatchEngine.shutdown();
+    }
+
+    private EventSubscriptionIndex getSubscriptionIndex() {
+        List<AbstractEventHandler> eventHandlerList = IdentityEventServiceComponent.eventHandlerList;
+        EventSubscriptionIndex subscriptionIndex = IdentityEventServiceDataHolder.getInstance()
+                .getSubscriptionIndex();
+        if (subscriptionIndex == null || !subscriptionIndex.isBuiltFrom(eventHandlerList)) {
+            subscriptionIndex = EventSubscriptionIndex.build(eventHandlerList);
+            IdentityEventServiceDataHolder.getInstance().setSubscriptionIndex(subscriptionIndex);
+        }
+        return subscriptionIndex;
+    }
 }
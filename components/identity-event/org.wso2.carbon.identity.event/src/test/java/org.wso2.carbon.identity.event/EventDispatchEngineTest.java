@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
+import org.wso2.carbon.identity.event.bean.Subscription;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.internal.IdentityEventServiceDataHolder;
+import org.wso2.carbon.identity.testutil.IdentityBaseTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class EventDispatchEngineTest extends IdentityBaseTest {
+
+    private static final String BLOCKING_EVENT = "BLOCKING_EVENT";
+
+    private EventDispatchEngine eventDispatchEngine;
+
+    @AfterMethod
+    public void tearDown() {
+
+        if (eventDispatchEngine != null) {
+            eventDispatchEngine.shutdown();
+        }
+    }
+
+    @Test
+    public void testSlowHandlerDoesNotBlockOtherHandlers() throws Exception {
+
+        eventDispatchEngine = new EventDispatchEngine(2, 10, EventRejectionPolicy.DROP_NEWEST, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventHandler slowHandler = new RecordingEventHandler("slowHandler", new Properties(), release, 1);
+        RecordingEventHandler fastHandler = new RecordingEventHandler("fastHandler", new Properties(), null, 3);
+
+        for (int i = 0; i < 3; i++) {
+            eventDispatchEngine.dispatch(slowHandler, new Event(BLOCKING_EVENT));
+        }
+        for (int i = 0; i < 3; i++) {
+            eventDispatchEngine.dispatch(fastHandler, new Event("TEST_EVENT"));
+        }
+
+        Assert.assertTrue(fastHandler.await(), "Fast handler should not wait for the slow handler.");
+        Assert.assertEquals(fastHandler.handledEvents.size(), 3);
+        Assert.assertTrue(slowHandler.handledEvents.size() <= 1);
+        release.countDown();
+    }
+
+    @Test
+    public void testDropNewestWhenQueueIsFull() throws Exception {
+
+        eventDispatchEngine = new EventDispatchEngine(1, 2, EventRejectionPolicy.DROP_NEWEST, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventHandler handler = new RecordingEventHandler("droppingHandler", new Properties(), release, 1);
+
+        // The first event occupies the only worker, the next two fill up the queue and the rest are dropped.
+        eventDispatchEngine.dispatch(handler, new Event(BLOCKING_EVENT));
+        Assert.assertTrue(handler.await());
+        for (int i = 0; i < 5; i++) {
+            eventDispatchEngine.dispatch(handler, new Event("TEST_EVENT"));
+        }
+
+        EventDispatchStatistics statistics = eventDispatchEngine.getStatistics().get("droppingHandler");
+        Assert.assertEquals(statistics.getQueueDepth(), 2);
+        Assert.assertEquals(statistics.getDroppedCount(), 3);
+        release.countDown();
+    }
+
+    @Test
+    public void testCallerRunsWhenQueueIsFull() throws Exception {
+
+        Properties properties = new Properties();
+        properties.setProperty("callerRunsHandler.async.queueCapacity", "1");
+        properties.setProperty("callerRunsHandler.async.rejectionPolicy", "caller_runs");
+        eventDispatchEngine = new EventDispatchEngine(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventHandler handler = new RecordingEventHandler("callerRunsHandler", properties, release, 1);
+
+        eventDispatchEngine.dispatch(handler, new Event(BLOCKING_EVENT));
+        Assert.assertTrue(handler.await());
+        eventDispatchEngine.dispatch(handler, new Event("QUEUED_EVENT"));
+        eventDispatchEngine.dispatch(handler, new Event("CALLER_EVENT"));
+
+        EventDispatchStatistics statistics = eventDispatchEngine.getStatistics().get("callerRunsHandler");
+        Assert.assertEquals(statistics.getQueueCapacity(), 1);
+        Assert.assertEquals(statistics.getCallerRunsCount(), 1);
+        Assert.assertEquals(statistics.getDroppedCount(), 0);
+        Assert.assertTrue(handler.handledEvents.contains("CALLER_EVENT"));
+        Assert.assertFalse(handler.handledEvents.contains("QUEUED_EVENT"));
+        release.countDown();
+    }
+
+    @Test
+    public void testBatchDelivery() throws Exception {
+
+        Properties properties = new Properties();
+        properties.setProperty("batchHandler.async.batchSize", "10");
+        eventDispatchEngine = new EventDispatchEngine(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventHandler blockingHandler = new RecordingEventHandler("blockingHandler", new Properties(),
+                release, 1);
+        RecordingEventHandler batchHandler = new RecordingEventHandler("batchHandler", properties, null, 5);
+        batchHandler.batchDeliverySupported = true;
+
+        // Occupy the only worker so that the events of the batch handler accumulate in its queue.
+        eventDispatchEngine.dispatch(blockingHandler, new Event(BLOCKING_EVENT));
+        Assert.assertTrue(blockingHandler.await());
+        for (int i = 0; i < 5; i++) {
+            eventDispatchEngine.dispatch(batchHandler, new Event("TEST_EVENT_" + i));
+        }
+        release.countDown();
+
+        Assert.assertTrue(batchHandler.await());
+        Assert.assertEquals(batchHandler.batchSizes, Collections.singletonList(5));
+        Assert.assertEquals(batchHandler.handledEvents.get(0), "TEST_EVENT_0");
+        Assert.assertEquals(batchHandler.handledEvents.get(4), "TEST_EVENT_4");
+        EventDispatchStatistics statistics = eventDispatchEngine.getStatistics().get("batchHandler");
+        Assert.assertEquals(statistics.getDeliveredCount(), 5);
+        Assert.assertEquals(statistics.getBatchCount(), 1);
+    }
+
+    @Test
+    public void testDefaultRejectionPolicyDoesNotDropEvents() throws Exception {
+
+        Properties properties = new Properties();
+        properties.setProperty("defaultPolicyHandler.async.queueCapacity", "1");
+        eventDispatchEngine = new EventDispatchEngine(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEventHandler handler = new RecordingEventHandler("defaultPolicyHandler", properties, release, 1);
+
+        eventDispatchEngine.dispatch(handler, new Event(BLOCKING_EVENT));
+        Assert.assertTrue(handler.await());
+        for (int i = 0; i < 3; i++) {
+            eventDispatchEngine.dispatch(handler, new Event("TEST_EVENT"));
+        }
+
+        EventDispatchStatistics statistics = eventDispatchEngine.getStatistics().get("defaultPolicyHandler");
+        Assert.assertEquals(statistics.getDroppedCount(), 0);
+        Assert.assertEquals(statistics.getCallerRunsCount(), 2);
+        release.countDown();
+    }
+
+    @Test
+    public void testDataHolderThreadPoolAcceptsPlainTasks() throws Exception {
+
+        eventDispatchEngine = new EventDispatchEngine(1);
+        ExecutorService threadPool = IdentityEventServiceDataHolder.getInstance().getThreadPool();
+
+        Assert.assertEquals(threadPool.submit(() -> "done").get(10, TimeUnit.SECONDS), "done");
+        CountDownLatch executed = new CountDownLatch(1);
+        threadPool.submit(executed::countDown);
+        Assert.assertTrue(executed.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRejectionPolicyFromName() {
+
+        Assert.assertEquals(EventRejectionPolicy.fromName("drop_oldest", EventRejectionPolicy.DROP_NEWEST),
+                EventRejectionPolicy.DROP_OLDEST);
+        Assert.assertEquals(EventRejectionPolicy.fromName(" BLOCK ", EventRejectionPolicy.DROP_NEWEST),
+                EventRejectionPolicy.BLOCK);
+        Assert.assertEquals(EventRejectionPolicy.fromName("unknown", EventRejectionPolicy.DROP_NEWEST),
+                EventRejectionPolicy.DROP_NEWEST);
+        Assert.assertEquals(EventRejectionPolicy.fromName(null, EventRejectionPolicy.CALLER_RUNS),
+                EventRejectionPolicy.CALLER_RUNS);
+    }
+
+    private static class RecordingEventHandler extends AbstractEventHandler {
+
+        private final String name;
+        private final CountDownLatch release;
+        private final CountDownLatch handled;
+        private final List<String> handledEvents = new CopyOnWriteArrayList<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private boolean batchDeliverySupported;
+
+        private RecordingEventHandler(String name, Properties properties, CountDownLatch release, int expected) {
+
+            this.name = name;
+            this.release = release;
+            this.handled = new CountDownLatch(expected);
+            init(new ModuleConfiguration(properties, new ArrayList<Subscription>()));
+        }
+
+        @Override
+        public String getName() {
+
+            return name;
+        }
+
+        @Override
+        public boolean isBatchDeliverySupported() {
+
+            return batchDeliverySupported;
+        }
+
+        @Override
+        public void handleEvents(List<Event> events) throws IdentityEventException {
+
+            batchSizes.add(events.size());
+            super.handleEvents(events);
+        }
+
+        @Override
+        public void handleEvent(Event event) throws IdentityEventException {
+
+            handledEvents.add(event.getEventName());
+            handled.countDown();
+            // Only blocking events wait, so that events executed on the publishing thread never block the test.
+            if (release != null && BLOCKING_EVENT.equals(event.getEventName())) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private boolean await() throws InterruptedException {
+
+            return handled.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.ModuleConfiguration;
+import org.wso2.carbon.identity.event.bean.Subscription;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.testutil.IdentityBaseTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+public class EventSubscriptionIndexTest extends IdentityBaseTest {
+
+    @Test
+    public void testSubscribersAreIndexedByEventName() throws IdentityEventException {
+
+        AbstractEventHandler firstHandler = new NamedEventHandler("firstHandler", "POST_ADD_USER", "PRE_ADD_USER");
+        AbstractEventHandler secondHandler = new NamedEventHandler("secondHandler", "POST_ADD_USER");
+        List<AbstractEventHandler> handlers = Arrays.asList(firstHandler, secondHandler);
+
+        EventSubscriptionIndex index = EventSubscriptionIndex.build(handlers);
+
+        List<EventSubscriptionIndex.Subscriber> subscribers = index.getSubscribers("POST_ADD_USER");
+        Assert.assertEquals(subscribers.size(), 2);
+        Assert.assertSame(subscribers.get(0).getHandler(), firstHandler);
+        Assert.assertSame(subscribers.get(1).getHandler(), secondHandler);
+        Assert.assertFalse(subscribers.get(0).isDynamicMatch());
+
+        Assert.assertEquals(index.getSubscribers("PRE_ADD_USER").size(), 1);
+        Assert.assertTrue(index.getSubscribers("UNKNOWN_EVENT").isEmpty());
+        Assert.assertTrue(index.isBuiltFrom(handlers));
+        Assert.assertFalse(index.isBuiltFrom(new ArrayList<>(handlers)));
+    }
+
+    @Test
+    public void testAsyncAssociationIsResolvedFromSubscriptionProperties() throws IdentityEventException {
+
+        Properties asyncProperties = new Properties();
+        asyncProperties.setProperty("asyncHandler.subscription.POST_ADD_USER.operationAsync", "true");
+        List<Subscription> subscriptions = new ArrayList<>();
+        subscriptions.add(new Subscription("POST_ADD_USER", asyncProperties));
+        subscriptions.add(new Subscription("PRE_ADD_USER", new Properties()));
+        AbstractEventHandler handler = new NamedEventHandler("asyncHandler", subscriptions);
+
+        EventSubscriptionIndex index = EventSubscriptionIndex.build(Arrays.asList(handler));
+
+        Assert.assertTrue(index.getSubscribers("POST_ADD_USER").get(0).isAsync("POST_ADD_USER"));
+        Assert.assertFalse(index.getSubscribers("PRE_ADD_USER").get(0).isAsync("PRE_ADD_USER"));
+    }
+
+    @Test
+    public void testCustomMatchingHandlersAreEvaluatedForEveryEvent() {
+
+        AbstractEventHandler staticHandler = new NamedEventHandler("staticHandler", "POST_ADD_USER");
+        AbstractEventHandler customHandler = new NamedEventHandler("customHandler") {
+            @Override
+            public boolean canHandle(MessageContext messageContext) {
+                return true;
+            }
+        };
+        AbstractEventHandler uninitializedHandler = new AbstractEventHandler() {
+            @Override
+            public void handleEvent(Event event) {
+                // Do nothing.
+            }
+        };
+
+        EventSubscriptionIndex index = EventSubscriptionIndex.build(
+                Arrays.asList(customHandler, staticHandler, uninitializedHandler));
+
+        List<EventSubscriptionIndex.Subscriber> subscribers = index.getSubscribers("POST_ADD_USER");
+        Assert.assertEquals(subscribers.size(), 3);
+        Assert.assertSame(subscribers.get(0).getHandler(), customHandler);
+        Assert.assertTrue(subscribers.get(0).isDynamicMatch());
+        Assert.assertSame(subscribers.get(1).getHandler(), staticHandler);
+        Assert.assertSame(subscribers.get(2).getHandler(), uninitializedHandler);
+        Assert.assertTrue(subscribers.get(2).isDynamicMatch());
+
+        Assert.assertEquals(index.getSubscribers("UNKNOWN_EVENT").size(), 2);
+    }
+
+    private static class NamedEventHandler extends AbstractEventHandler {
+
+        private final String name;
+
+        private NamedEventHandler(String name, String... eventNames) {
+
+            this(name, toSubscriptions(eventNames));
+        }
+
+        private NamedEventHandler(String name, List<Subscription> subscriptions) {
+
+            this.name = name;
+            init(new ModuleConfiguration(new Properties(), subscriptions));
+        }
+
+        private static List<Subscription> toSubscriptions(String... eventNames) {
+
+            List<Subscription> subscriptions = new ArrayList<>();
+            for (String eventName : eventNames) {
+                subscriptions.add(new Subscription(eventName, new Properties()));
+            }
+            return subscriptions;
+        }
+
+        @Override
+        public String getName() {
+
+            return name;
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+            // Do nothing.
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.event.EventDispatchEngine;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
@@ -68,4 +69,33 @@ public class IdentityEventServiceImplTest extends IdentityBaseTest {
 
         Mockito.verify(abstractEventHandler).canHandle(any(MessageContext.class));
     }
+
+    @Test
+    public void testAsyncEventIsDispatchedOnlyToEnabledHandlers() throws IdentityEventException {
+
+        Event event = new Event("eventName");
+
+        AbstractEventHandler enabledHandler = mock(AbstractEventHandler.class);
+        doReturn(true).when(enabledHandler).canHandle(any(MessageContext.class));
+        doReturn(true).when(enabledHandler).isAssociationAsync(anyString());
+        doReturn(true).when(enabledHandler).isEnabled(any(MessageContext.class));
+
+        AbstractEventHandler disabledHandler = mock(AbstractEventHandler.class);
+        doReturn(true).when(disabledHandler).canHandle(any(MessageContext.class));
+        doReturn(true).when(disabledHandler).isAssociationAsync(anyString());
+        doReturn(false).when(disabledHandler).isEnabled(any(MessageContext.class));
+
+        List<AbstractEventHandler> list = new ArrayList<>();
+        list.add(enabledHandler);
+        list.add(disabledHandler);
+        IdentityEventServiceComponent.eventHandlerList = list;
+
+        EventDispatchEngine eventDispatchEngine = mock(EventDispatchEngine.class);
+        IdentityEventService identityEventService = new IdentityEventServiceImpl(eventDispatchEngine);
+        identityEventService.handleEvent(event);
+
+        Mockito.verify(eventDispatchEngine).dispatch(enabledHandler, event);
+        Mockito.verify(eventDispatchEngine, Mockito.never()).dispatch(disabledHandler, event);
+        Mockito.verify(disabledHandler, Mockito.never()).handleEvent(any(Event.class));
+    }
 }
@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.mgt.store;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.base.IdentityException;
@@ -34,6 +35,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -45,6 +47,7 @@ import java.util.Map;
 public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
 
     private static Log log = LogFactory.getLog(JDBCIdentityDataStore.class);
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_STATE = "23";
 
     @Override
     public void store(UserIdentityClaimsDO userIdentityDTO, UserStoreManager userStoreManager)
@@ -73,105 +76,136 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
         super.store(userIdentityDTO, userStoreManager);
 
         Map<String, String> data = userIdentityDTO.getUserDataMap();
-
-        for (Map.Entry<String, String> entry : data.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue();
-            boolean isUserExists = false;
-            try {
-                isUserExists = isExistingUserDataValue(userName, tenantId, key);
-            } catch (SQLException e) {
-                throw IdentityException.error("Error occurred while checking if user existing", e);
-            }
-            try {
-                if (isUserExists) {
-                    updateUserDataValue(userName, tenantId, key, value);
-                } else {
-                    addUserDataValue(userName, tenantId, key, value);
-                }
-            } catch (SQLException e) {
-                throw IdentityException.error("Error occurred while persisting user data", e);
-            }
+        try {
+            storeUserDataValues(userName, tenantId, data);
+        } catch (SQLException e) {
+            throw IdentityException.error("Error occurred while persisting user data", e);
         }
     }
 
-    private boolean isExistingUserDataValue(String userName, int tenantId, String key) throws SQLException {
+    /**
+     * Persists the given user data in a single transaction. The existing values of the user are loaded once and
+     * only the new or changed keys are written, using batched inserts and updates. If a concurrent request inserts
+     * one of the new keys in the meantime, the transaction is rolled back and retried once, so those keys are
+     * updated instead.
+     *
+     * @param userName Domain qualified user name.
+     * @param tenantId Tenant id of the user.
+     * @param data     User data to be persisted.
+     * @throws SQLException If an error occurs while accessing the database.
+     */
+    void storeUserDataValues(String userName, int tenantId, Map<String, String> data) throws SQLException {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
-        PreparedStatement prepStmt = null;
-        ResultSet results;
         boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreInUsernameCaseSensitive(userName, tenantId);
         try {
-            String query;
-            if (isUsernameCaseSensitive) {
-                query = SQLQuery.CHECK_EXIST_USER_DATA;
-            } else {
-                query = SQLQuery.CHECK_EXIST_USER_DATA_CASE_INSENSITIVE;
+            persistUserDataValues(userName, tenantId, data, isUsernameCaseSensitive);
+        } catch (SQLException e) {
+            if (!isDuplicateEntry(e)) {
+                throw e;
             }
-            prepStmt = connection.prepareStatement(query);
-            prepStmt.setInt(1, tenantId);
-            prepStmt.setString(2, userName);
-            prepStmt.setString(3, key);
-            results = prepStmt.executeQuery();
-            if (results.next()) {
-                return true;
+            if (log.isDebugEnabled()) {
+                log.debug("Identity data of " + tenantId + ":" + userName + " was stored concurrently. Retrying " +
+                        "to update the stored values.");
             }
-        } finally {
-            IdentityDatabaseUtil.closeStatement(prepStmt);
-            IdentityDatabaseUtil.closeConnection(connection);
+            persistUserDataValues(userName, tenantId, data, isUsernameCaseSensitive);
         }
-        return false;
     }
 
+    private void persistUserDataValues(String userName, int tenantId, Map<String, String> data,
+                                       boolean isUsernameCaseSensitive) throws SQLException {
 
-    private void addUserDataValue(String userName, int tenantId, String key, String value) throws SQLException {
-
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
-        PreparedStatement prepStmt = null;
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                Map<String, String> existingData = loadUserDataValues(connection, userName, tenantId,
+                        isUsernameCaseSensitive);
+
+                Map<String, String> newData = new HashMap<>();
+                Map<String, String> changedData = new HashMap<>();
+                for (Map.Entry<String, String> entry : data.entrySet()) {
+                    String key = entry.getKey();
+                    String value = entry.getValue();
+                    if (!existingData.containsKey(key)) {
+                        newData.put(key, value);
+                    } else if (!StringUtils.equals(existingData.get(key), value)) {
+                        changedData.put(key, value);
+                    }
+                }
 
-        try {
-            prepStmt = connection.prepareStatement(SQLQuery.STORE_USER_DATA);
-            prepStmt.setInt(1, tenantId);
-            prepStmt.setString(2, userName);
-            prepStmt.setString(3, key);
-            prepStmt.setString(4, value);
-            prepStmt.execute();
-            IdentityDatabaseUtil.commitTransaction(connection);
-        } catch (SQLException e) {
-            IdentityDatabaseUtil.rollbackTransaction(connection);
-        } finally {
-            IdentityDatabaseUtil.closeStatement(prepStmt);
-            IdentityDatabaseUtil.closeConnection(connection);
+                if (newData.isEmpty() && changedData.isEmpty()) {
+                    IdentityDatabaseUtil.commitTransaction(connection);
+                    return;
+                }
+                if (!newData.isEmpty()) {
+                    try (PreparedStatement prepStmt = connection.prepareStatement(SQLQuery.STORE_USER_DATA)) {
+                        for (Map.Entry<String, String> entry : newData.entrySet()) {
+                            prepStmt.setInt(1, tenantId);
+                            prepStmt.setString(2, userName);
+                            prepStmt.setString(3, entry.getKey());
+                            prepStmt.setString(4, entry.getValue());
+                            prepStmt.addBatch();
+                        }
+                        prepStmt.executeBatch();
+                    }
+                }
+                if (!changedData.isEmpty()) {
+                    String query = isUsernameCaseSensitive ? SQLQuery.UPDATE_USER_DATA :
+                            SQLQuery.UPDATE_USER_DATA_CASE_INSENSITIVE;
+                    try (PreparedStatement prepStmt = connection.prepareStatement(query)) {
+                        for (Map.Entry<String, String> entry : changedData.entrySet()) {
+                            prepStmt.setString(1, entry.getValue());
+                            prepStmt.setInt(2, tenantId);
+                            prepStmt.setString(3, userName);
+                            prepStmt.setString(4, entry.getKey());
+                            prepStmt.addBatch();
+                        }
+                        prepStmt.executeBatch();
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                if (log.isDebugEnabled()) {
+                    log.debug("Stored identity data for:" + tenantId + ":" + userName + ". Inserted " +
+                            newData.size() + " and updated " + changedData.size() + " of " + data.size() +
+                            " values.");
+                }
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
         }
     }
 
+    /**
+     * Check whether the given exception, or any of the exceptions chained to it by a batch, is caused by inserting a
+     * key which already exists.
+     */
+    private static boolean isDuplicateEntry(SQLException e) {
 
-    private void updateUserDataValue(String userName, int tenantId, String key, String value) throws SQLException {
-
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
-        PreparedStatement prepStmt = null;
-        boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreInUsernameCaseSensitive(userName, tenantId);
-        try {
-            String query;
-            if (isUsernameCaseSensitive) {
-                query = SQLQuery.UPDATE_USER_DATA;
-            } else {
-                query = SQLQuery.UPDATE_USER_DATA_CASE_INSENSITIVE;
+        for (SQLException exception = e; exception != null; exception = exception.getNextException()) {
+            // Not all JDBC drivers throw SQLIntegrityConstraintViolationException, but all of them report the
+            // integrity constraint violation SQL state class.
+            if (exception instanceof SQLIntegrityConstraintViolationException ||
+                    StringUtils.startsWith(exception.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION_STATE)) {
+                return true;
             }
-            prepStmt = connection.prepareStatement(query);
-            prepStmt.setString(1, value);
-            prepStmt.setInt(2, tenantId);
-            prepStmt.setString(3, userName);
-            prepStmt.setString(4, key);
-            prepStmt.executeUpdate();
-            IdentityDatabaseUtil.commitTransaction(connection);
-        } catch (SQLException e) {
-            IdentityDatabaseUtil.rollbackTransaction(connection);
-        } finally {
-            IdentityDatabaseUtil.closeStatement(prepStmt);
-            IdentityDatabaseUtil.closeConnection(connection);
         }
+        return e.getCause() instanceof SQLIntegrityConstraintViolationException;
+    }
+
+    private Map<String, String> loadUserDataValues(Connection connection, String userName, int tenantId,
+                                                   boolean isUsernameCaseSensitive) throws SQLException {
 
+        String query = isUsernameCaseSensitive ? SQLQuery.LOAD_USER_DATA : SQLQuery.LOAD_USER_DATA_CASE_INSENSITIVE;
+        Map<String, String> existingData = new HashMap<>();
+        try (PreparedStatement prepStmt = connection.prepareStatement(query)) {
+            prepStmt.setInt(1, tenantId);
+            prepStmt.setString(2, userName);
+            try (ResultSet results = prepStmt.executeQuery()) {
+                while (results.next()) {
+                    existingData.put(results.getString(1), results.getString(2));
+                }
+            }
+        }
+        return existingData;
     }
 
     @Override
@@ -271,11 +305,6 @@ public class JDBCIdentityDataStore extends InMemoryIdentityDataStore {
      * The primary key is tenantId, userName, DatKey combination
      */
     private static class SQLQuery {
-        public static final String CHECK_EXIST_USER_DATA = "SELECT DATA_VALUE FROM IDN_IDENTITY_USER_DATA WHERE " +
-                "TENANT_ID = ? AND USER_NAME = ? AND DATA_KEY = ?";
-        public static final String CHECK_EXIST_USER_DATA_CASE_INSENSITIVE = "SELECT DATA_VALUE FROM " +
-                "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND LOWER(USER_NAME) = LOWER(?) AND DATA_KEY = ?";
-
         public static final String STORE_USER_DATA = "INSERT INTO IDN_IDENTITY_USER_DATA (TENANT_ID, USER_NAME, " +
                 "DATA_KEY, DATA_VALUE) VALUES (?,?,?,?)";
 
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.mgt.store;
+
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.spy;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * H2 backed tests for persisting user data with {@link JDBCIdentityDataStore}.
+ */
+public class JDBCIdentityDataStoreTest {
+
+    private static final String DB_URL = "jdbc:h2:mem:identity-mgt;DB_CLOSE_DELAY=-1";
+    private static final int TENANT_ID = -1234;
+    private static final String USER_NAME = "PRIMARY/alice";
+    private static final String FAILED_ATTEMPTS = "http://wso2.org/claims/identity/failedLoginAttempts";
+    private static final String ACCOUNT_LOCKED = "http://wso2.org/claims/identity/accountLocked";
+
+    private Connection databaseConnection;
+    private MockedStatic<IdentityDatabaseUtil> identityDatabaseUtil;
+    private MockedStatic<IdentityUtil> identityUtil;
+    private String concurrentInsert;
+
+    @BeforeClass
+    public void initDatabase() throws Exception {
+
+        // Keeps the in-memory database open for the test class.
+        databaseConnection = DriverManager.getConnection(DB_URL);
+        try (Statement statement = databaseConnection.createStatement()) {
+            statement.executeUpdate("RUNSCRIPT FROM '" + Paths.get(System.getProperty("user.dir"), "src", "test",
+                    "resources", "dbscripts", "h2.sql") + "'");
+        }
+    }
+
+    @AfterClass
+    public void closeDatabase() throws Exception {
+
+        databaseConnection.close();
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        try (Statement statement = databaseConnection.createStatement()) {
+            statement.executeUpdate("DELETE FROM IDN_IDENTITY_USER_DATA");
+        }
+        concurrentInsert = null;
+
+        identityUtil = mockStatic(IdentityUtil.class);
+        identityUtil.when(() -> IdentityUtil.isUserStoreInUsernameCaseSensitive(anyString(), anyInt()))
+                .thenReturn(true);
+
+        identityDatabaseUtil = mockStatic(IdentityDatabaseUtil.class);
+        identityDatabaseUtil.when(() -> IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> getConnection(invocation.getArgument(0)));
+        identityDatabaseUtil.when(() -> IdentityDatabaseUtil.commitTransaction(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).commit();
+                    return null;
+                });
+        identityDatabaseUtil.when(() -> IdentityDatabaseUtil.rollbackTransaction(any(Connection.class)))
+                .thenAnswer(invocation -> {
+                    ((Connection) invocation.getArgument(0)).rollback();
+                    return null;
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        identityDatabaseUtil.close();
+        identityUtil.close();
+    }
+
+    @Test
+    public void testStoreUserDataValues() throws Exception {
+
+        JDBCIdentityDataStore identityDataStore = new JDBCIdentityDataStore();
+        Map<String, String> data = new HashMap<>();
+        data.put(FAILED_ATTEMPTS, "1");
+        data.put(ACCOUNT_LOCKED, "false");
+
+        identityDataStore.storeUserDataValues(USER_NAME, TENANT_ID, data);
+        assertEquals(loadUserData(), data);
+
+        data.put(FAILED_ATTEMPTS, "2");
+        identityDataStore.storeUserDataValues(USER_NAME, TENANT_ID, data);
+        assertEquals(loadUserData(), data);
+    }
+
+    @Test
+    public void testStoreUserDataValuesInsertedConcurrently() throws Exception {
+
+        // Another request inserts one of the keys after the existing values were loaded and before they are
+        // inserted.
+        concurrentInsert = "INSERT INTO IDN_IDENTITY_USER_DATA (TENANT_ID, USER_NAME, DATA_KEY, DATA_VALUE) " +
+                "VALUES (" + TENANT_ID + ", '" + USER_NAME + "', '" + FAILED_ATTEMPTS + "', '1')";
+        JDBCIdentityDataStore identityDataStore = new JDBCIdentityDataStore();
+        Map<String, String> data = new HashMap<>();
+        data.put(FAILED_ATTEMPTS, "2");
+        data.put(ACCOUNT_LOCKED, "true");
+
+        identityDataStore.storeUserDataValues(USER_NAME, TENANT_ID, data);
+
+        assertEquals(loadUserData(), data);
+    }
+
+    private Connection getConnection(boolean shouldApplyTransaction) throws SQLException {
+
+        Connection connection = DriverManager.getConnection(DB_URL);
+        connection.setAutoCommit(!shouldApplyTransaction);
+        Connection spyConnection = spy(connection);
+        doAnswer(invocation -> {
+            if (concurrentInsert != null) {
+                try (Connection otherConnection = DriverManager.getConnection(DB_URL);
+                     Statement statement = otherConnection.createStatement()) {
+                    statement.executeUpdate(concurrentInsert);
+                }
+                concurrentInsert = null;
+            }
+            return invocation.callRealMethod();
+        }).when(spyConnection).prepareStatement(startsWith("INSERT INTO IDN_IDENTITY_USER_DATA"));
+        return spyConnection;
+    }
+
+    private Map<String, String> loadUserData() throws SQLException {
+
+        Map<String, String> data = new HashMap<>();
+        try (PreparedStatement prepStmt = databaseConnection.prepareStatement("SELECT DATA_KEY, DATA_VALUE FROM " +
+                "IDN_IDENTITY_USER_DATA WHERE TENANT_ID = ? AND USER_NAME = ?")) {
+            prepStmt.setInt(1, TENANT_ID);
+            prepStmt.setString(2, USER_NAME);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    data.put(resultSet.getString(1), resultSet.getString(2));
+                }
+            }
+        }
+        return data;
+    }
+}
@@ -22,12 +22,12 @@ import org.apache.commons.lang.StringUtils;
 import org.wso2.carbon.identity.input.validation.mgt.exceptions.InputValidationMgtClientException;
 import org.wso2.carbon.identity.input.validation.mgt.model.Property;
 import org.wso2.carbon.identity.input.validation.mgt.model.ValidationContext;
+import org.wso2.carbon.identity.input.validation.mgt.utils.RegExPatternCache;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.JS_REGEX;
 import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.PASSWORD;
@@ -62,8 +62,8 @@ public class JsRegExValidator extends AbstractRegExValidator {
             // Convert to Java regex.
             javaRegex = jsRegex.replaceAll("//", "/");
 
-            Pattern pattern = Pattern.compile(javaRegex);
-            Matcher matcher = pattern.matcher(value);
+            Matcher matcher = RegExPatternCache.getInstance().getPattern(context.getTenantDomain(), javaRegex)
+                    .matcher(value);
             valid = matcher.matches();
         }
         if (!valid) {
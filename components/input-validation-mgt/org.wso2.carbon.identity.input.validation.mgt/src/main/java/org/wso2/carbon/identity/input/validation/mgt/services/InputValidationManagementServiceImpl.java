@@ -36,6 +36,7 @@ import org.wso2.carbon.identity.input.validation.mgt.model.ValidationConfigurati
 import org.wso2.carbon.identity.input.validation.mgt.model.Validator;
 import org.wso2.carbon.identity.input.validation.mgt.model.ValidatorConfiguration;
 import org.wso2.carbon.identity.input.validation.mgt.model.validators.AbstractRegExValidator;
+import org.wso2.carbon.identity.input.validation.mgt.utils.RegExPatternCache;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -222,6 +223,7 @@ public class InputValidationManagementServiceImpl implements InputValidationMana
             // Update the existing resource.
             updatedResource = updateResource(newResource, tenantDomain);
         }
+        RegExPatternCache.getInstance().clear(tenantDomain);
 
         // Execute post actions of validation configuration update.
         FieldValidationConfigurationHandler handler = InputValidationDataHolder
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.input.validation.mgt.utils;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the compiled regex patterns of the tenant configured validators, so a pattern is compiled once per tenant
+ * instead of on every validation. Entries of a tenant are removed when its validation configuration is updated.
+ */
+public class RegExPatternCache {
+
+    // Upper bound for the patterns kept per tenant, as a tenant only configures a handful of regex validators.
+    private static final int MAX_PATTERNS_PER_TENANT = 50;
+    private static final RegExPatternCache instance = new RegExPatternCache();
+
+    private final Map<String, Map<String, Pattern>> tenantPatterns = new ConcurrentHashMap<>();
+
+    private RegExPatternCache() {
+
+    }
+
+    public static RegExPatternCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the compiled pattern of the given regex for the tenant, compiling it on the first request.
+     *
+     * @param tenantDomain Tenant domain.
+     * @param regex        Java regex.
+     * @return Compiled pattern.
+     */
+    public Pattern getPattern(String tenantDomain, String regex) {
+
+        Map<String, Pattern> patterns = tenantPatterns.computeIfAbsent(StringUtils.defaultString(tenantDomain),
+                key -> new ConcurrentHashMap<>());
+        Pattern pattern = patterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (patterns.size() >= MAX_PATTERNS_PER_TENANT) {
+                patterns.clear();
+            }
+            patterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Remove the compiled patterns of the tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public void clear(String tenantDomain) {
+
+        tenantPatterns.remove(StringUtils.defaultString(tenantDomain));
+    }
+}
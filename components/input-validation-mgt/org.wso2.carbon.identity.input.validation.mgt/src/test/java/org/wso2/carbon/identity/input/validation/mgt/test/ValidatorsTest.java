@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.input.validation.mgt.test;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.input.validation.mgt.exceptions.InputValidationMgtClientException;
+import org.wso2.carbon.identity.input.validation.mgt.model.ValidationContext;
+import org.wso2.carbon.identity.input.validation.mgt.model.Validator;
+import org.wso2.carbon.identity.input.validation.mgt.model.validators.AlphanumericValidator;
+import org.wso2.carbon.identity.input.validation.mgt.model.validators.EmailFormatValidator;
+import org.wso2.carbon.identity.input.validation.mgt.model.validators.JsRegExValidator;
+import org.wso2.carbon.identity.input.validation.mgt.model.validators.SpecialCharacterValidator;
+import org.wso2.carbon.identity.input.validation.mgt.utils.RegExPatternCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.ENABLE_SPECIAL_CHARACTERS;
+import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.ENABLE_VALIDATOR;
+import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.JS_REGEX;
+import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.MAX_LENGTH;
+import static org.wso2.carbon.identity.input.validation.mgt.utils.Constants.Configs.MIN_LENGTH;
+
+/**
+ * Testing the regex and character based validators.
+ */
+public class ValidatorsTest {
+
+    private static final String TENANT_DOMAIN = "testTenant";
+    private static final String PASSWORD = "password";
+    private static final String USERNAME = "username";
+
+    @DataProvider(name = "specialCharacterData")
+    public Object[][] specialCharacterData() {
+
+        return new Object[][]{
+                {"Password1", "1", "5", false},
+                {"Pass@word1", "1", "5", true},
+                {"P@$$w0rd!", "1", "3", false},
+                {"P@$w0rd", "2", "3", true},
+                {"Pässwörd", "2", "2", true}
+        };
+    }
+
+    @Test(dataProvider = "specialCharacterData")
+    public void testSpecialCharacterValidator(String value, String min, String max, boolean expected) {
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(MIN_LENGTH, min);
+        properties.put(MAX_LENGTH, max);
+        Assert.assertEquals(isValid(new SpecialCharacterValidator(), PASSWORD, value, properties), expected);
+    }
+
+    @Test
+    public void testJsRegExValidator() {
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(JS_REGEX, "^[a-z]{4,8}$");
+        JsRegExValidator validator = new JsRegExValidator();
+        Assert.assertTrue(isValid(validator, PASSWORD, "secret", properties));
+        Assert.assertFalse(isValid(validator, PASSWORD, "Secret", properties));
+        Assert.assertSame(RegExPatternCache.getInstance().getPattern(TENANT_DOMAIN, "^[a-z]{4,8}$"),
+                RegExPatternCache.getInstance().getPattern(TENANT_DOMAIN, "^[a-z]{4,8}$"));
+
+        // Updated configuration of the tenant must take effect.
+        RegExPatternCache.getInstance().clear(TENANT_DOMAIN);
+        properties.put(JS_REGEX, "^[A-Za-z]{4,8}$");
+        Assert.assertTrue(isValid(validator, PASSWORD, "Secret", properties));
+    }
+
+    @Test
+    public void testAlphanumericAndEmailFormatValidators() {
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(ENABLE_VALIDATOR, "true");
+        AlphanumericValidator alphanumericValidator = new AlphanumericValidator();
+        Assert.assertTrue(isValid(alphanumericValidator, USERNAME, "john123", properties));
+        Assert.assertFalse(isValid(alphanumericValidator, USERNAME, "john.doe", properties));
+        properties.put(ENABLE_SPECIAL_CHARACTERS, "true");
+        Assert.assertTrue(isValid(alphanumericValidator, USERNAME, "john.doe", properties));
+
+        properties.remove(ENABLE_SPECIAL_CHARACTERS);
+        EmailFormatValidator emailFormatValidator = new EmailFormatValidator();
+        Assert.assertTrue(isValid(emailFormatValidator, USERNAME, "john@wso2.com", properties));
+        Assert.assertFalse(isValid(emailFormatValidator, USERNAME, "john.wso2.com", properties));
+    }
+
+    private boolean isValid(Validator validator, String field, String value, Map<String, String> properties) {
+
+        try {
+            return validator.validate(new ValidationContext(field, TENANT_DOMAIN, properties, value));
+        } catch (InputValidationMgtClientException e) {
+            return false;
+        }
+    }
+}
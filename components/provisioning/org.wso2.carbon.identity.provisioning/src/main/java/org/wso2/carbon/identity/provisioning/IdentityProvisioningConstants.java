@@ -49,6 +49,10 @@ public class IdentityProvisioningConstants {
     // Outbound provisioning constants.
     public static final String USE_USER_TENANT_DOMAIN_FOR_OUTBOUND_PROVISIONING_IN_SAAS_APPS = "OutboundProvisioning.useUserTenantDomainInSaasApps";
     public static final String APPLICATION_BASED_OUTBOUND_PROVISIONING_ENABLED = "OutboundProvisioning.enableApplicationBasedOutboundProvisioning";
+    public static final String OUTBOUND_PROVISIONING_THREAD_POOL_SIZE = "OutboundProvisioning.ThreadPoolSize";
+    public static final String OUTBOUND_PROVISIONING_TASK_QUEUE_SIZE = "OutboundProvisioning.TaskQueueSize";
+    public static final String OUTBOUND_PROVISIONING_MAX_CONCURRENT_TASKS_PER_CONNECTOR =
+            "OutboundProvisioning.MaxConcurrentTasksPerConnector";
 
     public static class SQLQueries {
 
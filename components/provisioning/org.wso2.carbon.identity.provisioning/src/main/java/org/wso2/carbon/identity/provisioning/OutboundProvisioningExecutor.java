@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants.OUTBOUND_PROVISIONING_MAX_CONCURRENT_TASKS_PER_CONNECTOR;
+import static org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants.OUTBOUND_PROVISIONING_TASK_QUEUE_SIZE;
+import static org.wso2.carbon.identity.provisioning.IdentityProvisioningConstants.OUTBOUND_PROVISIONING_THREAD_POOL_SIZE;
+
+/**
+ * Shared executor for the non blocking outbound provisioning tasks.
+ * <p>
+ * All the provisioning requests of the server share one bounded thread pool, and the tasks always run on the pool
+ * threads. The pending tasks of each connector of an identity provider are kept in a bounded queue. When that queue
+ * is full, the submission waits for space, which throttles bulk imports instead of creating more threads or running
+ * the tasks on the caller thread. Only a task submitted by a pool thread to a full queue is run on that thread, since
+ * waiting there could hold up the runners which free the space. The tasks of a single connector are limited to a configurable number of concurrent
+ * executions, so a slow connector can not take over the whole pool.
+ */
+public class OutboundProvisioningExecutor {
+
+    private static final Log log = LogFactory.getLog(OutboundProvisioningExecutor.class);
+    private static final String THREAD_NAME_PREFIX = "OutboundProvisioningExecutor-";
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 10;
+    private static final int DEFAULT_TASK_QUEUE_SIZE = 1000;
+    private static final int DEFAULT_MAX_CONCURRENT_TASKS_PER_CONNECTOR = 5;
+
+    private static final ThreadLocal<Boolean> POOL_THREAD = new ThreadLocal<>();
+
+    private static volatile OutboundProvisioningExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final int taskQueueSize;
+    private final int maxConcurrentTasksPerConnector;
+    private final Map<String, ConnectorQueue> connectorQueues = new ConcurrentHashMap<>();
+
+    private OutboundProvisioningExecutor() {
+
+        this(getPositiveIntProperty(OUTBOUND_PROVISIONING_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE),
+                getPositiveIntProperty(OUTBOUND_PROVISIONING_TASK_QUEUE_SIZE, DEFAULT_TASK_QUEUE_SIZE),
+                getPositiveIntProperty(OUTBOUND_PROVISIONING_MAX_CONCURRENT_TASKS_PER_CONNECTOR,
+                        DEFAULT_MAX_CONCURRENT_TASKS_PER_CONNECTOR));
+    }
+
+    OutboundProvisioningExecutor(int poolSize, int queueSize, int maxConcurrentTasksPerConnector) {
+
+        this.taskQueueSize = queueSize;
+        this.maxConcurrentTasksPerConnector = maxConcurrentTasksPerConnector;
+        /* The pool queue only holds the runners of the connectors, which are limited by the number of connectors and
+           the concurrency limit of a connector. The pending tasks themselves are bounded by the connector queues. */
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ProvisioningThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        if (log.isDebugEnabled()) {
+            log.debug("Outbound provisioning executor initialized with pool size: " + poolSize + ", queue size: " +
+                    queueSize + " per connector and max concurrent tasks per connector: " +
+                    maxConcurrentTasksPerConnector);
+        }
+    }
+
+    public static OutboundProvisioningExecutor getInstance() {
+
+        if (instance == null) {
+            synchronized (OutboundProvisioningExecutor.class) {
+                if (instance == null) {
+                    instance = new OutboundProvisioningExecutor();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shut down the executor if it was initialized. Already queued tasks are still executed.
+     */
+    public static void shutdown() {
+
+        synchronized (OutboundProvisioningExecutor.class) {
+            if (instance != null) {
+                instance.shutdownExecutor();
+                instance = null;
+            }
+        }
+    }
+
+    void shutdownExecutor() {
+
+        executor.shutdown();
+    }
+
+    /**
+     * Submit a provisioning task of the given connector of an identity provider. If the connector already has the
+     * maximum number of pending tasks, this waits until one of them is started, or runs the task right away when
+     * called from a provisioning thread.
+     *
+     * @param idPName       Name of the identity provider.
+     * @param connectorType Type of the provisioning connector.
+     * @param task          Provisioning task.
+     */
+    public void submit(String idPName, String connectorType, Callable<Boolean> task) {
+
+        ConnectorQueue connectorQueue = connectorQueues.computeIfAbsent(idPName + ":" + connectorType,
+                ConnectorQueue::new);
+        QueuedTask queuedTask = new QueuedTask(task);
+        if (!connectorQueue.tasks.offer(queuedTask)) {
+            if (isPoolThread()) {
+                /* A pool thread waiting for space could hold up the runners which free that space, hence the task is
+                   run on this thread instead. */
+                if (log.isDebugEnabled()) {
+                    log.debug("Outbound provisioning task queue of connector: " + connectorQueue.connectorKey +
+                            " is full. Running the task submitted by a provisioning thread on that thread.");
+                }
+                connectorQueue.run(queuedTask);
+                return;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Outbound provisioning task queue of connector: " + connectorQueue.connectorKey +
+                        " is full. Waiting for space in the queue.");
+            }
+            // Make sure the queue is being drained while waiting.
+            connectorQueue.dispatch();
+            try {
+                connectorQueue.tasks.put(queuedTask);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                connectorQueue.failedTasks.incrementAndGet();
+                log.error("Interrupted while waiting to submit an outbound provisioning task of connector: " +
+                        connectorQueue.connectorKey + ". The task is dropped.");
+                return;
+            }
+        }
+        connectorQueue.dispatch();
+    }
+
+    /**
+     * Get the number of failed provisioning tasks of the given connector since the server start.
+     *
+     * @param idPName       Name of the identity provider.
+     * @param connectorType Type of the provisioning connector.
+     * @return Number of failed provisioning tasks.
+     */
+    public long getFailedTaskCount(String idPName, String connectorType) {
+
+        ConnectorQueue connectorQueue = connectorQueues.get(idPName + ":" + connectorType);
+        return connectorQueue == null ? 0 : connectorQueue.failedTasks.get();
+    }
+
+    /**
+     * Get the time the last started provisioning task of the given connector waited in the queue.
+     *
+     * @param idPName       Name of the identity provider.
+     * @param connectorType Type of the provisioning connector.
+     * @return Queued time of the last started task in milliseconds.
+     */
+    public long getLastTaskLagInMillis(String idPName, String connectorType) {
+
+        ConnectorQueue connectorQueue = connectorQueues.get(idPName + ":" + connectorType);
+        return connectorQueue == null ? 0 : connectorQueue.lastTaskLagInMillis.get();
+    }
+
+    private static boolean isPoolThread() {
+
+        return Boolean.TRUE.equals(POOL_THREAD.get());
+    }
+
+    private static int getPositiveIntProperty(String propertyName, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue > 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException e) {
+            // Falls back to the default value below.
+        }
+        log.warn("Invalid value: " + value + " configured for " + propertyName + ". Using the default value: " +
+                defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * Pending tasks of a single connector of an identity provider along with its statistics.
+     */
+    private class ConnectorQueue {
+
+        private final String connectorKey;
+        private final BlockingQueue<QueuedTask> tasks = new LinkedBlockingQueue<>(taskQueueSize);
+        private final AtomicInteger runningTasks = new AtomicInteger();
+        private final AtomicLong failedTasks = new AtomicLong();
+        private final AtomicLong lastTaskLagInMillis = new AtomicLong();
+
+        ConnectorQueue(String connectorKey) {
+
+            this.connectorKey = connectorKey;
+        }
+
+        /**
+         * Start runners for the pending tasks while the concurrency limit of the connector allows.
+         */
+        void dispatch() {
+
+            while (!tasks.isEmpty()) {
+                int running = runningTasks.get();
+                if (running >= maxConcurrentTasksPerConnector) {
+                    return;
+                }
+                if (runningTasks.compareAndSet(running, running + 1)) {
+                    try {
+                        executor.execute(this::runPendingTasks);
+                    } catch (RejectedExecutionException e) {
+                        runningTasks.decrementAndGet();
+                        log.warn("Outbound provisioning executor is shut down. Pending tasks of connector: " +
+                                connectorKey + " are not executed.");
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void runPendingTasks() {
+
+            try {
+                QueuedTask queuedTask;
+                while ((queuedTask = tasks.poll()) != null) {
+                    run(queuedTask);
+                }
+            } finally {
+                runningTasks.decrementAndGet();
+            }
+            // Tasks added while this runner was finishing would otherwise wait for the next submission.
+            if (!tasks.isEmpty()) {
+                dispatch();
+            }
+        }
+
+        private void run(QueuedTask queuedTask) {
+
+            long lag = System.currentTimeMillis() - queuedTask.queuedTime;
+            lastTaskLagInMillis.set(lag);
+            boolean success = false;
+            try {
+                success = Boolean.TRUE.equals(queuedTask.task.call());
+            } catch (Exception e) {
+                // The provisioning task logs the failure details.
+                if (log.isDebugEnabled()) {
+                    log.debug("Outbound provisioning task failed for connector: " + connectorKey, e);
+                }
+            }
+            if (!success) {
+                long failed = failedTasks.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Outbound provisioning failed for connector: " + connectorKey + ". Total failures: " +
+                            failed);
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Outbound provisioning task of connector: " + connectorKey + " started after waiting " +
+                        lag + " ms in the queue.");
+            }
+        }
+    }
+
+    private static class QueuedTask {
+
+        private final Callable<Boolean> task;
+        private final long queuedTime = System.currentTimeMillis();
+
+        QueuedTask(Callable<Boolean> task) {
+
+            this.task = task;
+        }
+    }
+
+    private static class ProvisioningThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(() -> {
+                POOL_THREAD.set(Boolean.TRUE);
+                runnable.run();
+            }, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -117,13 +117,8 @@ public class ProvisioningThread implements Callable<Boolean> {
             log.error(errMsg, e);
             throw new IdentityProvisioningException(errMsg, e);
         } finally {
+            // Ending the tenant flow restores the carbon context of the caller.
             PrivilegedCarbonContext.endTenantFlow();
-
-            if (isUserTenantBasedOutboundProvisioningEnabled && provisioningEntityTenantDomainName != null) {
-                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(provisioningEntityTenantDomainName, true);
-            }else if (tenantDomainName != null) {
-                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomainName, true);
-            }
         }
 
         return success;
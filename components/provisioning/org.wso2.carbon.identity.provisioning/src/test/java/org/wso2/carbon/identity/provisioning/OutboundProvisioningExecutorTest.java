@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.provisioning;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for OutboundProvisioningExecutor test cases.
+ */
+public class OutboundProvisioningExecutorTest {
+
+    private static final String IDP_NAME = "testIdpName";
+    private static final String CONNECTOR_TYPE = "testConnectorType";
+
+    private OutboundProvisioningExecutor executor;
+
+    @AfterMethod
+    public void tearDown() {
+
+        if (executor != null) {
+            executor.shutdownExecutor();
+            executor = null;
+        }
+    }
+
+    @Test
+    public void testTasksRunOnPoolThreads() throws Exception {
+
+        executor = new OutboundProvisioningExecutor(2, 10, 1);
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        int taskCount = 5;
+        CountDownLatch completed = new CountDownLatch(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+                threadNames.add(Thread.currentThread().getName());
+                completed.countDown();
+                return true;
+            });
+        }
+
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(threadNames.contains(Thread.currentThread().getName()));
+        for (String threadName : threadNames) {
+            Assert.assertTrue(threadName.startsWith("OutboundProvisioningExecutor-"));
+        }
+    }
+
+    @Test
+    public void testSubmitWaitsWhenConnectorQueueIsFull() throws Exception {
+
+        executor = new OutboundProvisioningExecutor(1, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(3);
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+            started.countDown();
+            release.await();
+            completed.countDown();
+            return true;
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Fills the queue of the connector while the first task is running.
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+            completed.countDown();
+            return true;
+        });
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread submitter = new Thread(() -> {
+            executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+                completed.countDown();
+                return true;
+            });
+            submitted.countDown();
+        });
+        submitter.start();
+
+        Assert.assertFalse(submitted.await(500, TimeUnit.MILLISECONDS),
+                "Submission should wait while the connector queue is full.");
+        release.countDown();
+        Assert.assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPoolThreadRunsTaskWhenConnectorQueueIsFull() throws Exception {
+
+        executor = new OutboundProvisioningExecutor(1, 1, 1);
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        CountDownLatch completed = new CountDownLatch(2);
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+            String poolThreadName = Thread.currentThread().getName();
+            // Fills the queue of the connector, since this task holds the only runner of the connector.
+            executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+                completed.countDown();
+                return true;
+            });
+            executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+                threadNames.add(Thread.currentThread().getName());
+                completed.countDown();
+                return true;
+            });
+            threadNames.add(poolThreadName);
+            return true;
+        });
+
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(threadNames.size(), 1, "The task should run on the submitting pool thread.");
+        Assert.assertEquals(executor.getFailedTaskCount(IDP_NAME, CONNECTOR_TYPE), 0);
+    }
+
+    @Test
+    public void testMaxConcurrentTasksPerConnector() throws Exception {
+
+        executor = new OutboundProvisioningExecutor(4, 10, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int taskCount = 6;
+        CountDownLatch completed = new CountDownLatch(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+                completed.countDown();
+                return true;
+            });
+        }
+
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(maxRunning.get() <= 2, "Connector ran " + maxRunning.get() + " tasks concurrently.");
+    }
+
+    @Test
+    public void testFailedTaskCount() throws Exception {
+
+        executor = new OutboundProvisioningExecutor(1, 10, 1);
+        CountDownLatch completed = new CountDownLatch(1);
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> false);
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+            throw new IdentityProvisioningException("Provisioning failed.");
+        });
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> true);
+        executor.submit(IDP_NAME, CONNECTOR_TYPE, () -> {
+            completed.countDown();
+            return true;
+        });
+
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(executor.getFailedTaskCount(IDP_NAME, CONNECTOR_TYPE), 2);
+        Assert.assertEquals(executor.getFailedTaskCount(IDP_NAME, "otherConnectorType"), 0);
+    }
+}
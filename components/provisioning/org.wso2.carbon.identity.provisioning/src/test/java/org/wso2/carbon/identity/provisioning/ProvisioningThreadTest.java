@@ -42,6 +42,8 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.wso2.carbon.identity.provisioning.ProvisioningEntityType.GROUP;
@@ -105,6 +107,27 @@ public class ProvisioningThreadTest {
         }
     }
 
+    @Test
+    public void testCallRestoresCallerContext() throws Exception {
+
+        System.setProperty("carbon.home", "");
+        try (MockedStatic<PrivilegedCarbonContext> privilegedCarbonContext = mockStatic(
+                PrivilegedCarbonContext.class)) {
+            provisioningEntity = new ProvisioningEntity(USER, PUT, null);
+            PrivilegedCarbonContext mockPrivilegedCarbonContext = mockCarbonContext(privilegedCarbonContext);
+            ProvisioningThread provisioningThread =
+                    new ProvisioningThread(provisioningEntity, tenantDomainName, mockConnector, connectorType,
+                            idPName, mock(CacheBackedProvisioningMgtDAO.class));
+
+            Assert.assertTrue(provisioningThread.call());
+            privilegedCarbonContext.verify(PrivilegedCarbonContext::startTenantFlow);
+            privilegedCarbonContext.verify(PrivilegedCarbonContext::endTenantFlow);
+            /* The tenant domain is set only inside the tenant flow. A blocking provisioning call runs on the caller
+               thread, and its tenant domain is no longer overwritten once the tenant flow ends. */
+            verify(mockPrivilegedCarbonContext, times(1)).setTenantDomain(tenantDomainName, true);
+        }
+    }
+
     @Test(expectedExceptions = IdentityProvisioningException.class)
     public void testCallForInvalidTenant()
             throws Exception {
@@ -158,7 +181,8 @@ public class ProvisioningThreadTest {
         };
     }
 
-    private void mockCarbonContext(MockedStatic<PrivilegedCarbonContext> privilegedCarbonContext) {
+    private PrivilegedCarbonContext mockCarbonContext(
+            MockedStatic<PrivilegedCarbonContext> privilegedCarbonContext) {
 
         PrivilegedCarbonContext mockPrivilegedCarbonContext = mock(PrivilegedCarbonContext.class);
         privilegedCarbonContext.when(
@@ -166,5 +190,6 @@ public class ProvisioningThreadTest {
         when(mockPrivilegedCarbonContext.getTenantDomain()).thenReturn(tenantDomainName);
         when(mockPrivilegedCarbonContext.getTenantId()).thenReturn(-1234);
         when(mockPrivilegedCarbonContext.getUsername()).thenReturn("admin");
+        return mockPrivilegedCarbonContext;
     }
 }
@@ -0,0 +1,515 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.v2.mgt.core.dao;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.model.ExpressionNode;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.organization.management.service.exception.OrganizationManagementException;
+import org.wso2.carbon.identity.organization.management.service.util.OrganizationManagementUtil;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.PermissionListOfRoleCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleAudienceRefIdCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleAudienceRefIdCacheEntry;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleBasicInfoListCacheEntry;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleIdListOfGroupCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleIdListOfUserCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleListOfUserCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleMgtCacheKey;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.StringListCacheEntry;
+import org.wso2.carbon.identity.role.v2.mgt.core.exception.IdentityRoleManagementException;
+import org.wso2.carbon.identity.role.v2.mgt.core.exception.IdentityRoleManagementServerException;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.GroupBasicInfo;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.IdpGroup;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.Permission;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.Role;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.RoleBasicInfo;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.RoleDTO;
+import org.wso2.carbon.identity.role.v2.mgt.core.model.UserBasicInfo;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.wso2.carbon.identity.role.v2.mgt.core.RoleConstants.Error.UNEXPECTED_SERVER_ERROR;
+
+/**
+ * Cached DAO layer for the role management. Role resolution of users and groups, permissions of roles and role
+ * audience references are served from the cache, and the cached data is invalidated by the role update operations
+ * done through this layer. Permissions of roles are also invalidated when the scopes behind them are changed by the
+ * API resource management.
+ */
+public class CacheBackedRoleDAO implements RoleDAO {
+
+    private static final Log LOG = LogFactory.getLog(CacheBackedRoleDAO.class);
+
+    private final RoleDAO roleDAO;
+    private final RoleListOfUserCache roleListOfUserCache;
+    private final RoleIdListOfUserCache roleIdListOfUserCache;
+    private final RoleIdListOfGroupCache roleIdListOfGroupCache;
+    private final PermissionListOfRoleCache permissionListOfRoleCache;
+    private final RoleAudienceRefIdCache roleAudienceRefIdCache;
+
+    public CacheBackedRoleDAO(RoleDAO roleDAO) {
+
+        this.roleDAO = roleDAO;
+        roleListOfUserCache = RoleListOfUserCache.getInstance();
+        roleIdListOfUserCache = RoleIdListOfUserCache.getInstance();
+        roleIdListOfGroupCache = RoleIdListOfGroupCache.getInstance();
+        permissionListOfRoleCache = PermissionListOfRoleCache.getInstance();
+        roleAudienceRefIdCache = RoleAudienceRefIdCache.getInstance();
+    }
+
+    @Override
+    public RoleBasicInfo addRole(String roleName, List<String> userList, List<String> groupList,
+                                 List<Permission> permissions, String audience, String audienceId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        RoleBasicInfo roleBasicInfo = roleDAO.addRole(roleName, userList, groupList, permissions, audience,
+                audienceId, tenantDomain);
+        clearUserCacheEntries(userList, tenantDomain);
+        clearGroupCacheEntries(groupList, tenantDomain);
+        return roleBasicInfo;
+    }
+
+    @Override
+    public List<RoleBasicInfo> getRoles(Integer limit, Integer offset, String sortBy, String sortOrder,
+                                        String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getRoles(limit, offset, sortBy, sortOrder, tenantDomain);
+    }
+
+    @Override
+    public List<Role> getRoles(Integer limit, Integer offset, String sortBy, String sortOrder, String tenantDomain,
+                               List<String> requiredAttributes) throws IdentityRoleManagementException {
+
+        return roleDAO.getRoles(limit, offset, sortBy, sortOrder, tenantDomain, requiredAttributes);
+    }
+
+    @Override
+    public List<RoleBasicInfo> getRoles(List<ExpressionNode> expressionNodes, Integer limit, Integer offset,
+                                        String sortBy, String sortOrder, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoles(expressionNodes, limit, offset, sortBy, sortOrder, tenantDomain);
+    }
+
+    @Override
+    public List<Role> getRoles(List<ExpressionNode> expressionNodes, Integer limit, Integer offset, String sortBy,
+                               String sortOrder, String tenantDomain, List<String> requiredAttributes)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoles(expressionNodes, limit, offset, sortBy, sortOrder, tenantDomain, requiredAttributes);
+    }
+
+    @Override
+    public Role getRole(String roleId, String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getRole(roleId, tenantDomain);
+    }
+
+    @Override
+    public Role getRole(String roleId) throws IdentityRoleManagementException {
+
+        return roleDAO.getRole(roleId);
+    }
+
+    @Override
+    public List<Permission> getPermissionListOfRole(String roleId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getPermissionListOfRole(roleId, tenantDomain);
+    }
+
+    @Override
+    public List<String> getPermissionListOfRoles(List<String> roleIds, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        /* Permissions of shared roles are resolved from the main role which lives in another tenant, hence those
+           are not cached against the organization. */
+        if (CollectionUtils.isEmpty(roleIds) || isOrganization(tenantDomain)) {
+            return roleDAO.getPermissionListOfRoles(roleIds, tenantDomain);
+        }
+        List<String> permissions = new ArrayList<>();
+        for (String roleId : roleIds) {
+            RoleMgtCacheKey cacheKey = new RoleMgtCacheKey(roleId);
+            StringListCacheEntry entry = permissionListOfRoleCache.getValueFromCache(cacheKey, tenantDomain);
+            if (entry != null) {
+                permissions.addAll(entry.getValues());
+                continue;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Cache miss for the permissions of role: " + roleId + " in tenant: " + tenantDomain);
+            }
+            List<String> permissionsOfRole = roleDAO.getPermissionListOfRoles(Collections.singletonList(roleId),
+                    tenantDomain);
+            permissionListOfRoleCache.addToCache(cacheKey, new StringListCacheEntry(permissionsOfRole),
+                    tenantDomain);
+            permissions.addAll(permissionsOfRole);
+        }
+        return permissions;
+    }
+
+    @Override
+    public void updatePermissionListOfRole(String roleId, List<Permission> addedPermissions,
+                                           List<Permission> deletedPermissions, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        roleDAO.updatePermissionListOfRole(roleId, addedPermissions, deletedPermissions, tenantDomain);
+        permissionListOfRoleCache.clearCacheEntry(new RoleMgtCacheKey(roleId), tenantDomain);
+    }
+
+    @Override
+    public List<IdpGroup> getIdpGroupListOfRole(String roleId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getIdpGroupListOfRole(roleId, tenantDomain);
+    }
+
+    @Override
+    public void updateIdpGroupListOfRole(String roleId, List<IdpGroup> newGroupList, List<IdpGroup> deletedGroupList,
+                                         String tenantDomain) throws IdentityRoleManagementException {
+
+        roleDAO.updateIdpGroupListOfRole(roleId, newGroupList, deletedGroupList, tenantDomain);
+    }
+
+    @Override
+    public void deleteRole(String roleId, String tenantDomain) throws IdentityRoleManagementException {
+
+        // Shared roles of the role are deleted along with it, hence the caches of those organizations are cleared too.
+        List<RoleDTO> sharedRoles = roleDAO.getSharedHybridRoles(roleId, IdentityTenantUtil.getTenantId(tenantDomain));
+        roleDAO.deleteRole(roleId, tenantDomain);
+        permissionListOfRoleCache.clearCacheEntry(new RoleMgtCacheKey(roleId), tenantDomain);
+        clearRoleAssignmentCaches(tenantDomain);
+        clearRoleAssignmentCachesOfSharedRoles(sharedRoles);
+    }
+
+    @Override
+    public void updateRoleName(String roleId, String newRoleName, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        List<RoleDTO> sharedRoles = roleDAO.getSharedHybridRoles(roleId, IdentityTenantUtil.getTenantId(tenantDomain));
+        roleDAO.updateRoleName(roleId, newRoleName, tenantDomain);
+        // Only the role list of users carry the role name.
+        roleListOfUserCache.clear(tenantDomain);
+        for (RoleDTO sharedRole : sharedRoles) {
+            roleListOfUserCache.clear(sharedRole.getTenantId());
+        }
+    }
+
+    @Override
+    public List<UserBasicInfo> getUserListOfRole(String roleId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getUserListOfRole(roleId, tenantDomain);
+    }
+
+    @Override
+    public void updateGroupListOfRole(String roleId, List<String> newGroupIDList, List<String> deletedGroupIDList,
+                                      String tenantDomain) throws IdentityRoleManagementException {
+
+        roleDAO.updateGroupListOfRole(roleId, newGroupIDList, deletedGroupIDList, tenantDomain);
+        clearGroupCacheEntries(newGroupIDList, tenantDomain);
+        clearGroupCacheEntries(deletedGroupIDList, tenantDomain);
+    }
+
+    @Override
+    public List<GroupBasicInfo> getGroupListOfRole(String roleId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getGroupListOfRole(roleId, tenantDomain);
+    }
+
+    @Override
+    public void updateUserListOfRole(String roleId, List<String> newUserIDList, List<String> deletedUserIDList,
+                                     String tenantDomain) throws IdentityRoleManagementException {
+
+        roleDAO.updateUserListOfRole(roleId, newUserIDList, deletedUserIDList, tenantDomain);
+        clearUserCacheEntries(newUserIDList, tenantDomain);
+        clearUserCacheEntries(deletedUserIDList, tenantDomain);
+    }
+
+    @Override
+    public String getRoleNameByID(String roleId, String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleNameByID(roleId, tenantDomain);
+    }
+
+    @Override
+    public String getRoleIdByName(String roleName, String audience, String audienceId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleIdByName(roleName, audience, audienceId, tenantDomain);
+    }
+
+    @Override
+    public boolean isExistingRoleName(String roleName, String audience, String audienceId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.isExistingRoleName(roleName, audience, audienceId, tenantDomain);
+    }
+
+    @Override
+    public boolean isExistingRoleID(String roleId, String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.isExistingRoleID(roleId, tenantDomain);
+    }
+
+    @Override
+    public RoleBasicInfo getRoleBasicInfoById(String roleId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleBasicInfoById(roleId, tenantDomain);
+    }
+
+    @Override
+    public Set<String> getSystemRoles() {
+
+        return roleDAO.getSystemRoles();
+    }
+
+    @Override
+    public int getRolesCount(String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getRolesCount(tenantDomain);
+    }
+
+    @Override
+    public Role getRoleWithoutUsers(String roleId, String tenantDomain) throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleWithoutUsers(roleId, tenantDomain);
+    }
+
+    @Override
+    public void addMainRoleToSharedRoleRelationship(String mainRoleUUID, String sharedRoleUUID,
+                                                    String mainRoleTenantDomain, String sharedRoleTenantDomain)
+            throws IdentityRoleManagementException {
+
+        roleDAO.addMainRoleToSharedRoleRelationship(mainRoleUUID, sharedRoleUUID, mainRoleTenantDomain,
+                sharedRoleTenantDomain);
+    }
+
+    @Override
+    public List<RoleBasicInfo> getRoleListOfUser(String userId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        RoleMgtCacheKey cacheKey = new RoleMgtCacheKey(userId);
+        RoleBasicInfoListCacheEntry entry = roleListOfUserCache.getValueFromCache(cacheKey, tenantDomain);
+        if (entry != null) {
+            return entry.getRoles();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cache miss for the role list of user: " + userId + " in tenant: " + tenantDomain);
+        }
+        List<RoleBasicInfo> roles = roleDAO.getRoleListOfUser(userId, tenantDomain);
+        roleListOfUserCache.addToCache(cacheKey, new RoleBasicInfoListCacheEntry(roles), tenantDomain);
+        return roles;
+    }
+
+    @Override
+    public List<RoleBasicInfo> getRoleListOfGroups(List<String> groupIds, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleListOfGroups(groupIds, tenantDomain);
+    }
+
+    @Override
+    public List<RoleBasicInfo> getRoleListOfIdpGroups(List<String> groupIds, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleListOfIdpGroups(groupIds, tenantDomain);
+    }
+
+    @Override
+    public List<String> getRoleIdListOfUser(String userId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        RoleMgtCacheKey cacheKey = new RoleMgtCacheKey(userId);
+        StringListCacheEntry entry = roleIdListOfUserCache.getValueFromCache(cacheKey, tenantDomain);
+        if (entry != null) {
+            return entry.getValues();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cache miss for the role id list of user: " + userId + " in tenant: " + tenantDomain);
+        }
+        List<String> roleIds = roleDAO.getRoleIdListOfUser(userId, tenantDomain);
+        roleIdListOfUserCache.addToCache(cacheKey, new StringListCacheEntry(roleIds), tenantDomain);
+        return roleIds;
+    }
+
+    @Override
+    public List<String> getRoleIdListOfGroups(List<String> groupIds, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        if (CollectionUtils.isEmpty(groupIds)) {
+            return roleDAO.getRoleIdListOfGroups(groupIds, tenantDomain);
+        }
+        Set<String> roleIds = new LinkedHashSet<>();
+        for (String groupId : groupIds) {
+            RoleMgtCacheKey cacheKey = new RoleMgtCacheKey(groupId);
+            StringListCacheEntry entry = roleIdListOfGroupCache.getValueFromCache(cacheKey, tenantDomain);
+            if (entry != null) {
+                roleIds.addAll(entry.getValues());
+                continue;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Cache miss for the role id list of group: " + groupId + " in tenant: " + tenantDomain);
+            }
+            List<String> roleIdsOfGroup = roleDAO.getRoleIdListOfGroups(Collections.singletonList(groupId),
+                    tenantDomain);
+            roleIdListOfGroupCache.addToCache(cacheKey, new StringListCacheEntry(roleIdsOfGroup), tenantDomain);
+            roleIds.addAll(roleIdsOfGroup);
+        }
+        return new ArrayList<>(roleIds);
+    }
+
+    @Override
+    public List<String> getRoleIdListOfIdpGroups(List<String> groupIds, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getRoleIdListOfIdpGroups(groupIds, tenantDomain);
+    }
+
+    @Override
+    public void deleteRolesByApplication(String applicationId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        roleDAO.deleteRolesByApplication(applicationId, tenantDomain);
+        permissionListOfRoleCache.clear(tenantDomain);
+        clearRoleAssignmentCaches(tenantDomain);
+    }
+
+    @Override
+    public Map<String, String> getMainRoleToSharedRoleMappingsBySubOrg(List<String> roleIds,
+                                                                       String subOrgTenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getMainRoleToSharedRoleMappingsBySubOrg(roleIds, subOrgTenantDomain);
+    }
+
+    @Override
+    public List<String> getAssociatedApplicationIdsByRoleId(String roleId, String tenantDomain)
+            throws IdentityRoleManagementException {
+
+        return roleDAO.getAssociatedApplicationIdsByRoleId(roleId, tenantDomain);
+    }
+
+    @Override
+    public int getRoleAudienceRefId(String audience, String audienceId) throws IdentityRoleManagementException {
+
+        // Audiences are not tenant specific, hence those are kept in the super tenant space.
+        RoleMgtCacheKey cacheKey = new RoleMgtCacheKey(audience + ":" + audienceId);
+        RoleAudienceRefIdCacheEntry entry = roleAudienceRefIdCache.getValueFromCache(cacheKey,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        if (entry != null) {
+            return entry.getAudienceRefId();
+        }
+        int audienceRefId = roleDAO.getRoleAudienceRefId(audience, audienceId);
+        if (audienceRefId != -1) {
+            roleAudienceRefIdCache.addToCache(cacheKey, new RoleAudienceRefIdCacheEntry(audienceRefId),
+                    MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        }
+        return audienceRefId;
+    }
+
+    @Override
+    public List<RoleDTO> getSharedHybridRoles(String roleId, int tenantId) throws IdentityRoleManagementException {
+
+        return roleDAO.getSharedHybridRoles(roleId, tenantId);
+    }
+
+    /**
+     * Clear the cached role assignments of the given users.
+     *
+     * @param userIds      IDs of the users.
+     * @param tenantDomain Tenant domain.
+     */
+    public static void clearUserCacheEntries(Collection<String> userIds, String tenantDomain) {
+
+        if (CollectionUtils.isEmpty(userIds)) {
+            return;
+        }
+        for (String userId : userIds) {
+            RoleMgtCacheKey cacheKey = new RoleMgtCacheKey(userId);
+            RoleListOfUserCache.getInstance().clearCacheEntry(cacheKey, tenantDomain);
+            RoleIdListOfUserCache.getInstance().clearCacheEntry(cacheKey, tenantDomain);
+        }
+    }
+
+    /**
+     * Clear the cached role assignments of the given groups.
+     *
+     * @param groupIds     IDs of the groups.
+     * @param tenantDomain Tenant domain.
+     */
+    public static void clearGroupCacheEntries(Collection<String> groupIds, String tenantDomain) {
+
+        if (CollectionUtils.isEmpty(groupIds)) {
+            return;
+        }
+        for (String groupId : groupIds) {
+            RoleIdListOfGroupCache.getInstance().clearCacheEntry(new RoleMgtCacheKey(groupId), tenantDomain);
+        }
+    }
+
+    /**
+     * Clear the cached permissions of all the roles of the given tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     */
+    public static void clearPermissionCaches(String tenantDomain) {
+
+        PermissionListOfRoleCache.getInstance().clear(tenantDomain);
+    }
+
+    private void clearRoleAssignmentCaches(String tenantDomain) {
+
+        roleListOfUserCache.clear(tenantDomain);
+        roleIdListOfUserCache.clear(tenantDomain);
+        roleIdListOfGroupCache.clear(tenantDomain);
+    }
+
+    private void clearRoleAssignmentCachesOfSharedRoles(List<RoleDTO> sharedRoles) {
+
+        if (sharedRoles == null) {
+            return;
+        }
+        for (RoleDTO sharedRole : sharedRoles) {
+            roleListOfUserCache.clear(sharedRole.getTenantId());
+            roleIdListOfUserCache.clear(sharedRole.getTenantId());
+            roleIdListOfGroupCache.clear(sharedRole.getTenantId());
+        }
+    }
+
+    private boolean isOrganization(String tenantDomain) throws IdentityRoleManagementException {
+
+        try {
+            return OrganizationManagementUtil.isOrganization(tenantDomain);
+        } catch (OrganizationManagementException e) {
+            String errorMessage = "Error while checking is sub org by tenant domain: " + tenantDomain;
+            throw new IdentityRoleManagementServerException(UNEXPECTED_SERVER_ERROR.getCode(), errorMessage, e);
+        }
+    }
+}
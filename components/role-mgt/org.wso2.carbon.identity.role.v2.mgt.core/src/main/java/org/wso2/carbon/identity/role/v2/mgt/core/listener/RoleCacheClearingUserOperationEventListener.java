@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.v2.mgt.core.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.AbstractIdentityUserOperationEventListener;
+import org.wso2.carbon.identity.core.util.IdentityCoreConstants;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.role.v2.mgt.core.dao.CacheBackedRoleDAO;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserStoreClientException;
+import org.wso2.carbon.user.core.UserStoreException;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * User operation event listener which clears the cached role assignments of the affected users and groups when the
+ * role assignments are changed through the user store manager instead of the role management service.
+ */
+public class RoleCacheClearingUserOperationEventListener extends AbstractIdentityUserOperationEventListener {
+
+    private static final Log LOG = LogFactory.getLog(RoleCacheClearingUserOperationEventListener.class);
+    private static final String AFFECTED_USER_IDS = "RoleCacheAffectedUserIds";
+    private static final String AFFECTED_GROUP_IDS = "RoleCacheAffectedGroupIds";
+
+    @Override
+    public int getExecutionOrderId() {
+
+        int orderId = getOrderId();
+        if (orderId != IdentityCoreConstants.EVENT_LISTENER_ORDER_ID) {
+            return orderId;
+        }
+        return 96;
+    }
+
+    @Override
+    public boolean doPostUpdateRoleListOfUser(String userName, String[] deletedRoles, String[] newRoles,
+                                              UserStoreManager userStoreManager) throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        CacheBackedRoleDAO.clearUserCacheEntries(resolveUserIds(userStoreManager, userName),
+                getTenantDomain(userStoreManager));
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateUserListOfRole(String roleName, String[] deletedUsers, String[] newUsers,
+                                              UserStoreManager userStoreManager) throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        String tenantDomain = getTenantDomain(userStoreManager);
+        CacheBackedRoleDAO.clearUserCacheEntries(resolveUserIds(userStoreManager, deletedUsers), tenantDomain);
+        CacheBackedRoleDAO.clearUserCacheEntries(resolveUserIds(userStoreManager, newUsers), tenantDomain);
+        return true;
+    }
+
+    @Override
+    public boolean doPreDeleteRole(String roleName, UserStoreManager userStoreManager) throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        // Members of the role can't be resolved once it is deleted, hence those are collected beforehand.
+        collectAffectedEntities(roleName, userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostDeleteRole(String roleName, UserStoreManager userStoreManager) throws UserStoreException {
+
+        clearAffectedEntities(userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPreUpdateRoleName(String roleName, String newRoleName, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        if (!isEnable()) {
+            return true;
+        }
+        collectAffectedEntities(roleName, userStoreManager);
+        return true;
+    }
+
+    @Override
+    public boolean doPostUpdateRoleName(String roleName, String newRoleName, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        clearAffectedEntities(userStoreManager);
+        return true;
+    }
+
+    private void collectAffectedEntities(String roleName, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        if (!(userStoreManager instanceof AbstractUserStoreManager)) {
+            return;
+        }
+        AbstractUserStoreManager abstractUserStoreManager = (AbstractUserStoreManager) userStoreManager;
+        List<String> userIds = new ArrayList<>();
+        List<String> groupIds = new ArrayList<>();
+        if (isHybridRole(roleName)) {
+            userIds.addAll(resolveUserIds(userStoreManager, userStoreManager.getUserListOfRole(roleName)));
+        } else {
+            try {
+                groupIds.add(abstractUserStoreManager.getGroupIdByGroupName(roleName));
+            } catch (UserStoreClientException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Unable to resolve the id of the group: " + roleName, e);
+                }
+            }
+        }
+        IdentityUtil.threadLocalProperties.get().put(AFFECTED_USER_IDS, userIds);
+        IdentityUtil.threadLocalProperties.get().put(AFFECTED_GROUP_IDS, groupIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void clearAffectedEntities(UserStoreManager userStoreManager) throws UserStoreException {
+
+        List<String> userIds = (List<String>) IdentityUtil.threadLocalProperties.get().remove(AFFECTED_USER_IDS);
+        List<String> groupIds = (List<String>) IdentityUtil.threadLocalProperties.get().remove(AFFECTED_GROUP_IDS);
+        if (!isEnable()) {
+            return;
+        }
+        String tenantDomain = getTenantDomain(userStoreManager);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Clearing the cached role assignments of " + (userIds == null ? 0 : userIds.size()) +
+                    " users and " + (groupIds == null ? 0 : groupIds.size()) + " groups of the tenant: " +
+                    tenantDomain);
+        }
+        CacheBackedRoleDAO.clearUserCacheEntries(userIds, tenantDomain);
+        CacheBackedRoleDAO.clearGroupCacheEntries(groupIds, tenantDomain);
+    }
+
+    private List<String> resolveUserIds(UserStoreManager userStoreManager, String... userNames)
+            throws UserStoreException {
+
+        if (userNames == null || !(userStoreManager instanceof AbstractUserStoreManager)) {
+            return Collections.emptyList();
+        }
+        List<String> userIds = new ArrayList<>();
+        for (String userName : userNames) {
+            String userId = ((AbstractUserStoreManager) userStoreManager).getUserIDFromUserName(userName);
+            if (userId != null) {
+                userIds.add(userId);
+            }
+        }
+        return userIds;
+    }
+
+    private boolean isHybridRole(String roleName) {
+
+        String domainName = UserCoreUtil.extractDomainFromName(roleName);
+        return UserCoreConstants.INTERNAL_DOMAIN.equalsIgnoreCase(domainName) ||
+                UserCoreConstants.APPLICATION_DOMAIN.equalsIgnoreCase(domainName);
+    }
+
+    private String getTenantDomain(UserStoreManager userStoreManager) throws UserStoreException {
+
+        return IdentityTenantUtil.getTenantDomain(userStoreManager.getTenantId());
+    }
+}
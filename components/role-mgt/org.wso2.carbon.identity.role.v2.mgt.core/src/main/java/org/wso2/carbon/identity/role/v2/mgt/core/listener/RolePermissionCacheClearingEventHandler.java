@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.v2.mgt.core.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.base.IdentityRuntimeException;
+import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.IdentityEventMessageContext;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.role.v2.mgt.core.dao.CacheBackedRoleDAO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Event handler which clears the cached permissions of roles when the scopes of an API resource are updated or
+ * deleted through the API resource management. The handler does not depend on any subscription in the
+ * identity-event.properties, since the cached permissions must not outlive the scopes behind them.
+ */
+public class RolePermissionCacheClearingEventHandler extends AbstractEventHandler {
+
+    private static final Log LOG = LogFactory.getLog(RolePermissionCacheClearingEventHandler.class);
+    private static final String HANDLER_NAME = "rolePermissionCacheClearingEventHandler";
+    private static final Set<String> SCOPE_CHANGE_EVENTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            IdentityEventConstants.Event.POST_DELETE_API_RESOURCE,
+            IdentityEventConstants.Event.POST_UPDATE_API_RESOURCE,
+            IdentityEventConstants.Event.POST_DELETE_API_RESOURCE_SCOPES,
+            IdentityEventConstants.Event.POST_DELETE_SCOPE,
+            IdentityEventConstants.Event.POST_PUT_API_RESOURCE_SCOPES)));
+
+    @Override
+    public String getName() {
+
+        return HANDLER_NAME;
+    }
+
+    @Override
+    public boolean canHandle(MessageContext messageContext) throws IdentityRuntimeException {
+
+        Event event = ((IdentityEventMessageContext) messageContext).getEvent();
+        return SCOPE_CHANGE_EVENTS.contains(event.getEventName());
+    }
+
+    @Override
+    public void handleEvent(Event event) throws IdentityEventException {
+
+        String tenantDomain = (String) event.getEventProperties()
+                .get(IdentityEventConstants.EventProperty.TENANT_DOMAIN);
+        if (tenantDomain == null) {
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Clearing the cached permissions of roles in tenant: " + tenantDomain + " for the event: " +
+                    event.getEventName());
+        }
+        CacheBackedRoleDAO.clearPermissionCaches(tenantDomain);
+    }
+}
@@ -23,6 +23,7 @@ package org.wso2.carbon.identity.role.v2.mgt.core.model;
  */
 public class RoleBasicInfo extends Entity {
 
+    private static final long serialVersionUID = 2153921690350466472L;
     private String audience;
     private String audienceId;
     private String audienceName;
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.v2.mgt.core.dao;
+
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.organization.management.service.util.OrganizationManagementUtil;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.PermissionListOfRoleCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleIdListOfGroupCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleIdListOfUserCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleListOfUserCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleMgtCacheKey;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.StringListCacheEntry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+@Listeners(MockitoTestNGListener.class)
+public class CacheBackedRoleDAOTest {
+
+    private static final String TENANT_DOMAIN = "wso2.com";
+
+    @Mock
+    private RoleDAO roleDAO;
+    @Mock
+    private RoleListOfUserCache roleListOfUserCache;
+    @Mock
+    private RoleIdListOfUserCache roleIdListOfUserCache;
+    @Mock
+    private RoleIdListOfGroupCache roleIdListOfGroupCache;
+    @Mock
+    private PermissionListOfRoleCache permissionListOfRoleCache;
+
+    private MockedStatic<RoleListOfUserCache> roleListOfUserCacheStatic;
+    private MockedStatic<RoleIdListOfUserCache> roleIdListOfUserCacheStatic;
+    private MockedStatic<RoleIdListOfGroupCache> roleIdListOfGroupCacheStatic;
+    private MockedStatic<PermissionListOfRoleCache> permissionListOfRoleCacheStatic;
+    private MockedStatic<OrganizationManagementUtil> organizationManagementUtil;
+    private CacheBackedRoleDAO cacheBackedRoleDAO;
+
+    @BeforeMethod
+    public void setUp() {
+
+        roleListOfUserCacheStatic = mockStatic(RoleListOfUserCache.class);
+        roleIdListOfUserCacheStatic = mockStatic(RoleIdListOfUserCache.class);
+        roleIdListOfGroupCacheStatic = mockStatic(RoleIdListOfGroupCache.class);
+        roleListOfUserCacheStatic.when(RoleListOfUserCache::getInstance).thenReturn(roleListOfUserCache);
+        roleIdListOfUserCacheStatic.when(RoleIdListOfUserCache::getInstance).thenReturn(roleIdListOfUserCache);
+        roleIdListOfGroupCacheStatic.when(RoleIdListOfGroupCache::getInstance).thenReturn(roleIdListOfGroupCache);
+        permissionListOfRoleCacheStatic = mockStatic(PermissionListOfRoleCache.class);
+        permissionListOfRoleCacheStatic.when(PermissionListOfRoleCache::getInstance)
+                .thenReturn(permissionListOfRoleCache);
+        organizationManagementUtil = mockStatic(OrganizationManagementUtil.class);
+        cacheBackedRoleDAO = new CacheBackedRoleDAO(roleDAO);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        roleListOfUserCacheStatic.close();
+        roleIdListOfUserCacheStatic.close();
+        roleIdListOfGroupCacheStatic.close();
+        permissionListOfRoleCacheStatic.close();
+        organizationManagementUtil.close();
+    }
+
+    @Test
+    public void testGetPermissionListOfRolesCachesPerRole() throws Exception {
+
+        organizationManagementUtil.when(() -> OrganizationManagementUtil.isOrganization(TENANT_DOMAIN))
+                .thenReturn(false);
+        when(permissionListOfRoleCache.getValueFromCache(new RoleMgtCacheKey("roleId1"), TENANT_DOMAIN))
+                .thenReturn(new StringListCacheEntry(Collections.singletonList("read")));
+        when(roleDAO.getPermissionListOfRoles(Collections.singletonList("roleId2"), TENANT_DOMAIN))
+                .thenReturn(Collections.singletonList("write"));
+
+        assertEquals(cacheBackedRoleDAO.getPermissionListOfRoles(Arrays.asList("roleId1", "roleId2"),
+                TENANT_DOMAIN), Arrays.asList("read", "write"));
+        verify(roleDAO, never()).getPermissionListOfRoles(Collections.singletonList("roleId1"), TENANT_DOMAIN);
+        verify(permissionListOfRoleCache).addToCache(eq(new RoleMgtCacheKey("roleId2")),
+                any(StringListCacheEntry.class), eq(TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testPermissionListOfRolesIsNotCachedForOrganizations() throws Exception {
+
+        List<String> roleIds = Collections.singletonList("roleId1");
+        organizationManagementUtil.when(() -> OrganizationManagementUtil.isOrganization(TENANT_DOMAIN))
+                .thenReturn(true);
+        when(roleDAO.getPermissionListOfRoles(roleIds, TENANT_DOMAIN)).thenReturn(Collections.singletonList("read"));
+
+        assertEquals(cacheBackedRoleDAO.getPermissionListOfRoles(roleIds, TENANT_DOMAIN),
+                Collections.singletonList("read"));
+        assertEquals(cacheBackedRoleDAO.getPermissionListOfRoles(roleIds, TENANT_DOMAIN),
+                Collections.singletonList("read"));
+        verify(roleDAO, times(2)).getPermissionListOfRoles(roleIds, TENANT_DOMAIN);
+        verify(permissionListOfRoleCache, never()).addToCache(any(), any(), anyString());
+    }
+
+    @Test
+    public void testUpdatePermissionListOfRoleClearsRolePermissions() throws Exception {
+
+        cacheBackedRoleDAO.updatePermissionListOfRole("roleId1", Collections.emptyList(), Collections.emptyList(),
+                TENANT_DOMAIN);
+
+        verify(permissionListOfRoleCache).clearCacheEntry(new RoleMgtCacheKey("roleId1"), TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testGetRoleIdListOfUserFromCache() throws Exception {
+
+        when(roleIdListOfUserCache.getValueFromCache(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN))
+                .thenReturn(new StringListCacheEntry(Collections.singletonList("roleId1")));
+
+        assertEquals(cacheBackedRoleDAO.getRoleIdListOfUser("userId1", TENANT_DOMAIN),
+                Collections.singletonList("roleId1"));
+        verify(roleDAO, never()).getRoleIdListOfUser(anyString(), anyString());
+    }
+
+    @Test
+    public void testGetRoleIdListOfGroupsCachesPerGroup() throws Exception {
+
+        when(roleIdListOfGroupCache.getValueFromCache(new RoleMgtCacheKey("groupId1"), TENANT_DOMAIN))
+                .thenReturn(new StringListCacheEntry(Collections.singletonList("roleId1")));
+        when(roleDAO.getRoleIdListOfGroups(Collections.singletonList("groupId2"), TENANT_DOMAIN))
+                .thenReturn(Arrays.asList("roleId1", "roleId2"));
+
+        assertEquals(cacheBackedRoleDAO.getRoleIdListOfGroups(Arrays.asList("groupId1", "groupId2"),
+                TENANT_DOMAIN), Arrays.asList("roleId1", "roleId2"));
+        verify(roleIdListOfGroupCache).addToCache(eq(new RoleMgtCacheKey("groupId2")),
+                any(StringListCacheEntry.class), eq(TENANT_DOMAIN));
+    }
+
+    @Test
+    public void testUpdateUserListOfRoleClearsOnlyAffectedUsers() throws Exception {
+
+        cacheBackedRoleDAO.updateUserListOfRole("roleId1", Collections.singletonList("userId1"),
+                Collections.singletonList("userId2"), TENANT_DOMAIN);
+
+        verify(roleDAO).updateUserListOfRole("roleId1", Collections.singletonList("userId1"),
+                Collections.singletonList("userId2"), TENANT_DOMAIN);
+        for (String userId : Arrays.asList("userId1", "userId2")) {
+            verify(roleListOfUserCache).clearCacheEntry(new RoleMgtCacheKey(userId), TENANT_DOMAIN);
+            verify(roleIdListOfUserCache).clearCacheEntry(new RoleMgtCacheKey(userId), TENANT_DOMAIN);
+        }
+        verify(roleListOfUserCache, never()).clear(anyString());
+        verify(roleIdListOfUserCache, never()).clear(anyString());
+    }
+
+    @Test
+    public void testUpdateGroupListOfRoleClearsOnlyAffectedGroups() throws Exception {
+
+        cacheBackedRoleDAO.updateGroupListOfRole("roleId1", Collections.singletonList("groupId1"),
+                Collections.emptyList(), TENANT_DOMAIN);
+
+        verify(roleIdListOfGroupCache).clearCacheEntry(new RoleMgtCacheKey("groupId1"), TENANT_DOMAIN);
+        verify(roleIdListOfGroupCache, never()).clear(anyString());
+    }
+}
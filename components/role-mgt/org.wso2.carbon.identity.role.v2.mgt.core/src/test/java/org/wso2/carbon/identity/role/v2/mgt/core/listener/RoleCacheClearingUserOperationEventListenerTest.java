@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.v2.mgt.core.listener;
+
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleIdListOfGroupCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleIdListOfUserCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleListOfUserCache;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.RoleMgtCacheKey;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+
+@Listeners(MockitoTestNGListener.class)
+public class RoleCacheClearingUserOperationEventListenerTest {
+
+    private static final int TENANT_ID = 1;
+    private static final String TENANT_DOMAIN = "wso2.com";
+
+    @Mock
+    private AbstractUserStoreManager userStoreManager;
+    @Mock
+    private RoleListOfUserCache roleListOfUserCache;
+    @Mock
+    private RoleIdListOfUserCache roleIdListOfUserCache;
+    @Mock
+    private RoleIdListOfGroupCache roleIdListOfGroupCache;
+
+    private MockedStatic<IdentityUtil> identityUtil;
+    private MockedStatic<IdentityTenantUtil> identityTenantUtil;
+    private MockedStatic<RoleListOfUserCache> roleListOfUserCacheStatic;
+    private MockedStatic<RoleIdListOfUserCache> roleIdListOfUserCacheStatic;
+    private MockedStatic<RoleIdListOfGroupCache> roleIdListOfGroupCacheStatic;
+    private RoleCacheClearingUserOperationEventListener listener;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        identityUtil = mockStatic(IdentityUtil.class);
+        identityTenantUtil = mockStatic(IdentityTenantUtil.class);
+        identityTenantUtil.when(() -> IdentityTenantUtil.getTenantDomain(TENANT_ID)).thenReturn(TENANT_DOMAIN);
+        roleListOfUserCacheStatic = mockStatic(RoleListOfUserCache.class);
+        roleIdListOfUserCacheStatic = mockStatic(RoleIdListOfUserCache.class);
+        roleIdListOfGroupCacheStatic = mockStatic(RoleIdListOfGroupCache.class);
+        roleListOfUserCacheStatic.when(RoleListOfUserCache::getInstance).thenReturn(roleListOfUserCache);
+        roleIdListOfUserCacheStatic.when(RoleIdListOfUserCache::getInstance).thenReturn(roleIdListOfUserCache);
+        roleIdListOfGroupCacheStatic.when(RoleIdListOfGroupCache::getInstance).thenReturn(roleIdListOfGroupCache);
+
+        when(userStoreManager.getTenantId()).thenReturn(TENANT_ID);
+        listener = new RoleCacheClearingUserOperationEventListener();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        identityUtil.close();
+        identityTenantUtil.close();
+        roleListOfUserCacheStatic.close();
+        roleIdListOfUserCacheStatic.close();
+        roleIdListOfGroupCacheStatic.close();
+    }
+
+    @Test
+    public void testUpdateUserListOfRoleClearsOnlyAffectedUsers() throws Exception {
+
+        when(userStoreManager.getUserIDFromUserName("user1")).thenReturn("userId1");
+        when(userStoreManager.getUserIDFromUserName("user2")).thenReturn("userId2");
+
+        listener.doPostUpdateUserListOfRole("Internal/role1", new String[]{"user1"}, new String[]{"user2"},
+                userStoreManager);
+
+        verify(roleListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN);
+        verify(roleIdListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN);
+        verify(roleListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId2"), TENANT_DOMAIN);
+        verify(roleIdListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId2"), TENANT_DOMAIN);
+        verifyTenantCachesNotCleared();
+    }
+
+    @Test
+    public void testUpdateRoleListOfUserClearsOnlyThatUser() throws Exception {
+
+        when(userStoreManager.getUserIDFromUserName("user1")).thenReturn("userId1");
+
+        listener.doPostUpdateRoleListOfUser("user1", new String[0], new String[]{"Internal/role1"},
+                userStoreManager);
+
+        verify(roleListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN);
+        verify(roleIdListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN);
+        verifyTenantCachesNotCleared();
+    }
+
+    @Test
+    public void testDeleteHybridRoleClearsMembersOfRole() throws Exception {
+
+        when(userStoreManager.getUserListOfRole("Internal/role1")).thenReturn(new String[]{"user1"});
+        when(userStoreManager.getUserIDFromUserName("user1")).thenReturn("userId1");
+
+        listener.doPreDeleteRole("Internal/role1", userStoreManager);
+        verify(roleListOfUserCache, never()).clearCacheEntry(any(RoleMgtCacheKey.class), anyString());
+        listener.doPostDeleteRole("Internal/role1", userStoreManager);
+
+        verify(roleListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN);
+        verify(roleIdListOfUserCache).clearCacheEntry(new RoleMgtCacheKey("userId1"), TENANT_DOMAIN);
+        verify(userStoreManager, never()).getGroupIdByGroupName(anyString());
+        verifyTenantCachesNotCleared();
+        assertFalse(IdentityUtil.threadLocalProperties.get().containsKey("RoleCacheAffectedUserIds"));
+    }
+
+    @Test
+    public void testDeleteGroupClearsOnlyThatGroup() throws Exception {
+
+        when(userStoreManager.getGroupIdByGroupName("group1")).thenReturn("groupId1");
+
+        listener.doPreDeleteRole("group1", userStoreManager);
+        listener.doPostDeleteRole("group1", userStoreManager);
+
+        verify(roleIdListOfGroupCache).clearCacheEntry(new RoleMgtCacheKey("groupId1"), TENANT_DOMAIN);
+        verify(roleListOfUserCache, never()).clearCacheEntry(any(RoleMgtCacheKey.class), anyString());
+        verifyTenantCachesNotCleared();
+    }
+
+    private void verifyTenantCachesNotCleared() {
+
+        verify(roleListOfUserCache, never()).clear(anyString());
+        verify(roleIdListOfUserCache, never()).clear(anyString());
+        verify(roleIdListOfGroupCache, never()).clear(anyString());
+        verify(roleListOfUserCache, never()).clear(anyInt());
+    }
+}
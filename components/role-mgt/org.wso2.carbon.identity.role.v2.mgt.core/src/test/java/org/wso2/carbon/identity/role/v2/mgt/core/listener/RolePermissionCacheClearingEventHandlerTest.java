@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.role.v2.mgt.core.listener;
+
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.bean.IdentityEventMessageContext;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.role.v2.mgt.core.cache.PermissionListOfRoleCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Listeners(MockitoTestNGListener.class)
+public class RolePermissionCacheClearingEventHandlerTest {
+
+    private static final String TENANT_DOMAIN = "wso2.com";
+
+    @Mock
+    private PermissionListOfRoleCache permissionListOfRoleCache;
+
+    private MockedStatic<PermissionListOfRoleCache> permissionListOfRoleCacheStatic;
+    private RolePermissionCacheClearingEventHandler eventHandler;
+
+    @BeforeMethod
+    public void setUp() {
+
+        permissionListOfRoleCacheStatic = mockStatic(PermissionListOfRoleCache.class);
+        permissionListOfRoleCacheStatic.when(PermissionListOfRoleCache::getInstance)
+                .thenReturn(permissionListOfRoleCache);
+        eventHandler = new RolePermissionCacheClearingEventHandler();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        permissionListOfRoleCacheStatic.close();
+    }
+
+    @DataProvider
+    public Object[][] scopeChangeEvents() {
+
+        return new Object[][]{
+                {IdentityEventConstants.Event.POST_DELETE_API_RESOURCE},
+                {IdentityEventConstants.Event.POST_UPDATE_API_RESOURCE},
+                {IdentityEventConstants.Event.POST_DELETE_API_RESOURCE_SCOPES},
+                {IdentityEventConstants.Event.POST_DELETE_SCOPE},
+                {IdentityEventConstants.Event.POST_PUT_API_RESOURCE_SCOPES}
+        };
+    }
+
+    @Test(dataProvider = "scopeChangeEvents")
+    public void testScopeChangeClearsPermissionsOfTenant(String eventName) throws Exception {
+
+        Event event = createEvent(eventName);
+
+        assertTrue(eventHandler.canHandle(new IdentityEventMessageContext(event)));
+        eventHandler.handleEvent(event);
+        verify(permissionListOfRoleCache).clear(TENANT_DOMAIN);
+    }
+
+    @Test
+    public void testOtherEventsAreNotHandled() {
+
+        Event event = createEvent(IdentityEventConstants.Event.POST_ADD_API_RESOURCE);
+
+        assertFalse(eventHandler.canHandle(new IdentityEventMessageContext(event)));
+        verify(permissionListOfRoleCache, never()).clear(anyString());
+    }
+
+    private static Event createEvent(String eventName) {
+
+        Map<String, Object> eventProperties = new HashMap<>();
+        eventProperties.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN, TENANT_DOMAIN);
+        return new Event(eventName, eventProperties);
+    }
+}
@@ -1370,6 +1370,42 @@ CREATE TABLE IF NOT EXISTS IDN_ACTION_ENDPOINT (
 	FOREIGN KEY (ACTION_UUID) REFERENCES IDN_ACTION(UUID) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS IDN_XACML_POLICY (
+	POLICY_ID VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	VERSION INTEGER NOT NULL,
+	IS_ACTIVE CHAR(1) DEFAULT '0',
+	POLICY_ORDER INTEGER DEFAULT 0,
+	POLICY BLOB NOT NULL,
+	PRIMARY KEY (POLICY_ID, TENANT_ID)
+);
+
+CREATE TABLE IF NOT EXISTS IDN_XACML_POLICY_ATTRIBUTE (
+	POLICY_ID VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	CATEGORY VARCHAR(255) NOT NULL,
+	ATTRIBUTE_ID VARCHAR(255),
+	ATTRIBUTE_VALUE VARCHAR(4000),
+	ATTRIBUTE_VALUE_HASH VARCHAR(64),
+	DATA_TYPE VARCHAR(255),
+	FOREIGN KEY (POLICY_ID, TENANT_ID) REFERENCES IDN_XACML_POLICY(POLICY_ID, TENANT_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS IDN_XACML_POLICY_DATA (
+	POLICY_ID VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	IS_ACTIVE CHAR(1) DEFAULT '0',
+	POLICY_ORDER INTEGER DEFAULT 0,
+	PRIMARY KEY (POLICY_ID, TENANT_ID)
+);
+
+CREATE TABLE IF NOT EXISTS IDN_XACML_CONFIG (
+	CONFIG_KEY VARCHAR(255) NOT NULL,
+	CONFIG_VALUE VARCHAR(255) NOT NULL,
+	TENANT_ID INTEGER NOT NULL,
+	PRIMARY KEY (CONFIG_KEY, TENANT_ID)
+);
+
 -- --------------------------- INDEX CREATION -----------------------------
 -- IDN_OAUTH2_ACCESS_TOKEN --
 CREATE INDEX IDX_TC ON IDN_OAUTH2_ACCESS_TOKEN(TIME_CREATED);
@@ -1477,4 +1513,9 @@ CREATE INDEX API_ID_NAME_INDEX ON SCOPE (API_ID, NAME);
 
 -- ACTIONS --
 CREATE INDEX IDX_IDN_ACTION_TY_TI ON IDN_ACTION (TYPE, TENANT_ID);
-CREATE INDEX IDX_IDN_ACTION_ENDPOINT_AU_TI ON IDN_ACTION_ENDPOINT (ACTION_UUID, TENANT_ID);
\ No newline at end of file
+CREATE INDEX IDX_IDN_ACTION_ENDPOINT_AU_TI ON IDN_ACTION_ENDPOINT (ACTION_UUID, TENANT_ID);
+
+-- XACML POLICIES --
+CREATE INDEX IDX_IDN_XACML_POLICY_TI_IA ON IDN_XACML_POLICY (TENANT_ID, IS_ACTIVE);
+CREATE INDEX IDX_IDN_XACML_POLICY_ATTR_TI_AH ON IDN_XACML_POLICY_ATTRIBUTE (TENANT_ID, ATTRIBUTE_VALUE_HASH);
+CREATE INDEX IDX_IDN_XACML_POLICY_ATTR_PI_TI ON IDN_XACML_POLICY_ATTRIBUTE (POLICY_ID, TENANT_ID);
\ No newline at end of file
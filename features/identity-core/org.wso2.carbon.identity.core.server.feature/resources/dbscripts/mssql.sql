@@ -1519,6 +1519,46 @@ CREATE TABLE IDN_ACTION_ENDPOINT (
     FOREIGN KEY (ACTION_UUID) REFERENCES [dbo].[IDN_ACTION](UUID) ON DELETE CASCADE
 );
 
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_XACML_POLICY]') AND TYPE in (N'U'))
+CREATE TABLE IDN_XACML_POLICY (
+    POLICY_ID VARCHAR(255) NOT NULL,
+    TENANT_ID INTEGER NOT NULL,
+    VERSION INTEGER NOT NULL,
+    IS_ACTIVE CHAR(1) DEFAULT '0',
+    POLICY_ORDER INTEGER DEFAULT 0,
+    POLICY VARBINARY(MAX) NOT NULL,
+    PRIMARY KEY (POLICY_ID, TENANT_ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_XACML_POLICY_ATTRIBUTE]') AND TYPE in (N'U'))
+CREATE TABLE IDN_XACML_POLICY_ATTRIBUTE (
+    POLICY_ID VARCHAR(255) NOT NULL,
+    TENANT_ID INTEGER NOT NULL,
+    CATEGORY VARCHAR(255) NOT NULL,
+    ATTRIBUTE_ID VARCHAR(255),
+    ATTRIBUTE_VALUE VARCHAR(4000),
+    ATTRIBUTE_VALUE_HASH VARCHAR(64),
+    DATA_TYPE VARCHAR(255),
+    FOREIGN KEY (POLICY_ID, TENANT_ID) REFERENCES [dbo].IDN_XACML_POLICY(POLICY_ID, TENANT_ID) ON DELETE CASCADE
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_XACML_POLICY_DATA]') AND TYPE in (N'U'))
+CREATE TABLE IDN_XACML_POLICY_DATA (
+    POLICY_ID VARCHAR(255) NOT NULL,
+    TENANT_ID INTEGER NOT NULL,
+    IS_ACTIVE CHAR(1) DEFAULT '0',
+    POLICY_ORDER INTEGER DEFAULT 0,
+    PRIMARY KEY (POLICY_ID, TENANT_ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[IDN_XACML_CONFIG]') AND TYPE in (N'U'))
+CREATE TABLE IDN_XACML_CONFIG (
+    CONFIG_KEY VARCHAR(255) NOT NULL,
+    CONFIG_VALUE VARCHAR(255) NOT NULL,
+    TENANT_ID INTEGER NOT NULL,
+    PRIMARY KEY (CONFIG_KEY, TENANT_ID)
+);
+
 -- --------------------------- INDEX CREATION -----------------------------
 -- IDN_OAUTH2_ACCESS_TOKEN --
 CREATE INDEX IDX_TC ON IDN_OAUTH2_ACCESS_TOKEN(TIME_CREATED);
@@ -1629,6 +1669,11 @@ CREATE INDEX API_ID_NAME_INDEX ON SCOPE (API_ID, NAME);
 CREATE INDEX IDX_IDN_ACTION_TY_TI ON IDN_ACTION (TYPE, TENANT_ID);
 CREATE INDEX IDX_IDN_ACTION_ENDPOINT_AU_TI ON IDN_ACTION_ENDPOINT (ACTION_UUID, TENANT_ID);
 
+-- XACML POLICIES --
+CREATE INDEX IDX_IDN_XACML_POLICY_TI_IA ON IDN_XACML_POLICY (TENANT_ID, IS_ACTIVE);
+CREATE INDEX IDX_IDN_XACML_POLICY_ATTR_TI_AH ON IDN_XACML_POLICY_ATTRIBUTE (TENANT_ID, ATTRIBUTE_VALUE_HASH);
+CREATE INDEX IDX_IDN_XACML_POLICY_ATTR_PI_TI ON IDN_XACML_POLICY_ATTRIBUTE (POLICY_ID, TENANT_ID);
+
 GO
 
 -- Trigger IDN_CLAIM delete by dialect on IDN_CLAIM_DIALECT deletion --